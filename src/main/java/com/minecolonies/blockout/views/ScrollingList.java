@@ -11,6 +11,9 @@ import java.util.List;
  * and are ordered sequentially.
  * <p>
  * All children are set to a Top version of their alignment, and have their Y coordinates overwritten.
+ * <p>
+ * With the attribute virtual="true" only the rows in view get a pane, which are reused while scrolling. Data providers
+ * of such lists must set every part of a row they change, as a pane shows different elements over time.
  */
 public class ScrollingList extends ScrollingView
 {
@@ -34,6 +37,17 @@ public class ScrollingList extends ScrollingView
     public ScrollingList(final PaneParams params)
     {
         super(params);
+        setVirtual(params.getBooleanAttribute("virtual", false));
+    }
+
+    /**
+     * Turn virtual mode on or off, takes effect on the next refresh.
+     *
+     * @param virtual true to only create panes for the rows in view.
+     */
+    public void setVirtual(final boolean virtual)
+    {
+        ((ScrollingListContainer) container).setVirtual(virtual);
     }
 
     public void setDataProvider(final DataProvider p)
@@ -6,11 +6,27 @@ import com.minecolonies.blockout.PaneParams;
 
 /**
  * A Blockout pane that contains a scrolling line of other panes.
+ * <p>
+ * In virtual mode only the rows in view plus {@link #BUFFER_ROWS} on each side have a pane. The panes form a ring:
+ * element i is shown by child i modulo the number of panes, so when scrolling moves the window only the elements
+ * entering it are updated, on the panes of the elements which left it.
  */
 public class ScrollingListContainer extends ScrollingContainer
 {
+    /**
+     * Rows kept above and below the visible ones in virtual mode.
+     */
+    private static final int BUFFER_ROWS = 2;
+
     private int listElementHeight = 0;
 
+    //  Virtual mode
+    private boolean                    virtual;
+    private ScrollingList.DataProvider dataProvider;
+    private int                        elementCount;
+    private int                        firstBound;
+    private int                        boundCount;
+
     ScrollingListContainer(final ScrollingList owner)
     {
         super(owner);
@@ -24,6 +40,12 @@ public class ScrollingListContainer extends ScrollingContainer
      */
     public void refreshElementPanes(final ScrollingList.DataProvider dataProvider, final PaneParams listNodeParams)
     {
+        if (virtual)
+        {
+            refreshVirtualPanes(dataProvider, listNodeParams);
+            return;
+        }
+
         if (dataProvider != null)
         {
             for (int i = 0; i < dataProvider.getElementCount(); ++i)
@@ -61,6 +83,125 @@ public class ScrollingListContainer extends ScrollingContainer
         computeContentHeight();
     }
 
+    /**
+     * Turn virtual mode on or off, takes effect on the next refresh.
+     *
+     * @param virtual true to only create panes for the rows in view.
+     */
+    public void setVirtual(final boolean virtual)
+    {
+        this.virtual = virtual;
+    }
+
+    /**
+     * Refresh in virtual mode: size the ring of panes to the view and update the rows in it.
+     */
+    private void refreshVirtualPanes(final ScrollingList.DataProvider provider, final PaneParams listNodeParams)
+    {
+        dataProvider = provider;
+        elementCount = (provider != null) ? provider.getElementCount() : 0;
+
+        if (elementCount > 0 && children.isEmpty())
+        {
+            final Pane first = Loader.createFromPaneParams(listNodeParams, this);
+            if (first == null)
+            {
+                elementCount = 0;
+            }
+            else
+            {
+                listElementHeight = first.getHeight();
+            }
+        }
+
+        final int panes = listElementHeight == 0 ? 0 : Math.min(elementCount, getHeight() / listElementHeight + 2 + 2 * BUFFER_ROWS);
+        while (children.size() < panes)
+        {
+            //  Created panes add themselves to this container.
+            if (Loader.createFromPaneParams(listNodeParams, this) == null)
+            {
+                break;
+            }
+        }
+        while (children.size() > panes)
+        {
+            removeChild(children.get(children.size() - 1));
+        }
+
+        //  Clamp the scroll without binding, all panes are bound below.
+        boundCount = 0;
+        computeContentHeight();
+        boundCount = children.size();
+        firstBound = getFirstInWindow();
+        for (int i = firstBound; i < firstBound + boundCount; ++i)
+        {
+            bind(i);
+        }
+    }
+
+    /**
+     * Get the first element which should have a pane for the current scroll position.
+     */
+    private int getFirstInWindow()
+    {
+        if (listElementHeight == 0)
+        {
+            return 0;
+        }
+        final int first = scrollY / listElementHeight - BUFFER_ROWS;
+        return Math.max(0, Math.min(first, elementCount - boundCount));
+    }
+
+    /**
+     * Show an element on its pane of the ring.
+     */
+    private void bind(final int index)
+    {
+        final Pane child = children.get(index % boundCount);
+        child.setPosition(0, index * listElementHeight);
+        dataProvider.updateElement(index, child);
+    }
+
+    @Override
+    public void computeContentHeight()
+    {
+        if (!virtual)
+        {
+            super.computeContentHeight();
+            return;
+        }
+
+        contentHeight = elementCount * listElementHeight;
+        setScrollY(scrollY);
+    }
+
+    @Override
+    public void setScrollY(final int offset)
+    {
+        super.setScrollY(offset);
+        if (!virtual || boundCount == 0 || dataProvider == null)
+        {
+            return;
+        }
+
+        final int first = getFirstInWindow();
+        if (first == firstBound)
+        {
+            return;
+        }
+
+        //  Only the elements entering the window need their pane updated.
+        final int oldFirst = firstBound;
+        firstBound = first;
+        for (int i = first; i < first + boundCount; ++i)
+        {
+            if (i < oldFirst || i >= oldFirst + boundCount)
+            {
+                bind(i);
+            }
+        }
+    }
+
     /**
      * Returns the element list index for the given pane.
      *
@@ -80,7 +221,14 @@ public class ScrollingListContainer extends ScrollingContainer
             return -1;
         }
 
-        return getChildren().indexOf(parentPane);
+        final int childIndex = getChildren().indexOf(parentPane);
+        if (!virtual || childIndex < 0)
+        {
+            return childIndex;
+        }
+
+        //  The element in the window which is shown on this pane of the ring.
+        return firstBound + Math.floorMod(childIndex - firstBound, boundCount);
     }
 
     /**
@@ -99,7 +247,15 @@ public class ScrollingListContainer extends ScrollingContainer
         }
 
         final int listElement = my / listElementHeight;
-        if (listElement < children.size())
+        if (virtual && listElement >= firstBound && listElement < firstBound + boundCount)
+        {
+            final Pane child = children.get(listElement % boundCount);
+            if (child.canHandleClick(mx, my))
+            {
+                return child;
+            }
+        }
+        else if (!virtual && listElement < children.size())
         {
             final Pane child = children.get(listElement);
             if (child.canHandleClick(mx, my))
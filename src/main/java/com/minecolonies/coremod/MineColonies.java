@@ -150,6 +150,7 @@ public class MineColonies
         getNetwork().registerMessage(TransferItemsRequestMessage.class, TransferItemsRequestMessage.class, 35, Side.SERVER);
         getNetwork().registerMessage(MarkBuildingDirtyMessage.class, MarkBuildingDirtyMessage.class, 36, Side.SERVER);
         getNetwork().registerMessage(ChangeFreeToInteractBlockMessage.class, ChangeFreeToInteractBlockMessage.class, 37, Side.SERVER);
+        getNetwork().registerMessage(CitizenViewResyncMessage.class, CitizenViewResyncMessage.class, 38, Side.SERVER);
 
 
         //Client side only
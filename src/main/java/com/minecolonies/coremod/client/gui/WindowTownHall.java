@@ -890,6 +890,9 @@ public class WindowTownHall extends AbstractWindowBuilding<BuildingTownHall.View
                 final WorkOrderView workOrder = workOrders.get(index);
                 String claimingCitizen = "";
 
+                //Rows are reused while scrolling, so show both buttons before hiding them at the ends.
+                rowPane.findPaneOfTypeByID(BUTTON_UP, Button.class).show();
+                rowPane.findPaneOfTypeByID(BUTTON_DOWN, Button.class).show();
                 if (index == 0)
                 {
                     if (getElementCount() == 1)
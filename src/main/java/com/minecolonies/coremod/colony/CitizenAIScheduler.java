@@ -0,0 +1,193 @@
+package com.minecolonies.coremod.colony;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads the worker ai of a colony over the ticks to stay within a time budget per tick.
+ * <p>
+ * Each citizen gets a tick slot from its id. As long as the colony stays within its budget there is one slot and every
+ * ai runs each tick. When a tick uses up the budget the number of slots doubles, so each ai only runs every second,
+ * fourth... tick. It halves again once the ticks of a whole round over all slots had time to spare. Within a tick,
+ * ais asking after the budget is used up are skipped as well. Waiting ais don't ask the scheduler at all, their
+ * delays keep counting down every tick. The time spent is recorded per job, to see which jobs use the budget.
+ */
+public final class CitizenAIScheduler
+{
+    /**
+     * Maximum number of tick slots, every ai still runs at least this often.
+     */
+    public static final int MAX_SLOTS = 16;
+
+    /**
+     * The slots are halved when a round used less than this share of the budget per tick.
+     */
+    private static final int RELAX_DIVISOR = 3;
+
+    @NotNull
+    private final LongSupplier          budget;
+    @NotNull
+    private final Map<String, JobTimes> jobTimes = new TreeMap<>();
+    private       long                  tick     = -1;
+    private       long                  spent;
+    private       long                  roundSpent;
+    private       int                   roundTicks;
+    private       int                   slots    = 1;
+    private       long                  skipped;
+
+    /**
+     * Create a scheduler.
+     *
+     * @param budget the time the colony may spend per tick in nanoseconds, 0 or less for no limit.
+     */
+    public CitizenAIScheduler(@NotNull final LongSupplier budget)
+    {
+        this.budget = budget;
+    }
+
+    /**
+     * Check if the ai of a citizen may run this tick.
+     *
+     * @param citizenId the id of the citizen.
+     * @param worldTick the current world tick.
+     * @return true if it may run, false to skip it this tick.
+     */
+    public boolean shouldRun(final int citizenId, final long worldTick)
+    {
+        if (worldTick != tick)
+        {
+            startTick(worldTick);
+        }
+
+        final long limit = budget.getAsLong();
+        if ((limit > 0 && spent >= limit) || Math.floorMod(worldTick + citizenId, slots) != 0)
+        {
+            skipped++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record the time an ai took.
+     *
+     * @param job   the name of the job of the citizen.
+     * @param nanos the time in nanoseconds.
+     */
+    public void record(@NotNull final String job, final long nanos)
+    {
+        spent += nanos;
+        jobTimes.computeIfAbsent(job, name -> new JobTimes()).add(nanos);
+    }
+
+    /**
+     * Adapt the slots to the time the last tick took.
+     */
+    private void startTick(final long worldTick)
+    {
+        final long limit = budget.getAsLong();
+        if (limit <= 0 || spent >= limit)
+        {
+            slots = limit <= 0 ? 1 : Math.min(MAX_SLOTS, slots * 2);
+            roundSpent = 0;
+            roundTicks = 0;
+        }
+        else
+        {
+            roundSpent += spent;
+            roundTicks++;
+            if (roundTicks >= slots)
+            {
+                if (slots > 1 && roundSpent / roundTicks < limit / RELAX_DIVISOR)
+                {
+                    slots /= 2;
+                }
+                roundSpent = 0;
+                roundTicks = 0;
+            }
+        }
+
+        tick = worldTick;
+        spent = 0;
+    }
+
+    /**
+     * Get the number of tick slots, 1 if every ai runs every tick.
+     *
+     * @return the number of slots.
+     */
+    public int getSlots()
+    {
+        return slots;
+    }
+
+    /**
+     * Get how often an ai was skipped, in total.
+     *
+     * @return the number of skipped ai updates.
+     */
+    public long getSkipped()
+    {
+        return skipped;
+    }
+
+    /**
+     * Get the time recorded per job.
+     *
+     * @return the times by job name, sorted by name.
+     */
+    @NotNull
+    public Map<String, JobTimes> getJobTimes()
+    {
+        return Collections.unmodifiableMap(jobTimes);
+    }
+
+    /**
+     * The time recorded for one job.
+     */
+    public static final class JobTimes
+    {
+        private long nanos;
+        private long runs;
+
+        private void add(final long time)
+        {
+            nanos += time;
+            runs++;
+        }
+
+        /**
+         * Get the total time.
+         *
+         * @return the time in nanoseconds.
+         */
+        public long getNanos()
+        {
+            return nanos;
+        }
+
+        /**
+         * Get the number of ai updates.
+         *
+         * @return the number of runs.
+         */
+        public long getRuns()
+        {
+            return runs;
+        }
+
+        /**
+         * Get the average time of an ai update.
+         *
+         * @return the time in nanoseconds, 0 without runs.
+         */
+        public long getAverageNanos()
+        {
+            return runs == 0 ? 0 : (nanos / runs);
+        }
+    }
+}
@@ -45,6 +45,22 @@ public class CitizenData
     private static final String TAG_SKILL_SPEED         = "charisma";
     private static final String TAG_SKILL_INTELLIGENCE  = "intelligence";
     private static final String TAG_SKILL_DEXTERITY     = "dexterity";
+    /**
+     * Groups of view data which are synced to the client independently, in the order they are written.
+     */
+    public static final  int    VIEW_NAME               = 0;
+    public static final  int    VIEW_ENTITY             = 1;
+    public static final  int    VIEW_HOME               = 2;
+    public static final  int    VIEW_WORK               = 3;
+    public static final  int    VIEW_LEVEL              = 4;
+    public static final  int    VIEW_HEALTH             = 5;
+    public static final  int    VIEW_SKILLS             = 6;
+    public static final  int    VIEW_JOB                = 7;
+    public static final  int    VIEW_ATTRIBUTE_COUNT    = 8;
+    /**
+     * Bit mask of all view attribute groups.
+     */
+    public static final  int    VIEW_ALL                = (1 << VIEW_ATTRIBUTE_COUNT) - 1;
     /**
      * The unique citizen id.
      */
@@ -173,6 +189,7 @@ public class CitizenData
     {
         dirty = true;
         colony.markCitizensDirty();
+        colony.getJournal().markCitizen(id);
     }
 
     /**
@@ -283,6 +300,17 @@ public class CitizenData
         return (char) (rand.nextInt(LETTERS_IN_THE_ALPHABET) + 'A');
     }
 
+    /**
+     * Read the id of a citizen from its saved data.
+     *
+     * @param compound NBT of the citizen.
+     * @return the citizen id.
+     */
+    public static int getIdFromNBT(@NotNull final NBTTagCompound compound)
+    {
+        return compound.getInteger(TAG_ID);
+    }
+
     /**
      * Returns the id of the citizen.
      *
@@ -341,6 +369,7 @@ public class CitizenData
     public void addExperience(final double xp)
     {
         this.experience += xp;
+        markDirty();
     }
 
     /**
@@ -349,6 +378,7 @@ public class CitizenData
     public void increaseLevel()
     {
         this.level += 1;
+        markDirty();
     }
 
     /**
@@ -567,46 +597,73 @@ public class CitizenData
      */
     public void serializeViewNetworkData(@NotNull final ByteBuf buf)
     {
-        ByteBufUtils.writeUTF8String(buf, name);
-        buf.writeBoolean(female);
-
-        buf.writeInt(entity != null ? entity.getEntityId() : -1);
-
-        buf.writeBoolean(homeBuilding != null);
-        if (homeBuilding != null)
-        {
-            BlockPosUtil.writeToByteBuf(buf, homeBuilding.getID());
-        }
-
-        buf.writeBoolean(workBuilding != null);
-        if (workBuilding != null)
+        for (int attribute = 0; attribute < VIEW_ATTRIBUTE_COUNT; attribute++)
         {
-            BlockPosUtil.writeToByteBuf(buf, workBuilding.getID());
+            serializeViewAttribute(attribute, buf);
         }
+    }
 
-        //  Attributes
-        buf.writeInt(getLevel());
-        buf.writeDouble(getExperience());
-
-        //If entity is null assume the standard values as health
-        if (entity == null)
-        {
-            buf.writeFloat(MAX_HEALTH);
-            buf.writeFloat(MAX_HEALTH);
-        }
-        else
+    /**
+     * Writes one group of the view data, see {@link CitizenDataView#deserializeDelta(int, ByteBuf)}.
+     *
+     * @param attribute the group, one of the VIEW_ constants.
+     * @param buf       Buffer to write to.
+     */
+    public void serializeViewAttribute(final int attribute, @NotNull final ByteBuf buf)
+    {
+        switch (attribute)
         {
-            buf.writeFloat(entity.getHealth());
-            buf.writeFloat(entity.getMaxHealth());
+            case VIEW_NAME:
+                ByteBufUtils.writeUTF8String(buf, name);
+                buf.writeBoolean(female);
+                break;
+            case VIEW_ENTITY:
+                buf.writeInt(entity != null ? entity.getEntityId() : -1);
+                break;
+            case VIEW_HOME:
+                buf.writeBoolean(homeBuilding != null);
+                if (homeBuilding != null)
+                {
+                    BlockPosUtil.writeToByteBuf(buf, homeBuilding.getID());
+                }
+                break;
+            case VIEW_WORK:
+                buf.writeBoolean(workBuilding != null);
+                if (workBuilding != null)
+                {
+                    BlockPosUtil.writeToByteBuf(buf, workBuilding.getID());
+                }
+                break;
+            case VIEW_LEVEL:
+                buf.writeInt(getLevel());
+                buf.writeDouble(getExperience());
+                break;
+            case VIEW_HEALTH:
+                //If entity is null assume the standard values as health
+                if (entity == null)
+                {
+                    buf.writeFloat(MAX_HEALTH);
+                    buf.writeFloat(MAX_HEALTH);
+                }
+                else
+                {
+                    buf.writeFloat(entity.getHealth());
+                    buf.writeFloat(entity.getMaxHealth());
+                }
+                break;
+            case VIEW_SKILLS:
+                buf.writeInt(getStrength());
+                buf.writeInt(getEndurance());
+                buf.writeInt(getCharisma());
+                buf.writeInt(getIntelligence());
+                buf.writeInt(getDexterity());
+                break;
+            case VIEW_JOB:
+                ByteBufUtils.writeUTF8String(buf, (job != null) ? job.getName() : "");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown citizen view attribute " + attribute);
         }
-
-        buf.writeInt(getStrength());
-        buf.writeInt(getEndurance());
-        buf.writeInt(getCharisma());
-        buf.writeInt(getIntelligence());
-        buf.writeInt(getDexterity());
-
-        ByteBufUtils.writeUTF8String(buf, (job != null) ? job.getName() : "");
     }
 
     /**
@@ -627,6 +684,7 @@ public class CitizenData
     public void setLevel(final int lvl)
     {
         this.level = lvl;
+        markDirty();
     }
 
     /**
@@ -636,6 +694,7 @@ public class CitizenData
     {
         this.level = 0;
         this.experience = 0;
+        markDirty();
     }
 
     /**
@@ -227,25 +227,63 @@ public class CitizenDataView
      */
     public void deserialize(@NotNull final ByteBuf buf)
     {
-        name = ByteBufUtils.readUTF8String(buf);
-        female = buf.readBoolean();
-        entityId = buf.readInt();
-
-        homeBuilding = buf.readBoolean() ? BlockPosUtil.readFromByteBuf(buf) : null;
-        workBuilding = buf.readBoolean() ? BlockPosUtil.readFromByteBuf(buf) : null;
-
-        //  Attributes
-        level = buf.readInt();
-        experience = buf.readDouble();
-        health = buf.readFloat();
-        maxHealth = buf.readFloat();
-
-        strength = buf.readInt();
-        endurance = buf.readInt();
-        charisma = buf.readInt();
-        intelligence = buf.readInt();
-        dexterity = buf.readInt();
-
-        job = ByteBufUtils.readUTF8String(buf);
+        deserializeDelta(CitizenData.VIEW_ALL, buf);
+    }
+
+    /**
+     * Deserialize only the attribute groups which changed, the others keep their values.
+     *
+     * @param attributes bit mask of the groups in the buffer, see the VIEW_ constants of {@link CitizenData}.
+     * @param buf        Byte buffer to deserialize.
+     */
+    public void deserializeDelta(final int attributes, @NotNull final ByteBuf buf)
+    {
+        for (int attribute = 0; attribute < CitizenData.VIEW_ATTRIBUTE_COUNT; attribute++)
+        {
+            if ((attributes & (1 << attribute)) != 0)
+            {
+                deserializeAttribute(attribute, buf);
+            }
+        }
+    }
+
+    private void deserializeAttribute(final int attribute, @NotNull final ByteBuf buf)
+    {
+        switch (attribute)
+        {
+            case CitizenData.VIEW_NAME:
+                name = ByteBufUtils.readUTF8String(buf);
+                female = buf.readBoolean();
+                break;
+            case CitizenData.VIEW_ENTITY:
+                entityId = buf.readInt();
+                break;
+            case CitizenData.VIEW_HOME:
+                homeBuilding = buf.readBoolean() ? BlockPosUtil.readFromByteBuf(buf) : null;
+                break;
+            case CitizenData.VIEW_WORK:
+                workBuilding = buf.readBoolean() ? BlockPosUtil.readFromByteBuf(buf) : null;
+                break;
+            case CitizenData.VIEW_LEVEL:
+                level = buf.readInt();
+                experience = buf.readDouble();
+                break;
+            case CitizenData.VIEW_HEALTH:
+                health = buf.readFloat();
+                maxHealth = buf.readFloat();
+                break;
+            case CitizenData.VIEW_SKILLS:
+                strength = buf.readInt();
+                endurance = buf.readInt();
+                charisma = buf.readInt();
+                intelligence = buf.readInt();
+                dexterity = buf.readInt();
+                break;
+            case CitizenData.VIEW_JOB:
+                job = ByteBufUtils.readUTF8String(buf);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown citizen view attribute " + attribute);
+        }
     }
 }
@@ -12,11 +12,14 @@ import com.minecolonies.coremod.configuration.Configurations;
 import com.minecolonies.coremod.entity.EntityCitizen;
 import com.minecolonies.coremod.entity.ai.citizen.builder.ConstructionTapeHelper;
 import com.minecolonies.coremod.entity.ai.citizen.farmer.Field;
+import com.minecolonies.coremod.entity.pathfinding.WayPointProbe;
 import com.minecolonies.coremod.network.messages.*;
 import com.minecolonies.coremod.permissions.ColonyPermissionEventHandler;
 import com.minecolonies.coremod.tileentities.ScarecrowTileEntity;
 import com.minecolonies.coremod.tileentities.TileEntityColonyBuilding;
 import com.minecolonies.coremod.util.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
@@ -38,6 +41,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -62,6 +66,10 @@ public class Colony implements IColony
     private static final String TAG_FREE_BLOCKS                = "freeBlocks";
     private static final String TAG_FREE_POSITIONS             = "freePositions";
 
+    //save journal tags
+    private static final String TAG_SAVE_SEQUENCE      = "saveSequence";
+    private static final String TAG_SNAPSHOT_SEQUENCE  = "snapshotSequence";
+
     //statistics tags
     private static final String TAG_STATISTICS            = "statistics";
     private static final String TAG_MINER_STATISTICS      = "minerStatistics";
@@ -105,9 +113,11 @@ public class Colony implements IColony
     //  General Attributes
     private final int dimensionId;
     //  Buildings
-    private final Map<BlockPos, Field>       fields    = new HashMap<>();
+    private final Map<BlockPos, Field>       fields        = new HashMap<>();
     //Additional Waypoints.
-    private final Map<BlockPos, IBlockState> wayPoints = new HashMap<>();
+    private final Map<BlockPos, IBlockState> wayPoints     = new HashMap<>();
+    //The road graph over the waypoints and buildings.
+    private final WayPointGraph              wayPointGraph = new WayPointGraph();
 
     @NotNull
     private final List<Achievement> colonyAchievements;
@@ -149,6 +159,38 @@ public class Colony implements IColony
      */
     private final Set<Block> freeBlocks = new HashSet<>();
 
+    /**
+     * The changes since the last save, the next journal entry writes them.
+     */
+    private final ColonyJournal journal = new ColonyJournal(() -> ColonyManager.markDirty(getID()));
+
+    /**
+     * Sequence number of the last save journal entry, and the one the last snapshot includes (-1 if none yet).
+     */
+    private int saveSequence     = 0;
+    private int snapshotSequence = -1;
+
+    /**
+     * What each subscriber received of the citizens and buildings, so only changes are sent.
+     */
+    private final Map<Integer, ViewSyncTracker<EntityPlayerMP>>  citizenSync  = new HashMap<>();
+    private final Map<BlockPos, ViewSyncTracker<EntityPlayerMP>> buildingSync = new HashMap<>();
+
+    /**
+     * Buildings waiting for the warehouse to deliver something.
+     */
+    private final DeliveryRequestQueue deliveryRequests = new DeliveryRequestQueue();
+
+    /**
+     * Spreads the worker ai over the ticks when the colony takes too long.
+     */
+    private final CitizenAIScheduler aiScheduler = new CitizenAIScheduler(() -> TimeUnit.MICROSECONDS.toNanos(Configurations.aiTickBudget));
+
+    /**
+     * The items and guard targets around the colony.
+     */
+    private final ColonyEntityProximity entityProximity = new ColonyEntityProximity(this);
+
     /**
      * Constructor for a newly created Colony.
      *
@@ -224,6 +266,9 @@ public class Colony implements IColony
         name = compound.getString(TAG_NAME);
         center = BlockPosUtil.readFromNBT(compound, TAG_CENTER);
 
+        saveSequence = compound.getInteger(TAG_SAVE_SEQUENCE);
+        snapshotSequence = compound.hasKey(TAG_SNAPSHOT_SEQUENCE) ? compound.getInteger(TAG_SNAPSHOT_SEQUENCE) : -1;
+
         manualHiring = compound.getBoolean(TAG_MANUAL_HIRING);
         maxCitizens = compound.getInteger(TAG_MAX_CITIZENS);
 
@@ -286,6 +331,7 @@ public class Colony implements IColony
             final BlockPos pos = BlockPosUtil.readFromNBT(blockAtPos, TAG_WAYPOINT);
             final IBlockState state = NBTUtil.readBlockState(blockAtPos);
             wayPoints.put(pos, state);
+            wayPointGraph.add(pos);
         }
 
         //Statistics
@@ -322,6 +368,9 @@ public class Colony implements IColony
             final BlockPos block = BlockPosUtil.readFromNBT(blockTag, TAG_FREE_POSITIONS);
             freePositions.add(block);
         }
+
+        //  Everything just read is saved already
+        journal.clear();
     }
 
     /**
@@ -332,7 +381,9 @@ public class Colony implements IColony
     private void addBuilding(@NotNull final AbstractBuilding building)
     {
         buildings.put(building.getID(), building);
+        wayPointGraph.add(building.getID());
         building.markDirty();
+        ColonyManager.onBuildingAdded(this, building);
 
         //  Limit 1 town hall
         if (building instanceof BuildingTownHall && townHall == null)
@@ -358,20 +409,10 @@ public class Colony implements IColony
      */
     protected void writeToNBT(@NotNull final NBTTagCompound compound)
     {
-        //  Core attributes
-        compound.setInteger(TAG_ID, id);
-        compound.setInteger(TAG_DIMENSION, dimensionId);
-
-        //  Basic data
-        compound.setString(TAG_NAME, name);
-        BlockPosUtil.writeToNBT(compound, TAG_CENTER, center);
-
-        compound.setBoolean(TAG_MANUAL_HIRING, manualHiring);
-        compound.setInteger(TAG_MAX_CITIZENS, maxCitizens);
+        compound.setInteger(TAG_SAVE_SEQUENCE, saveSequence);
+        compound.setInteger(TAG_SNAPSHOT_SEQUENCE, snapshotSequence);
 
-
-        // Permissions
-        permissions.savePermissions(compound);
+        writeCoreToNBT(compound);
 
         //  Buildings
         @NotNull final NBTTagList buildingTagList = new NBTTagList();
@@ -383,16 +424,6 @@ public class Colony implements IColony
         }
         compound.setTag(TAG_BUILDINGS, buildingTagList);
 
-        // Fields
-        @NotNull final NBTTagList fieldTagList = new NBTTagList();
-        for (@NotNull final Field f : fields.values())
-        {
-            @NotNull final NBTTagCompound fieldCompound = new NBTTagCompound();
-            f.writeToNBT(fieldCompound);
-            fieldTagList.appendTag(fieldCompound);
-        }
-        compound.setTag(TAG_FIELDS, fieldTagList);
-
         //  Citizens
         @NotNull final NBTTagList citizenTagList = new NBTTagList();
         for (@NotNull final CitizenData citizen : citizens.values())
@@ -402,6 +433,159 @@ public class Colony implements IColony
             citizenTagList.appendTag(citizenCompound);
         }
         compound.setTag(TAG_CITIZENS, citizenTagList);
+    }
+
+    /**
+     * Write a full snapshot of the colony, which makes all earlier journal entries obsolete.
+     *
+     * @param compound compound to write to.
+     */
+    protected void writeSnapshotToNBT(@NotNull final NBTTagCompound compound)
+    {
+        snapshotSequence = saveSequence;
+        writeToNBT(compound);
+        journal.clear();
+    }
+
+    /**
+     * Write the changes recorded since the last save as a journal entry, see {@link ColonyJournal}.
+     *
+     * @param entry compound to write to.
+     * @return false if nothing changed, the entry must not be saved then.
+     */
+    protected boolean writeJournalEntryToNBT(@NotNull final NBTTagCompound entry)
+    {
+        if (journal.isEmpty())
+        {
+            return false;
+        }
+
+        saveSequence++;
+        journal.writeEntry(entry, saveSequence, this::writeSectionToNBT,
+          citizenId ->
+          {
+              @Nullable final CitizenData citizen = citizens.get(citizenId);
+              if (citizen == null)
+              {
+                  return null;
+              }
+              @NotNull final NBTTagCompound citizenCompound = new NBTTagCompound();
+              citizen.writeToNBT(citizenCompound);
+              return citizenCompound;
+          },
+          location ->
+          {
+              @Nullable final AbstractBuilding building = buildings.get(location);
+              if (building == null)
+              {
+                  return null;
+              }
+              @NotNull final NBTTagCompound buildingCompound = new NBTTagCompound();
+              building.writeToNBT(buildingCompound);
+              return buildingCompound;
+          });
+        return true;
+    }
+
+    /**
+     * Get the changes recorded since the last save.
+     *
+     * @return the journal.
+     */
+    @NotNull
+    public ColonyJournal getJournal()
+    {
+        return journal;
+    }
+
+    /**
+     * Check if the journal grew long enough that the next save should be a snapshot.
+     *
+     * @return true if so, or if there is no snapshot yet.
+     */
+    protected boolean needsSnapshot()
+    {
+        return snapshotSequence < 0 || saveSequence - snapshotSequence >= Configurations.colonyJournalCompactAfter;
+    }
+
+    /**
+     * Write everything but the buildings and citizens.
+     *
+     * @param compound compound to write to.
+     */
+    private void writeCoreToNBT(@NotNull final NBTTagCompound compound)
+    {
+        for (final ColonyJournal.Section section : ColonyJournal.Section.values())
+        {
+            writeSectionToNBT(section, compound);
+        }
+    }
+
+    /**
+     * Write one section of everything but the buildings and citizens.
+     *
+     * @param section  the section.
+     * @param compound compound to write to.
+     */
+    private void writeSectionToNBT(@NotNull final ColonyJournal.Section section, @NotNull final NBTTagCompound compound)
+    {
+        switch (section)
+        {
+            case BASIC:
+                writeBasicToNBT(compound);
+                break;
+            case PERMISSIONS:
+                permissions.savePermissions(compound);
+                break;
+            case FIELDS:
+                @NotNull final NBTTagList fieldTagList = new NBTTagList();
+                for (@NotNull final Field f : fields.values())
+                {
+                    @NotNull final NBTTagCompound fieldCompound = new NBTTagCompound();
+                    f.writeToNBT(fieldCompound);
+                    fieldTagList.appendTag(fieldCompound);
+                }
+                compound.setTag(TAG_FIELDS, fieldTagList);
+                break;
+            case WORK_ORDERS:
+                @NotNull final NBTTagCompound workManagerCompound = new NBTTagCompound();
+                workManager.writeToNBT(workManagerCompound);
+                compound.setTag(TAG_WORK, workManagerCompound);
+                break;
+            case WAY_POINTS:
+                @NotNull final NBTTagList wayPointTagList = new NBTTagList();
+                for (@NotNull final Map.Entry<BlockPos, IBlockState> entry : wayPoints.entrySet())
+                {
+                    @NotNull final NBTTagCompound wayPointCompound = new NBTTagCompound();
+                    BlockPosUtil.writeToNBT(wayPointCompound, TAG_WAYPOINT, entry.getKey());
+                    NBTUtil.writeBlockState(wayPointCompound, entry.getValue());
+
+                    wayPointTagList.appendTag(wayPointCompound);
+                }
+                compound.setTag(TAG_WAYPOINT, wayPointTagList);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Write the name, center, achievements, statistics and free blocks and positions.
+     *
+     * @param compound compound to write to.
+     */
+    private void writeBasicToNBT(@NotNull final NBTTagCompound compound)
+    {
+        //  Core attributes
+        compound.setInteger(TAG_ID, id);
+        compound.setInteger(TAG_DIMENSION, dimensionId);
+
+        //  Basic data
+        compound.setString(TAG_NAME, name);
+        BlockPosUtil.writeToNBT(compound, TAG_CENTER, center);
+
+        compound.setBoolean(TAG_MANUAL_HIRING, manualHiring);
+        compound.setInteger(TAG_MAX_CITIZENS, maxCitizens);
 
         //  Achievements
         @NotNull final NBTTagList achievementsTagList = new NBTTagList();
@@ -413,23 +597,6 @@ public class Colony implements IColony
         }
         compound.setTag(TAG_ACHIEVEMENT_LIST, achievementsTagList);
 
-        //  Workload
-        @NotNull final NBTTagCompound workManagerCompound = new NBTTagCompound();
-        workManager.writeToNBT(workManagerCompound);
-        compound.setTag(TAG_WORK, workManagerCompound);
-
-        // Waypoints
-        @NotNull final NBTTagList wayPointTagList = new NBTTagList();
-        for (@NotNull final Map.Entry<BlockPos, IBlockState> entry : wayPoints.entrySet())
-        {
-            @NotNull final NBTTagCompound wayPointCompound = new NBTTagCompound();
-            BlockPosUtil.writeToNBT(wayPointCompound, TAG_WAYPOINT, entry.getKey());
-            NBTUtil.writeBlockState(wayPointCompound, entry.getValue());
-
-            wayPointTagList.appendTag(wayPointCompound);
-        }
-        compound.setTag(TAG_WAYPOINT, wayPointTagList);
-
         // Statistics
         @NotNull final NBTTagCompound statisticsCompound = new NBTTagCompound();
         @NotNull final NBTTagCompound minerStatisticsCompound = new NBTTagCompound();
@@ -520,6 +687,7 @@ public class Colony implements IColony
     private void markDirty()
     {
         isDirty = true;
+        journal.markSection(ColonyJournal.Section.BASIC);
     }
 
     @NotNull
@@ -658,6 +826,7 @@ public class Colony implements IColony
     {
         final int statisticAmount = this.getStatisticAmount(statistic);
         incrementStatisticAmount(statistic);
+        journal.markSection(ColonyJournal.Section.BASIC);
         if (statisticAmount >= NUM_ACHIEVEMENT_FIRST)
         {
             TriggerColonyAchievements.triggerFirstAchievement(statistic, this);
@@ -695,6 +864,7 @@ public class Colony implements IColony
         }
 
         this.colonyAchievements.add(achievement);
+        journal.markSection(ColonyJournal.Section.BASIC);
 
         AchievementUtils.syncAchievements(this);
     }
@@ -812,6 +982,13 @@ public class Colony implements IColony
             //  Determine if any new subscribers were added this pass
             final boolean hasNewSubscribers = ColonyUtils.hasNewSubscribers(oldSubscribers, subscribers);
 
+            if (!subscribers.equals(oldSubscribers))
+            {
+                //  New subscribers start with an empty view and get everything, former ones are forgotten
+                citizenSync.values().forEach(sync -> sync.retainSubscribers(oldSubscribers));
+                buildingSync.values().forEach(sync -> sync.retainSubscribers(oldSubscribers));
+            }
+
             //  Send each type of update packet as appropriate:
             //      - To Subscribers if the data changes
             //      - To New Subscribers even if it hasn't changed
@@ -828,14 +1005,13 @@ public class Colony implements IColony
             //Citizens
             sendCitizenPackets(oldSubscribers, hasNewSubscribers);
 
-            //Buildings
-            sendBuildingPackets(oldSubscribers, hasNewSubscribers);
+            //Buildings, farmers include their fields
+            sendBuildingPackets(hasNewSubscribers);
+        }
 
-            //Fields
-            if (!isBuildingsDirty)
-            {
-                sendFieldPackets(hasNewSubscribers);
-            }
+        if (isFieldsDirty || isDirty || isCitizensDirty || isBuildingsDirty || permissions.isDirty())
+        {
+            ColonyManager.markDirty(getID());
         }
 
         isFieldsDirty = false;
@@ -896,8 +1072,18 @@ public class Colony implements IColony
         {
             for (final AbstractWorkOrder workOrder : getWorkManager().getWorkOrders().values())
             {
-                subscribers.stream().filter(player -> workManager.isDirty() || !oldSubscribers.contains(player))
-                  .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewWorkOrderMessage(this, workOrder), player));
+                //  Serialized once, the messages only read the shared data while being encoded in sendTo
+                final ByteBuf data = PooledByteBufAllocator.DEFAULT.buffer();
+                try
+                {
+                    workOrder.serializeViewNetworkData(data);
+                    subscribers.stream().filter(player -> workManager.isDirty() || !oldSubscribers.contains(player))
+                      .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewWorkOrderMessage(this, workOrder.getID(), data), player));
+                }
+                finally
+                {
+                    data.release();
+                }
             }
 
             getWorkManager().setDirty(false);
@@ -918,9 +1104,34 @@ public class Colony implements IColony
             {
                 if (citizen.isDirty() || hasNewSubscribers)
                 {
-                    subscribers.stream()
-                      .filter(player -> citizen.isDirty() || !oldSubscribers.contains(player))
-                      .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewCitizenViewMessage(this, citizen), player));
+                    final ViewSyncTracker<EntityPlayerMP> sync =
+                      citizenSync.computeIfAbsent(citizen.getId(), citizenId -> new ViewSyncTracker<>(CitizenData.VIEW_ATTRIBUTE_COUNT));
+                    sync.refresh(citizen::serializeViewAttribute);
+
+                    //  Subscribers mostly miss the same groups, each combination is written once and shared
+                    final Map<Integer, ByteBuf> payloads = new HashMap<>();
+                    try
+                    {
+                        for (final EntityPlayerMP player : subscribers)
+                        {
+                            final int attributes = sync.getPendingAttributes(player);
+                            if (attributes != 0)
+                            {
+                                final ByteBuf data = payloads.computeIfAbsent(attributes, mask ->
+                                {
+                                    final ByteBuf buf = PooledByteBufAllocator.DEFAULT.buffer();
+                                    sync.writeAttributes(mask, buf);
+                                    return buf;
+                                });
+                                MineColonies.getNetwork().sendTo(new ColonyViewCitizenViewMessage(this, citizen.getId(), attributes, data), player);
+                                sync.acknowledge(player);
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        payloads.values().forEach(ByteBuf::release);
+                    }
                 }
             }
         }
@@ -928,39 +1139,39 @@ public class Colony implements IColony
 
     /**
      * Sends packages to update the buildings.
+     * Buildings are sent as a whole, but only to subscribers which didn't get the same data before.
+     * Farmers carry their fields, so they are checked when fields changed.
      *
-     * @param oldSubscribers    the existing subscribers.
      * @param hasNewSubscribers the new subscribers.
      */
-    private void sendBuildingPackets(@NotNull final Set<EntityPlayerMP> oldSubscribers, final boolean hasNewSubscribers)
+    private void sendBuildingPackets(final boolean hasNewSubscribers)
     {
-        if (isBuildingsDirty || hasNewSubscribers)
+        if (isBuildingsDirty || isFieldsDirty || hasNewSubscribers)
         {
             for (@NotNull final AbstractBuilding building : buildings.values())
             {
-                if (building.isDirty() || hasNewSubscribers)
+                if (building.isDirty() || hasNewSubscribers || (isFieldsDirty && building instanceof BuildingFarmer))
                 {
-                    subscribers.stream()
-                      .filter(player -> building.isDirty() || !oldSubscribers.contains(player))
-                      .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewBuildingViewMessage(building), player));
-                }
-            }
-        }
-    }
+                    final ViewSyncTracker<EntityPlayerMP> sync = buildingSync.computeIfAbsent(building.getID(), pos -> new ViewSyncTracker<>(1));
+                    sync.refresh((attribute, buf) -> building.serializeToView(buf));
 
-    /**
-     * Sends packages to update the fields.
-     * @param hasNewSubscribers the new subscribers.
-     */
-    private void sendFieldPackets(final boolean hasNewSubscribers)
-    {
-        if ((isFieldsDirty && !isBuildingsDirty) || hasNewSubscribers)
-        {
-            for (final AbstractBuilding building : buildings.values())
-            {
-                if (building instanceof BuildingFarmer)
-                {
-                    subscribers.forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewBuildingViewMessage(building), player));
+                    final ByteBuf data = PooledByteBufAllocator.DEFAULT.buffer();
+                    try
+                    {
+                        sync.writeAttributes(1, data);
+                        for (final EntityPlayerMP player : subscribers)
+                        {
+                            if (sync.getPendingAttributes(player) != 0)
+                            {
+                                MineColonies.getNetwork().sendTo(new ColonyViewBuildingViewMessage(building, data), player);
+                                sync.acknowledge(player);
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        data.release();
+                    }
                 }
             }
         }
@@ -1035,6 +1246,39 @@ public class Colony implements IColony
         return workManager;
     }
 
+    /**
+     * Get the queue of buildings which requested a delivery.
+     *
+     * @return the queue the warehouses serve.
+     */
+    @NotNull
+    public DeliveryRequestQueue getDeliveryRequests()
+    {
+        return deliveryRequests;
+    }
+
+    /**
+     * Get the scheduler of the worker ai.
+     *
+     * @return the scheduler.
+     */
+    @NotNull
+    public CitizenAIScheduler getAIScheduler()
+    {
+        return aiScheduler;
+    }
+
+    /**
+     * Get the index of the items and guard targets around the colony.
+     *
+     * @return the index.
+     */
+    @NotNull
+    public ColonyEntityProximity getEntityProximity()
+    {
+        return entityProximity;
+    }
+
     /**
      * Any per-world-tick logic should be performed here.
      * NOTE: If the Colony's world isn't loaded, it won't have a world tick.
@@ -1071,6 +1315,9 @@ public class Colony implements IColony
             //  Cleanup Buildings whose Blocks have gone AWOL
             cleanUpBuildings(event);
 
+            //  Connect a few more way points
+            wayPointGraph.connectPending((from, to) -> WayPointProbe.probe(event.world, from, to), WayPointGraph.MAX_PROBES_PER_TICK);
+
             //  Spawn Citizens
             if (townHall != null && citizens.size() < maxCitizens)
             {
@@ -1104,6 +1351,11 @@ public class Colony implements IColony
                 if (world != null && world.getBlockState(key).getBlock() != (value.getBlock()))
                 {
                     wayPoints.remove(key);
+                    journal.markSection(ColonyJournal.Section.WAY_POINTS);
+                    if (!buildings.containsKey(key))
+                    {
+                        wayPointGraph.remove(key);
+                    }
                 }
             }
         }
@@ -1338,6 +1590,7 @@ public class Colony implements IColony
     private void markFieldsDirty()
     {
         isFieldsDirty = true;
+        journal.markSection(ColonyJournal.Section.FIELDS);
     }
 
     /**
@@ -1429,7 +1682,7 @@ public class Colony implements IColony
         }
 
         calculateMaxCitizens();
-        ColonyManager.markDirty();
+        ColonyManager.markDirty(getID());
 
         return building;
     }
@@ -1466,6 +1719,15 @@ public class Colony implements IColony
     {
         if (buildings.remove(building.getID()) != null)
         {
+            journal.removeBuilding(building.getID());
+            if (!wayPoints.containsKey(building.getID()))
+            {
+                wayPointGraph.remove(building.getID());
+            }
+            buildingSync.remove(building.getID());
+            deliveryRequests.remove(building.getID());
+            ColonyManager.onBuildingRemoved(this, building);
+
             for (final EntityPlayerMP player : subscribers)
             {
                 MineColonies.getNetwork().sendTo(new ColonyViewRemoveBuildingMessage(this, building.getID()), player);
@@ -1490,7 +1752,7 @@ public class Colony implements IColony
 
         calculateMaxCitizens();
 
-        ColonyManager.markDirty();
+        ColonyManager.markDirty(getID());
     }
 
     /**
@@ -1536,6 +1798,23 @@ public class Colony implements IColony
         return Collections.unmodifiableMap(citizens);
     }
 
+    /**
+     * Send the full view of a citizen to a subscriber with the next update, for example after it lost track of it.
+     *
+     * @param citizenId id of the citizen.
+     * @param player    the subscriber.
+     */
+    public void resendCitizenView(final int citizenId, @NotNull final EntityPlayerMP player)
+    {
+        @Nullable final CitizenData citizen = citizens.get(citizenId);
+        @Nullable final ViewSyncTracker<EntityPlayerMP> sync = citizenSync.get(citizenId);
+        if (citizen != null && sync != null && subscribers.contains(player))
+        {
+            sync.forget(player);
+            citizen.markDirty();
+        }
+    }
+
     /**
      * Removes a citizen from the colony.
      *
@@ -1545,6 +1824,8 @@ public class Colony implements IColony
     {
         //Remove the Citizen
         citizens.remove(citizen.getId());
+        citizenSync.remove(citizen.getId());
+        journal.removeCitizen(citizen.getId());
 
         for (@NotNull final AbstractBuilding building : buildings.values())
         {
@@ -1567,6 +1848,8 @@ public class Colony implements IColony
      */
     public void removeWorkOrder(final int orderId)
     {
+        journal.markSection(ColonyJournal.Section.WORK_ORDERS);
+
         //  Inform Subscribers of removed workOrder
         for (final EntityPlayerMP player : subscribers)
         {
@@ -1657,40 +1940,32 @@ public class Colony implements IColony
     public void addWayPoint(final BlockPos point, IBlockState block)
     {
         wayPoints.put(point, block);
+        wayPointGraph.add(point);
+        journal.markSection(ColonyJournal.Section.WAY_POINTS);
     }
 
     /**
-     * Returns a list of all wayPoints of the colony.
+     * Returns the waypoints and buildings to walk along from a position to a target.
      *
      * @param position start position.
      * @param target   end position.
-     * @return list of wayPoints.
+     * @return the wayPoints in walking order, empty if walking directly is as good.
      */
     @NotNull
-    public List<BlockPos> getWayPoints(@NotNull final BlockPos position, @NotNull final BlockPos target)
+    public List<BlockPos> getWayPointRoute(@NotNull final BlockPos position, @NotNull final BlockPos target)
     {
-        final List<BlockPos> tempWayPoints = new ArrayList<>();
-        tempWayPoints.addAll(wayPoints.keySet());
-        tempWayPoints.addAll(getBuildings().keySet());
-
-        final double maxX = Math.max(position.getX(), target.getX());
-        final double maxZ = Math.max(position.getZ(), target.getZ());
-
-        final double minX = Math.min(position.getX(), target.getX());
-        final double minZ = Math.min(position.getZ(), target.getZ());
-
-        final List<BlockPos> wayPointsCopy = new ArrayList<>(tempWayPoints);
-        for (final BlockPos p : wayPointsCopy)
-        {
-            final int x = p.getX();
-            final int z = p.getZ();
-            if (x < minX || x > maxX || z < minZ || z > maxZ)
-            {
-                tempWayPoints.remove(p);
-            }
-        }
+        return wayPointGraph.route(position, target);
+    }
 
-        return tempWayPoints;
+    /**
+     * Called when a block within the colony changed, the road graph probes the lines running past it again on the next
+     * ticks.
+     *
+     * @param pos the position of the block.
+     */
+    public void onBlockChanged(@NotNull final BlockPos pos)
+    {
+        wayPointGraph.onBlockChanged(pos);
     }
 
     /**
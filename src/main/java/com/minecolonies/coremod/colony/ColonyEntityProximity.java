@@ -0,0 +1,212 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.configuration.Configurations;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.entity.monster.EntityMob;
+import net.minecraft.entity.monster.EntitySlime;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The items, hostile mobs and players around a colony, for the citizens and guards to look up.
+ * <p>
+ * Instead of every citizen asking the world for the entities around it every tick, the colony asks once for all
+ * entities in its area and buckets the items and possible guard targets into cells of 16 blocks. The area reaches as
+ * far up and down from the center as it does sideways. Both kinds are filled from the same scan, which runs on the
+ * first lookup of a kind after its configured number of ticks. Lookups take the cells around the box, widened by how
+ * far an entity may have moved since the scan, and test the current bounding box of each entity. Boxes reaching out
+ * of the colony area are asked of the world directly.
+ */
+public final class ColonyEntityProximity
+{
+    private static final int CELL_SHIFT = 4;
+
+    /**
+     * Blocks around the colony area which are indexed as well.
+     */
+    private static final int AREA_MARGIN = 32;
+
+    /**
+     * How far an entity is assumed to move per tick at most, in blocks.
+     */
+    private static final int MAX_MOVE_PER_TICK = 2;
+
+    @NotNull
+    private final Colony colony;
+
+    private final Map<Long, List<EntityItem>> items       = new HashMap<>();
+    private final Map<Long, List<Entity>>     targets     = new HashMap<>();
+    private       long                        indexedTick = Long.MIN_VALUE;
+    private       World                       indexedWorld;
+
+    /**
+     * Create the index of a colony.
+     *
+     * @param colony the colony.
+     */
+    ColonyEntityProximity(@NotNull final Colony colony)
+    {
+        this.colony = colony;
+    }
+
+    /**
+     * Get the items within a box.
+     *
+     * @param world the world of the box.
+     * @param box   the box.
+     * @return the live items whose bounding box intersects the box.
+     */
+    @NotNull
+    public List<EntityItem> getItems(@NotNull final World world, @NotNull final AxisAlignedBB box)
+    {
+        if (!covers(world, box))
+        {
+            return world.getEntitiesWithinAABB(EntityItem.class, box);
+        }
+
+        final int refresh = Math.max(1, Configurations.itemProximityRefresh);
+        if (world.getTotalWorldTime() - indexedTick >= refresh)
+        {
+            refresh(world);
+        }
+        return collect(items, box, refresh * MAX_MOVE_PER_TICK);
+    }
+
+    /**
+     * Get the possible guard targets within a box: monsters, slimes and players.
+     *
+     * @param world the world of the box.
+     * @param box   the box.
+     * @return the live targets whose bounding box intersects the box.
+     */
+    @NotNull
+    public List<Entity> getTargets(@NotNull final World world, @NotNull final AxisAlignedBB box)
+    {
+        if (!covers(world, box))
+        {
+            final List<Entity> found = new ArrayList<>(world.getEntitiesWithinAABB(EntityMob.class, box));
+            found.addAll(world.getEntitiesWithinAABB(EntitySlime.class, box));
+            found.addAll(world.getEntitiesWithinAABB(EntityPlayer.class, box));
+            return found;
+        }
+
+        final int refresh = Math.max(1, Configurations.targetProximityRefresh);
+        if (world.getTotalWorldTime() - indexedTick >= refresh)
+        {
+            refresh(world);
+        }
+        return collect(targets, box, refresh * MAX_MOVE_PER_TICK);
+    }
+
+    /**
+     * Check if a box lies within the indexed area of the colony.
+     */
+    private boolean covers(@NotNull final World world, @NotNull final AxisAlignedBB box)
+    {
+        if (world != indexedWorld)
+        {
+            indexedWorld = world;
+            indexedTick = Long.MIN_VALUE;
+        }
+
+        final BlockPos center = colony.getCenter();
+        final int radius = getRadius();
+        return box.minX >= center.getX() - radius && box.maxX <= center.getX() + radius
+                 && box.minY >= center.getY() - radius && box.maxY <= center.getY() + radius
+                 && box.minZ >= center.getZ() - radius && box.maxZ <= center.getZ() + radius;
+    }
+
+    private static int getRadius()
+    {
+        return Configurations.workingRangeTownHall + Configurations.townHallPadding + AREA_MARGIN;
+    }
+
+    /**
+     * Bucket the items and targets in the colony area, with one scan for both.
+     */
+    private void refresh(@NotNull final World world)
+    {
+        indexedTick = world.getTotalWorldTime();
+        clear(items);
+        clear(targets);
+
+        final BlockPos center = colony.getCenter();
+        final int radius = getRadius();
+        final AxisAlignedBB area = new AxisAlignedBB(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                                                      center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+        for (final Entity entity : world.getEntitiesWithinAABB(Entity.class, area))
+        {
+            if (entity instanceof EntityItem)
+            {
+                add(items, (EntityItem) entity);
+            }
+            else if (entity instanceof EntityMob || entity instanceof EntitySlime || entity instanceof EntityPlayer)
+            {
+                add(targets, entity);
+            }
+        }
+    }
+
+    private static <T extends Entity> void clear(@NotNull final Map<Long, List<T>> cells)
+    {
+        for (final List<T> cell : cells.values())
+        {
+            cell.clear();
+        }
+    }
+
+    /**
+     * Put an entity into the cell of its current position.
+     */
+    static <T extends Entity> void add(@NotNull final Map<Long, List<T>> cells, @NotNull final T entity)
+    {
+        cells.computeIfAbsent(key((int) Math.floor(entity.posX) >> CELL_SHIFT, (int) Math.floor(entity.posZ) >> CELL_SHIFT),
+          k -> new ArrayList<>()).add(entity);
+    }
+
+    /**
+     * Collect the entities of the cells around a box which intersect it.
+     */
+    @NotNull
+    static <T extends Entity> List<T> collect(@NotNull final Map<Long, List<T>> cells, @NotNull final AxisAlignedBB box, final int margin)
+    {
+        final List<T> found = new ArrayList<>();
+        final int minX = (int) Math.floor(box.minX - margin) >> CELL_SHIFT;
+        final int maxX = (int) Math.floor(box.maxX + margin) >> CELL_SHIFT;
+        final int minZ = (int) Math.floor(box.minZ - margin) >> CELL_SHIFT;
+        final int maxZ = (int) Math.floor(box.maxZ + margin) >> CELL_SHIFT;
+        for (int x = minX; x <= maxX; x++)
+        {
+            for (int z = minZ; z <= maxZ; z++)
+            {
+                final List<T> cell = cells.get(key(x, z));
+                if (cell == null)
+                {
+                    continue;
+                }
+                for (final T entity : cell)
+                {
+                    if (!entity.isDead && entity.getEntityBoundingBox().intersectsWith(box))
+                    {
+                        found.add(entity);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static long key(final int cellX, final int cellZ)
+    {
+        return ((long) cellX << Integer.SIZE) | (cellZ & 0xFFFFFFFFL);
+    }
+}
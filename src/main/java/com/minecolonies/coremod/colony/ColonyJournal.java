@@ -0,0 +1,273 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
+import com.minecolonies.coremod.util.BlockPosUtil;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.util.Constants.NBT;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * The changes of a colony since it was last saved, and the save journal entries written from them.
+ * <p>
+ * Changes are recorded where they happen: citizens and buildings by their id, everything else by the section of the
+ * colony data it belongs to. A journal entry then only writes the recorded citizens, buildings and sections, so its
+ * cost follows the changes and not the size of the colony. Loading replays the entries on top of the last snapshot
+ * with {@link #apply(NBTTagCompound, NBTTagCompound)}.
+ */
+public final class ColonyJournal
+{
+    private static final String TAG_SAVE_SEQUENCE     = "saveSequence";
+    private static final String TAG_CORE              = "core";
+    private static final String TAG_CITIZENS          = "citizens";
+    private static final String TAG_BUILDINGS         = "buildings";
+    private static final String TAG_REMOVED_CITIZENS  = "removedCitizens";
+    private static final String TAG_REMOVED_BUILDINGS = "removedBuildings";
+    private static final String TAG_POS               = "pos";
+
+    /**
+     * The parts of the colony data besides citizens and buildings, each written as a whole.
+     */
+    public enum Section
+    {
+        /**
+         * Name, center, hiring mode, achievements, statistics and the free blocks and positions.
+         */
+        BASIC,
+        PERMISSIONS,
+        FIELDS,
+        WORK_ORDERS,
+        WAY_POINTS
+    }
+
+    @NotNull
+    private final Runnable      onChange;
+    private final Set<Section>  sections         = EnumSet.noneOf(Section.class);
+    private final Set<Integer>  citizens         = new HashSet<>();
+    private final Set<Integer>  removedCitizens  = new HashSet<>();
+    private final Set<BlockPos> buildings        = new HashSet<>();
+    private final Set<BlockPos> removedBuildings = new HashSet<>();
+
+    /**
+     * Create the journal of a colony.
+     *
+     * @param onChange called on every recorded change, to get the colony saved.
+     */
+    ColonyJournal(@NotNull final Runnable onChange)
+    {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Record a change of a section.
+     *
+     * @param section the section.
+     */
+    public void markSection(@NotNull final Section section)
+    {
+        sections.add(section);
+        onChange.run();
+    }
+
+    /**
+     * Record a new or changed citizen.
+     *
+     * @param citizenId the id of the citizen.
+     */
+    public void markCitizen(final int citizenId)
+    {
+        citizens.add(citizenId);
+        removedCitizens.remove(citizenId);
+        onChange.run();
+    }
+
+    /**
+     * Record a removed citizen.
+     *
+     * @param citizenId the id of the citizen.
+     */
+    public void removeCitizen(final int citizenId)
+    {
+        citizens.remove(citizenId);
+        removedCitizens.add(citizenId);
+        onChange.run();
+    }
+
+    /**
+     * Record a new or changed building.
+     *
+     * @param location the location of the building.
+     */
+    public void markBuilding(@NotNull final BlockPos location)
+    {
+        buildings.add(location);
+        removedBuildings.remove(location);
+        onChange.run();
+    }
+
+    /**
+     * Record a removed building.
+     *
+     * @param location the location of the building.
+     */
+    public void removeBuilding(@NotNull final BlockPos location)
+    {
+        buildings.remove(location);
+        removedBuildings.add(location);
+        onChange.run();
+    }
+
+    /**
+     * Check if anything changed since the last save.
+     *
+     * @return true if nothing did.
+     */
+    public boolean isEmpty()
+    {
+        return sections.isEmpty() && citizens.isEmpty() && removedCitizens.isEmpty() && buildings.isEmpty() && removedBuildings.isEmpty();
+    }
+
+    /**
+     * Forget the recorded changes, after they were saved.
+     */
+    void clear()
+    {
+        sections.clear();
+        citizens.clear();
+        removedCitizens.clear();
+        buildings.clear();
+        removedBuildings.clear();
+    }
+
+    /**
+     * Write the recorded changes as a journal entry and forget them.
+     *
+     * @param entry          compound to write to.
+     * @param sequence       the save sequence of the entry.
+     * @param sectionWriter  writes a section into the core compound.
+     * @param citizenWriter  writes a citizen by id, null if it doesn't exist anymore.
+     * @param buildingWriter writes a building by location, null if it doesn't exist anymore.
+     */
+    void writeEntry(
+                     @NotNull final NBTTagCompound entry,
+                     final int sequence,
+                     @NotNull final BiConsumer<Section, NBTTagCompound> sectionWriter,
+                     @NotNull final IntFunction<NBTTagCompound> citizenWriter,
+                     @NotNull final Function<BlockPos, NBTTagCompound> buildingWriter)
+    {
+        entry.setInteger(TAG_SAVE_SEQUENCE, sequence);
+
+        @NotNull final NBTTagCompound core = new NBTTagCompound();
+        for (final Section section : sections)
+        {
+            sectionWriter.accept(section, core);
+        }
+        entry.setTag(TAG_CORE, core);
+
+        @NotNull final NBTTagList citizenTagList = new NBTTagList();
+        for (final int citizenId : citizens)
+        {
+            @Nullable final NBTTagCompound citizenCompound = citizenWriter.apply(citizenId);
+            if (citizenCompound != null)
+            {
+                citizenTagList.appendTag(citizenCompound);
+            }
+        }
+        entry.setTag(TAG_CITIZENS, citizenTagList);
+        entry.setIntArray(TAG_REMOVED_CITIZENS, removedCitizens.stream().mapToInt(Integer::intValue).toArray());
+
+        @NotNull final NBTTagList buildingTagList = new NBTTagList();
+        for (@NotNull final BlockPos location : buildings)
+        {
+            @Nullable final NBTTagCompound buildingCompound = buildingWriter.apply(location);
+            if (buildingCompound != null)
+            {
+                buildingTagList.appendTag(buildingCompound);
+            }
+        }
+        entry.setTag(TAG_BUILDINGS, buildingTagList);
+
+        @NotNull final NBTTagList removedBuildingTagList = new NBTTagList();
+        for (@NotNull final BlockPos location : removedBuildings)
+        {
+            @NotNull final NBTTagCompound posCompound = new NBTTagCompound();
+            BlockPosUtil.writeToNBT(posCompound, TAG_POS, location);
+            removedBuildingTagList.appendTag(posCompound);
+        }
+        entry.setTag(TAG_REMOVED_BUILDINGS, removedBuildingTagList);
+
+        clear();
+    }
+
+    /**
+     * Apply a save journal entry to the saved data of a colony.
+     * Entries which are already part of the data are skipped, so replaying a journal twice is harmless.
+     *
+     * @param compound the saved colony data, gets updated.
+     * @param entry    the journal entry.
+     */
+    public static void apply(@NotNull final NBTTagCompound compound, @NotNull final NBTTagCompound entry)
+    {
+        final int sequence = entry.getInteger(TAG_SAVE_SEQUENCE);
+        if (sequence <= compound.getInteger(TAG_SAVE_SEQUENCE))
+        {
+            return;
+        }
+
+        final NBTTagCompound core = entry.getCompoundTag(TAG_CORE);
+        for (final String key : core.getKeySet())
+        {
+            compound.setTag(key, core.getTag(key));
+        }
+
+        //  Citizens by id
+        final Map<Integer, NBTTagCompound> citizenCompounds = new LinkedHashMap<>();
+        final NBTTagList citizenTagList = compound.getTagList(TAG_CITIZENS, NBT.TAG_COMPOUND);
+        for (int i = 0; i < citizenTagList.tagCount(); ++i)
+        {
+            citizenCompounds.put(CitizenData.getIdFromNBT(citizenTagList.getCompoundTagAt(i)), citizenTagList.getCompoundTagAt(i));
+        }
+        final NBTTagList changedCitizens = entry.getTagList(TAG_CITIZENS, NBT.TAG_COMPOUND);
+        for (int i = 0; i < changedCitizens.tagCount(); ++i)
+        {
+            citizenCompounds.put(CitizenData.getIdFromNBT(changedCitizens.getCompoundTagAt(i)), changedCitizens.getCompoundTagAt(i));
+        }
+        for (final int citizenId : entry.getIntArray(TAG_REMOVED_CITIZENS))
+        {
+            citizenCompounds.remove(citizenId);
+        }
+        @NotNull final NBTTagList newCitizenTagList = new NBTTagList();
+        citizenCompounds.values().forEach(newCitizenTagList::appendTag);
+        compound.setTag(TAG_CITIZENS, newCitizenTagList);
+
+        //  Buildings by location
+        final Map<BlockPos, NBTTagCompound> buildingCompounds = new LinkedHashMap<>();
+        final NBTTagList buildingTagList = compound.getTagList(TAG_BUILDINGS, NBT.TAG_COMPOUND);
+        for (int i = 0; i < buildingTagList.tagCount(); ++i)
+        {
+            buildingCompounds.put(AbstractBuilding.getLocationFromNBT(buildingTagList.getCompoundTagAt(i)), buildingTagList.getCompoundTagAt(i));
+        }
+        final NBTTagList changedBuildings = entry.getTagList(TAG_BUILDINGS, NBT.TAG_COMPOUND);
+        for (int i = 0; i < changedBuildings.tagCount(); ++i)
+        {
+            buildingCompounds.put(AbstractBuilding.getLocationFromNBT(changedBuildings.getCompoundTagAt(i)), changedBuildings.getCompoundTagAt(i));
+        }
+        final NBTTagList removedBuildingTagList = entry.getTagList(TAG_REMOVED_BUILDINGS, NBT.TAG_COMPOUND);
+        for (int i = 0; i < removedBuildingTagList.tagCount(); ++i)
+        {
+            buildingCompounds.remove(BlockPosUtil.readFromNBT(removedBuildingTagList.getCompoundTagAt(i), TAG_POS));
+        }
+        @NotNull final NBTTagList newBuildingTagList = new NBTTagList();
+        buildingCompounds.values().forEach(newBuildingTagList::appendTag);
+        compound.setTag(TAG_BUILDINGS, newBuildingTagList);
+
+        compound.setInteger(TAG_SAVE_SEQUENCE, sequence);
+    }
+}
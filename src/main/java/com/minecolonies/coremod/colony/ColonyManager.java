@@ -52,6 +52,21 @@ public final class ColonyManager
      */
     private static final String FILENAME_MINECOLONIES_BACKUP = "colonies-%s.dat";
 
+    /**
+     * The directory holding one file per colony.
+     */
+    private static final String FILENAME_COLONIES_PATH = "colonies";
+
+    /**
+     * The directory name pattern of the minecolonies backup.
+     */
+    private static final String FILENAME_COLONIES_BACKUP_PATH = "colonies-%s";
+
+    /**
+     * The legacy single file gets renamed to this once its colonies got written to their own files.
+     */
+    private static final String FILENAME_MINECOLONIES_MIGRATED = "colonies.dat.migrated";
+
     /**
      * The tag of the colonies.
      */
@@ -70,6 +85,11 @@ public final class ColonyManager
      */
     @NotNull
     private static final Map<Integer, List<Colony>> coloniesByWorld = new HashMap<>();
+    /**
+     * Spatial index of the colony areas and buildings, by dimension.
+     */
+    @NotNull
+    private static final Map<Integer, ColonySpatialIndex<Colony>> indexByWorld = new HashMap<>();
     /**
      * The list of colony views.
      */
@@ -86,9 +106,18 @@ public final class ColonyManager
      */
     private static int numWorldsLoaded;
     /**
-     * Whether the colonyManager should persist data.
+     * Ids of the colonies which changed since they were last saved.
+     */
+    private static final Set<Integer> dirtyColonies = new HashSet<>();
+    /**
+     * Server ticks since dirty colonies were saved last.
      */
-    private static boolean saveNeeded;
+    private static int ticksSinceSave;
+    /**
+     * Directory the colonies are saved to, resolved when the first world loads.
+     */
+    @Nullable
+    private static File saveDirectory;
 
     private ColonyManager()
     {
@@ -117,7 +146,7 @@ public final class ColonyManager
         colony.triggerAchievement(ModAchievements.achievementGetSupply);
         colony.triggerAchievement(ModAchievements.achievementTownhall);
 
-        markDirty();
+        markDirty(colony.getID());
 
         Log.getLogger().info(String.format("New Colony Id: %d by %s", colony.getID(), player.getName()));
 
@@ -125,11 +154,14 @@ public final class ColonyManager
     }
 
     /**
-     * Specify that colonies should be saved.
+     * Specify that a colony should be saved.
+     * Dirty colonies are written every {@link Configurations#colonySaveInterval} ticks.
+     *
+     * @param id the id of the colony.
      */
-    public static void markDirty()
+    public static void markDirty(final int id)
     {
-        saveNeeded = true;
+        dirtyColonies.add(id);
     }
 
     /**
@@ -144,7 +176,13 @@ public final class ColonyManager
             final Colony colony = getColony(id);
             Log.getLogger().info("Deleting colony " + id);
             colonies.remove(id);
+            dirtyColonies.remove(id);
+            if (saveDirectory != null)
+            {
+                ColonyPersistence.delete(saveDirectory, id);
+            }
             coloniesByWorld.get(colony.getDimension()).remove(colony);
+            getIndex(colony.getDimension()).remove(colony);
             final Set<World> colonyWorlds = new HashSet<>();
             Log.getLogger().info("Removing citizens for " + id);
             for (final CitizenData citizenData : new ArrayList<>(colony.getCitizens().values()))
@@ -210,27 +248,10 @@ public final class ColonyManager
      */
     public static AbstractBuilding getBuilding(@NotNull final World w, @NotNull final BlockPos pos)
     {
-        @Nullable final Colony colony = getColony(w, pos);
-        if (colony != null)
-        {
-            final AbstractBuilding building = colony.getBuilding(pos);
-            if (building != null)
-            {
-                return building;
-            }
-        }
-
-        //  Fallback - there might be a AbstractBuilding for this block, but it's outside of it's owning colony's radius.
-        for (@NotNull final Colony otherColony : getColonies(w))
-        {
-            final AbstractBuilding building = otherColony.getBuilding(pos);
-            if (building != null)
-            {
-                return building;
-            }
-        }
-
-        return null;
+        //  The index knows the owner even if the building is outside of it's owning colony's radius.
+        final ColonySpatialIndex<Colony> index = indexByWorld.get(w.provider.getDimension());
+        @Nullable final Colony colony = index == null ? null : index.getBuildingOwner(pos);
+        return colony == null ? null : colony.getBuilding(pos);
     }
 
     /**
@@ -242,13 +263,13 @@ public final class ColonyManager
      */
     public static Colony getColony(@NotNull final World w, @NotNull final BlockPos pos)
     {
-        final List<Colony> coloniesInWorld = coloniesByWorld.get(w.provider.getDimension());
-        if (coloniesInWorld == null)
+        final ColonySpatialIndex<Colony> index = indexByWorld.get(w.provider.getDimension());
+        if (index == null)
         {
             return null;
         }
 
-        for (@NotNull final Colony c : coloniesInWorld)
+        for (@NotNull final Colony c : index.getCandidates(pos.getX(), pos.getZ()))
         {
             if (c.isCoordInColony(w, pos))
             {
@@ -397,23 +418,8 @@ public final class ColonyManager
      */
     public static Colony getClosestColony(@NotNull final World w, @NotNull final BlockPos pos)
     {
-        @Nullable Colony closestColony = null;
-        long closestDist = Long.MAX_VALUE;
-
-        for (@NotNull final Colony c : getColonies(w))
-        {
-            if (c.getDimension() == w.provider.getDimension())
-            {
-                final long dist = c.getDistanceSquared(pos);
-                if (dist < closestDist)
-                {
-                    closestColony = c;
-                    closestDist = dist;
-                }
-            }
-        }
-
-        return closestColony;
+        final ColonySpatialIndex<Colony> index = indexByWorld.get(w.provider.getDimension());
+        return index == null ? null : index.getClosest(pos.getX(), pos.getZ());
     }
 
     /**
@@ -514,35 +520,131 @@ public final class ColonyManager
             c.onServerTick(event);
         }
 
-        if (saveNeeded)
+        if (event.phase == TickEvent.Phase.END && ++ticksSinceSave >= Configurations.colonySaveInterval && !dirtyColonies.isEmpty())
         {
-            saveColonies();
+            saveDirtyColonies(false);
+        }
+    }
+
+    /**
+     * Snapshot the dirty colonies and hand them to the writer thread.
+     *
+     * @param forceSnapshot whether the colonies are written as full snapshots.
+     */
+    private static void saveDirtyColonies(final boolean forceSnapshot)
+    {
+        ticksSinceSave = 0;
+        @NotNull final List<Integer> toSave = new ArrayList<>(dirtyColonies);
+        dirtyColonies.clear();
+        for (final int id : toSave)
+        {
+            @Nullable final Colony colony = colonies.get(id);
+            if (colony != null)
+            {
+                saveColony(colony, forceSnapshot);
+            }
         }
     }
 
     /**
-     * Save all the Colonies.
+     * Save all the Colonies as full snapshots, compacting their journals.
      */
     private static void saveColonies()
     {
-        @NotNull final NBTTagCompound compound = new NBTTagCompound();
-        writeToNBT(compound);
+        ticksSinceSave = 0;
+        dirtyColonies.clear();
+        for (@NotNull final Colony colony : colonies)
+        {
+            saveColony(colony, true);
+        }
+    }
 
-        @NotNull final File file = getSaveLocation();
-        saveNBTToPath(file, compound);
+    /**
+     * Snapshot a colony and hand it to the writer thread.
+     * Colonies with a short journal only get their changes appended, unless a full snapshot is forced.
+     *
+     * @param colony        the colony.
+     * @param forceSnapshot whether the colony is written as a full snapshot.
+     */
+    private static void saveColony(@NotNull final Colony colony, final boolean forceSnapshot)
+    {
+        if (saveDirectory == null)
+        {
+            return;
+        }
 
-        saveNeeded = false;
+        //  Only the snapshot happens on the server thread, compressing and writing is left to the writer
+        @NotNull final NBTTagCompound compound = new NBTTagCompound();
+        if (forceSnapshot || colony.needsSnapshot())
+        {
+            colony.writeSnapshotToNBT(compound);
+            ColonyPersistence.save(saveDirectory, colony.getID(), compound);
+        }
+        else if (colony.writeJournalEntryToNBT(compound))
+        {
+            ColonyPersistence.append(saveDirectory, colony.getID(), compound);
+        }
     }
 
+    /**
+     * Copy the saved colonies to a backup, after writing the latest state.
+     *
+     * @return true if the backup was made or there is nothing to back up.
+     */
     public static boolean backupColonyData()
     {
-        if (numWorldsLoaded > 0 && saveNeeded)
+        if (numWorldsLoaded > 0)
         {
             saveColonies();
+            ColonyPersistence.flush();
+        }
+
+        final Date date = new Date();
+        @NotNull final File directory = getColonyDirectory();
+        final SortedMap<Integer, File> files = ColonyPersistence.getColonyFiles(directory);
+        if (files.isEmpty())
+        {
+            return backupLegacyColonyData(date);
+        }
+
+        @NotNull final File targetDirectory = getBackupColonyDirectory(date);
+        if (targetDirectory.exists() || !targetDirectory.mkdirs())
+        {
+            return false;
+        }
+
+        try
+        {
+            for (@NotNull final Map.Entry<Integer, File> file : files.entrySet())
+            {
+                Files.copy(file.getValue().toPath(), new File(targetDirectory, file.getValue().getName()).toPath());
+
+                @NotNull final File journalFile = ColonyPersistence.getJournalFile(directory, file.getKey());
+                if (journalFile.exists())
+                {
+                    Files.copy(journalFile.toPath(), new File(targetDirectory, journalFile.getName()).toPath());
+                }
+            }
         }
+        catch (IOException e)
+        {
+            Log.getLogger().error("Exception when backing up colonies", e);
+            return false;
+        }
+
+        return true;
+    }
 
+    /**
+     * Copy the single file all colonies were saved to before they got their own files.
+     *
+     * @param date the date of the backup.
+     * @return true if the backup was made or there is nothing to back up.
+     */
+    private static boolean backupLegacyColonyData(@NotNull final Date date)
+    {
         @NotNull final File file = getSaveLocation();
-        @NotNull final File targetFile = getBackupSaveLocation(new Date());
+        @NotNull final File targetFile = getBackupSaveLocation(date);
         if (!file.exists())
         {
             return true;
@@ -607,25 +709,28 @@ public final class ColonyManager
     }
 
     /**
-     * Save an NBTTagCompound to a file.  Does so in a safe manner using an intermediate tmp file.
+     * Get the directory holding the file of each colony, from the world/save directory.
+     *
+     * @return the colony directory.
+     */
+    @NotNull
+    private static File getColonyDirectory()
+    {
+        @NotNull final File saveDir = new File(DimensionManager.getWorld(0).getSaveHandler().getWorldDirectory(), FILENAME_MINECOLONIES_PATH);
+        return new File(saveDir, FILENAME_COLONIES_PATH);
+    }
+
+    /**
+     * Get the directory of a backup of the colony files, from the world/save directory.
      *
-     * @param file     The destination file to write the data to.
-     * @param compound The NBTTagCompound to write to the file.
+     * @param date the date of the backup.
+     * @return the backup directory.
      */
-    private static void saveNBTToPath(@Nullable final File file, @NotNull final NBTTagCompound compound)
+    @NotNull
+    private static File getBackupColonyDirectory(@NotNull final Date date)
     {
-        try
-        {
-            if (file != null)
-            {
-                file.getParentFile().mkdir();
-                CompressedStreamTools.safeWrite(compound, file);
-            }
-        }
-        catch (final IOException exception)
-        {
-            Log.getLogger().error("Exception when saving ColonyManager", exception);
-        }
+        @NotNull final File saveDir = new File(DimensionManager.getWorld(0).getSaveHandler().getWorldDirectory(), FILENAME_MINECOLONIES_PATH);
+        return new File(saveDir, String.format(FILENAME_COLONIES_BACKUP_PATH, new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(date)));
     }
 
     /**
@@ -670,12 +775,8 @@ public final class ColonyManager
                     MineColonies.getLogger().error("Failed to save " + FILENAME_MINECOLONIES + " backup!");
                 }
 
-                @NotNull final File file = getSaveLocation();
-                @Nullable final NBTTagCompound data = loadNBTFromPath(file);
-                if (data != null)
-                {
-                    readFromNBT(data);
-                }
+                saveDirectory = getColonyDirectory();
+                loadColonies(saveDirectory);
             }
             ++numWorldsLoaded;
 
@@ -688,6 +789,40 @@ public final class ColonyManager
         }
     }
 
+    /**
+     * Load the colonies from their files, or from the legacy single file if there are none yet.
+     *
+     * @param directory the colony directory.
+     */
+    private static void loadColonies(@NotNull final File directory)
+    {
+        @NotNull final List<NBTTagCompound> saved = ColonyPersistence.load(directory, ColonyJournal::apply);
+        if (!saved.isEmpty())
+        {
+            for (@NotNull final NBTTagCompound colonyCompound : saved)
+            {
+                addLoadedColony(Colony.loadColony(colonyCompound));
+            }
+            Log.getLogger().info(String.format("Loaded %d colonies", colonies.size()));
+            return;
+        }
+
+        @NotNull final File file = getSaveLocation();
+        @Nullable final NBTTagCompound data = loadNBTFromPath(file);
+        if (data != null)
+        {
+            readFromNBT(data);
+
+            //  Move over to one file per colony right away, the old file stays around for reference
+            saveColonies();
+            ColonyPersistence.flush();
+            if (!file.renameTo(new File(file.getParentFile(), FILENAME_MINECOLONIES_MIGRATED)))
+            {
+                Log.getLogger().warn("Failed to rename " + FILENAME_MINECOLONIES + " after moving to one file per colony");
+            }
+        }
+    }
+
     /**
      * Load a file and return the data as an NBTTagCompound.
      *
@@ -720,22 +855,60 @@ public final class ColonyManager
         final NBTTagList colonyTags = compound.getTagList(TAG_COLONIES, NBT.TAG_COMPOUND);
         for (int i = 0; i < colonyTags.tagCount(); ++i)
         {
-            @NotNull final Colony colony = Colony.loadColony(colonyTags.getCompoundTagAt(i));
-            colonies.add(colony);
-
-            addColonyByWorld(colony);
+            addLoadedColony(Colony.loadColony(colonyTags.getCompoundTagAt(i)));
         }
 
         Log.getLogger().info(String.format("Loaded %d colonies", colonies.size()));
     }
 
+    private static void addLoadedColony(@NotNull final Colony colony)
+    {
+        colonies.add(colony);
+        addColonyByWorld(colony);
+    }
+
     private static void addColonyByWorld(Colony colony)
     {
         coloniesByWorld.computeIfAbsent(colony.getDimension(), ArrayList::new).add(colony);
+
+        final ColonySpatialIndex<Colony> index = getIndex(colony.getDimension());
+        index.add(colony, colony.getCenter().getX(), colony.getCenter().getZ(), Configurations.workingRangeTownHall);
+        for (@NotNull final BlockPos pos : colony.getBuildings().keySet())
+        {
+            index.addBuilding(pos, colony);
+        }
+    }
+
+    @NotNull
+    private static ColonySpatialIndex<Colony> getIndex(final int dimension)
+    {
+        return indexByWorld.computeIfAbsent(dimension, dim -> new ColonySpatialIndex<>());
+    }
+
+    /**
+     * Called by a colony when it gained a building.
+     *
+     * @param colony   the colony.
+     * @param building the building.
+     */
+    public static void onBuildingAdded(@NotNull final Colony colony, @NotNull final AbstractBuilding building)
+    {
+        getIndex(colony.getDimension()).addBuilding(building.getID(), colony);
     }
 
     /**
-     * Saves data when world is saved.
+     * Called by a colony when it lost a building.
+     *
+     * @param colony   the colony.
+     * @param building the building.
+     */
+    public static void onBuildingRemoved(@NotNull final Colony colony, @NotNull final AbstractBuilding building)
+    {
+        getIndex(colony.getDimension()).removeBuilding(building.getID(), colony);
+    }
+
+    /**
+     * Saves the changed colonies when the world is saved.
      *
      * @param world World.
      */
@@ -744,7 +917,7 @@ public final class ColonyManager
         //We save when the first dimension is saved.
         if (!world.isRemote && world.provider.getDimension() == 0)
         {
-            saveColonies();
+            saveDirtyColonies(false);
         }
     }
 
@@ -766,8 +939,12 @@ public final class ColonyManager
             --numWorldsLoaded;
             if (numWorldsLoaded == 0)
             {
+                saveColonies();
+                ColonyPersistence.flush();
+                saveDirectory = null;
                 colonies.clear();
                 coloniesByWorld.clear();
+                indexByWorld.clear();
             }
         }
     }
@@ -827,22 +1004,23 @@ public final class ColonyManager
     }
 
     /**
-     * Returns result of {@link ColonyView#handleColonyViewCitizensMessage(int, ByteBuf)} if {@link #getColonyView(int)}
+     * Returns result of {@link ColonyView#handleColonyViewCitizensMessage(int, int, ByteBuf)} if {@link #getColonyView(int)}
      * gives a not-null result. If {@link #getColonyView(int)} is null, returns null.
      *
-     * @param colonyId  ID of the colony.
-     * @param citizenId ID of the citizen.
-     * @param buf       {@link ByteBuf} with colony data.
-     * @return result of {@link ColonyView#handleColonyViewCitizensMessage(int, ByteBuf)} or null.
+     * @param colonyId   ID of the colony.
+     * @param citizenId  ID of the citizen.
+     * @param attributes bit mask of the attribute groups in the data.
+     * @param buf        {@link ByteBuf} with colony data.
+     * @return result of {@link ColonyView#handleColonyViewCitizensMessage(int, int, ByteBuf)} or null.
      */
-    public static IMessage handleColonyViewCitizensMessage(final int colonyId, final int citizenId, final ByteBuf buf)
+    public static IMessage handleColonyViewCitizensMessage(final int colonyId, final int citizenId, final int attributes, final ByteBuf buf)
     {
         final ColonyView view = getColonyView(colonyId);
         if (view == null)
         {
             return null;
         }
-        return view.handleColonyViewCitizensMessage(citizenId, buf);
+        return view.handleColonyViewCitizensMessage(citizenId, attributes, buf);
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.minecolonies.coremod.colony;
 
 import com.minecolonies.coremod.entity.EntityCitizen;
+import com.minecolonies.coremod.entity.pathfinding.PassabilityCache;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
@@ -11,7 +12,7 @@ import net.minecraft.world.IWorldEventListener;
 import net.minecraft.world.World;
 
 /**
- * Allows us to respond to entity addition and removal events.
+ * Allows us to respond to entity addition and removal events, and to block changes.
  */
 public class ColonyManagerWorldAccess implements IWorldEventListener
 {
@@ -19,8 +20,13 @@ public class ColonyManagerWorldAccess implements IWorldEventListener
     @Override
     public void notifyBlockUpdate(final World worldIn, final BlockPos pos, final IBlockState oldState, final IBlockState newState, final int flags)
     {
-        //Not needed
+        PassabilityCache.onBlockChanged(worldIn, pos);
 
+        final Colony colony = ColonyManager.getColony(worldIn, pos);
+        if (colony != null)
+        {
+            colony.onBlockChanged(pos);
+        }
     }
 
     @Override
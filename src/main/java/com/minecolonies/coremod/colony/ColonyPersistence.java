@@ -0,0 +1,394 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.util.Log;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes colonies to disk, one file per colony, off the server thread.
+ * <p>
+ * The server thread hands over finished NBT snapshots, a single writer thread compresses and writes them. A snapshot
+ * goes to a temporary file first which then replaces the colony file, so a crash while writing keeps the old one.
+ * Snapshots of the same colony which are still waiting get replaced by the newer one, so a colony is never written
+ * twice in a row for nothing.
+ * <p>
+ * Between snapshots only journal entries with the changes are appended to a second file per colony.
+ * Loading replays the journal on top of the snapshot, writing the next snapshot deletes the journal again.
+ */
+public final class ColonyPersistence
+{
+    /**
+     * The file name pattern of a single colony.
+     */
+    private static final String  FILENAME_COLONY  = "colony%d.dat";
+    private static final String  FILENAME_JOURNAL = "colony%d.journal";
+    private static final String  SUFFIX_TEMPORARY = "_tmp";
+    private static final Pattern COLONY_FILE      = Pattern.compile("colony(\\d+)\\.dat");
+
+    /**
+     * Writes waiting to be done, by colony file, guarded by itself.
+     */
+    private static final Map<File, PendingWrite> pending = new LinkedHashMap<>();
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable ->
+    {
+        final Thread thread = new Thread(runnable, "Minecolonies Colony Saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Whether a write task is queued which didn't pick up the pending snapshots yet.
+     */
+    private static boolean writeScheduled;
+
+    private ColonyPersistence()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Get the file a colony is stored in.
+     *
+     * @param directory the colony directory.
+     * @param id        the colony id.
+     * @return the file.
+     */
+    @NotNull
+    public static File getColonyFile(@NotNull final File directory, final int id)
+    {
+        return new File(directory, String.format(FILENAME_COLONY, id));
+    }
+
+    /**
+     * Get the journal file of a colony.
+     *
+     * @param directory the colony directory.
+     * @param id        the colony id.
+     * @return the file.
+     */
+    @NotNull
+    public static File getJournalFile(@NotNull final File directory, final int id)
+    {
+        return new File(directory, String.format(FILENAME_JOURNAL, id));
+    }
+
+    /**
+     * Queue a colony snapshot for writing, journal entries still waiting are dropped as the snapshot contains them.
+     * The snapshot must not be touched anymore afterwards.
+     *
+     * @param directory the colony directory.
+     * @param id        the colony id.
+     * @param snapshot  the colony data.
+     */
+    public static void save(@NotNull final File directory, final int id, @NotNull final NBTTagCompound snapshot)
+    {
+        enqueue(directory, id, write ->
+        {
+            write.snapshot = snapshot;
+            write.journal.clear();
+            write.deleted = false;
+        });
+    }
+
+    /**
+     * Queue a journal entry to be appended to the journal of a colony.
+     * The entry must not be touched anymore afterwards.
+     *
+     * @param directory the colony directory.
+     * @param id        the colony id.
+     * @param entry     the journal entry.
+     */
+    public static void append(@NotNull final File directory, final int id, @NotNull final NBTTagCompound entry)
+    {
+        enqueue(directory, id, write -> write.journal.add(entry));
+    }
+
+    /**
+     * Queue the files of a colony for deletion.
+     *
+     * @param directory the colony directory.
+     * @param id        the colony id.
+     */
+    public static void delete(@NotNull final File directory, final int id)
+    {
+        enqueue(directory, id, write ->
+        {
+            write.snapshot = null;
+            write.journal.clear();
+            write.deleted = true;
+        });
+    }
+
+    private static void enqueue(@NotNull final File directory, final int id, @NotNull final Consumer<PendingWrite> update)
+    {
+        synchronized (pending)
+        {
+            update.accept(pending.computeIfAbsent(getColonyFile(directory, id), file -> new PendingWrite(file, getJournalFile(directory, id))));
+            if (!writeScheduled)
+            {
+                writeScheduled = true;
+                writer.execute(ColonyPersistence::writePending);
+            }
+        }
+    }
+
+    /**
+     * Block until everything queued so far is on disk.
+     */
+    public static void flush()
+    {
+        try
+        {
+            writer.submit(() -> { }).get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            Log.getLogger().warn("Interrupted while waiting for colonies to be saved", e);
+        }
+        catch (final ExecutionException e)
+        {
+            Log.getLogger().error("Exception when saving colonies", e);
+        }
+    }
+
+    /**
+     * Write all pending snapshots, runs on the writer thread.
+     */
+    private static void writePending()
+    {
+        final List<PendingWrite> toWrite;
+        synchronized (pending)
+        {
+            toWrite = new ArrayList<>(pending.values());
+            pending.clear();
+            writeScheduled = false;
+        }
+
+        for (final PendingWrite write : toWrite)
+        {
+            try
+            {
+                write.write();
+            }
+            catch (final IOException exception)
+            {
+                Log.getLogger().error("Exception when saving " + write.file.getName(), exception);
+            }
+        }
+    }
+
+    /**
+     * Write a compressed snapshot to a temporary file and move it over the colony file.
+     *
+     * @param snapshot the colony data.
+     * @param file     the colony file.
+     * @throws IOException when writing fails.
+     */
+    private static void writeSnapshot(@NotNull final NBTTagCompound snapshot, @NotNull final File file) throws IOException
+    {
+        final File temporary = new File(file.getParentFile(), file.getName() + SUFFIX_TEMPORARY);
+        try (OutputStream out = new FileOutputStream(temporary))
+        {
+            CompressedStreamTools.writeCompressed(snapshot, out);
+        }
+
+        try
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final AtomicMoveNotSupportedException e)
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Append journal entries to a journal file, as length prefixed compressed compounds.
+     *
+     * @param journalFile the journal file.
+     * @param entries     the entries to append.
+     * @throws IOException when writing fails.
+     */
+    private static void appendJournal(@NotNull final File journalFile, @NotNull final List<NBTTagCompound> entries) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true))))
+        {
+            for (final NBTTagCompound entry : entries)
+            {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                CompressedStreamTools.writeCompressed(entry, bytes);
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Read the entries of a journal file.
+     * A record which was cut off by a crash ends the journal, everything before it is still used.
+     *
+     * @param journalFile the journal file.
+     * @return the entries in write order, empty if there is no journal.
+     */
+    @NotNull
+    public static List<NBTTagCompound> readJournal(@NotNull final File journalFile)
+    {
+        final List<NBTTagCompound> entries = new ArrayList<>();
+        if (!journalFile.exists())
+        {
+            return entries;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile))))
+        {
+            while (true)
+            {
+                final int length = in.readInt();
+                if (length <= 0)
+                {
+                    break;
+                }
+                final byte[] record = new byte[length];
+                in.readFully(record);
+                entries.add(CompressedStreamTools.readCompressed(new ByteArrayInputStream(record)));
+            }
+        }
+        catch (final EOFException e)
+        {
+            //  End of the journal, or a record cut off by a crash.
+        }
+        catch (final IOException exception)
+        {
+            Log.getLogger().warn("Exception when reading " + journalFile.getName() + ", using the entries before it", exception);
+        }
+        return entries;
+    }
+
+    /**
+     * Read all colony files of a directory, with their journals replayed on top.
+     *
+     * @param directory the colony directory.
+     * @param replay    applies a journal entry to the colony data.
+     * @return the colony data, by ascending colony id.
+     */
+    @NotNull
+    public static List<NBTTagCompound> load(@NotNull final File directory, @NotNull final BiConsumer<NBTTagCompound, NBTTagCompound> replay)
+    {
+        final SortedMap<Integer, File> files = getColonyFiles(directory);
+        final List<NBTTagCompound> colonies = new ArrayList<>(files.size());
+        for (final Map.Entry<Integer, File> file : files.entrySet())
+        {
+            try
+            {
+                final NBTTagCompound compound;
+                try (InputStream in = new FileInputStream(file.getValue()))
+                {
+                    compound = CompressedStreamTools.readCompressed(in);
+                }
+                for (final NBTTagCompound entry : readJournal(getJournalFile(directory, file.getKey())))
+                {
+                    replay.accept(compound, entry);
+                }
+                colonies.add(compound);
+            }
+            catch (final IOException exception)
+            {
+                Log.getLogger().error("Exception when loading " + file.getValue().getName(), exception);
+            }
+        }
+        return colonies;
+    }
+
+    /**
+     * Find all colony files of a directory.
+     *
+     * @param directory the colony directory.
+     * @return the files, by colony id.
+     */
+    @NotNull
+    public static SortedMap<Integer, File> getColonyFiles(@NotNull final File directory)
+    {
+        final SortedMap<Integer, File> files = new TreeMap<>();
+        @Nullable final File[] children = directory.listFiles();
+        if (children != null)
+        {
+            for (final File child : children)
+            {
+                final Matcher matcher = COLONY_FILE.matcher(child.getName());
+                if (matcher.matches())
+                {
+                    files.put(Integer.parseInt(matcher.group(1)), child);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Everything waiting to be written for one colony.
+     */
+    private static final class PendingWrite
+    {
+        @NotNull
+        private final File                 file;
+        @NotNull
+        private final File                 journalFile;
+        @NotNull
+        private final List<NBTTagCompound> journal = new ArrayList<>();
+        @Nullable
+        private       NBTTagCompound       snapshot;
+        private       boolean              deleted;
+
+        private PendingWrite(@NotNull final File file, @NotNull final File journalFile)
+        {
+            this.file = file;
+            this.journalFile = journalFile;
+        }
+
+        /**
+         * Do the writes, runs on the writer thread.
+         *
+         * @throws IOException when writing fails.
+         */
+        private void write() throws IOException
+        {
+            if (deleted)
+            {
+                Files.deleteIfExists(file.toPath());
+                Files.deleteIfExists(journalFile.toPath());
+                return;
+            }
+
+            if (snapshot != null)
+            {
+                file.getParentFile().mkdirs();
+                writeSnapshot(snapshot, file);
+                //  Only once the snapshot is safely on disk the journal is obsolete.
+                Files.deleteIfExists(journalFile.toPath());
+            }
+
+            if (!journal.isEmpty())
+            {
+                journalFile.getParentFile().mkdirs();
+                appendJournal(journalFile, journal);
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.minecolonies.coremod.colony;
+
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Spatial index of the colonies of one dimension.
+ * <p>
+ * Each chunk lists the colonies whose area overlaps it, so finding the colony at a position only has to check
+ * those few. Colony centers are also bucketed into large regions, searched ring by ring outwards to find the
+ * closest colony. Building positions map straight to their colony.
+ *
+ * @param <T> the colony type.
+ */
+final class ColonySpatialIndex<T>
+{
+    private static final int CHUNK_SHIFT  = 4;
+    /**
+     * Size of the regions of the closest colony search, 256 blocks.
+     */
+    private static final int REGION_SHIFT = 8;
+
+    private final Map<Long, List<T>> coverage  = new HashMap<>();
+    private final Map<Long, List<T>> centers   = new HashMap<>();
+    private final Map<T, Area>       areas     = new HashMap<>();
+    private final Map<BlockPos, T>   buildings = new HashMap<>();
+
+    /**
+     * Bounds of all regions which ever held a colony, limits the closest colony search.
+     */
+    private int minRegionX = Integer.MAX_VALUE;
+    private int minRegionZ = Integer.MAX_VALUE;
+    private int maxRegionX = Integer.MIN_VALUE;
+    private int maxRegionZ = Integer.MIN_VALUE;
+
+    /**
+     * Add a colony, or move it if it is already indexed.
+     *
+     * @param colony  the colony.
+     * @param centerX x of the colony center.
+     * @param centerZ z of the colony center.
+     * @param radius  the radius of the colony area.
+     */
+    void add(@NotNull final T colony, final int centerX, final int centerZ, final int radius)
+    {
+        removeArea(colony);
+
+        final Area area = new Area(centerX, centerZ, radius);
+        areas.put(colony, area);
+        for (int chunkX = (centerX - radius) >> CHUNK_SHIFT; chunkX <= (centerX + radius) >> CHUNK_SHIFT; chunkX++)
+        {
+            for (int chunkZ = (centerZ - radius) >> CHUNK_SHIFT; chunkZ <= (centerZ + radius) >> CHUNK_SHIFT; chunkZ++)
+            {
+                coverage.computeIfAbsent(key(chunkX, chunkZ), k -> new ArrayList<>(1)).add(colony);
+            }
+        }
+
+        final int regionX = centerX >> REGION_SHIFT;
+        final int regionZ = centerZ >> REGION_SHIFT;
+        centers.computeIfAbsent(key(regionX, regionZ), k -> new ArrayList<>(1)).add(colony);
+        minRegionX = Math.min(minRegionX, regionX);
+        minRegionZ = Math.min(minRegionZ, regionZ);
+        maxRegionX = Math.max(maxRegionX, regionX);
+        maxRegionZ = Math.max(maxRegionZ, regionZ);
+    }
+
+    /**
+     * Remove a colony and its buildings.
+     *
+     * @param colony the colony.
+     */
+    void remove(@NotNull final T colony)
+    {
+        removeArea(colony);
+        buildings.values().removeIf(owner -> owner == colony);
+    }
+
+    private void removeArea(@NotNull final T colony)
+    {
+        final Area area = areas.remove(colony);
+        if (area == null)
+        {
+            return;
+        }
+
+        for (int chunkX = (area.centerX - area.radius) >> CHUNK_SHIFT; chunkX <= (area.centerX + area.radius) >> CHUNK_SHIFT; chunkX++)
+        {
+            for (int chunkZ = (area.centerZ - area.radius) >> CHUNK_SHIFT; chunkZ <= (area.centerZ + area.radius) >> CHUNK_SHIFT; chunkZ++)
+            {
+                removeFrom(coverage, key(chunkX, chunkZ), colony);
+            }
+        }
+        removeFrom(centers, key(area.centerX >> REGION_SHIFT, area.centerZ >> REGION_SHIFT), colony);
+    }
+
+    private static <T> void removeFrom(@NotNull final Map<Long, List<T>> map, final long key, @NotNull final T colony)
+    {
+        final List<T> list = map.get(key);
+        if (list != null)
+        {
+            list.remove(colony);
+            if (list.isEmpty())
+            {
+                map.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Get the colonies whose area may contain a position, the caller checks the exact shape.
+     *
+     * @param x the x coordinate.
+     * @param z the z coordinate.
+     * @return the candidates, possibly empty.
+     */
+    @NotNull
+    List<T> getCandidates(final int x, final int z)
+    {
+        final List<T> list = coverage.get(key(x >> CHUNK_SHIFT, z >> CHUNK_SHIFT));
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    /**
+     * Find the colony with the center closest to a position, in (x, z) direction.
+     *
+     * @param x the x coordinate.
+     * @param z the z coordinate.
+     * @return the closest colony, or null if there is none.
+     */
+    @Nullable
+    T getClosest(final int x, final int z)
+    {
+        if (areas.isEmpty())
+        {
+            return null;
+        }
+
+        final int regionX = x >> REGION_SHIFT;
+        final int regionZ = z >> REGION_SHIFT;
+        final int maxRing = Math.max(Math.max(Math.abs(regionX - minRegionX), Math.abs(regionX - maxRegionX)),
+          Math.max(Math.abs(regionZ - minRegionZ), Math.abs(regionZ - maxRegionZ)));
+
+        final Closest closest = new Closest(x, z);
+        for (int ring = 0; ring <= maxRing; ring++)
+        {
+            if (ring == 0)
+            {
+                closest.check(regionX, regionZ);
+            }
+            else
+            {
+                for (int d = -ring; d <= ring; d++)
+                {
+                    closest.check(regionX + d, regionZ - ring);
+                    closest.check(regionX + d, regionZ + ring);
+                }
+                for (int d = -ring + 1; d < ring; d++)
+                {
+                    closest.check(regionX - ring, regionZ + d);
+                    closest.check(regionX + ring, regionZ + d);
+                }
+            }
+
+            //  Everything in the next rings is at least ring regions away
+            final long ringDistance = (long) ring << REGION_SHIFT;
+            if (closest.colony != null && closest.distance <= ringDistance * ringDistance)
+            {
+                break;
+            }
+        }
+        return closest.colony;
+    }
+
+    /**
+     * Record the colony a building belongs to.
+     *
+     * @param pos    the building position.
+     * @param colony the colony.
+     */
+    void addBuilding(@NotNull final BlockPos pos, @NotNull final T colony)
+    {
+        buildings.put(pos, colony);
+    }
+
+    /**
+     * Forget a building, if it still belongs to the given colony.
+     *
+     * @param pos    the building position.
+     * @param colony the colony.
+     */
+    void removeBuilding(@NotNull final BlockPos pos, @NotNull final T colony)
+    {
+        buildings.remove(pos, colony);
+    }
+
+    /**
+     * Get the colony which has a building at a position, whether or not the position is inside its area.
+     *
+     * @param pos the position.
+     * @return the colony or null.
+     */
+    @Nullable
+    T getBuildingOwner(@NotNull final BlockPos pos)
+    {
+        return buildings.get(pos);
+    }
+
+    private static long key(final int x, final int z)
+    {
+        return ((long) x << Integer.SIZE) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Center and radius of an indexed colony.
+     */
+    private static final class Area
+    {
+        private final int centerX;
+        private final int centerZ;
+        private final int radius;
+
+        private Area(final int centerX, final int centerZ, final int radius)
+        {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radius = radius;
+        }
+    }
+
+    /**
+     * Best candidate of the closest colony search.
+     */
+    private final class Closest
+    {
+        private final int  x;
+        private final int  z;
+        @Nullable
+        private       T    colony;
+        private       long distance = Long.MAX_VALUE;
+
+        private Closest(final int x, final int z)
+        {
+            this.x = x;
+            this.z = z;
+        }
+
+        private void check(final int regionX, final int regionZ)
+        {
+            final List<T> list = centers.get(key(regionX, regionZ));
+            if (list == null)
+            {
+                return;
+            }
+
+            for (final T candidate : list)
+            {
+                final Area area = areas.get(candidate);
+                final long xDiff = (long) area.centerX - x;
+                final long zDiff = (long) area.centerZ - z;
+                final long dist = xDiff * xDiff + zDiff * zDiff;
+                if (dist < distance)
+                {
+                    colony = candidate;
+                    distance = dist;
+                }
+            }
+        }
+    }
+}
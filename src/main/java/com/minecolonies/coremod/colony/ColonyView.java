@@ -6,9 +6,11 @@ import com.minecolonies.coremod.colony.buildings.BuildingTownHall;
 import com.minecolonies.coremod.colony.permissions.Permissions;
 import com.minecolonies.coremod.colony.workorders.AbstractWorkOrder;
 import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.network.messages.CitizenViewResyncMessage;
 import com.minecolonies.coremod.network.messages.PermissionsMessage;
 import com.minecolonies.coremod.network.messages.TownHallRenameMessage;
 import com.minecolonies.coremod.util.BlockPosUtil;
+import com.minecolonies.coremod.util.Log;
 import com.minecolonies.coremod.util.MathUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.block.Block;
@@ -399,19 +401,33 @@ public final class ColonyView implements IColony
 
     /**
      * Update a ColonyView's citizens given a network data ColonyView update packet.
-     * This uses a full-replacement - citizens do not get updated and are instead overwritten.
+     * A full update replaces the citizen, otherwise only the changed attribute groups of the known citizen are updated.
+     * A partial update for an unknown citizen can't be applied, the full view of the citizen is requested instead.
      *
-     * @param id  ID of the citizen.
-     * @param buf Network data.
-     * @return null == no response.
+     * @param id         ID of the citizen.
+     * @param attributes bit mask of the attribute groups in the data.
+     * @param buf        Network data.
+     * @return null == no response, or the request for the full view.
      */
-    public IMessage handleColonyViewCitizensMessage(final int id, final ByteBuf buf)
+    public IMessage handleColonyViewCitizensMessage(final int id, final int attributes, final ByteBuf buf)
     {
-        final CitizenDataView citizen = CitizenData.createCitizenDataView(id, buf);
-        if (citizen != null)
+        if (attributes == CitizenData.VIEW_ALL)
+        {
+            final CitizenDataView citizen = CitizenData.createCitizenDataView(id, buf);
+            if (citizen != null)
+            {
+                citizens.put(citizen.getID(), citizen);
+            }
+            return null;
+        }
+
+        final CitizenDataView citizen = citizens.get(id);
+        if (citizen == null)
         {
-            citizens.put(citizen.getID(), citizen);
+            Log.getLogger().warn(String.format("Received a partial update for unknown citizen #%d of colony #%d, requesting it", id, this.id));
+            return new CitizenViewResyncMessage(this.id, id);
         }
+        citizen.deserializeDelta(attributes, buf);
 
         return null;
     }
@@ -0,0 +1,142 @@
+package com.minecolonies.coremod.colony;
+
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Queue of the buildings of a colony which asked for a delivery.
+ * <p>
+ * Buildings push themselves in when their needs change and the warehouse polls them, so the warehouse never has to
+ * walk over all buildings. Each building is queued at most once. Requests the warehouse can't serve yet are put back
+ * with a delay, new requests go first, then tool requests before item requests, otherwise first come first served.
+ */
+public final class DeliveryRequestQueue
+{
+    /**
+     * Priority of a building missing a tool, the worker can't do anything without it.
+     */
+    public static final int PRIORITY_TOOL = 0;
+
+    /**
+     * Priority of a building missing items.
+     */
+    public static final int PRIORITY_ITEM = 1;
+
+    private static final Comparator<Request> ORDER = Comparator.<Request>comparingLong(request -> request.readyTick)
+                                                       .thenComparingInt(request -> request.priority)
+                                                       .thenComparingLong(request -> request.sequence);
+
+    private final PriorityQueue<Request> queue  = new PriorityQueue<>(ORDER);
+    private final Map<BlockPos, Request> queued = new HashMap<>();
+    private       long                   sequence;
+
+    /**
+     * Queue a building, unless it is queued already.
+     *
+     * @param building the location of the building.
+     * @param priority {@link #PRIORITY_TOOL} or {@link #PRIORITY_ITEM}.
+     * @return true if it was newly queued.
+     */
+    public boolean offer(@NotNull final BlockPos building, final int priority)
+    {
+        return offer(building, priority, 0);
+    }
+
+    /**
+     * Queue a building again, not to be polled before the given tick.
+     *
+     * @param building  the location of the building.
+     * @param priority  {@link #PRIORITY_TOOL} or {@link #PRIORITY_ITEM}.
+     * @param readyTick the first world tick it may be polled at.
+     * @return true if it was newly queued.
+     */
+    public boolean offer(@NotNull final BlockPos building, final int priority, final long readyTick)
+    {
+        if (queued.containsKey(building))
+        {
+            return false;
+        }
+
+        final Request request = new Request(building, priority, readyTick, sequence++);
+        queued.put(building, request);
+        queue.add(request);
+        return true;
+    }
+
+    /**
+     * Take the next request which is ready.
+     *
+     * @param tick the current world tick.
+     * @return the location of the building, or null if no request is ready.
+     */
+    @Nullable
+    public BlockPos poll(final long tick)
+    {
+        while (!queue.isEmpty() && queue.peek().readyTick <= tick)
+        {
+            final Request request = queue.poll();
+            //  Removed requests stay in the queue until they come up
+            if (queued.remove(request.building, request))
+            {
+                return request.building;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drop the request of a building, when it was removed.
+     *
+     * @param building the location of the building.
+     */
+    public void remove(@NotNull final BlockPos building)
+    {
+        queued.remove(building);
+    }
+
+    /**
+     * Check if a building is queued.
+     *
+     * @param building the location of the building.
+     * @return true if so.
+     */
+    public boolean contains(@NotNull final BlockPos building)
+    {
+        return queued.containsKey(building);
+    }
+
+    /**
+     * Get the number of queued buildings.
+     *
+     * @return the size.
+     */
+    public int size()
+    {
+        return queued.size();
+    }
+
+    /**
+     * A queued building.
+     */
+    private static final class Request
+    {
+        private final BlockPos building;
+        private final int      priority;
+        private final long     readyTick;
+        private final long     sequence;
+
+        private Request(final BlockPos building, final int priority, final long readyTick, final long sequence)
+        {
+            this.building = building;
+            this.priority = priority;
+            this.readyTick = readyTick;
+            this.sequence = sequence;
+        }
+    }
+}
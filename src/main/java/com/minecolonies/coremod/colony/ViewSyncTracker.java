@@ -0,0 +1,151 @@
+package com.minecolonies.coremod.colony;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of what each subscriber knows about one synced object, so only changed attribute groups are sent.
+ * <p>
+ * Every group has the version it last changed in, and every subscriber the version it received last.
+ * The network channel is reliable and ordered, so sending a version counts as acknowledging it.
+ * Subscribers without a version get the full state.
+ *
+ * @param <S> the subscriber type.
+ */
+final class ViewSyncTracker<S>
+{
+    /**
+     * Writes one attribute group of the synced object.
+     */
+    @FunctionalInterface
+    interface AttributeWriter
+    {
+        /**
+         * Write the attribute group.
+         *
+         * @param attribute the group index.
+         * @param buf       buffer to write to.
+         */
+        void write(int attribute, @NotNull ByteBuf buf);
+    }
+
+    private final byte[][]        attributes;
+    private final int[]           attributeVersions;
+    private final Map<S, Integer> acknowledged = new HashMap<>();
+    private       int             version;
+
+    /**
+     * Create a tracker for an object with the given number of attribute groups.
+     *
+     * @param attributeCount the number of groups, at most 31.
+     */
+    ViewSyncTracker(final int attributeCount)
+    {
+        this.attributes = new byte[attributeCount][];
+        this.attributeVersions = new int[attributeCount];
+    }
+
+    /**
+     * Serialize the object again and bump the version of every group which changed since the last time.
+     *
+     * @param writer writes the groups.
+     * @return true if any group changed.
+     */
+    boolean refresh(@NotNull final AttributeWriter writer)
+    {
+        final ByteBuf buf = Unpooled.buffer();
+        boolean changed = false;
+        for (int attribute = 0; attribute < attributes.length; attribute++)
+        {
+            buf.clear();
+            writer.write(attribute, buf);
+            final byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+
+            if (!Arrays.equals(bytes, attributes[attribute]))
+            {
+                if (!changed)
+                {
+                    version++;
+                    changed = true;
+                }
+                attributes[attribute] = bytes;
+                attributeVersions[attribute] = version;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Get the groups a subscriber is missing.
+     *
+     * @param subscriber the subscriber.
+     * @return bit mask of the groups, all of them if the subscriber has nothing yet, 0 if it is up to date.
+     */
+    int getPendingAttributes(@NotNull final S subscriber)
+    {
+        final Integer known = acknowledged.get(subscriber);
+        int mask = 0;
+        for (int attribute = 0; attribute < attributes.length; attribute++)
+        {
+            if (known == null || attributeVersions[attribute] > known)
+            {
+                mask |= 1 << attribute;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Write the last serialized state of some groups, in group order.
+     *
+     * @param mask bit mask of the groups.
+     * @param buf  buffer to write to.
+     */
+    void writeAttributes(final int mask, @NotNull final ByteBuf buf)
+    {
+        for (int attribute = 0; attribute < attributes.length; attribute++)
+        {
+            if ((mask & (1 << attribute)) != 0 && attributes[attribute] != null)
+            {
+                buf.writeBytes(attributes[attribute]);
+            }
+        }
+    }
+
+    /**
+     * Record that a subscriber was sent the current version.
+     *
+     * @param subscriber the subscriber.
+     */
+    void acknowledge(@NotNull final S subscriber)
+    {
+        acknowledged.put(subscriber, version);
+    }
+
+    /**
+     * Forget what a subscriber knows, it gets the full state with the next update.
+     *
+     * @param subscriber the subscriber.
+     */
+    void forget(@NotNull final S subscriber)
+    {
+        acknowledged.remove(subscriber);
+    }
+
+    /**
+     * Forget everyone not in the given subscribers, they get the full state should they come back.
+     *
+     * @param subscribers the subscribers to keep.
+     */
+    void retainSubscribers(@NotNull final Collection<S> subscribers)
+    {
+        acknowledged.keySet().retainAll(subscribers);
+    }
+}
@@ -0,0 +1,441 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.entity.pathfinding.WayPointProbe;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Road graph of the way points and buildings of a colony.
+ * <p>
+ * Points closer than {@link #MAX_EDGE_LENGTH} are connected if a short walk probe between them succeeds. Pairs are
+ * probed a few per tick, and pairs running into unloaded chunks are probed again on later ticks until they can be
+ * told. The pairs are indexed by the chunks their line passes, so a changed block only looks at the pairs running past
+ * its chunk, and marks those close to it for probing again. Removing a point only drops its own pairs. The shortest
+ * paths towards a point are computed once with Dijkstra and kept until the edges change, so a route is a lookup of the
+ * connected points closest to start and target plus a walk along the stored next hops. Points which aren't connected
+ * to anything, like huts whose walls block every probe, are skipped.
+ */
+final class WayPointGraph
+{
+    /**
+     * Longest edge, in blocks.
+     */
+    static final int MAX_EDGE_LENGTH = 32;
+
+    /**
+     * Farthest distance to the first and from the last point of a route, in blocks.
+     */
+    static final int MAX_ACCESS_DISTANCE = 24;
+
+    /**
+     * Routes longer than the straight line times this factor are not worth following.
+     */
+    private static final double MAX_DETOUR = 2.0D;
+
+    /**
+     * Most pairs probed per tick.
+     */
+    static final int MAX_PROBES_PER_TICK = 8;
+
+    /**
+     * Block changes closer than this to the line between two points, sideways in blocks, get the pair probed again.
+     */
+    private static final double MAX_CHANGE_DISTANCE = 2.0D;
+
+    /**
+     * Size of the cells the pairs are indexed by, as a shift: chunks.
+     */
+    private static final int CELL_SHIFT = 4;
+
+    private final Map<BlockPos, Map<BlockPos, WayPointProbe.Result>> links       = new HashMap<>();
+    private final Map<Long, Set<Pair>>                               pairsByCell = new HashMap<>();
+    private final Set<BlockPos>                                      pending     = new LinkedHashSet<>();
+    private final Map<BlockPos, ShortestPaths>                       paths       = new HashMap<>();
+
+    /**
+     * Add a point, it gets connected on the next ticks.
+     *
+     * @param point the point.
+     */
+    void add(@NotNull final BlockPos point)
+    {
+        if (links.containsKey(point))
+        {
+            return;
+        }
+
+        final Map<BlockPos, WayPointProbe.Result> own = new HashMap<>();
+        for (final Map.Entry<BlockPos, Map<BlockPos, WayPointProbe.Result>> other : links.entrySet())
+        {
+            if (distance(point, other.getKey()) <= MAX_EDGE_LENGTH)
+            {
+                own.put(other.getKey(), WayPointProbe.Result.UNKNOWN);
+                other.getValue().put(point, WayPointProbe.Result.UNKNOWN);
+                index(new Pair(point, other.getKey()), true);
+            }
+        }
+        links.put(point, own);
+        if (!own.isEmpty())
+        {
+            pending.add(point);
+        }
+    }
+
+    /**
+     * Remove a point and its edges.
+     *
+     * @param point the point.
+     */
+    void remove(@NotNull final BlockPos point)
+    {
+        final Map<BlockPos, WayPointProbe.Result> removed = links.remove(point);
+        if (removed == null)
+        {
+            return;
+        }
+
+        pending.remove(point);
+        for (final BlockPos neighbour : removed.keySet())
+        {
+            links.get(neighbour).remove(point);
+            index(new Pair(point, neighbour), false);
+        }
+        paths.clear();
+    }
+
+    /**
+     * Note a changed block, the pairs running past it are probed again on the next ticks.
+     *
+     * @param pos the position of the block.
+     */
+    void onBlockChanged(@NotNull final BlockPos pos)
+    {
+        final Set<Pair> nearby = pairsByCell.get(key(pos.getX() >> CELL_SHIFT, pos.getZ() >> CELL_SHIFT));
+        if (nearby == null)
+        {
+            return;
+        }
+
+        for (final Pair pair : nearby)
+        {
+            final WayPointProbe.Result result = links.get(pair.first).get(pair.second);
+            if (result != WayPointProbe.Result.UNKNOWN && isNearLine(pos, pair.first, pair.second))
+            {
+                setResult(pair.first, pair.second, WayPointProbe.Result.UNKNOWN);
+                pending.add(pair.first);
+            }
+        }
+    }
+
+    /**
+     * Check if a point is in the graph.
+     *
+     * @param point the point.
+     * @return true if so.
+     */
+    boolean contains(@NotNull final BlockPos point)
+    {
+        return links.containsKey(point);
+    }
+
+    /**
+     * Get the points a point is connected to.
+     *
+     * @param point the point.
+     * @return the neighbours, empty if not connected yet.
+     */
+    @NotNull
+    Set<BlockPos> getNeighbours(@NotNull final BlockPos point)
+    {
+        final Map<BlockPos, WayPointProbe.Result> own = links.get(point);
+        if (own == null)
+        {
+            return Collections.emptySet();
+        }
+
+        final Set<BlockPos> neighbours = new HashSet<>();
+        for (final Map.Entry<BlockPos, WayPointProbe.Result> link : own.entrySet())
+        {
+            if (link.getValue() == WayPointProbe.Result.WALKABLE)
+            {
+                neighbours.add(link.getKey());
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Find the points to walk along from a start to a target.
+     *
+     * @param start  the start.
+     * @param target the target.
+     * @return the points in walking order, empty if walking directly is as good.
+     */
+    @NotNull
+    List<BlockPos> route(@NotNull final BlockPos start, @NotNull final BlockPos target)
+    {
+        final BlockPos last = closest(target, this::isConnected);
+        if (last == null)
+        {
+            return Collections.emptyList();
+        }
+
+        //  The first point must be able to reach the last one
+        final ShortestPaths towardsLast = paths.computeIfAbsent(last, this::computePaths);
+        final BlockPos first = closest(start, towardsLast.distances::containsKey);
+        if (first == null || first.equals(last))
+        {
+            return Collections.emptyList();
+        }
+
+        final double distance = towardsLast.distances.get(first);
+        if (distance(start, first) + distance + distance(last, target) > MAX_DETOUR * distance(start, target))
+        {
+            return Collections.emptyList();
+        }
+
+        final List<BlockPos> route = new ArrayList<>();
+        for (BlockPos point = first; point != null; point = towardsLast.nextHops.get(point))
+        {
+            route.add(point);
+        }
+        return route;
+    }
+
+    /**
+     * Check if a position is close enough to the line between two points to change the outcome of a probe.
+     * <p>
+     * The probe climbs at most one block per step, so it can't leave the height of the points by more than the longest
+     * edge.
+     */
+    static boolean isNearLine(@NotNull final BlockPos pos, @NotNull final BlockPos from, @NotNull final BlockPos to)
+    {
+        if (pos.getY() < Math.min(from.getY(), to.getY()) - MAX_EDGE_LENGTH || pos.getY() > Math.max(from.getY(), to.getY()) + MAX_EDGE_LENGTH)
+        {
+            return false;
+        }
+
+        final double lineX = to.getX() - from.getX();
+        final double lineZ = to.getZ() - from.getZ();
+        final double posX = pos.getX() - from.getX();
+        final double posZ = pos.getZ() - from.getZ();
+        final double lengthSq = lineX * lineX + lineZ * lineZ;
+        final double along = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, (posX * lineX + posZ * lineZ) / lengthSq));
+        final double offX = posX - along * lineX;
+        final double offZ = posZ - along * lineZ;
+        return offX * offX + offZ * offZ <= MAX_CHANGE_DISTANCE * MAX_CHANGE_DISTANCE;
+    }
+
+    /**
+     * Probe some of the unknown pairs of the pending points. Points stay pending while a pair can't be told yet, those
+     * go to the back so they don't hold up the others.
+     *
+     * @param probe     tells if the line between two points can be walked.
+     * @param maxProbes the most pairs to probe.
+     */
+    void connectPending(@NotNull final BiFunction<BlockPos, BlockPos, WayPointProbe.Result> probe, final int maxProbes)
+    {
+        int probes = 0;
+        final List<BlockPos> unfinished = new ArrayList<>();
+        final Iterator<BlockPos> iterator = pending.iterator();
+        while (iterator.hasNext() && probes < maxProbes)
+        {
+            final BlockPos point = iterator.next();
+            boolean unknown = false;
+            for (final Map.Entry<BlockPos, WayPointProbe.Result> link : links.get(point).entrySet())
+            {
+                if (link.getValue() != WayPointProbe.Result.UNKNOWN)
+                {
+                    continue;
+                }
+                if (probes >= maxProbes)
+                {
+                    unknown = true;
+                    break;
+                }
+
+                probes++;
+                final WayPointProbe.Result result = probe.apply(point, link.getKey());
+                setResult(point, link.getKey(), result);
+                unknown |= result == WayPointProbe.Result.UNKNOWN;
+            }
+
+            iterator.remove();
+            if (unknown)
+            {
+                unfinished.add(point);
+            }
+        }
+        pending.addAll(unfinished);
+    }
+
+    /**
+     * Store the probe result of a pair, for both its points.
+     */
+    private void setResult(@NotNull final BlockPos point, @NotNull final BlockPos other, @NotNull final WayPointProbe.Result result)
+    {
+        final WayPointProbe.Result previous = links.get(point).put(other, result);
+        links.get(other).put(point, result);
+        if (previous == WayPointProbe.Result.WALKABLE || result == WayPointProbe.Result.WALKABLE)
+        {
+            paths.clear();
+        }
+    }
+
+    /**
+     * Add a pair to or remove it from the cells its line passes, widened by the change distance.
+     */
+    private void index(@NotNull final Pair pair, final boolean add)
+    {
+        final int minX = (int) Math.floor(Math.min(pair.first.getX(), pair.second.getX()) - MAX_CHANGE_DISTANCE) >> CELL_SHIFT;
+        final int maxX = (int) Math.floor(Math.max(pair.first.getX(), pair.second.getX()) + MAX_CHANGE_DISTANCE) >> CELL_SHIFT;
+        final int minZ = (int) Math.floor(Math.min(pair.first.getZ(), pair.second.getZ()) - MAX_CHANGE_DISTANCE) >> CELL_SHIFT;
+        final int maxZ = (int) Math.floor(Math.max(pair.first.getZ(), pair.second.getZ()) + MAX_CHANGE_DISTANCE) >> CELL_SHIFT;
+        for (int cellX = minX; cellX <= maxX; cellX++)
+        {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++)
+            {
+                final long key = key(cellX, cellZ);
+                if (add)
+                {
+                    pairsByCell.computeIfAbsent(key, k -> new HashSet<>()).add(pair);
+                }
+                else
+                {
+                    final Set<Pair> cell = pairsByCell.get(key);
+                    if (cell != null && cell.remove(pair) && cell.isEmpty())
+                    {
+                        pairsByCell.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long key(final int cellX, final int cellZ)
+    {
+        return ((long) cellX << Integer.SIZE) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Check if a point is connected to any other point.
+     */
+    private boolean isConnected(@NotNull final BlockPos point)
+    {
+        return links.get(point).containsValue(WayPointProbe.Result.WALKABLE);
+    }
+
+    /**
+     * Get the point closest to a position, within the access distance.
+     */
+    @Nullable
+    private BlockPos closest(@NotNull final BlockPos pos, @NotNull final Predicate<BlockPos> usable)
+    {
+        BlockPos closest = null;
+        double closestDistance = MAX_ACCESS_DISTANCE;
+        for (final BlockPos point : links.keySet())
+        {
+            final double distance = distance(pos, point);
+            if (distance <= closestDistance && usable.test(point))
+            {
+                closest = point;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Dijkstra from a point over the reversed edges, which are the same as the graph is undirected.
+     */
+    @NotNull
+    private ShortestPaths computePaths(@NotNull final BlockPos destination)
+    {
+        final ShortestPaths result = new ShortestPaths();
+        final PriorityQueue<Map.Entry<BlockPos, Double>> open = new PriorityQueue<>(Map.Entry.comparingByValue());
+        result.distances.put(destination, 0.0D);
+        open.add(new AbstractMap.SimpleEntry<>(destination, 0.0D));
+
+        while (!open.isEmpty())
+        {
+            final Map.Entry<BlockPos, Double> current = open.poll();
+            if (current.getValue() > result.distances.get(current.getKey()))
+            {
+                continue;
+            }
+
+            for (final Map.Entry<BlockPos, WayPointProbe.Result> link : links.get(current.getKey()).entrySet())
+            {
+                if (link.getValue() != WayPointProbe.Result.WALKABLE)
+                {
+                    continue;
+                }
+
+                final double distance = current.getValue() + distance(current.getKey(), link.getKey());
+                final Double known = result.distances.get(link.getKey());
+                if (known == null || distance < known)
+                {
+                    result.distances.put(link.getKey(), distance);
+                    result.nextHops.put(link.getKey(), current.getKey());
+                    open.add(new AbstractMap.SimpleEntry<>(link.getKey(), distance));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static double distance(@NotNull final BlockPos a, @NotNull final BlockPos b)
+    {
+        return Math.sqrt(a.distanceSq(b));
+    }
+
+    /**
+     * Two points which are close enough to be connected, equal in either order.
+     */
+    private static final class Pair
+    {
+        private final BlockPos first;
+        private final BlockPos second;
+
+        private Pair(@NotNull final BlockPos first, @NotNull final BlockPos second)
+        {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof Pair))
+            {
+                return false;
+            }
+            final Pair other = (Pair) o;
+            return (first.equals(other.first) && second.equals(other.second)) || (first.equals(other.second) && second.equals(other.first));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return first.hashCode() ^ second.hashCode();
+        }
+    }
+
+    /**
+     * Shortest paths of all points towards one destination.
+     */
+    private static final class ShortestPaths
+    {
+        private final Map<BlockPos, Double>   distances = new HashMap<>();
+        private final Map<BlockPos, BlockPos> nextHops  = new HashMap<>();
+    }
+}
@@ -165,7 +165,7 @@ public class WorkManager
      */
     public void clearWorkForCitizen(@NotNull final CitizenData citizen)
     {
-        dirty = true;
+        markDirty();
         workOrders.values().stream().filter(o -> o != null && o.isClaimedBy(citizen)).forEach(AbstractWorkOrder::clearClaimedBy);
     }
 
@@ -224,7 +224,7 @@ public class WorkManager
      */
     public void addWorkOrder(@NotNull final AbstractWorkOrder order)
     {
-        dirty = true;
+        markDirty();
 
         if (order.getID() == 0)
         {
@@ -255,11 +255,11 @@ public class WorkManager
                 if (!o.isValid(colony))
                 {
                     iter.remove();
-                    dirty = true;
+                    markDirty();
                 }
                 else if (o.hasChanged())
                 {
-                    dirty = true;
+                    markDirty();
                     o.resetChange();
                 }
             }
@@ -273,6 +273,18 @@ public class WorkManager
         }
     }
 
+    /**
+     * Marks the work orders changed, for the subscribers and the next save.
+     */
+    private void markDirty()
+    {
+        dirty = true;
+        if (colony != null)
+        {
+            colony.getJournal().markSection(ColonyJournal.Section.WORK_ORDERS);
+        }
+    }
+
     /**
      * Checks if changes has been made.
      *
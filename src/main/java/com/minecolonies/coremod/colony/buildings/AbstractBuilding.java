@@ -6,6 +6,7 @@ import com.minecolonies.coremod.colony.CitizenData;
 import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.ColonyView;
+import com.minecolonies.coremod.colony.DeliveryRequestQueue;
 import com.minecolonies.coremod.colony.buildings.views.BuildingBuilderView;
 import com.minecolonies.coremod.colony.workorders.WorkOrderBuild;
 import com.minecolonies.coremod.entity.ai.citizen.builder.ConstructionTapeHelper;
@@ -693,6 +694,18 @@ public abstract class AbstractBuilding
         markDirty();
     }
 
+    /**
+     * Read the location of a building from its saved data.
+     *
+     * @param compound NBT of the building.
+     * @return the building location.
+     */
+    @NotNull
+    public static BlockPos getLocationFromNBT(@NotNull final NBTTagCompound compound)
+    {
+        return BlockPosUtil.readFromNBT(compound, TAG_LOCATION);
+    }
+
     /**
      * Returns the {@link BlockPos} of the current object, also used as ID.
      *
@@ -824,7 +837,7 @@ public abstract class AbstractBuilding
 
         buildingLevel = level;
         markDirty();
-        ColonyManager.markDirty();
+        ColonyManager.markDirty(colony.getID());
     }
 
     /**
@@ -836,6 +849,7 @@ public abstract class AbstractBuilding
         if(colony != null)
         {
             colony.markBuildingsDirty();
+            colony.getJournal().markBuilding(getID());
         }
     }
 
@@ -977,6 +991,7 @@ public abstract class AbstractBuilding
     public void setNeedsShovel(final boolean needsShovel)
     {
         this.needsShovel = needsShovel;
+        requestDelivery();
     }
 
     /**
@@ -986,6 +1001,7 @@ public abstract class AbstractBuilding
     public void setNeedsAxe(final boolean needsAxe)
     {
         this.needsAxe = needsAxe;
+        requestDelivery();
     }
 
     /**
@@ -995,6 +1011,7 @@ public abstract class AbstractBuilding
     public void setNeedsHoe(final boolean needsHoe)
     {
         this.needsHoe = needsHoe;
+        requestDelivery();
     }
 
     /**
@@ -1004,6 +1021,7 @@ public abstract class AbstractBuilding
     public void setNeedsPickaxe(final boolean needsPickaxe)
     {
         this.needsPickaxe = needsPickaxe;
+        requestDelivery();
     }
 
     /**
@@ -1013,6 +1031,7 @@ public abstract class AbstractBuilding
     public void setNeedsWeapon(final boolean needsWeapon)
     {
         this.needsWeapon = needsWeapon;
+        requestDelivery();
     }
 
     /**
@@ -1024,6 +1043,7 @@ public abstract class AbstractBuilding
         if(stack != null)
         {
             itemsCurrentlyNeeded.add(stack);
+            requestDelivery();
         }
     }
 
@@ -1065,6 +1085,28 @@ public abstract class AbstractBuilding
     public void setItemsCurrentlyNeeded(@NotNull List<ItemStack> newList)
     {
         this.itemsCurrentlyNeeded = new ArrayList<>(newList);
+        requestDelivery();
+    }
+
+    /**
+     * Queue the building for the warehouse if it needs anything.
+     * Does nothing while it is queued already, so the AI may call the setters every check.
+     */
+    private void requestDelivery()
+    {
+        if(needsAnything())
+        {
+            colony.getDeliveryRequests().offer(getID(), getDeliveryPriority());
+        }
+    }
+
+    /**
+     * Get the priority of the deliveries to this building.
+     * @return {@link DeliveryRequestQueue#PRIORITY_TOOL} if a tool is missing, else {@link DeliveryRequestQueue#PRIORITY_ITEM}.
+     */
+    public int getDeliveryPriority()
+    {
+        return getRequiredTool().isEmpty() ? DeliveryRequestQueue.PRIORITY_ITEM : DeliveryRequestQueue.PRIORITY_TOOL;
     }
 
     /**
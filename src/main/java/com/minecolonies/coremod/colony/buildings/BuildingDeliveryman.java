@@ -12,6 +12,10 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Class of the warehouse building.
  */
@@ -21,9 +25,9 @@ public class BuildingDeliveryman extends AbstractBuildingWorker
     private static final String DELIVERYMAN = "Deliveryman";
 
     /**
-     * Building the deliveryman will deliver somethingTo
+     * Buildings the deliveryman will deliver something to, in order.
      */
-    private AbstractBuilding buildingToDeliver;
+    private final List<AbstractBuilding> tour = new ArrayList<>();
 
     /**
      * Instantiates a new warehouse building.
@@ -38,11 +42,15 @@ public class BuildingDeliveryman extends AbstractBuildingWorker
 
     /**
      * Set the building the deliveryman should deliver to.
-     * @param building building to deliver to.
+     * @param building building to deliver to, null to drop the whole tour.
      */
     public void setBuildingToDeliver(AbstractBuilding building)
     {
-        this.buildingToDeliver = building;
+        tour.clear();
+        if(building != null)
+        {
+            tour.add(building);
+        }
     }
 
     /**
@@ -51,7 +59,46 @@ public class BuildingDeliveryman extends AbstractBuildingWorker
      */
     public AbstractBuilding getBuildingToDeliver()
     {
-        return this.buildingToDeliver;
+        return tour.isEmpty() ? null : tour.get(0);
+    }
+
+    /**
+     * Set the buildings the deliveryman should deliver to.
+     * @param buildings the stops of the tour, in order.
+     */
+    public void setTour(@NotNull final List<AbstractBuilding> buildings)
+    {
+        tour.clear();
+        tour.addAll(buildings);
+    }
+
+    /**
+     * Get the buildings the deliveryman still has to deliver to.
+     * @return an unmodifiable list, the next stop first.
+     */
+    @NotNull
+    public List<AbstractBuilding> getTour()
+    {
+        return Collections.unmodifiableList(tour);
+    }
+
+    /**
+     * Remove a stop from the tour, when it was served or can't be.
+     * @param building the building.
+     */
+    public void removeStop(@NotNull final AbstractBuilding building)
+    {
+        tour.remove(building);
+    }
+
+    /**
+     * Check if a building is a stop of the tour.
+     * @param building the building.
+     * @return true if so.
+     */
+    public boolean hasStop(@NotNull final AbstractBuilding building)
+    {
+        return tour.contains(building);
     }
 
     @NotNull
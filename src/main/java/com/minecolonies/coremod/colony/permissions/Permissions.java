@@ -1,6 +1,7 @@
 package com.minecolonies.coremod.colony.permissions;
 
 import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.ColonyJournal;
 import com.minecolonies.coremod.network.PacketUtils;
 import com.minecolonies.coremod.util.AchievementUtils;
 import com.minecolonies.coremod.util.Utils;
@@ -89,6 +90,11 @@ public class Permissions implements IPermissions
      */
     private boolean updatedPermissionAlready = false;
 
+    /**
+     * Allowed actions of each player as {@link Action} flags, cleared whenever ranks or permissions change.
+     */
+    private final Map<UUID, Integer> actionFlagCache = new HashMap<>();
+
     /**
      * Saves the permissionMap with allowed actions.
      *
@@ -263,6 +269,11 @@ public class Permissions implements IPermissions
     private void markDirty()
     {
         dirty = true;
+        actionFlagCache.clear();
+        if (colony != null)
+        {
+            colony.getJournal().markSection(ColonyJournal.Section.PERMISSIONS);
+        }
     }
 
     /**
@@ -569,7 +580,62 @@ public class Permissions implements IPermissions
     @Override
     public boolean hasPermission(@NotNull final EntityPlayer player, @NotNull final Action action)
     {
-        return hasPermission(getRank(player), action);
+        return isAllowed(getActionFlags(player), action);
+    }
+
+    /**
+     * Get all actions a player may perform, so several actions can be checked with one lookup.
+     *
+     * @param player {@link EntityPlayer} player.
+     * @return the allowed actions as {@link Action} flags, check them with {@link #isAllowed(int, Action)}.
+     */
+    public int getActionFlags(@NotNull final EntityPlayer player)
+    {
+        return getActionFlags(player.getGameProfile().getId());
+    }
+
+    /**
+     * Get all actions a player may perform, cached until ranks or permissions change.
+     *
+     * @param id UUID of the player.
+     * @return the allowed actions as {@link Action} flags, check them with {@link #isAllowed(int, Action)}.
+     */
+    public int getActionFlags(final UUID id)
+    {
+        final Integer cached = actionFlagCache.get(id);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        final Rank rank = getRank(id);
+        int flags = permissionMap.getOrDefault(rank, 0);
+        if (rank == Rank.OWNER)
+        {
+            //  Same as hasPermission(Rank, Action): owners may do everything, guards attacking them has to be set
+            for (@NotNull final Action action : Action.values())
+            {
+                if (action != Action.GUARDS_ATTACK)
+                {
+                    flags = Utils.setFlag(flags, action.flag);
+                }
+            }
+        }
+
+        actionFlagCache.put(id, flags);
+        return flags;
+    }
+
+    /**
+     * Checks if an action is part of the flags from {@link #getActionFlags(UUID)}.
+     *
+     * @param actionFlags the allowed actions.
+     * @param action      the action.
+     * @return true if allowed.
+     */
+    public static boolean isAllowed(final int actionFlags, @NotNull final Action action)
+    {
+        return Utils.testFlag(actionFlags, action.flag);
     }
 
     /**
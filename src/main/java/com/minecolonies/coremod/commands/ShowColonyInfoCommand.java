@@ -1,10 +1,22 @@
 package com.minecolonies.coremod.commands;
 
+import com.minecolonies.coremod.colony.CitizenAIScheduler;
+import com.minecolonies.coremod.colony.CitizenData;
 import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.IColony;
+import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.entity.EntityCitizen;
+import com.minecolonies.coremod.entity.ai.basic.AbstractAISkeleton;
+import com.minecolonies.coremod.entity.ai.util.AIState;
+import com.minecolonies.coremod.entity.ai.util.AITarget;
+import com.minecolonies.coremod.entity.ai.util.AITargetTable;
+import com.minecolonies.coremod.entity.pathfinding.PathCache;
+import com.minecolonies.coremod.entity.pathfinding.Pathfinding;
+import com.minecolonies.structures.helpers.StructureCache;
 import net.minecraft.command.CommandException;
 import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.ai.EntityAITasks;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
@@ -12,9 +24,13 @@ import net.minecraft.util.text.TextComponentString;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static com.minecolonies.coremod.commands.AbstractSingleCommand.Commands.SHOWCOLONYINFO;
 
@@ -31,6 +47,13 @@ public class ShowColonyInfoCommand extends AbstractSingleCommand
     private static final String COORDINATES_TEXT           = "§2Coordinates: §f";
     private static final String COORDINATES_XYZ            = "§4x=§f%s §4y=§f%s §4z=§f%s";
     private static final String CITIZENS                   = "§2Citizens: §f";
+    private static final String AI_TEXT                    = "§2AI: §f%d tick slots, %d skipped updates";
+    private static final String JOB_TIME_TEXT              = "§2 %s: §f%d µs average over %d updates";
+    private static final String PATH_CACHE_TEXT            = "§2Path cache (all colonies): §f%d hits, %d misses, %d invalidated";
+    private static final String STRUCTURE_CACHE_TEXT       = "§2Structure cache (all colonies): §f%d hits, %d misses, %d cached";
+    private static final String PATHFINDING_TEXT           = "§2Pathfinding (all colonies): §f%d queued, %.1f ms median, %.1f ms 95th percentile latency";
+    private static final String AI_TARGET_TEXT             = "§2 %s target %d (%s): §f%d µs over %d checks";
+    private static final int    AI_TARGET_LINES            = 5;
     private static final String NO_COLONY_FOUND_MESSAGE    = "Colony with mayor %s not found.";
     private static final String NO_COLONY_FOUND_MESSAGE_ID = "Colony with ID %d not found.";
 
@@ -122,6 +145,70 @@ public class ShowColonyInfoCommand extends AbstractSingleCommand
         sender.addChatMessage(new TextComponentString(MAYOR_TEXT + mayor));
         sender.addChatMessage(new TextComponentString(CITIZENS + colony.getCitizens().size() + "/" + colony.getMaxCitizens()));
         sender.addChatMessage(new TextComponentString(COORDINATES_TEXT + String.format(COORDINATES_XYZ, position.getX(), position.getY(), position.getZ())));
+
+        final CitizenAIScheduler scheduler = colony.getAIScheduler();
+        sender.addChatMessage(new TextComponentString(String.format(AI_TEXT, scheduler.getSlots(), scheduler.getSkipped())));
+        for (final Map.Entry<String, CitizenAIScheduler.JobTimes> entry : scheduler.getJobTimes().entrySet())
+        {
+            sender.addChatMessage(new TextComponentString(String.format(JOB_TIME_TEXT,
+              entry.getKey(), TimeUnit.NANOSECONDS.toMicros(entry.getValue().getAverageNanos()), entry.getValue().getRuns())));
+        }
+        sender.addChatMessage(new TextComponentString(String.format(PATH_CACHE_TEXT, PathCache.getHits(), PathCache.getMisses(), PathCache.getInvalidations())));
+        sender.addChatMessage(new TextComponentString(String.format(STRUCTURE_CACHE_TEXT,
+          StructureCache.getHits(), StructureCache.getMisses(), StructureCache.size())));
+        sender.addChatMessage(new TextComponentString(String.format(PATHFINDING_TEXT,
+          Pathfinding.getQueueDepth(), Pathfinding.getLatencyPercentile(50), Pathfinding.getLatencyPercentile(95))));
+
+        if (Configurations.aiTargetProfiling)
+        {
+            sendSlowestTargets(sender, colony);
+        }
+    }
+
+    /**
+     * Sends the AI targets the citizens of a colony spent the most time on, summed up per job.
+     *
+     * @param sender the sender to send the lines to.
+     * @param colony the colony.
+     */
+    private static void sendSlowestTargets(@NotNull final ICommandSender sender, @NotNull final Colony colony)
+    {
+        final Map<String, TargetTotal> totals = new HashMap<>();
+        for (final CitizenData citizen : colony.getCitizens().values())
+        {
+            final EntityCitizen entity = citizen.getCitizenEntity();
+            if (entity == null || citizen.getJob() == null)
+            {
+                continue;
+            }
+
+            final String job = citizen.getJob().getName();
+            for (final EntityAITasks.EntityAITaskEntry task : entity.tasks.taskEntries)
+            {
+                if (!(task.action instanceof AbstractAISkeleton))
+                {
+                    continue;
+                }
+
+                final AITargetTable table = ((AbstractAISkeleton<?>) task.action).getTargetTable();
+                for (int i = 0; i < table.size(); i++)
+                {
+                    final AITarget target = table.get(i);
+                    final int index = i;
+                    final TargetTotal total = totals.computeIfAbsent(job + '#' + i, key -> new TargetTotal(job, index, target.getState()));
+                    total.nanos += table.getNanos(i);
+                    total.checks += table.getInvocations(i);
+                }
+            }
+        }
+
+        final List<TargetTotal> slowest = new ArrayList<>(totals.values());
+        slowest.sort((first, second) -> Long.compare(second.nanos, first.nanos));
+        for (final TargetTotal total : slowest.subList(0, Math.min(AI_TARGET_LINES, slowest.size())))
+        {
+            sender.addChatMessage(new TextComponentString(String.format(AI_TARGET_TEXT, total.job, total.index,
+              total.state == null ? "any state" : total.state, TimeUnit.NANOSECONDS.toMicros(total.nanos), total.checks)));
+        }
     }
 
     @NotNull
@@ -143,4 +230,23 @@ public class ShowColonyInfoCommand extends AbstractSingleCommand
                  && !args[0].isEmpty()
                  && getIthArgument(args, 0, Integer.MAX_VALUE) == Integer.MAX_VALUE;
     }
+
+    /**
+     * Time and checks of one AI target, summed up over all citizens with the same job.
+     */
+    private static final class TargetTotal
+    {
+        private final String  job;
+        private final int     index;
+        private final AIState state;
+        private       long    nanos;
+        private       long    checks;
+
+        private TargetTotal(@NotNull final String job, final int index, @Nullable final AIState state)
+        {
+            this.job = job;
+            this.index = index;
+            this.state = state;
+        }
+    }
 }
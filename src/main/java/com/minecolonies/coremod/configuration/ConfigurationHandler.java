@@ -113,6 +113,20 @@ public final class ConfigurationHandler
                     "Limits the number of checked blocks per builder update").getInt();
             chatFrequency = config.get(CATEGORY_GAMEPLAY, "chatFrequency", chatFrequency,
                     "Chat Frequency (seconds)").getInt();
+            colonySaveInterval = config.get(CATEGORY_GAMEPLAY, "colonySaveInterval", colonySaveInterval,
+                    "Ticks between saving changed colonies, changes in between get written together").getInt();
+            colonyJournalCompactAfter = config.get(CATEGORY_GAMEPLAY, "colonyJournalCompactAfter", colonyJournalCompactAfter,
+                    "Number of saves which only append the changes of a colony before it is written in full again").getInt();
+            aiTickBudget = config.get(CATEGORY_GAMEPLAY, "aiTickBudget", aiTickBudget,
+                    "Microseconds the worker ai of a colony may use per tick before workers are spread over more ticks, 0 for no limit").getInt();
+            aiTargetProfiling = config.get(CATEGORY_GAMEPLAY, "aiTargetProfiling", aiTargetProfiling,
+                    "Count the checks and time of each worker ai target (debugging only)").getBoolean();
+            itemProximityRefresh = config.get(CATEGORY_GAMEPLAY, "itemProximityRefresh", itemProximityRefresh,
+                    "Ticks between collecting the items around a colony for its citizens to pick up").getInt();
+            targetProximityRefresh = config.get(CATEGORY_GAMEPLAY, "targetProximityRefresh", targetProximityRefresh,
+                    "Ticks between collecting the mobs and players around a colony for its guards").getInt();
+            structureCacheSize = config.get(CATEGORY_GAMEPLAY, "structureCacheSize", structureCacheSize,
+                    "Number of loaded structures and of rotated structures kept in memory to be shared by builders, miners and the build tool").getInt();
 
             enableInDevelopmentFeatures = config.get(CATEGORY_GAMEPLAY, "development", enableInDevelopmentFeatures,
                     "Display in-development features which do not work and may break your game").getBoolean();
@@ -123,6 +137,18 @@ public final class ConfigurationHandler
                     "Debug output verbosity of pathfinding (0=none, 1=results, 2=live work)").getInt();
             pathfindingMaxThreadCount = config.get(CATEGORY_PATHFINDING, "maxThreads", pathfindingMaxThreadCount,
                     "Maximum number of threads to use for pathfinding.").getInt();
+            pathfindingPassabilityCache = config.get(CATEGORY_PATHFINDING, "passabilityCache", pathfindingPassabilityCache,
+                    "Share a snapshot of which blocks are passable between all path jobs of a world").getBoolean();
+            pathfindingPathCacheSize = config.get(CATEGORY_PATHFINDING, "pathCacheSize", pathfindingPathCacheSize,
+                    "Number of computed paths kept for repeated trips (0 to disable)").getInt();
+            pathfindingMaxQueuedPerColony = config.get(CATEGORY_PATHFINDING, "maxQueuedPerColony", pathfindingMaxQueuedPerColony,
+                    "Maximum number of path jobs a colony may have waiting, the least important get dropped").getInt();
+            pathfindingMaxNodesPerJob = config.get(CATEGORY_PATHFINDING, "maxNodesPerJob", pathfindingMaxNodesPerJob,
+                    "Maximum number of nodes a path job visits before returning its best-effort path").getInt();
+            pathfindingMaxMillisPerJob = config.get(CATEGORY_PATHFINDING, "maxMillisPerJob", pathfindingMaxMillisPerJob,
+                    "Maximum time in milliseconds a path job runs before returning its best-effort path").getInt();
+            pathfindingHierarchicalDistance = config.get(CATEGORY_PATHFINDING, "hierarchicalDistance", pathfindingHierarchicalDistance,
+                    "Distance from which routes are planned section by section before searching block by block (0 to disable)").getInt();
 
             maleFirstNames = config.get(CATEGORY_NAMES, "maleFirstNames", maleFirstNames,
                     "Male First Names").getStringList();
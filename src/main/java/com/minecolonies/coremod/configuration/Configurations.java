@@ -50,12 +50,28 @@ public class Configurations
     //TODO change count to agreed upon value, possibly remove if we think this shouldn't be a problem
     public static int maxBlocksCheckedByBuilder = 1000;
     public static int chatFrequency             = 30;
+    public static int colonySaveInterval        = 200;
+    public static int colonyJournalCompactAfter = 50;
+    public static int aiTickBudget              = 5000;
+
+    public static boolean aiTargetProfiling = false;
+
+    public static int itemProximityRefresh   = 2;
+    public static int targetProximityRefresh = 5;
+
+    public static int structureCacheSize = 64;
 
     public static boolean enableInDevelopmentFeatures = false;
 
     public static boolean pathfindingDebugDraw      = false;
     public static int     pathfindingDebugVerbosity = 0;
     public static int     pathfindingMaxThreadCount = 2;
+    public static boolean pathfindingPassabilityCache = true;
+    public static int     pathfindingPathCacheSize    = 256;
+    public static int     pathfindingMaxQueuedPerColony = 32;
+    public static int     pathfindingMaxNodesPerJob     = 25000;
+    public static int     pathfindingMaxMillisPerJob    = 250;
+    public static int     pathfindingHierarchicalDistance = 0;
 
     public static String[] freeToInteractBlocks = new String[]
             {
@@ -935,7 +935,7 @@ public class EntityCitizen extends EntityAgeable implements INpc
     {
         @NotNull final List<EntityItem> retList = new ArrayList<>();
         //I know streams look better but they are flawed in type erasure
-        for (final Object o : worldObj.getEntitiesWithinAABB(EntityItem.class, getEntityBoundingBox().expand(2.0F, 0.0F, 2.0F)))
+        for (final Object o : getItemsWithin(getEntityBoundingBox().expand(2.0F, 0.0F, 2.0F)))
         {
             if (o instanceof EntityItem)
             {
@@ -950,6 +950,18 @@ public class EntityCitizen extends EntityAgeable implements INpc
           .forEach(this::tryPickupEntityItem);
     }
 
+    /**
+     * Get the items within a box, looked up in the index of the colony if the citizen has one.
+     *
+     * @param box the box.
+     * @return the items intersecting the box.
+     */
+    @NotNull
+    public List<EntityItem> getItemsWithin(@NotNull final AxisAlignedBB box)
+    {
+        return colony == null ? worldObj.getEntitiesWithinAABB(EntityItem.class, box) : colony.getEntityProximity().getItems(worldObj, box);
+    }
+
     private void cleanupChatMessages()
     {
         //Only check if there are messages and once a second
@@ -1408,7 +1420,7 @@ public class EntityCitizen extends EntityAgeable implements INpc
      */
     public int findFirstSlotInInventoryWith(final Item targetItem, int itemDamage)
     {
-        return InventoryUtils.findFirstSlotInItemHandlerWith(new InvWrapper(getInventoryCitizen()), targetItem, itemDamage);
+        return getInventoryCitizen().findFirstSlotWith(targetItem, itemDamage);
     }
 
     /**
@@ -1420,7 +1432,7 @@ public class EntityCitizen extends EntityAgeable implements INpc
      */
     public int findFirstSlotInInventoryWith(final Block block, int itemDamage)
     {
-        return InventoryUtils.findFirstSlotInItemHandlerWith(new InvWrapper(getInventoryCitizen()), block, itemDamage);
+        return getInventoryCitizen().findFirstSlotWith(InventoryUtils.getItemFromBlock(block), itemDamage);
     }
 
     /**
@@ -1432,7 +1444,7 @@ public class EntityCitizen extends EntityAgeable implements INpc
      */
     public int getItemCountInInventory(final Block block, int itemDamage)
     {
-        return InventoryUtils.getItemCountInItemHandler(new InvWrapper(getInventoryCitizen()), block, itemDamage);
+        return getInventoryCitizen().getItemCount(InventoryUtils.getItemFromBlock(block), itemDamage);
     }
 
     /**
@@ -1444,7 +1456,7 @@ public class EntityCitizen extends EntityAgeable implements INpc
      */
     public int getItemCountInInventory(final Item targetItem, int itemDamage)
     {
-        return InventoryUtils.getItemCountInItemHandler(new InvWrapper(getInventoryCitizen()), targetItem, itemDamage);
+        return getInventoryCitizen().getItemCount(targetItem, itemDamage);
     }
 
     /**
@@ -1456,7 +1468,7 @@ public class EntityCitizen extends EntityAgeable implements INpc
      */
     public boolean hasItemInInventory(final Block block, int itemDamage)
     {
-        return InventoryUtils.hasItemInItemHandler(new InvWrapper(getInventoryCitizen()), block, itemDamage);
+        return getInventoryCitizen().findFirstSlotWith(InventoryUtils.getItemFromBlock(block), itemDamage) != -1;
     }
 
     /**
@@ -1468,7 +1480,7 @@ public class EntityCitizen extends EntityAgeable implements INpc
      */
     public boolean hasItemInInventory(final Item item, int itemDamage)
     {
-        return InventoryUtils.hasItemInItemHandler(new InvWrapper(getInventoryCitizen()), item, itemDamage);
+        return getInventoryCitizen().findFirstSlotWith(item, itemDamage) != -1;
     }
 
     /**
@@ -1,17 +1,20 @@
 package com.minecolonies.coremod.entity.ai.basic;
 
+import com.minecolonies.coremod.colony.CitizenAIScheduler;
+import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.colony.jobs.AbstractJob;
+import com.minecolonies.coremod.configuration.Configurations;
 import com.minecolonies.coremod.entity.EntityCitizen;
 import com.minecolonies.coremod.entity.ai.util.AIState;
 import com.minecolonies.coremod.entity.ai.util.AITarget;
+import com.minecolonies.coremod.entity.ai.util.AITargetTable;
 import com.minecolonies.coremod.entity.ai.util.ChatSpamFilter;
 import com.minecolonies.coremod.util.Log;
 import net.minecraft.entity.ai.EntityAIBase;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.function.Predicate;
 
 import static com.minecolonies.coremod.entity.EntityCitizen.Status.IDLE;
 
@@ -35,7 +38,12 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
     @NotNull
     protected final ChatSpamFilter      chatSpamFilter;
     @NotNull
-    private final   ArrayList<AITarget> targetList;
+    private final   AITargetTable       targetTable;
+    /**
+     * Checks a target, kept to dispatch without creating a method reference each tick.
+     */
+    @NotNull
+    private final   Predicate<AITarget> targetCheck;
     /**
      * The current state the ai is in.
      * Used to compare to state matching targets.
@@ -50,7 +58,9 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
     protected AbstractAISkeleton(@NotNull final J job)
     {
         super();
-        this.targetList = new ArrayList<>();
+        this.targetTable = new AITargetTable();
+        this.targetTable.setProfiling(Configurations.aiTargetProfiling);
+        this.targetCheck = this::checkOnTarget;
         setMutexBits(MUTEX_MASK);
         this.job = job;
         this.worker = this.job.getCitizen().getCitizenEntity();
@@ -66,7 +76,7 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
      */
     private void registerTarget(final AITarget target)
     {
-        targetList.add(target);
+        targetTable.add(target);
     }
 
     /**
@@ -78,7 +88,10 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
      */
     protected final void registerTargets(final AITarget... targets)
     {
-        Arrays.asList(targets).forEach(this::registerTarget);
+        for (final AITarget target : targets)
+        {
+            registerTarget(target);
+        }
     }
 
     /**
@@ -121,11 +134,50 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
 
     /**
      * Updates the task.
+     * Waiting ais only count down their wait, the others check their targets
+     * when the colony scheduler gives them time this tick.
      */
     @Override
     public final void updateTask()
     {
-        targetList.stream().anyMatch(this::checkOnTarget);
+        try
+        {
+            if (updateWhileWaiting())
+            {
+                return;
+            }
+        }
+        catch (final RuntimeException e)
+        {
+            Log.getLogger().warn("Waiting of " + job.getName() + " threw an exception:", e);
+            this.onException(e);
+        }
+
+        final Colony colony = job.getColony();
+        final CitizenAIScheduler scheduler = colony == null ? null : colony.getAIScheduler();
+        if (scheduler != null && !scheduler.shouldRun(job.getCitizen().getId(), world.getTotalWorldTime()))
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        targetTable.dispatch(state, targetCheck);
+        if (scheduler != null)
+        {
+            scheduler.record(job.getName(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Called each tick before the targets are checked.
+     * Lets the ai wait without checking its targets and without using the time of the colony.
+     * It must do exactly what its targets would do while waiting.
+     *
+     * @return true if the ai waits this tick and the targets are skipped.
+     */
+    protected boolean updateWhileWaiting()
+    {
+        return false;
     }
 
     /**
@@ -143,8 +195,8 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
 
     /**
      * Checks on one target to see if it has to be executed.
-     * It first checks for the state of the ai.
-     * If that matches it tests the predicate if the ai
+     * The table only hands over targets matching the state of the ai.
+     * It tests the predicate if the ai
      * wants to run the target.
      * And if that's a yes, runs the target.
      * Tester and target are both error-checked
@@ -155,10 +207,6 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
      */
     private boolean checkOnTarget(@NotNull final AITarget target)
     {
-        if (state != target.getState() && target.getState() != null)
-        {
-            return false;
-        }
         try
         {
             if (!target.test())
@@ -224,6 +272,17 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
         return state;
     }
 
+    /**
+     * Get the registered targets, with their counters if profiling is on.
+     *
+     * @return the target table.
+     */
+    @NotNull
+    public final AITargetTable getTargetTable()
+    {
+        return targetTable;
+    }
+
     protected int getLevelDelay()
     {
         return 10;
@@ -196,6 +196,24 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         }
     }
 
+    /**
+     * Runs the first targets directly while there is a delay to wait.
+     * With a building and past INIT the safety checks pass, the visual state
+     * is updated and waitingForSomething stops the targets, so the result is the same.
+     *
+     * @return true if the ai waits this tick.
+     */
+    @Override
+    protected boolean updateWhileWaiting()
+    {
+        if (delay <= 0 || getState() == INIT || getOwnBuilding() == null)
+        {
+            return false;
+        }
+        updateVisualState();
+        return waitingForSomething();
+    }
+
     /**
      * Set a delay in ticks.
      *
@@ -429,34 +447,8 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
      */
     public boolean isInHut(@Nullable final ItemStack is)
     {
-        @Nullable final AbstractBuildingWorker building = getOwnBuilding();
-
-        boolean hasItem;
-        if (building != null)
-        {
-            hasItem = isInTileEntity(building.getTileEntity(), is);
-
-            if (hasItem)
-            {
-                return true;
-            }
-
-            for (final BlockPos pos : building.getAdditionalCountainers())
-            {
-                final TileEntity entity = world.getTileEntity(pos);
-                if (entity instanceof TileEntityChest)
-                {
-                    hasItem = isInTileEntity((TileEntityChest) entity, is);
-
-                    if (hasItem)
-                    {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
+        return is != null
+                 && InventoryQuery.matchFirst(getHutContainers(), InventoryQuery.matching(is.getItem(), is.getItemDamage()), this::takeItemStackFromProvider);
     }
 
     /**
@@ -467,34 +459,37 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
      */
     public boolean isToolInHut(final String tool)
     {
-        @Nullable final AbstractBuildingWorker building = getOwnBuilding();
+        return InventoryQuery.matchFirst(getHutContainers(), stack -> Utils.isTool(stack, tool), this::takeItemStackFromProvider);
+    }
 
-        boolean hasItem;
-        if (building != null)
+    /**
+     * Get the chests of the worker hut, the hut block first.
+     *
+     * @return the chests, empty if the worker has no hut.
+     */
+    @NotNull
+    private List<TileEntityChest> getHutContainers()
+    {
+        @Nullable final AbstractBuildingWorker building = getOwnBuilding();
+        if (building == null)
         {
-            hasItem = isToolInTileEntity(building.getTileEntity(), tool);
-
-            if (hasItem)
-            {
-                return true;
-            }
+            return Collections.emptyList();
+        }
 
-            for (final BlockPos pos : building.getAdditionalCountainers())
+        final List<TileEntityChest> containers = new ArrayList<>(building.getAdditionalCountainers().size() + 1);
+        if (building.getTileEntity() != null)
+        {
+            containers.add(building.getTileEntity());
+        }
+        for (final BlockPos pos : building.getAdditionalCountainers())
+        {
+            final TileEntity entity = world.getTileEntity(pos);
+            if (entity instanceof TileEntityChest)
             {
-                final TileEntity entity = world.getTileEntity(pos);
-                if (entity instanceof TileEntityChest)
-                {
-                    hasItem = isToolInTileEntity((TileEntityChest) entity, tool);
-
-                    if (hasItem)
-                    {
-                        return true;
-                    }
-                }
+                containers.add((TileEntityChest) entity);
             }
         }
-
-        return false;
+        return containers;
     }
 
     /**
@@ -673,16 +668,11 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
      */
     private boolean checkForTool(@NotNull String tool)
     {
-        final boolean needsTool = !InventoryFunctions
-                                     .matchFirstInProvider(
-                                       worker,
-                                       stack -> Utils.isTool(stack, tool),
-                                       InventoryFunctions::doNothing
-                                     );
+        final InventoryCitizen inventory = worker.getInventoryCitizen();
+        final boolean needsTool = !inventory.hasTool(tool, stack -> Utils.isTool(stack, tool));
 
         final int hutLevel = worker.getWorkBuilding().getBuildingLevel();
-        final InventoryCitizen inventory = worker.getInventoryCitizen();
-        final boolean isUsable = InventoryUtils.isToolInItemHandler(new InvWrapper(inventory), tool, hutLevel);
+        final boolean isUsable = inventory.hasTool(tool, stack -> InventoryUtils.hasToolLevel(stack, tool, hutLevel));
 
 
         if (!needsTool && isUsable)
@@ -786,20 +776,17 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
      */
     private boolean checkForPickaxe(final int minlevel)
     {
-        //Check for a pickaxe
-        getOwnBuilding().setNeedsPickaxe(!InventoryFunctions
-                                            .matchFirstInProvider(
-                                              worker,
-                                              stack -> Utils.checkIfPickaxeQualifies(
-                                                minlevel, Utils.getMiningLevel(stack, Utils.PICKAXE)),
-                                              InventoryFunctions::doNothing
-                                            ));
+        final InventoryCitizen inventory = worker.getInventoryCitizen();
+
+        //Check for a pickaxe, any slot qualifies for a negative level
+        getOwnBuilding().setNeedsPickaxe(minlevel >= 0
+                                           && !inventory.hasTool(Utils.PICKAXE, stack -> Utils.checkIfPickaxeQualifies(
+                                             minlevel, Utils.getMiningLevel(stack, Utils.PICKAXE))));
 
         delay += DELAY_RECHECK;
 
-        final InventoryCitizen inventory = worker.getInventoryCitizen();
         final int hutLevel = worker.getWorkBuilding().getBuildingLevel();
-        final boolean isUsable = InventoryUtils.isToolInItemHandler(new InvWrapper(inventory), Utils.PICKAXE, hutLevel);
+        final boolean isUsable = inventory.hasTool(Utils.PICKAXE, stack -> InventoryUtils.hasToolLevel(stack, Utils.PICKAXE, hutLevel));
 
         if (!isUsable)
         {
@@ -874,13 +861,8 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
      */
     public boolean checkForWeapon()
     {
-        //Check for a pickaxe
-        getOwnBuilding().setNeedsWeapon(!InventoryFunctions
-                                           .matchFirstInProvider(
-                                             worker,
-                                             stack -> stack != null && Utils.doesItemServeAsWeapon(stack),
-                                             InventoryFunctions::doNothing
-                                           ));
+        //Check for a weapon
+        getOwnBuilding().setNeedsWeapon(!worker.getInventoryCitizen().hasTool(Utils.WEAPON, Utils::doesItemServeAsWeapon));
 
         delay += DELAY_RECHECK;
 
@@ -1002,11 +984,26 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         final Map<ItemStorage, Integer> shouldKeep = getOwnBuilding().getRequiredItemsAndAmount();
 
         @Nullable final AbstractBuildingWorker buildingWorker = getOwnBuilding();
+        if (buildingWorker == null)
+        {
+            return false;
+        }
+        if (walkToBuilding())
+        {
+            return true;
+        }
 
-        return buildingWorker != null
-                 && (walkToBuilding()
-                       || InventoryFunctions.matchFirstInProvider(worker,
-          (slot, stack) -> !(InventoryUtils.isItemStackEmpty(stack) || keepIt.test(stack)) && shouldDumpItem(alreadyKept, shouldKeep, buildingWorker, stack, slot)));
+        //Only walk over the occupied slots
+        final InventoryCitizen inventory = worker.getInventoryCitizen();
+        for (int slot = inventory.getNextOccupiedSlot(0); slot != -1; slot = inventory.getNextOccupiedSlot(slot + 1))
+        {
+            final ItemStack stack = inventory.getStackInSlot(slot);
+            if (!(InventoryUtils.isItemStackEmpty(stack) || keepIt.test(stack)) && shouldDumpItem(alreadyKept, shouldKeep, buildingWorker, stack, slot))
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -1065,8 +1062,8 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
      */
     private static boolean keptEnough(@NotNull final Map<ItemStorage, Integer> alreadyKept, @NotNull final Map<ItemStorage, Integer> shouldKeep, @NotNull final ItemStack stack)
     {
-        final ArrayList<Map.Entry<ItemStorage, Integer>> tempKeep = new ArrayList<>(shouldKeep.entrySet());
-        for (final Map.Entry<ItemStorage, Integer> tempEntry : tempKeep)
+        //The map is only changed right before leaving the loop, so it doesn't need to be copied
+        for (final Map.Entry<ItemStorage, Integer> tempEntry : shouldKeep.entrySet())
         {
             final ItemStorage tempStorage = tempEntry.getKey();
             if (tempStorage != null && tempStorage.getItem() == stack.getItem() && tempStorage.getDamageValue() != stack.getItemDamage())
@@ -1141,22 +1138,25 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         {
             return false;
         }
+        final List<InventoryQuery.ItemMatcher> matchers = new ArrayList<>(items.length);
+        for (final @Nullable ItemStack stack : items)
+        {
+            if (stack != null && stack.getItem() != null)
+            {
+                matchers.add(InventoryQuery.matching(stack.getItem(), useItemDamage ? stack.getItemDamage() : InventoryQuery.ANY_DAMAGE));
+            }
+        }
+        final int[] counts = InventoryQuery.countAll(Collections.singletonList(new InvWrapper(worker.getInventoryCitizen())), matchers);
+
         boolean allClear = true;
+        int matcher = 0;
         for (final @Nullable ItemStack stack : items)
         {
             if (stack == null || stack.getItem() == null)
             {
                 continue;
             }
-            final int countOfItem;
-            if (useItemDamage)
-            {
-                countOfItem = worker.getItemCountInInventory(stack.getItem(), stack.getItemDamage());
-            }
-            else
-            {
-                countOfItem = worker.getItemCountInInventory(stack.getItem(), -1);
-            }
+            final int countOfItem = counts[matcher++];
             if (countOfItem < 1)
             {
                 final int itemsLeft = stack.stackSize - countOfItem;
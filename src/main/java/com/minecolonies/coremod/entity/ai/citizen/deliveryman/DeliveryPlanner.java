@@ -0,0 +1,128 @@
+package com.minecolonies.coremod.entity.ai.citizen.deliveryman;
+
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Plans delivery tours from a warehouse.
+ * <p>
+ * A tour always serves the oldest request, then adds the request closest to the previous stop as long as the
+ * deliveryman can carry its stacks. The stops are then ordered by a 2-opt pass over the round trip from the
+ * warehouse. Distances are straight lines, the tours are short enough that paths follow them closely.
+ */
+public final class DeliveryPlanner
+{
+    private DeliveryPlanner()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Plan the next tour.
+     *
+     * @param start    the warehouse the tour starts and ends at.
+     * @param requests the open requests, oldest first.
+     * @param location the position of a request.
+     * @param stacks   the number of stacks a request needs, at least one.
+     * @param capacity the number of stacks the deliveryman can carry.
+     * @param <T>      the request type.
+     * @return the requests to serve, in order, empty if there are no requests.
+     */
+    @NotNull
+    public static <T> List<T> planTour(
+                                        @NotNull final BlockPos start,
+                                        @NotNull final Collection<T> requests,
+                                        @NotNull final Function<T, BlockPos> location,
+                                        @NotNull final ToIntFunction<T> stacks,
+                                        final int capacity)
+    {
+        if (requests.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        final List<T> open = new ArrayList<>(requests);
+        final List<T> tour = new ArrayList<>();
+        T last = open.remove(0);
+        tour.add(last);
+        int load = Math.max(1, stacks.applyAsInt(last));
+
+        while (load < capacity && !open.isEmpty())
+        {
+            final BlockPos lastPos = location.apply(last);
+            T next = null;
+            double nextDistance = Double.MAX_VALUE;
+            for (final T request : open)
+            {
+                final double distance = distance(lastPos, location.apply(request));
+                if (distance < nextDistance && load + Math.max(1, stacks.applyAsInt(request)) <= capacity)
+                {
+                    next = request;
+                    nextDistance = distance;
+                }
+            }
+
+            if (next == null)
+            {
+                break;
+            }
+            open.remove(next);
+            tour.add(next);
+            load += Math.max(1, stacks.applyAsInt(next));
+            last = next;
+        }
+
+        improve(start, tour, location);
+        return tour;
+    }
+
+    /**
+     * Reverse parts of the round trip as long as that makes it shorter.
+     */
+    private static <T> void improve(@NotNull final BlockPos start, @NotNull final List<T> tour, @NotNull final Function<T, BlockPos> location)
+    {
+        final List<BlockPos> points = new ArrayList<>(tour.size() + 1);
+        points.add(start);
+        for (final T stop : tour)
+        {
+            points.add(location.apply(stop));
+        }
+
+        boolean improved = true;
+        while (improved)
+        {
+            improved = false;
+            for (int i = 1; i < points.size() - 1; i++)
+            {
+                for (int j = i + 1; j < points.size(); j++)
+                {
+                    final BlockPos before = points.get(i - 1);
+                    final BlockPos after = points.get((j + 1) % points.size());
+                    final double current = distance(before, points.get(i)) + distance(points.get(j), after);
+                    final double reversed = distance(before, points.get(j)) + distance(points.get(i), after);
+                    if (reversed < current - 1.0E-6D)
+                    {
+                        Collections.reverse(points.subList(i, j + 1));
+                        Collections.reverse(tour.subList(i - 1, j));
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static double distance(@NotNull final BlockPos a, @NotNull final BlockPos b)
+    {
+        final double xDiff = (double) a.getX() - b.getX();
+        final double yDiff = (double) a.getY() - b.getY();
+        final double zDiff = (double) a.getZ() - b.getZ();
+        return Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+    }
+}
@@ -20,10 +20,7 @@ import net.minecraftforge.items.wrapper.InvWrapper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static com.minecolonies.coremod.entity.ai.util.AIState.*;
 
@@ -85,6 +82,17 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
      */
     private List<ItemStorage> alreadyKept = new ArrayList<>();
 
+    /**
+     * Index of the stop of the tour the deliveryman gathers items for in the warehouse.
+     */
+    private int gatherStop = 0;
+
+    /**
+     * Items gathered in the warehouse for each stop of the tour, by location of the hut.
+     * Intermediate stops get exactly these amounts.
+     */
+    private final Map<BlockPos, List<ItemStorage>> gatheredForStop = new HashMap<>();
+
     /**
      * Initialize the deliveryman and add all his tasks.
      *
@@ -161,12 +169,22 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
      * That's 2^buildingLevel-1.
      */
     private boolean cannotHoldMoreItems()
+    {
+        return InventoryUtils.getAmountOfStacksInItemHandler(new InvWrapper(worker.getInventoryCitizen())) >= getStackCapacity();
+    }
+
+    /**
+     * Get the number of stacks the worker can carry, see {@link #cannotHoldMoreItems()}.
+     *
+     * @return the stack count, {@link Integer#MAX_VALUE} at the max building level.
+     */
+    private int getStackCapacity()
     {
         if (getOwnBuilding().getBuildingLevel() >= getOwnBuilding().getMaxBuildingLevel())
         {
-            return false;
+            return Integer.MAX_VALUE;
         }
-        return InventoryUtils.getAmountOfStacksInItemHandler(new InvWrapper(worker.getInventoryCitizen())) >= Math.pow(2, getOwnBuilding().getBuildingLevel() - 1.0D);
+        return 1 << Math.max(0, getOwnBuilding().getBuildingLevel() - 1);
     }
 
     /**
@@ -280,7 +298,9 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
     }
 
     /**
-     * Deliver the items to the hut.
+     * Deliver the items to the next hut of the tour.
+     * Intermediate stops only get what they asked for, the last stop gets everything left.
+     * From the last stop the worker takes what that hut doesn't need back to the warehouse.
      *
      * @return the next state.
      */
@@ -297,44 +317,141 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
                     return DELIVERY;
                 }
 
-                final InventoryCitizen workerInventory = worker.getInventoryCitizen();
-                for (int i = 0; i < new InvWrapper(worker.getInventoryCitizen()).getSlots(); i++)
-                {
-                    final ItemStack stack = workerInventory.getStackInSlot(i);
-                    if (stack == null)
-                    {
-                        continue;
-                    }
-
-                    if (buildingToDeliver.transferStack(stack, world))
-                    {
-                        new InvWrapper(worker.getInventoryCitizen()).extractItem(i, Integer.MAX_VALUE, false);
-                    }
-                    else
-                    {
-                        @Nullable final ItemStack tempStack = buildingToDeliver.forceTransferStack(stack, world);
-                        if(tempStack == null)
-                        {
-                            chatSpamFilter.talkWithoutSpam("com.minecolonies.coremod.job.deliveryman.workerChestFull"
-                                    , new TextComponentString(" :" + buildingToDeliver.getSchematicName()));
-                        }
-                        else
-                        {
-                            InventoryUtils.addItemStackToItemHandler(new InvWrapper(worker.getInventoryCitizen()), tempStack);
-                        }
-                    }
-                }
+                final boolean isLastStop = ((BuildingDeliveryman) ownBuilding).getTour().size() == 1;
+                transferToBuilding(buildingToDeliver, isLastStop);
                 worker.addExperience(1.0D);
                 buildingToDeliver.setOnGoingDelivery(false);
-                ((BuildingDeliveryman) ownBuilding).setBuildingToDeliver(null);
+                ((BuildingDeliveryman) ownBuilding).removeStop(buildingToDeliver);
+
+                if (!isLastStop)
+                {
+                    return DELIVERY;
+                }
+
+                if (!cannotHoldMoreItems())
+                {
+                    gatherTarget = buildingToDeliver.getLocation();
+                    return GATHERING;
+                }
             }
         }
         return START_WORKING;
     }
 
     /**
-     * Prepare deliveryman for delivery.
+     * Transfer the items of the worker inventory into a hut.
+     *
+     * @param buildingToDeliver the hut.
+     * @param everything        true to transfer all items, false for only the items gathered for the hut.
+     */
+    private void transferToBuilding(@NotNull final AbstractBuilding buildingToDeliver, final boolean everything)
+    {
+        final InventoryCitizen workerInventory = worker.getInventoryCitizen();
+        @Nullable final List<ItemStorage> gathered = gatheredForStop.remove(buildingToDeliver.getLocation());
+        if (everything)
+        {
+            for (int i = 0; i < workerInventory.getSizeInventory(); i++)
+            {
+                final ItemStack stack = workerInventory.getStackInSlot(i);
+                if (stack != null)
+                {
+                    transferStack(buildingToDeliver, workerInventory.removeStackFromSlot(i));
+                }
+            }
+            return;
+        }
+
+        if (gathered == null)
+        {
+            return;
+        }
+
+        for (final ItemStorage storage : gathered)
+        {
+            int remaining = storage.getAmount();
+            for (int i = 0; i < workerInventory.getSizeInventory() && remaining > 0; i++)
+            {
+                final ItemStack stack = workerInventory.getStackInSlot(i);
+                if (stack != null && stack.getItem() == storage.getItem() && stack.getItemDamage() == storage.getDamageValue())
+                {
+                    final int amount = Math.min(remaining, stack.stackSize);
+                    remaining -= amount;
+                    transferStack(buildingToDeliver, workerInventory.decrStackSize(i, amount));
+                }
+            }
+        }
+    }
+
+    /**
+     * Put a stack taken from the worker inventory into a hut, the worker keeps what doesn't fit.
+     *
+     * @param buildingToDeliver the hut.
+     * @param stack             the stack.
+     */
+    private void transferStack(@NotNull final AbstractBuilding buildingToDeliver, @Nullable final ItemStack stack)
+    {
+        if (stack == null || buildingToDeliver.transferStack(stack, world))
+        {
+            return;
+        }
+
+        @Nullable final ItemStack tempStack = buildingToDeliver.forceTransferStack(stack, world);
+        if (tempStack == null)
+        {
+            chatSpamFilter.talkWithoutSpam("com.minecolonies.coremod.job.deliveryman.workerChestFull"
+                    , new TextComponentString(" :" + buildingToDeliver.getSchematicName()));
+            InventoryUtils.addItemStackToItemHandler(new InvWrapper(worker.getInventoryCitizen()), stack);
+        }
+        else
+        {
+            InventoryUtils.addItemStackToItemHandler(new InvWrapper(worker.getInventoryCitizen()), tempStack);
+        }
+    }
+
+    /**
+     * Count the items in the worker inventory by item and damage.
+     *
+     * @return the amount of each.
+     */
+    @NotNull
+    private Map<ItemStorage, Integer> countWorkerItems()
+    {
+        final Map<ItemStorage, Integer> counts = new HashMap<>();
+        final InventoryCitizen workerInventory = worker.getInventoryCitizen();
+        for (int i = 0; i < workerInventory.getSizeInventory(); i++)
+        {
+            final ItemStack stack = workerInventory.getStackInSlot(i);
+            if (stack != null && stack.stackSize > 0)
+            {
+                counts.merge(new ItemStorage(stack.getItem(), stack.getItemDamage(), 0, false), stack.stackSize, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Record what the worker took out of a chest for a stop.
+     *
+     * @param buildingToDeliver the hut of the stop.
+     * @param before            the worker items before, see {@link #countWorkerItems()}.
+     */
+    private void recordGathered(@NotNull final AbstractBuilding buildingToDeliver, @NotNull final Map<ItemStorage, Integer> before)
+    {
+        final List<ItemStorage> gathered = gatheredForStop.computeIfAbsent(buildingToDeliver.getLocation(), pos -> new ArrayList<>());
+        for (final Map.Entry<ItemStorage, Integer> entry : countWorkerItems().entrySet())
+        {
+            final int amount = entry.getValue() - before.getOrDefault(entry.getKey(), 0);
+            if (amount > 0)
+            {
+                gathered.add(new ItemStorage(entry.getKey().getItem(), entry.getKey().getDamageValue(), amount, false));
+            }
+        }
+    }
+
+    /**
+     * Prepare deliveryman for delivery to the next stop of the tour.
      * Check if the building still needs the item and if the required items are still in the warehouse.
+     * Stops which can't be served are dropped from the tour.
      *
      * @return the next state to go to.
      */
@@ -343,33 +460,45 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
         final AbstractBuildingWorker ownBuilding = getOwnBuilding();
         if (ownBuilding instanceof BuildingDeliveryman)
         {
-            final AbstractBuilding buildingToDeliver = ((BuildingDeliveryman) ownBuilding).getBuildingToDeliver();
-            if (buildingToDeliver != null)
+            final List<AbstractBuilding> tour = ((BuildingDeliveryman) ownBuilding).getTour();
+            if (gatherStop >= tour.size())
             {
-                final boolean ableToDeliver = wareHouse.getTileEntity().checkInWareHouse(buildingToDeliver, false);
-                if (!ableToDeliver)
-                {
-                    buildingToDeliver.setOnGoingDelivery(false);
-                    return START_WORKING;
-                }
-                itemsToDeliver = new ArrayList<>(buildingToDeliver.getNeededItems());
-                return GATHER_IN_WAREHOUSE;
+                return tour.isEmpty() ? START_WORKING : DELIVERY;
+            }
+
+            final AbstractBuilding buildingToDeliver = tour.get(gatherStop);
+            final boolean ableToDeliver = wareHouse.getTileEntity().checkInWareHouse(buildingToDeliver, false);
+            if (!ableToDeliver)
+            {
+                buildingToDeliver.setOnGoingDelivery(false);
+                ((BuildingDeliveryman) ownBuilding).removeStop(buildingToDeliver);
+                gatheredForStop.remove(buildingToDeliver.getLocation());
+                return PREPARE_DELIVERY;
             }
+            itemsToDeliver = new ArrayList<>(buildingToDeliver.getNeededItems());
+            return GATHER_IN_WAREHOUSE;
         }
         return START_WORKING;
     }
 
+    /**
+     * Gather the items for the current stop of the tour in the warehouse.
+     *
+     * @return the next state to go to.
+     */
     private AIState gatherItemsFromWareHouse()
     {
         final AbstractBuildingWorker ownBuilding = getOwnBuilding();
         if (ownBuilding instanceof BuildingDeliveryman)
         {
-            final AbstractBuilding buildingToDeliver = ((BuildingDeliveryman) ownBuilding).getBuildingToDeliver();
-            if (buildingToDeliver != null)
+            final List<AbstractBuilding> tour = ((BuildingDeliveryman) ownBuilding).getTour();
+            if (gatherStop < tour.size())
             {
+                final AbstractBuilding buildingToDeliver = tour.get(gatherStop);
                 if (itemsToDeliver.isEmpty() && hasTools(buildingToDeliver))
                 {
-                    return DELIVERY;
+                    gatherStop++;
+                    return PREPARE_DELIVERY;
                 }
 
                 if(gatherItems(buildingToDeliver))
@@ -378,9 +507,12 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
                     return GATHER_IN_WAREHOUSE;
                 }
 
-                ((BuildingDeliveryman) ownBuilding).setBuildingToDeliver(null);
+                //  What was gathered for the dropped stop goes with the leftovers of the last stop
+                buildingToDeliver.setOnGoingDelivery(false);
+                ((BuildingDeliveryman) ownBuilding).removeStop(buildingToDeliver);
+                gatheredForStop.remove(buildingToDeliver.getLocation());
                 itemsToDeliver.clear();
-                return START_WORKING;
+                return PREPARE_DELIVERY;
             }
         }
         return START_WORKING;
@@ -461,15 +593,21 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
                 this.world.notifyNeighborsOfStateChange(tileEntity.getPos().down(), tileEntity.getBlockType());
             }
 
-            if (itemsToDeliver.isEmpty() && !isToolInTileEntity((TileEntityChest) tileEntity, buildingToDeliver.getRequiredTool(), buildingToDeliver.getBuildingLevel()))
+            final Map<ItemStorage, Integer> before = countWorkerItems();
+            if (itemsToDeliver.isEmpty())
             {
-                return false;
+                if (!isToolInTileEntity((TileEntityChest) tileEntity, buildingToDeliver.getRequiredTool(), buildingToDeliver.getBuildingLevel()))
+                {
+                    return false;
+                }
+                recordGathered(buildingToDeliver, before);
             }
-            else if(!itemsToDeliver.isEmpty())
+            else
             {
                 final ItemStack stack = itemsToDeliver.get(0);
                 if (isInTileEntity((TileEntityChest) tileEntity, stack))
                 {
+                    recordGathered(buildingToDeliver, before);
                     itemsToDeliver.remove(0);
                     return true;
                 }
@@ -493,16 +631,18 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
 
         final AbstractBuildingWorker ownBuilding = getOwnBuilding();
 
-        @Nullable final AbstractBuilding buildingToDeliver = wareHouse.getTileEntity().getTask();
+        final List<AbstractBuilding> tour = wareHouse.getTileEntity().getTour(wareHouse.getLocation(), getStackCapacity());
         if (ownBuilding instanceof BuildingDeliveryman)
         {
-            if (buildingToDeliver == null)
+            if (tour.isEmpty())
             {
                 ((BuildingDeliveryman) ownBuilding).setBuildingToDeliver(null);
                 return GATHERING;
             }
-            ((BuildingDeliveryman) ownBuilding).setBuildingToDeliver(buildingToDeliver);
+            ((BuildingDeliveryman) ownBuilding).setTour(tour);
         }
+        gatherStop = 0;
+        gatheredForStop.clear();
 
         return PREPARE_DELIVERY;
     }
@@ -17,7 +17,6 @@ import com.minecolonies.coremod.util.LanguageHandler;
 import com.minecolonies.coremod.util.Log;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.monster.EntityMob;
 import net.minecraft.entity.monster.EntitySlime;
 import net.minecraft.entity.player.EntityPlayer;
@@ -336,9 +335,18 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
      */
     protected AIState searchTarget()
     {
-        entityList = this.worker.worldObj.getEntitiesWithinAABB(EntityMob.class, this.getTargetableArea(currentSearchDistance));
-        entityList.addAll(this.worker.worldObj.getEntitiesWithinAABB(EntitySlime.class, this.getTargetableArea(currentSearchDistance)));
-        entityList.addAll(this.worker.worldObj.getEntitiesWithinAABB(EntityPlayer.class, this.getTargetableArea(currentSearchDistance)));
+        final AxisAlignedBB area = this.getTargetableArea(currentSearchDistance);
+        final Colony colony = worker.getColony();
+        if (colony == null)
+        {
+            entityList = new ArrayList<>(this.worker.worldObj.getEntitiesWithinAABB(EntityMob.class, area));
+            entityList.addAll(this.worker.worldObj.getEntitiesWithinAABB(EntitySlime.class, area));
+            entityList.addAll(this.worker.worldObj.getEntitiesWithinAABB(EntityPlayer.class, area));
+        }
+        else
+        {
+            entityList = colony.getEntityProximity().getTargets(this.worker.worldObj, area);
+        }
 
         if (targetEntity != null && targetEntity.isEntityAlive() && worker.getEntitySenses().canSee(targetEntity))
         {
@@ -561,7 +569,7 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
     {
         items = new ArrayList<>();
 
-        items = world.getEntitiesWithinAABB(EntityItem.class, worker.getEntityBoundingBox().expand(RANGE_HORIZONTAL_PICKUP, RANGE_VERTICAL_PICKUP, RANGE_HORIZONTAL_PICKUP))
+        items = worker.getItemsWithin(worker.getEntityBoundingBox().expand(RANGE_HORIZONTAL_PICKUP, RANGE_VERTICAL_PICKUP, RANGE_HORIZONTAL_PICKUP))
                   .stream()
                   .filter(item -> item != null && !item.isDead)
                   .map(BlockPosUtil::fromEntity)
@@ -3,7 +3,6 @@ package com.minecolonies.coremod.entity.ai.citizen.guard;
 import com.minecolonies.coremod.colony.jobs.JobGuard;
 import com.minecolonies.coremod.entity.ai.util.AIState;
 import com.minecolonies.coremod.entity.ai.util.AITarget;
-import com.minecolonies.coremod.util.InventoryFunctions;
 import com.minecolonies.coremod.util.Utils;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.entity.EntityLivingBase;
@@ -116,7 +115,11 @@ public class EntityAIMeleeGuard extends AbstractEntityAIGuard
         {
             return AIState.GUARD_SEARCH_TARGET;
         }
-        InventoryFunctions.matchFirstInProvider(worker, stack -> stack != null && Utils.doesItemServeAsWeapon(stack), worker::setHeldItem);
+        final int weaponSlot = worker.getInventoryCitizen().findToolSlot(Utils.WEAPON, Utils::doesItemServeAsWeapon);
+        if (weaponSlot != -1)
+        {
+            worker.setHeldItem(weaponSlot);
+        }
         return super.searchTarget();
     }
 
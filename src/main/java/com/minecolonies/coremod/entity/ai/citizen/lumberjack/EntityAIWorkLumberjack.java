@@ -10,7 +10,6 @@ import com.minecolonies.coremod.util.*;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockSapling;
 import net.minecraft.block.SoundType;
-import net.minecraft.entity.item.EntityItem;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
@@ -671,7 +670,7 @@ public class EntityAIWorkLumberjack extends AbstractEntityAIInteract<JobLumberja
         items = new ArrayList<>();
 
         //TODO check if sapling or apple (currently picks up all items, which may be okay)
-        items = world.getEntitiesWithinAABB(EntityItem.class, worker.getEntityBoundingBox().expand(RANGE_HORIZONTAL_PICKUP, RANGE_VERTICAL_PICKUP, RANGE_HORIZONTAL_PICKUP))
+        items = worker.getItemsWithin(worker.getEntityBoundingBox().expand(RANGE_HORIZONTAL_PICKUP, RANGE_VERTICAL_PICKUP, RANGE_HORIZONTAL_PICKUP))
                 .stream()
                 .filter(item -> item != null && !item.isDead)
                 .map(BlockPosUtil::fromEntity)
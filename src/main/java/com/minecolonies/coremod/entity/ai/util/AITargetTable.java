@@ -0,0 +1,155 @@
+package com.minecolonies.coremod.entity.ai.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The targets of an ai, indexed by the state they match on.
+ * <p>
+ * Targets are registered in order. Before the first dispatch after a registration the table is compiled into one
+ * array per {@link AIState} holding the targets without a state and the targets of that state, still in registration
+ * order. A dispatch then only walks the targets which can match the current state and allocates nothing.
+ * Optionally it counts the checks and the time spent per target.
+ */
+public final class AITargetTable
+{
+    private static final AIState[] STATES = AIState.values();
+
+    @NotNull
+    private final List<AITarget> registered = new ArrayList<>();
+    private AITarget[] targets;
+    private int[][]    byState;
+    private long[]     invocations;
+    private long[]     nanos;
+    private boolean    profiling;
+
+    /**
+     * Register a target after the ones registered before.
+     *
+     * @param target the target.
+     */
+    public void add(@NotNull final AITarget target)
+    {
+        registered.add(target);
+        byState = null;
+    }
+
+    /**
+     * Check the targets for a state in order until one of them stops the execution.
+     *
+     * @param state the current state of the ai.
+     * @param check checks a target, true to stop.
+     * @return true if a target stopped the execution.
+     */
+    public boolean dispatch(@NotNull final AIState state, @NotNull final Predicate<AITarget> check)
+    {
+        if (byState == null)
+        {
+            compile();
+        }
+
+        for (final int index : byState[state.ordinal()])
+        {
+            if (profiling)
+            {
+                final long start = System.nanoTime();
+                final boolean stop = check.test(targets[index]);
+                nanos[index] += System.nanoTime() - start;
+                invocations[index]++;
+                if (stop)
+                {
+                    return true;
+                }
+            }
+            else if (check.test(targets[index]))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the arrays per state.
+     */
+    private void compile()
+    {
+        targets = registered.toArray(new AITarget[registered.size()]);
+        invocations = invocations == null ? new long[targets.length] : Arrays.copyOf(invocations, targets.length);
+        nanos = nanos == null ? new long[targets.length] : Arrays.copyOf(nanos, targets.length);
+
+        final int[][] compiled = new int[STATES.length][];
+        final int[] buffer = new int[targets.length];
+        for (final AIState state : STATES)
+        {
+            int size = 0;
+            for (int index = 0; index < targets.length; index++)
+            {
+                if (targets[index].getState() == null || targets[index].getState() == state)
+                {
+                    buffer[size++] = index;
+                }
+            }
+            compiled[state.ordinal()] = Arrays.copyOf(buffer, size);
+        }
+        byState = compiled;
+    }
+
+    /**
+     * Turn counting the checks and time per target on or off.
+     *
+     * @param profiling true to count.
+     */
+    public void setProfiling(final boolean profiling)
+    {
+        this.profiling = profiling;
+    }
+
+    /**
+     * Get the number of registered targets.
+     *
+     * @return the size.
+     */
+    public int size()
+    {
+        return registered.size();
+    }
+
+    /**
+     * Get a target by registration order.
+     *
+     * @param index the index.
+     * @return the target.
+     */
+    @NotNull
+    public AITarget get(final int index)
+    {
+        return registered.get(index);
+    }
+
+    /**
+     * Get how often a target was checked while profiling.
+     *
+     * @param index the index of the target.
+     * @return the number of checks.
+     */
+    public long getInvocations(final int index)
+    {
+        return invocations == null || index >= invocations.length ? 0 : invocations[index];
+    }
+
+    /**
+     * Get the time spent checking and applying a target while profiling.
+     *
+     * @param index the index of the target.
+     * @return the time in nanoseconds.
+     */
+    public long getNanos(final int index)
+    {
+        return nanos == null || index >= nanos.length ? 0 : nanos[index];
+    }
+}
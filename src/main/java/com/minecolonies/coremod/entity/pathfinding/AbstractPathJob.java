@@ -23,6 +23,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract class for Jobs that run in the multithreaded path finder.
@@ -47,6 +48,7 @@ public abstract class AbstractPathJob implements Callable<Path>
     private static final   BlockPos BLOCKPOS_WEST  = new BlockPos(-1, 0, 0);
     private static final   int      MAX_Y          = 256;
     private static final   int      MIN_Y          = 0;
+    private static final   int      CHUNK_SHIFT    = 4;
 
     /**
      * Additional cost of jumping and dropping - base 1.
@@ -83,6 +85,26 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     private static final int SHIFT_Y_BY = 12;
 
+    /**
+     * The time budget of a search is checked every 64 visited nodes.
+     */
+    private static final int BUDGET_CHECK_MASK = 63;
+
+    /**
+     * Visited node table of each pathfinding thread, reused by every search running on it.
+     */
+    private static final ThreadLocal<NodeMap>  VISITED_NODES = ThreadLocal.withInitial(NodeMap::new);
+
+    /**
+     * Node arena of each pathfinding thread, reused by every search running on it.
+     */
+    private static final ThreadLocal<NodePool> NODE_POOL     = ThreadLocal.withInitial(NodePool::new);
+
+    /**
+     * Open set of each pathfinding thread, reused by every search running on it.
+     */
+    private static final ThreadLocal<NodeHeap> OPEN_NODES    = ThreadLocal.withInitial(NodeHeap::new);
+
     @Nullable
     protected static Set<Node>    lastDebugNodesVisited;
     @Nullable
@@ -95,8 +117,26 @@ public abstract class AbstractPathJob implements Callable<Path>
     protected final  IBlockAccess world;
     protected final  PathResult   result;
     private final    int          maxRange;
-    private final Queue<Node>        nodesOpen                    = new PriorityQueue<>(500);
-    private final Map<Integer, Node> nodesVisited                 = new HashMap<>();
+    //  Reusable positions, so probing the world does not allocate
+    private final BlockPos.MutableBlockPos walkPos                = new BlockPos.MutableBlockPos();
+    private final BlockPos.MutableBlockPos probePos               = new BlockPos.MutableBlockPos();
+    private final BlockPos.MutableBlockPos deltaPos               = new BlockPos.MutableBlockPos();
+    private final BlockPos.MutableBlockPos standPos               = new BlockPos.MutableBlockPos();
+    //  Borrowed from the running thread for the duration of the search
+    private       NodeHeap           nodesOpen;
+    private       NodeMap            nodesVisited;
+    private       NodePool           nodePool;
+    //  Shared block classification, restricted to the chunks covered by our ChunkCache
+    @Nullable
+    private final PassabilityCache   passabilityCache;
+    private final int                minChunkX;
+    private final int                maxChunkX;
+    private final int                minChunkZ;
+    private final int                maxChunkZ;
+    @Nullable
+    private PassabilityCache.ChunkSnapshot chunkSnapshot;
+    private int                      snapshotChunkX;
+    private int                      snapshotChunkZ;
     //  Debug Rendering
     protected     boolean            debugDrawEnabled             = false;
     protected     int                debugSleepMs                 = 0;
@@ -144,6 +184,11 @@ public abstract class AbstractPathJob implements Callable<Path>
         final int maxZ = Math.max(start.getZ(), end.getZ()) + (range / 2);
 
         this.world = new ChunkCache(world, new BlockPos(minX, MIN_Y, minZ), new BlockPos(maxX, MAX_Y, maxZ), range);
+        this.passabilityCache = Configurations.pathfindingPassabilityCache ? PassabilityCache.getCache(world) : null;
+        this.minChunkX = (minX - range) >> CHUNK_SHIFT;
+        this.maxChunkX = (maxX + range) >> CHUNK_SHIFT;
+        this.minChunkZ = (minZ - range) >> CHUNK_SHIFT;
+        this.maxChunkZ = (maxZ + range) >> CHUNK_SHIFT;
 
         this.start = new BlockPos(start);
         this.maxRange = range;
@@ -334,9 +379,23 @@ public abstract class AbstractPathJob implements Callable<Path>
         return node != null && node.isClosed();
     }
 
-    private static boolean calculateSwimming(@NotNull final IBlockAccess world, @NotNull final BlockPos pos, @Nullable final Node node)
+    private boolean calculateSwimming(@NotNull final BlockPos pos, @Nullable final Node node)
     {
-        return (node == null) ? world.getBlockState(pos.down()).getMaterial().isLiquid() : node.isSwimming();
+        return (node == null) ? hasFlag(getFlags(probe(pos, -1)), PassabilityCache.FLAG_LIQUID) : node.isSwimming();
+    }
+
+    /**
+     * Points the reusable probe position at a position shifted vertically.
+     * The result is only valid until the next call.
+     *
+     * @param pos the base position.
+     * @param dy  the vertical offset.
+     * @return the probe position.
+     */
+    @NotNull
+    private BlockPos probe(@NotNull final BlockPos pos, final int dy)
+    {
+        return probePos.setPos(pos.getX(), pos.getY() + dy, pos.getZ());
     }
 
     public PathResult getResult()
@@ -371,11 +430,37 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     @Nullable
     protected Path search()
+    {
+        nodesOpen = OPEN_NODES.get();
+        nodesVisited = VISITED_NODES.get();
+        nodePool = NODE_POOL.get();
+
+        try
+        {
+            return searchNodes();
+        }
+        finally
+        {
+            nodesOpen.clear();
+            nodesVisited.clear();
+            nodePool.release();
+        }
+    }
+
+    /**
+     * Run the A* search over the nodes.
+     *
+     * @return Path of a path to the given location, a best-effort, or null.
+     */
+    @Nullable
+    private Path searchNodes()
     {
         Node bestNode = getAndSetupStartNode();
 
         double bestNodeResultScore = getNodeResultScore(bestNode);
 
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Configurations.pathfindingMaxMillisPerJob);
+
         while (!nodesOpen.isEmpty())
         {
             if (Thread.currentThread().isInterrupted())
@@ -383,6 +468,12 @@ public abstract class AbstractPathJob implements Callable<Path>
                 return null;
             }
 
+            if (isOverBudget(deadline))
+            {
+                //  Hand back the best-effort path, the navigator will search again from there
+                break;
+            }
+
             final Node currentNode = nodesOpen.poll();
 
             totalNodesVisited++;
@@ -423,6 +514,25 @@ public abstract class AbstractPathJob implements Callable<Path>
         return path;
     }
 
+    /**
+     * Check if the search used up its node or time budget.
+     * Debug sleeps would always hit the time budget, so only the node budget applies then.
+     *
+     * @param deadline the time the search has to end, see {@link System#nanoTime()}.
+     * @return true if the search should stop.
+     */
+    private boolean isOverBudget(final long deadline)
+    {
+        if (totalNodesVisited >= Configurations.pathfindingMaxNodesPerJob)
+        {
+            return true;
+        }
+        //  Reading the clock is not free, every few nodes is precise enough
+        return (totalNodesVisited & BUDGET_CHECK_MASK) == 0
+                 && !(debugDrawEnabled && debugSleepMs != 0)
+                 && System.nanoTime() - deadline > 0;
+    }
+
     private void handleDebugOptions(Node currentNode)
     {
         if (debugDrawEnabled)
@@ -477,7 +587,9 @@ public abstract class AbstractPathJob implements Callable<Path>
         BlockPos dPos = BLOCKPOS_IDENTITY;
         if (currentNode.parent != null)
         {
-            dPos = currentNode.pos.subtract(currentNode.parent.pos);
+            dPos = deltaPos.setPos(currentNode.pos.getX() - currentNode.parent.pos.getX(),
+              currentNode.pos.getY() - currentNode.parent.pos.getY(),
+              currentNode.pos.getZ() - currentNode.parent.pos.getZ());
         }
 
         //  On a ladder, we can go 1 straight-up
@@ -519,7 +631,7 @@ public abstract class AbstractPathJob implements Callable<Path>
 
     private boolean onLadderGoingDown(@NotNull final Node currentNode, @NotNull final BlockPos dPos)
     {
-        return (dPos.getY() <= 0 || dPos.getX() != 0 || dPos.getZ() != 0) && isLadder(currentNode.pos.down());
+        return (dPos.getY() <= 0 || dPos.getX() != 0 || dPos.getZ() != 0) && isLadder(probe(currentNode.pos, -1));
     }
 
     private void handleDebugDraw()
@@ -538,14 +650,14 @@ public abstract class AbstractPathJob implements Callable<Path>
     @NotNull
     private Node getAndSetupStartNode()
     {
-        @NotNull final Node startNode = new Node(start,
-                                                  computeHeuristic(start));
+        final double heuristic = computeHeuristic(start);
+        @NotNull final Node startNode = debugDrawEnabled ? new Node(start, heuristic) : nodePool.obtain(null, start, 0, heuristic, heuristic);
 
         if (isLadder(start))
         {
             startNode.setLadder();
         }
-        else if (world.getBlockState(start).getMaterial().isLiquid())
+        else if (hasFlag(getFlags(start), PassabilityCache.FLAG_LIQUID))
         {
             startNode.setSwimming();
         }
@@ -691,7 +803,9 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     protected final boolean walk(@NotNull final Node parent, @NotNull final BlockPos dPos)
     {
-        BlockPos pos = parent.pos.add(dPos);
+        final BlockPos.MutableBlockPos pos = walkPos.setPos(parent.pos.getX() + dPos.getX(),
+          parent.pos.getY() + dPos.getY(),
+          parent.pos.getZ() + dPos.getZ());
 
         //  Cheap test to perform before doing a 'y' test
         //  Has this node been visited?
@@ -709,7 +823,7 @@ public abstract class AbstractPathJob implements Callable<Path>
         if (pos.getY() != newY)
         {
             //  Has this node been visited?
-            pos = new BlockPos(pos.getX(), newY, pos.getZ());
+            pos.setPos(pos.getX(), newY, pos.getZ());
             nodeKey = computeNodeKey(pos);
             node = nodesVisited.get(nodeKey);
             if (nodeClosed(node))
@@ -720,8 +834,8 @@ public abstract class AbstractPathJob implements Callable<Path>
         }
 
 
-        final boolean isSwimming = calculateSwimming(world, pos, node);
-        final boolean onRoad = BlockUtils.isPathBlock(world.getBlockState(pos).getBlock());
+        final boolean isSwimming = calculateSwimming(pos, node);
+        final boolean onRoad = hasFlag(getFlags(pos), PassabilityCache.FLAG_ROAD);
         //  Cost may have changed due to a jump up or drop
         final double stepCost = computeCost(dPos, isSwimming, onRoad);
         final double heuristic = computeHeuristic(pos);
@@ -761,8 +875,8 @@ public abstract class AbstractPathJob implements Callable<Path>
                              final Node parent, @NotNull final BlockPos pos, final int nodeKey,
                              final boolean isSwimming, final double heuristic, final double cost, final double score)
     {
-        final Node node;
-        node = new Node(parent, pos, cost, heuristic, score);
+        //  Debug rendering keeps the nodes after the search, so they can't come from the pool
+        final Node node = debugDrawEnabled ? new Node(parent, pos, cost, heuristic, score) : nodePool.obtain(parent, pos, cost, heuristic, score);
         nodesVisited.put(nodeKey, node);
         if (debugDrawEnabled)
         {
@@ -791,7 +905,8 @@ public abstract class AbstractPathJob implements Callable<Path>
             return true;
         }
 
-        if (!nodesOpen.remove(node))
+        //  Closed nodes can't be improved anymore, open ones are re-sorted in place when offered again
+        if (!nodesOpen.contains(node))
         {
             return true;
         }
@@ -821,15 +936,15 @@ public abstract class AbstractPathJob implements Callable<Path>
         }
 
         //  Now check the block we want to move to
-        final IBlockState target = world.getBlockState(pos);
-        if (!isPassable(target))
+        final int target = getFlags(pos);
+        if (!hasFlag(target, PassabilityCache.FLAG_PASSABLE))
         {
             return handleTargeNotPassable(parent, pos, target);
         }
 
         //  Do we have something to stand on in the target space?
-        final IBlockState below = world.getBlockState(pos.down());
-        final SurfaceType walkability = isWalkableSurface(below);
+        final int below = getFlags(probe(pos, -1));
+        final SurfaceType walkability = getSurfaceType(below);
         if (walkability == SurfaceType.WALKABLE)
         {
             //  Level path
@@ -843,16 +958,16 @@ public abstract class AbstractPathJob implements Callable<Path>
         return handleNotStanding(parent, pos, below);
     }
 
-    private int handleNotStanding(@Nullable final Node parent, @NotNull final BlockPos pos, @NotNull final IBlockState below)
+    private int handleNotStanding(@Nullable final Node parent, @NotNull final BlockPos pos, final int below)
     {
         final boolean isSwimming = parent != null && parent.isSwimming();
 
-        if (below.getMaterial().isLiquid())
+        if (hasFlag(below, PassabilityCache.FLAG_LIQUID))
         {
             return handleInLiquid(pos, below, isSwimming);
         }
 
-        if (isLadder(below.getBlock(), pos.down()))
+        if (hasFlag(below, PassabilityCache.FLAG_LADDER))
         {
             return pos.getY();
         }
@@ -869,9 +984,7 @@ public abstract class AbstractPathJob implements Callable<Path>
             return -1;
         }
 
-        final BlockPos down = pos.down(2);
-        final IBlockState below = world.getBlockState(down);
-        if (isWalkableSurface(below) == SurfaceType.WALKABLE)
+        if (getSurfaceType(getFlags(probe(pos, -2))) == SurfaceType.WALKABLE)
         {
             //  Level path
             return pos.getY() - 1;
@@ -880,7 +993,7 @@ public abstract class AbstractPathJob implements Callable<Path>
         return -1;
     }
 
-    private int handleInLiquid(@NotNull final BlockPos pos, @NotNull final IBlockState below, final boolean isSwimming)
+    private int handleInLiquid(@NotNull final BlockPos pos, final int below, final boolean isSwimming)
     {
         if (isSwimming)
         {
@@ -888,7 +1001,7 @@ public abstract class AbstractPathJob implements Callable<Path>
             return pos.getY();
         }
 
-        if (allowSwimming && below.getMaterial() == Material.WATER)
+        if (allowSwimming && hasFlag(below, PassabilityCache.FLAG_WATER))
         {
             //  This is water, and we are allowed to swim
             return pos.getY();
@@ -898,23 +1011,23 @@ public abstract class AbstractPathJob implements Callable<Path>
         return -1;
     }
 
-    private int handleTargeNotPassable(@Nullable final Node parent, @NotNull final BlockPos pos, @NotNull final IBlockState target)
+    private int handleTargeNotPassable(@Nullable final Node parent, @NotNull final BlockPos pos, final int target)
     {
         final boolean canJump = parent != null && !parent.isLadder() && !parent.isSwimming();
         //  Need to try jumping up one, if we can
-        if (!canJump || isWalkableSurface(target) != SurfaceType.WALKABLE)
+        if (!canJump || getSurfaceType(target) != SurfaceType.WALKABLE)
         {
             return -1;
         }
 
         //  Check for headroom in the target space
-        if (!isPassable(pos.up(2)))
+        if (!isPassable(probe(pos, 2)))
         {
             return -1;
         }
 
         //  Check for jump room from the origin space
-        if (!isPassable(parent.pos.up(2)))
+        if (!isPassable(probe(parent.pos, 2)))
         {
             return -1;
         }
@@ -925,15 +1038,15 @@ public abstract class AbstractPathJob implements Callable<Path>
 
     private boolean checkHeadBlock(@Nullable final Node parent, @NotNull final BlockPos pos)
     {
-        if (!isPassable(pos.up()))
+        if (!isPassable(probe(pos, 1)))
         {
             return true;
         }
 
         if (parent != null)
         {
-            final IBlockState hereState = world.getBlockState(parent.pos.down());
-            if (hereState.getMaterial().isLiquid() && !isPassable(pos))
+            final boolean hereIsLiquid = hasFlag(getFlags(probe(parent.pos, -1)), PassabilityCache.FLAG_LIQUID);
+            if (hereIsLiquid && !isPassable(pos))
             {
                 return true;
             }
@@ -941,6 +1054,121 @@ public abstract class AbstractPathJob implements Callable<Path>
         return false;
     }
 
+    private static boolean hasFlag(final int flags, final int flag)
+    {
+        return (flags & flag) != 0;
+    }
+
+    @NotNull
+    private static SurfaceType getSurfaceType(final int flags)
+    {
+        if (hasFlag(flags, PassabilityCache.FLAG_FENCE))
+        {
+            return SurfaceType.NOT_PASSABLE;
+        }
+        return hasFlag(flags, PassabilityCache.FLAG_WALKABLE) ? SurfaceType.WALKABLE : SurfaceType.DROPABLE;
+    }
+
+    /**
+     * Get the pathfinding flags of a block, see {@link PassabilityCache}.
+     * Served from the shared snapshot when possible, classified and stored there otherwise.
+     *
+     * @param pos the position of the block.
+     * @return the flags.
+     */
+    private int getFlags(@NotNull final BlockPos pos)
+    {
+        final int chunkX = pos.getX() >> CHUNK_SHIFT;
+        final int chunkZ = pos.getZ() >> CHUNK_SHIFT;
+        if (passabilityCache == null
+              || !PassabilityCache.ChunkSnapshot.isInRange(pos.getY())
+              || chunkX < minChunkX || chunkX > maxChunkX || chunkZ < minChunkZ || chunkZ > maxChunkZ
+              || !canUsePassabilityCache())
+        {
+            //  Outside of our ChunkCache everything reads as air, that must not end up in the shared snapshot
+            return computeFlags(pos);
+        }
+
+        if (chunkSnapshot == null || chunkX != snapshotChunkX || chunkZ != snapshotChunkZ)
+        {
+            chunkSnapshot = passabilityCache.getChunk(chunkX, chunkZ);
+            snapshotChunkX = chunkX;
+            snapshotChunkZ = chunkZ;
+        }
+
+        //  The section has to be fetched before the block is read, see ChunkSnapshot#getSection
+        final byte[] section = chunkSnapshot.getSection(pos.getY());
+        final int index = PassabilityCache.ChunkSnapshot.getIndex(pos.getX(), pos.getY(), pos.getZ());
+        int flags = section[index] & 0xFF;
+        if (flags == 0)
+        {
+            flags = computeFlags(pos);
+            section[index] = (byte) flags;
+        }
+        return flags;
+    }
+
+    /**
+     * Classify a block into pathfinding flags, using the overridable rules of this job.
+     *
+     * @param pos the position of the block.
+     * @return the flags.
+     */
+    private int computeFlags(@NotNull final BlockPos pos)
+    {
+        final IBlockState state = world.getBlockState(pos);
+        int flags = PassabilityCache.FLAG_KNOWN;
+
+        if (isPassable(state))
+        {
+            flags |= PassabilityCache.FLAG_PASSABLE;
+        }
+
+        final SurfaceType surface = isWalkableSurface(state);
+        if (surface == SurfaceType.WALKABLE)
+        {
+            flags |= PassabilityCache.FLAG_WALKABLE;
+        }
+        else if (surface == SurfaceType.NOT_PASSABLE)
+        {
+            flags |= PassabilityCache.FLAG_FENCE;
+        }
+
+        if (state.getMaterial().isLiquid())
+        {
+            flags |= PassabilityCache.FLAG_LIQUID;
+        }
+
+        if (state.getMaterial() == Material.WATER)
+        {
+            flags |= PassabilityCache.FLAG_WATER;
+        }
+
+        if (isLadder(state.getBlock(), pos))
+        {
+            flags |= PassabilityCache.FLAG_LADDER;
+        }
+
+        if (BlockUtils.isPathBlock(state.getBlock()))
+        {
+            flags |= PassabilityCache.FLAG_ROAD;
+        }
+
+        return flags;
+    }
+
+    /**
+     * Whether this job classifies blocks like every other job, and can thus share the {@link PassabilityCache}.
+     * Jobs overriding {@link #isPassable(IBlockState)}, {@link #isWalkableSurface(IBlockState)} or
+     * {@link #isLadder(Block, BlockPos)} have to return false.
+     *
+     * @return true if the shared snapshot may be used.
+     */
+    protected boolean canUsePassabilityCache()
+    {
+        return true;
+    }
+
     /**
      * Is the space passable.
      *
@@ -969,7 +1197,7 @@ public abstract class AbstractPathJob implements Callable<Path>
 
     protected boolean isPassable(final BlockPos pos)
     {
-        return isPassable(world.getBlockState(pos));
+        return hasFlag(getFlags(pos), PassabilityCache.FLAG_PASSABLE);
     }
 
     /**
@@ -1017,7 +1245,52 @@ public abstract class AbstractPathJob implements Callable<Path>
 
     protected boolean isLadder(final BlockPos pos)
     {
-        return isLadder(world.getBlockState(pos).getBlock(), pos);
+        return hasFlag(getFlags(pos), PassabilityCache.FLAG_LADDER);
+    }
+
+    /**
+     * Coarse check if an entity can stand at a position: feet and head are free and dry,
+     * and there is walkable ground below or a ladder to hold on to.
+     * Ignores everything the block-level search handles in detail (drops, swimming, fences next to it).
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     * @return true if so.
+     */
+    protected final boolean isStandable(final int x, final int y, final int z)
+    {
+        if (y <= MIN_Y || y + 1 >= MAX_Y)
+        {
+            return false;
+        }
+
+        final int feet = getFlags(standPos.setPos(x, y, z));
+        if (!hasFlag(feet, PassabilityCache.FLAG_PASSABLE) || hasFlag(feet, PassabilityCache.FLAG_LIQUID)
+              || !hasFlag(getFlags(standPos.setPos(x, y + 1, z)), PassabilityCache.FLAG_PASSABLE))
+        {
+            return false;
+        }
+
+        if (hasFlag(feet, PassabilityCache.FLAG_LADDER))
+        {
+            return true;
+        }
+
+        final int below = getFlags(standPos.setPos(x, y - 1, z));
+        return hasFlag(below, PassabilityCache.FLAG_WALKABLE) && !hasFlag(below, PassabilityCache.FLAG_FENCE);
+    }
+
+    /**
+     * Check if a chunk lies within the blocks this job can read, everything else reads as air.
+     *
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     * @return true if so.
+     */
+    protected final boolean isChunkCached(final int chunkX, final int chunkZ)
+    {
+        return chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
     }
 
     /**
@@ -18,14 +18,21 @@ public class Node implements Comparable<Node>
 
     /**
      * The position of the node.
+     * Backed by a mutable position so pooled nodes can be reused, use toImmutable() before storing it.
      */
     @NotNull
     public final  BlockPos pos;
 
+    /**
+     * Mutable view of the position, used to reinitialize the node.
+     */
+    @NotNull
+    private final BlockPos.MutableBlockPos mutablePos;
+
     /**
      * The hash of the node.
      */
-    private final int      hash;
+    private       int      hash;
 
     /**
      * The parent of the node (Node preceding this node).
@@ -81,6 +88,11 @@ public class Node implements Comparable<Node>
      */
     private boolean swimming = false;
 
+    /**
+     * Slot of the node in the open set heap, -1 if not queued.
+     */
+    private int heapIndex = -1;
+
     /**
      * Create initial Node.
      *
@@ -102,14 +114,45 @@ public class Node implements Comparable<Node>
      * @param score     node total score.
      */
     public Node(@Nullable final Node parent, @NotNull final BlockPos pos, final double cost, final double heuristic, final double score)
+    {
+        this();
+        init(parent, pos, cost, heuristic, score);
+    }
+
+    /**
+     * Create an empty Node, to be set up by {@link #init(Node, BlockPos, double, double, double)}.
+     * Used by the {@link NodePool}.
+     */
+    Node()
+    {
+        this.mutablePos = new BlockPos.MutableBlockPos();
+        this.pos = mutablePos;
+    }
+
+    /**
+     * (Re)initialize the node, resetting all the search state.
+     *
+     * @param parent    parent node arrives from.
+     * @param pos       coordinate of node, copied.
+     * @param cost      node cost.
+     * @param heuristic heuristic estimate.
+     * @param score     node total score.
+     */
+    final void init(@Nullable final Node parent, @NotNull final BlockPos pos, final double cost, final double heuristic, final double score)
     {
         this.parent = parent;
-        this.pos = pos;
+        this.mutablePos.setPos(pos.getX(), pos.getY(), pos.getZ());
         this.steps = parent == null ? 0 : (parent.steps + 1);
         this.cost = cost;
         this.heuristic = heuristic;
         this.score = score;
         this.hash = pos.getX() ^ ((pos.getZ() << HASH_A) | (pos.getZ() >> HASH_B)) ^ (pos.getY() << HASH_C);
+        this.counterAdded = 0;
+        this.counterVisited = 0;
+        this.closed = false;
+        this.ladder = false;
+        this.swimming = false;
+        this.heapIndex = -1;
     }
 
     @Override
@@ -318,4 +361,22 @@ public class Node implements Comparable<Node>
     {
         return counterAdded;
     }
+
+    /**
+     * Getter of the slot of the node in the open set.
+     * @return the slot or -1 if the node is not queued.
+     */
+    int getHeapIndex()
+    {
+        return heapIndex;
+    }
+
+    /**
+     * Sets the slot of the node in the open set.
+     * @param heapIndex the slot or -1 if the node got removed.
+     */
+    void setHeapIndex(final int heapIndex)
+    {
+        this.heapIndex = heapIndex;
+    }
 }
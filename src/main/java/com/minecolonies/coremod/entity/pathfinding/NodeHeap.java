@@ -0,0 +1,174 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of nodes used as the open set of the pathfinder.
+ * Every node remembers its slot in the heap, which makes contains and decrease-key O(1) and O(log n)
+ * instead of the linear remove of a PriorityQueue.
+ */
+public final class NodeHeap
+{
+    /**
+     * Initial capacity of the heap.
+     */
+    private static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * The heap array, the first size slots are used.
+     */
+    @NotNull
+    private Node[] heap = new Node[DEFAULT_CAPACITY];
+
+    /**
+     * Amount of queued nodes.
+     */
+    private int size = 0;
+
+    /**
+     * Check if the open set is empty.
+     *
+     * @return true if so.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Amount of queued nodes.
+     *
+     * @return the size.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Check if a node is currently queued.
+     *
+     * @param node the node.
+     * @return true if so.
+     */
+    public boolean contains(@NotNull final Node node)
+    {
+        final int index = node.getHeapIndex();
+        return index >= 0 && index < size && heap[index] == node;
+    }
+
+    /**
+     * Queue a node, or restore the heap order of an already queued node after its score decreased.
+     *
+     * @param node the node.
+     */
+    public void offer(@NotNull final Node node)
+    {
+        if (contains(node))
+        {
+            siftUp(node.getHeapIndex());
+            return;
+        }
+
+        if (size == heap.length)
+        {
+            heap = Arrays.copyOf(heap, size << 1);
+        }
+
+        heap[size] = node;
+        node.setHeapIndex(size);
+        siftUp(size);
+        size++;
+    }
+
+    /**
+     * Remove and return the node with the best score.
+     *
+     * @return the node or null if empty.
+     */
+    @Nullable
+    public Node poll()
+    {
+        if (size == 0)
+        {
+            return null;
+        }
+
+        final Node top = heap[0];
+        top.setHeapIndex(-1);
+        size--;
+
+        if (size > 0)
+        {
+            final Node last = heap[size];
+            heap[0] = last;
+            last.setHeapIndex(0);
+            siftDown(0);
+        }
+        heap[size] = null;
+        return top;
+    }
+
+    /**
+     * Remove all queued nodes.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            heap[i].setHeapIndex(-1);
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp(final int start)
+    {
+        final Node node = heap[start];
+        int index = start;
+        while (index > 0)
+        {
+            final int parentIndex = (index - 1) >>> 1;
+            final Node parent = heap[parentIndex];
+            if (node.compareTo(parent) >= 0)
+            {
+                break;
+            }
+            heap[index] = parent;
+            parent.setHeapIndex(index);
+            index = parentIndex;
+        }
+        heap[index] = node;
+        node.setHeapIndex(index);
+    }
+
+    private void siftDown(final int start)
+    {
+        final Node node = heap[start];
+        final int half = size >>> 1;
+        int index = start;
+        while (index < half)
+        {
+            int childIndex = (index << 1) + 1;
+            Node child = heap[childIndex];
+            final int rightIndex = childIndex + 1;
+            if (rightIndex < size && heap[rightIndex].compareTo(child) < 0)
+            {
+                childIndex = rightIndex;
+                child = heap[rightIndex];
+            }
+            if (node.compareTo(child) <= 0)
+            {
+                break;
+            }
+            heap[index] = child;
+            child.setHeapIndex(index);
+            index = childIndex;
+        }
+        heap[index] = node;
+        node.setHeapIndex(index);
+    }
+}
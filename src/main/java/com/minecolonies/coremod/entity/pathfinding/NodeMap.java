@@ -0,0 +1,192 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table mapping primitive node keys to nodes.
+ * Used instead of a HashMap to avoid boxing the key and allocating an entry per visited node.
+ * The table is cleared by bumping a generation stamp, so it can be reused between searches without wiping it.
+ */
+public final class NodeMap
+{
+    /**
+     * Initial amount of slots, has to be a power of two.
+     */
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Golden ratio constant used to spread the keys over the table.
+     */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * The table is grown when it is more than half full.
+     */
+    private static final int LOAD_FACTOR_SHIFT = 1;
+
+    /**
+     * Tables bigger than this are shrunk back to the default size when cleared.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 17;
+
+    /**
+     * Keys of the slots.
+     */
+    private int[] keys;
+
+    /**
+     * Nodes of the slots.
+     */
+    private Node[] values;
+
+    /**
+     * Generation in which each slot was written, a slot is empty if it does not match the current generation.
+     */
+    private int[] stamps;
+
+    /**
+     * Current generation.
+     */
+    private int generation = 1;
+
+    /**
+     * Amount of nodes stored in the current generation.
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty node map.
+     */
+    public NodeMap()
+    {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Spread the key to a slot index.
+     *
+     * @param key  the key.
+     * @param mask the capacity mask of the table.
+     * @return the first slot to probe.
+     */
+    private static int slotOf(final int key, final int mask)
+    {
+        final int hash = key * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(final int capacity)
+    {
+        keys = new int[capacity];
+        values = new Node[capacity];
+        stamps = new int[capacity];
+    }
+
+    /**
+     * Get the node stored for a key.
+     *
+     * @param key the node key.
+     * @return the node or null if none is stored.
+     */
+    @Nullable
+    public Node get(final int key)
+    {
+        final int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (stamps[slot] == generation)
+        {
+            if (keys[slot] == key)
+            {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Store a node for a key, replacing any previous node.
+     *
+     * @param key  the node key.
+     * @param node the node.
+     */
+    public void put(final int key, @NotNull final Node node)
+    {
+        if ((size + 1) << LOAD_FACTOR_SHIFT > keys.length)
+        {
+            resize(keys.length << 1);
+        }
+
+        final int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (stamps[slot] == generation)
+        {
+            if (keys[slot] == key)
+            {
+                values[slot] = node;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = node;
+        stamps[slot] = generation;
+        size++;
+    }
+
+    /**
+     * Amount of nodes currently stored.
+     *
+     * @return the size.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes all nodes in constant time (unless the table has to be shrunk).
+     */
+    public void clear()
+    {
+        size = 0;
+        if (keys.length > MAX_RETAINED_CAPACITY)
+        {
+            allocate(DEFAULT_CAPACITY);
+            generation = 1;
+            return;
+        }
+
+        //  Stale values are left in place, they are only ever read back when their stamp matches.
+        generation++;
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    private void resize(final int capacity)
+    {
+        final int[] oldKeys = keys;
+        final Node[] oldValues = values;
+        final int[] oldStamps = stamps;
+        final int oldGeneration = generation;
+
+        allocate(capacity);
+        generation = 1;
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldStamps[i] == oldGeneration)
+            {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Arena of reusable nodes.
+ * One pool is kept per pathfinding thread, all nodes handed out are recycled at once when the search finishes.
+ */
+public final class NodePool
+{
+    /**
+     * Initial amount of nodes the pool can hold.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Pools which grew bigger than this are shrunk back when released, to not keep huge searches in memory.
+     */
+    private static final int MAX_RETAINED_NODES = 1 << 16;
+
+    /**
+     * The pooled nodes, lazily created.
+     */
+    @NotNull
+    private Node[] nodes = new Node[DEFAULT_CAPACITY];
+
+    /**
+     * Amount of nodes handed out since the last release.
+     */
+    private int used = 0;
+
+    /**
+     * Obtain a node from the pool and initialize it.
+     *
+     * @param parent    parent node arrives from.
+     * @param pos       coordinate of node, copied.
+     * @param cost      node cost.
+     * @param heuristic heuristic estimate.
+     * @param score     node total score.
+     * @return the initialized node.
+     */
+    @NotNull
+    public Node obtain(@Nullable final Node parent, @NotNull final BlockPos pos, final double cost, final double heuristic, final double score)
+    {
+        if (used == nodes.length)
+        {
+            nodes = Arrays.copyOf(nodes, nodes.length << 1);
+        }
+
+        Node node = nodes[used];
+        if (node == null)
+        {
+            node = new Node();
+            nodes[used] = node;
+        }
+        used++;
+
+        node.init(parent, pos, cost, heuristic, score);
+        return node;
+    }
+
+    /**
+     * Amount of nodes currently handed out.
+     *
+     * @return the amount.
+     */
+    public int getUsed()
+    {
+        return used;
+    }
+
+    /**
+     * Return all nodes to the pool.
+     * Nodes obtained before must not be used anymore afterwards.
+     */
+    public void release()
+    {
+        if (nodes.length > MAX_RETAINED_NODES)
+        {
+            nodes = Arrays.copyOf(nodes, MAX_RETAINED_NODES);
+        }
+        used = 0;
+    }
+}
@@ -0,0 +1,286 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shared snapshot of how pathfinding sees the blocks of a world.
+ * Every block is classified once into a byte of flags (passable, walkable, fence, liquid, water, ladder, road),
+ * which all path jobs in that world reuse until the block changes.
+ * <p>
+ * Sections are filled lazily by the pathfinding threads and dropped on the server thread whenever a block
+ * in them changes, every change also gives the chunk a new modification stamp.
+ * Stamps only grow within a world, every new snapshot gets a fresh stamp so a chunk reloaded after an unload
+ * never matches a stamp read before.
+ */
+public final class PassabilityCache
+{
+    /**
+     * Set on every classified entry, so an entry of 0 means unknown.
+     */
+    public static final int FLAG_KNOWN    = 0x80;
+    /**
+     * Entities can move through the block.
+     */
+    public static final int FLAG_PASSABLE = 0x01;
+    /**
+     * Entities can stand on top of the block.
+     */
+    public static final int FLAG_WALKABLE = 0x02;
+    /**
+     * Entities can neither stand on the block nor drop onto it (fences, walls, ...).
+     */
+    public static final int FLAG_FENCE    = 0x04;
+    /**
+     * The block is a liquid.
+     */
+    public static final int FLAG_LIQUID   = 0x08;
+    /**
+     * The block is water.
+     */
+    public static final int FLAG_WATER    = 0x10;
+    /**
+     * The block can be climbed.
+     */
+    public static final int FLAG_LADDER   = 0x20;
+    /**
+     * The block is part of a road.
+     */
+    public static final int FLAG_ROAD     = 0x40;
+
+    /**
+     * Caches of all loaded worlds, by dimension.
+     */
+    private static final Map<Integer, PassabilityCache> CACHES = new ConcurrentHashMap<>();
+
+    private static final int SECTIONS_PER_CHUNK = 16;
+    private static final int BLOCKS_PER_SECTION = 16 * 16 * 16;
+    private static final int SECTION_SHIFT      = 4;
+    private static final int SECTION_MASK       = 15;
+    private static final int MAX_Y              = 255;
+
+    /**
+     * Snapshots of the chunks in use, by chunk key.
+     */
+    private final Map<Long, ChunkSnapshot> chunks = new ConcurrentHashMap<>();
+
+    /**
+     * Source of the modification stamps, stamps are never reused inside a world.
+     */
+    private final AtomicInteger stampCounter = new AtomicInteger();
+
+    private PassabilityCache()
+    {
+        //Created through getCache.
+    }
+
+    /**
+     * Get the cache of a world, creating it if needed.
+     *
+     * @param world the world.
+     * @return its passability cache.
+     */
+    @NotNull
+    public static PassabilityCache getCache(@NotNull final World world)
+    {
+        return CACHES.computeIfAbsent(world.provider.getDimension(), dimension -> new PassabilityCache());
+    }
+
+    /**
+     * Called on the server thread whenever a block changed.
+     *
+     * @param world the world of the block.
+     * @param pos   the position of the block.
+     */
+    public static void onBlockChanged(@NotNull final World world, @NotNull final BlockPos pos)
+    {
+        final PassabilityCache cache = CACHES.get(world.provider.getDimension());
+        if (cache != null)
+        {
+            cache.invalidate(pos);
+        }
+    }
+
+    /**
+     * Called when a chunk gets unloaded, drops its snapshot.
+     *
+     * @param world  the world of the chunk.
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     */
+    public static void onChunkUnload(@NotNull final World world, final int chunkX, final int chunkZ)
+    {
+        final PassabilityCache cache = CACHES.get(world.provider.getDimension());
+        if (cache != null)
+        {
+            cache.chunks.remove(getChunkKey(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Called when a world gets unloaded, drops all its snapshots.
+     *
+     * @param world the world.
+     */
+    public static void onWorldUnload(@NotNull final World world)
+    {
+        CACHES.remove(world.provider.getDimension());
+    }
+
+    /**
+     * Calculate the key of a chunk.
+     *
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     * @return the key.
+     */
+    public static long getChunkKey(final int chunkX, final int chunkZ)
+    {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the snapshot of a chunk, creating it if needed.
+     *
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     * @return the snapshot.
+     */
+    @NotNull
+    public ChunkSnapshot getChunk(final int chunkX, final int chunkZ)
+    {
+        return chunks.computeIfAbsent(getChunkKey(chunkX, chunkZ), key -> new ChunkSnapshot(stampCounter.incrementAndGet()));
+    }
+
+    /**
+     * Get the last stamp handed out in this world.
+     * A chunk with a higher stamp has been modified after this call.
+     *
+     * @return the stamp.
+     */
+    public int getCurrentStamp()
+    {
+        return stampCounter.get();
+    }
+
+    /**
+     * Get the modification stamp of a chunk.
+     * The stamp changes whenever a block in the chunk changes or the chunk got unloaded in between.
+     *
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     * @return the stamp.
+     */
+    public int getChunkStamp(final int chunkX, final int chunkZ)
+    {
+        return getChunk(chunkX, chunkZ).getStamp();
+    }
+
+    private void invalidate(@NotNull final BlockPos pos)
+    {
+        final ChunkSnapshot chunk = chunks.get(getChunkKey(pos.getX() >> SECTION_SHIFT, pos.getZ() >> SECTION_SHIFT));
+        if (chunk != null && pos.getY() >= 0 && pos.getY() <= MAX_Y)
+        {
+            chunk.invalidate(pos.getY() >> SECTION_SHIFT, stampCounter.incrementAndGet());
+        }
+    }
+
+    /**
+     * Passability snapshot of a single chunk, split in lazily filled 16x16x16 sections.
+     */
+    public static final class ChunkSnapshot
+    {
+        /**
+         * Flags of the blocks of each section, null until a section is first used.
+         */
+        private final AtomicReferenceArray<byte[]> sections = new AtomicReferenceArray<>(SECTIONS_PER_CHUNK);
+
+        /**
+         * Modification stamp of the chunk.
+         */
+        private volatile int stamp;
+
+        private ChunkSnapshot(final int stamp)
+        {
+            this.stamp = stamp;
+        }
+
+        /**
+         * Get the modification stamp.
+         *
+         * @return the stamp.
+         */
+        public int getStamp()
+        {
+            return stamp;
+        }
+
+        /**
+         * Get the section which holds the flags of a y level.
+         * Has to be called before the block state is read, so a concurrent change can't leave a stale entry behind.
+         *
+         * @param y the y level, within 0 and 255.
+         * @return the flag array of the section.
+         */
+        @NotNull
+        public byte[] getSection(final int y)
+        {
+            final int index = y >> SECTION_SHIFT;
+            byte[] section = sections.get(index);
+            if (section == null)
+            {
+                section = new byte[BLOCKS_PER_SECTION];
+                if (!sections.compareAndSet(index, null, section))
+                {
+                    //  Somebody else was faster, or the section got dropped again right away; then keep ours detached
+                    final byte[] current = sections.get(index);
+                    return current == null ? section : current;
+                }
+            }
+            return section;
+        }
+
+        /**
+         * Get the index of a block inside its section.
+         *
+         * @param x the block x coordinate.
+         * @param y the block y coordinate.
+         * @param z the block z coordinate.
+         * @return the index.
+         */
+        public static int getIndex(final int x, final int y, final int z)
+        {
+            return ((y & SECTION_MASK) << (2 * SECTION_SHIFT)) | ((z & SECTION_MASK) << SECTION_SHIFT) | (x & SECTION_MASK);
+        }
+
+        /**
+         * Drop a section and assign a new stamp.
+         * Jobs still holding the old section just finish on the old data.
+         *
+         * @param index    the section index.
+         * @param newStamp the new stamp.
+         */
+        private void invalidate(final int index, final int newStamp)
+        {
+            sections.set(index, null);
+            stamp = newStamp;
+        }
+
+        /**
+         * Check if the given y level lies within the snapshot.
+         *
+         * @param y the y level.
+         * @return true if so.
+         */
+        public static boolean isInRange(final int y)
+        {
+            return y >= 0 && y <= MAX_Y;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import com.minecolonies.coremod.configuration.Configurations;
+import net.minecraft.pathfinding.Path;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of computed paths, so repeated trips (home to hut, hut to warehouse, ...) skip the A* search.
+ * Entries are validated against the modification stamps of all chunks the path crosses, see {@link PassabilityCache}.
+ * Only used from the server thread.
+ */
+public final class PathCache
+{
+    /**
+     * Start positions are grouped into cells of 2x2 blocks, shift to get there.
+     */
+    private static final int START_REGION_SHIFT = 1;
+
+    /**
+     * Max manhattan distance between the actual and the cached start for a cached path to be used.
+     */
+    private static final int MAX_START_OFFSET = 2;
+
+    /**
+     * Ticks a cached path stays valid even if nothing changed, catches changes we can't see (entities, doors).
+     */
+    private static final long MAX_AGE = 20L * 60 * 5;
+
+    private static final int CHUNK_SHIFT = 4;
+
+    /**
+     * The cached paths, in access order.
+     */
+    private static final Map<Key, Entry> PATHS = new LinkedHashMap<Key, Entry>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest)
+        {
+            return size() > Configurations.pathfindingPathCacheSize;
+        }
+    };
+
+    private static long hits          = 0;
+    private static long misses        = 0;
+    private static long invalidations = 0;
+
+    private PathCache()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Check if the path cache is turned on.
+     *
+     * @return true if so.
+     */
+    public static boolean isEnabled()
+    {
+        return Configurations.pathfindingPathCacheSize > 0;
+    }
+
+    /**
+     * Look up a still valid path.
+     *
+     * @param key   the key of the trip.
+     * @param world the world to validate in.
+     * @param start the exact start position.
+     * @return a fresh path to follow or null if none is cached.
+     */
+    @Nullable
+    public static Path getPath(@NotNull final Key key, @NotNull final World world, @NotNull final BlockPos start)
+    {
+        final Entry entry = PATHS.get(key);
+        if (entry == null || !entry.isCloseToStart(start))
+        {
+            misses++;
+            return null;
+        }
+
+        if (!entry.isValid(world))
+        {
+            PATHS.remove(key);
+            invalidations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        //  Paths get mutated while being followed, the points themselves are not
+        return new Path(entry.points.clone());
+    }
+
+    /**
+     * Store a computed path.
+     *
+     * @param key        the key of the trip.
+     * @param world      the world the path is in.
+     * @param start      the exact start position.
+     * @param path       the computed path.
+     * @param startStamp the stamp of the world when the path job got created, see {@link PassabilityCache#getCurrentStamp()}.
+     */
+    public static void putPath(@NotNull final Key key, @NotNull final World world, @NotNull final BlockPos start, @NotNull final Path path, final int startStamp)
+    {
+        final int length = path.getCurrentPathLength();
+        if (length == 0 || !isEnabled())
+        {
+            return;
+        }
+
+        final PathPoint[] points = new PathPoint[length];
+        for (int i = 0; i < length; i++)
+        {
+            points[i] = path.getPathPointFromIndex(i);
+        }
+
+        final PassabilityCache cache = PassabilityCache.getCache(world);
+        final long[] chunks = collectChunks(points);
+        final int[] stamps = new int[chunks.length];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            stamps[i] = cache.getChunkStamp((int) (chunks[i] >> 32), (int) chunks[i]);
+            if (stamps[i] > startStamp)
+            {
+                //  Something changed while the path was computed, it may already be outdated
+                return;
+            }
+        }
+
+        PATHS.put(key, new Entry(start, points, chunks, stamps, world.getTotalWorldTime()));
+    }
+
+    /**
+     * Collect the keys of all chunks the points are in.
+     *
+     * @param points the path points.
+     * @return the distinct chunk keys.
+     */
+    @NotNull
+    private static long[] collectChunks(@NotNull final PathPoint[] points)
+    {
+        final long[] chunks = new long[points.length];
+        int count = 0;
+        for (final PathPoint point : points)
+        {
+            final long chunk = PassabilityCache.getChunkKey(point.xCoord >> CHUNK_SHIFT, point.zCoord >> CHUNK_SHIFT);
+            //  Paths are continuous, so checking the last few is enough to skip most duplicates
+            boolean known = false;
+            for (int i = count - 1; i >= 0 && i >= count - 4; i--)
+            {
+                if (chunks[i] == chunk)
+                {
+                    known = true;
+                    break;
+                }
+            }
+            if (!known)
+            {
+                chunks[count++] = chunk;
+            }
+        }
+        final long[] result = new long[count];
+        System.arraycopy(chunks, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Drop all cached paths, used when a world unloads as its stamps start over.
+     */
+    public static void clear()
+    {
+        PATHS.clear();
+    }
+
+    /**
+     * Amount of lookups served from the cache.
+     *
+     * @return the hits.
+     */
+    public static long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Amount of lookups which needed a search.
+     *
+     * @return the misses.
+     */
+    public static long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Amount of cached paths dropped because a block along them changed.
+     *
+     * @return the invalidations.
+     */
+    public static long getInvalidations()
+    {
+        return invalidations;
+    }
+
+    /**
+     * Share of lookups served from the cache.
+     *
+     * @return the hit rate between 0 and 1.
+     */
+    public static double getHitRate()
+    {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : ((double) hits / lookups);
+    }
+
+    /**
+     * Identifies a trip: the region it starts in, where it goes and how the path job may move.
+     */
+    public static final class Key
+    {
+        private final int     dimension;
+        private final long    startRegion;
+        private final long    destination;
+        private final boolean allowSwimming;
+
+        /**
+         * Create the key of a trip.
+         *
+         * @param world         the world.
+         * @param start         the start position.
+         * @param destination   the destination.
+         * @param allowSwimming if the path may swim.
+         */
+        public Key(@NotNull final World world, @NotNull final BlockPos start, @NotNull final BlockPos destination, final boolean allowSwimming)
+        {
+            this.dimension = world.provider.getDimension();
+            this.startRegion = new BlockPos(start.getX() >> START_REGION_SHIFT, start.getY(), start.getZ() >> START_REGION_SHIFT).toLong();
+            this.destination = destination.toLong();
+            this.allowSwimming = allowSwimming;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+
+            final Key key = (Key) o;
+            return dimension == key.dimension
+                     && startRegion == key.startRegion
+                     && destination == key.destination
+                     && allowSwimming == key.allowSwimming;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = dimension;
+            result = 31 * result + (int) (startRegion ^ (startRegion >>> 32));
+            result = 31 * result + (int) (destination ^ (destination >>> 32));
+            result = 31 * result + (allowSwimming ? 1 : 0);
+            return result;
+        }
+    }
+
+    /**
+     * A cached path with the chunk stamps it was computed with.
+     */
+    private static final class Entry
+    {
+        private final BlockPos    start;
+        private final PathPoint[] points;
+        private final long[]      chunks;
+        private final int[]       stamps;
+        private final long        created;
+
+        private Entry(final BlockPos start, final PathPoint[] points, final long[] chunks, final int[] stamps, final long created)
+        {
+            this.start = start;
+            this.points = points;
+            this.chunks = chunks;
+            this.stamps = stamps;
+            this.created = created;
+        }
+
+        private boolean isCloseToStart(@NotNull final BlockPos pos)
+        {
+            return Math.abs(pos.getX() - start.getX()) + Math.abs(pos.getZ() - start.getZ()) <= MAX_START_OFFSET;
+        }
+
+        private boolean isValid(@NotNull final World world)
+        {
+            if (world.getTotalWorldTime() - created > MAX_AGE)
+            {
+                return false;
+            }
+
+            final PassabilityCache cache = PassabilityCache.getCache(world);
+            for (int i = 0; i < chunks.length; i++)
+            {
+                if (cache.getChunkStamp((int) (chunks[i] >> 32), (int) chunks[i]) != stamps[i])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -101,4 +101,15 @@ public class PathJobFindTree extends AbstractPathJob
     {
         return super.isPassable(block) || block.getMaterial() == Material.LEAVES;
     }
+
+    /**
+     * Leaves are passable for this job only, so it can't share the passability snapshot.
+     *
+     * @return false.
+     */
+    @Override
+    protected boolean canUsePassabilityCache()
+    {
+        return false;
+    }
 }
@@ -18,7 +18,7 @@ public class PathJobMoveToLocation extends AbstractPathJob
     private static final float  DESTINATION_SLACK_ADJACENT = 3.1F;
     private static final double TIE_BREAKER                = 1.001D;
     @NotNull
-    private final BlockPos destination;
+    private BlockPos destination;
     // 0 = exact match
     private float destinationSlack = DESTINATION_SLACK_NONE;
 
@@ -37,6 +37,17 @@ public class PathJobMoveToLocation extends AbstractPathJob
         this.destination = new BlockPos(end);
     }
 
+    /**
+     * Change the position the block-level search heads for, has to be called before the search starts.
+     * Used by jobs which plan the overall route first and only search block by block to a waypoint.
+     *
+     * @param destination the new destination.
+     */
+    protected void setDestination(@NotNull final BlockPos destination)
+    {
+        this.destination = destination;
+    }
+
     /**
      * Perform the search.
      *
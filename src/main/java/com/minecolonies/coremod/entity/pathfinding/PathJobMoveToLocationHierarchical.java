@@ -0,0 +1,124 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.util.Log;
+import net.minecraft.pathfinding.Path;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Job that handles moving to a far location.
+ * The route is planned on the {@link PortalGraph} first, then only the first stretch of it is searched block by block.
+ * Once the entity arrives there, the navigator starts the next job, which plans again from the new position.
+ */
+public class PathJobMoveToLocationHierarchical extends PathJobMoveToLocation
+{
+    /**
+     * Distance along the planned route covered by the block-level search.
+     */
+    private static final double REFINE_DISTANCE = 32.0D;
+
+    @NotNull
+    private final BlockPos         destination;
+    @NotNull
+    private final PortalGraph      graph;
+    @NotNull
+    private final PassabilityCache stamps;
+
+    /**
+     * Prepares the PathJob for the path finding system.
+     *
+     * @param world world the entity is in.
+     * @param start starting location.
+     * @param end   target location.
+     * @param range max search range of the block-level search.
+     */
+    public PathJobMoveToLocationHierarchical(final World world, @NotNull final BlockPos start, @NotNull final BlockPos end, final int range)
+    {
+        super(world, start, end, range);
+
+        this.destination = new BlockPos(end);
+        this.graph = PortalGraph.getGraph(world);
+        this.stamps = PassabilityCache.getCache(world);
+    }
+
+    /**
+     * Plan the route and search the path to its first waypoint.
+     *
+     * @return Path to the first waypoint, a best-effort to the destination if no route was found, or null.
+     */
+    @Nullable
+    @Override
+    protected Path search()
+    {
+        final List<BlockPos> route = graph.findRoute(start, destination, new RouteTerrain());
+        if (route == null)
+        {
+            if (Configurations.pathfindingDebugVerbosity > DEBUG_VERBOSITY_NONE)
+            {
+                Log.getLogger().info(String.format("No route from [%d,%d,%d] to [%d,%d,%d], searching block by block",
+                  start.getX(), start.getY(), start.getZ(), destination.getX(), destination.getY(), destination.getZ()));
+            }
+            return super.search();
+        }
+
+        final BlockPos waypoint = getWaypoint(route);
+        if (Configurations.pathfindingDebugVerbosity > DEBUG_VERBOSITY_NONE)
+        {
+            Log.getLogger().info(String.format("Route to [%d,%d,%d] has %d waypoints, refining up to [%d,%d,%d]",
+              destination.getX(), destination.getY(), destination.getZ(), route.size(), waypoint.getX(), waypoint.getY(), waypoint.getZ()));
+        }
+
+        setDestination(waypoint);
+        return super.search();
+    }
+
+    /**
+     * Get the farthest waypoint of the route still within the refine distance, or the first one.
+     *
+     * @param route the planned route.
+     * @return the waypoint to search to.
+     */
+    @NotNull
+    private BlockPos getWaypoint(@NotNull final List<BlockPos> route)
+    {
+        BlockPos waypoint = route.get(0);
+        for (final BlockPos pos : route)
+        {
+            if (start.distanceSq(pos) > REFINE_DISTANCE * REFINE_DISTANCE)
+            {
+                break;
+            }
+            waypoint = pos;
+        }
+        return waypoint;
+    }
+
+    /**
+     * Lets the portal graph read the blocks through this job.
+     */
+    private final class RouteTerrain implements PortalGraph.Terrain
+    {
+        @Override
+        public boolean isStandable(final int x, final int y, final int z)
+        {
+            return PathJobMoveToLocationHierarchical.this.isStandable(x, y, z);
+        }
+
+        @Override
+        public boolean isReadable(final int chunkX, final int chunkZ)
+        {
+            return isChunkCached(chunkX, chunkZ);
+        }
+
+        @Override
+        public int getStamp(final int chunkX, final int chunkZ)
+        {
+            return stamps.getChunkStamp(chunkX, chunkZ);
+        }
+    }
+}
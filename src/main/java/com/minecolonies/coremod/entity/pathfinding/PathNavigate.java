@@ -1,5 +1,6 @@
 package com.minecolonies.coremod.entity.pathfinding;
 
+import com.minecolonies.coremod.configuration.Configurations;
 import com.minecolonies.coremod.entity.EntityCitizen;
 import com.minecolonies.coremod.util.BlockPosUtil;
 import com.minecolonies.coremod.util.BlockUtils;
@@ -26,6 +27,8 @@ public class PathNavigate extends PathNavigateGround
 {
     public static final double MAX_PATHING_LENGTH          = 36.0;
     public static final double PATHING_INTERMEDIARY_LENGTH = 16.0;
+    //  Farther trips would make the job read too many chunks, they keep walking in intermediary steps
+    public static final double MAX_HIERARCHICAL_LENGTH     = 256.0;
     //  Parent class private members
     private final EntityLiving entity;
     private       double       walkSpeed;
@@ -37,6 +40,12 @@ public class PathNavigate extends PathNavigateGround
     private       Future<Path> future;
     @Nullable
     private       PathResult   pathResult;
+    //  Trip of the running job, to store the path in the PathCache once it is computed
+    @Nullable
+    private       PathCache.Key cacheKey;
+    @Nullable
+    private       BlockPos     cacheStart;
+    private       int          cacheStamp;
 
     /**
      * Instantiates the navigation of an entity.
@@ -117,7 +126,8 @@ public class PathNavigate extends PathNavigateGround
     @Override
     public boolean tryMoveToEntityLiving(@NotNull final Entity e, final double speed)
     {
-        return tryMoveToXYZ(e.posX, e.posY, e.posZ, speed);
+        moveToXYZ(e.posX, e.posY, e.posZ, speed, PathPriority.COMBAT);
+        return true;
     }
 
     /**
@@ -131,6 +141,22 @@ public class PathNavigate extends PathNavigateGround
      */
     @Nullable
     public PathResult moveToXYZ(final double x, final double y, final double z, final double speed)
+    {
+        return moveToXYZ(x, y, z, speed, PathPriority.WORK);
+    }
+
+    /**
+     * Try to move to a certain position.
+     *
+     * @param x        the x target.
+     * @param y        the y target.
+     * @param z        the z target.
+     * @param speed    the speed to walk.
+     * @param priority the priority of the path job.
+     * @return the PathResult.
+     */
+    @Nullable
+    public PathResult moveToXYZ(final double x, final double y, final double z, final double speed, @NotNull final PathPriority priority)
     {
         int newX = MathHelper.floor_double(x);
         int newY = (int) y;
@@ -149,6 +175,18 @@ public class PathNavigate extends PathNavigateGround
 
         final Vec3d moveVector = getEntityPosition().subtractReverse(new Vec3d(newX, newY, newZ));
         final double moveLength = moveVector.lengthVector();
+        //  A route which did not get there last time is searched block by block instead
+        if (Configurations.pathfindingHierarchicalDistance > 0
+              && moveLength >= Configurations.pathfindingHierarchicalDistance
+              && moveLength <= MAX_HIERARCHICAL_LENGTH
+              && !this.isUnableToReachDestination())
+        {
+            originalDestination = new BlockPos(newX, newY, newZ);
+            return setPathJob(
+              new PathJobMoveToLocationHierarchical(entity.worldObj, AbstractPathJob.prepareStart(entity), originalDestination, (int) getPathSearchRange()),
+              null, speed, priority);
+        }
+
         if (moveLength >= MAX_PATHING_LENGTH && !this.isUnableToReachDestination())
         {
             final Vec3d newMove = moveVector.scale(PATHING_INTERMEDIARY_LENGTH / moveLength).add(getEntityPosition());
@@ -161,9 +199,59 @@ public class PathNavigate extends PathNavigateGround
         @NotNull final BlockPos start = AbstractPathJob.prepareStart(entity);
         @NotNull final BlockPos dest = new BlockPos(newX, newY, newZ);
 
-        return setPathJob(
+        if (!PathCache.isEnabled())
+        {
+            return setPathJob(
+              new PathJobMoveToLocation(entity.worldObj, start, dest, (int) getPathSearchRange()),
+              dest, speed, priority);
+        }
+
+        //  Move to location jobs always allow swimming
+        @NotNull final PathCache.Key key = new PathCache.Key(entity.worldObj, start, dest, true);
+        @Nullable final Path cachedPath = PathCache.getPath(key, entity.worldObj, start);
+        if (cachedPath != null)
+        {
+            return setCachedPath(cachedPath, dest, speed);
+        }
+
+        final int stamp = PassabilityCache.getCache(entity.worldObj).getCurrentStamp();
+        final PathResult result = setPathJob(
           new PathJobMoveToLocation(entity.worldObj, start, dest, (int) getPathSearchRange()),
-          dest, speed);
+          dest, speed, priority);
+        cacheKey = key;
+        cacheStart = start;
+        cacheStamp = stamp;
+        return result;
+    }
+
+    /**
+     * Follow a path served by the {@link PathCache}.
+     *
+     * @param path  the path.
+     * @param dest  the destination.
+     * @param speed the walking speed.
+     * @return the already completed PathResult.
+     */
+    @NotNull
+    private PathResult setCachedPath(@NotNull final Path path, final BlockPos dest, final double speed)
+    {
+        clearPathEntity();
+
+        this.destination = dest;
+        this.walkSpeed = speed;
+
+        pathResult = new PathResult();
+        setPath(path, speed);
+        pathResult.setPathReachesDestination(true);
+        pathResult.setPathLength(path.getCurrentPathLength());
+        pathResult.setStatus(PathResult.Status.IN_PROGRESS_FOLLOWING);
+
+        if (Configurations.pathfindingDebugVerbosity > AbstractPathJob.DEBUG_VERBOSITY_NONE)
+        {
+            Log.getLogger().info(String.format("Path to [%d,%d,%d] served from cache, hit rate %.2f",
+              dest.getX(), dest.getY(), dest.getZ(), PathCache.getHitRate()));
+        }
+        return pathResult;
     }
 
     public boolean isUnableToReachDestination()
@@ -172,18 +260,32 @@ public class PathNavigate extends PathNavigateGround
     }
 
     @Nullable
-    private PathResult setPathJob(@NotNull final AbstractPathJob job, final BlockPos dest, final double speed)
+    private PathResult setPathJob(@NotNull final AbstractPathJob job, final BlockPos dest, final double speed, @NotNull final PathPriority priority)
     {
         clearPathEntity();
 
         this.destination = dest;
         this.walkSpeed = speed;
 
-        future = Pathfinding.enqueue(job);
+        future = Pathfinding.enqueue(job, priority, this, getColonyId());
         pathResult = job.getResult();
         return pathResult;
     }
 
+    /**
+     * Get the id of the colony the entity belongs to, to bound its path jobs.
+     *
+     * @return the id or {@link Pathfinding#NO_COLONY}.
+     */
+    private int getColonyId()
+    {
+        if (entity instanceof EntityCitizen && ((EntityCitizen) entity).getColony() != null)
+        {
+            return ((EntityCitizen) entity).getColony().getID();
+        }
+        return Pathfinding.NO_COLONY;
+    }
+
     @Override
     public boolean setPath(@NotNull Path path, final double speed)
     {
@@ -219,11 +321,24 @@ public class PathNavigate extends PathNavigateGround
                 return;
             }
 
+            if (future.isCancelled())
+            {
+                //  Dropped by the scheduler in favour of more important jobs
+                if (pathResult != null)
+                {
+                    pathResult.setStatus(PathResult.Status.CANCELLED);
+                }
+                future = null;
+                cacheKey = null;
+                return;
+            }
+
             try
             {
                 if (future.get() == null)
                 {
                     future = null;
+                    cacheKey = null;
                     return;
                 }
 
@@ -232,6 +347,11 @@ public class PathNavigate extends PathNavigateGround
                 pathResult.setPathLength(getPath().getCurrentPathLength());
                 pathResult.setStatus(PathResult.Status.IN_PROGRESS_FOLLOWING);
 
+                if (cacheKey != null && pathResult.getPathReachesDestination())
+                {
+                    PathCache.putPath(cacheKey, worldObj, cacheStart, getPath(), cacheStamp);
+                }
+
                 final PathPoint p = getPath().getFinalPathPoint();
                 if (p != null && destination == null)
                 {
@@ -247,6 +367,7 @@ public class PathNavigate extends PathNavigateGround
             }
 
             future = null;
+            cacheKey = null;
         }
 
         int oldIndex = this.noPath() ? 0 : this.getPath().getCurrentPathIndex();
@@ -392,6 +513,7 @@ public class PathNavigate extends PathNavigateGround
             pathResult = null;
         }
 
+        cacheKey = null;
         destination = null;
         super.clearPathEntity();
     }
@@ -407,7 +529,7 @@ public class PathNavigate extends PathNavigateGround
     {
         @NotNull final BlockPos start = AbstractPathJob.prepareStart(entity);
         return (PathJobFindTree.TreePathResult) setPathJob(
-          new PathJobFindTree(entity.worldObj, start, ((EntityCitizen) entity).getWorkBuilding().getLocation(), range), null, speed);
+          new PathJobFindTree(entity.worldObj, start, ((EntityCitizen) entity).getWorkBuilding().getLocation(), range), null, speed, PathPriority.WORK);
     }
 
     /**
@@ -423,7 +545,7 @@ public class PathNavigate extends PathNavigateGround
     {
         @NotNull final BlockPos start = AbstractPathJob.prepareStart(entity);
         return (PathJobFindWater.WaterPathResult) setPathJob(
-          new PathJobFindWater(entity.worldObj, start, ((EntityCitizen) entity).getWorkBuilding().getLocation(), range, ponds), null, speed);
+          new PathJobFindWater(entity.worldObj, start, ((EntityCitizen) entity).getWorkBuilding().getLocation(), range, ponds), null, speed, PathPriority.WORK);
     }
 
     /**
@@ -436,7 +558,7 @@ public class PathNavigate extends PathNavigateGround
     @Nullable
     public PathResult moveToEntityLiving(@NotNull final Entity e, final double speed)
     {
-        return moveToXYZ(e.posX, e.posY, e.posZ, speed);
+        return moveToXYZ(e.posX, e.posY, e.posZ, speed, PathPriority.COMBAT);
     }
 
     /**
@@ -468,6 +590,6 @@ public class PathNavigate extends PathNavigateGround
 
         return setPathJob(
           new PathJobMoveAwayFromLocation(entity.worldObj, start, avoid, (int) range, (int) getPathSearchRange()),
-          null, speed);
+          null, speed, PathPriority.COMBAT);
     }
 }
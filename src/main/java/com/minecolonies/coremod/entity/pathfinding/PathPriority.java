@@ -0,0 +1,20 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+/**
+ * Priority classes of path jobs, lower ordinals are computed first.
+ */
+public enum PathPriority
+{
+    /**
+     * Chasing or fleeing from enemies, has to react right away.
+     */
+    COMBAT,
+    /**
+     * Walking to and around the workplace.
+     */
+    WORK,
+    /**
+     * Idle strolling, may wait as long as necessary.
+     */
+    WANDER
+}
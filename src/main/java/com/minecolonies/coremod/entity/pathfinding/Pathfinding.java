@@ -14,24 +14,55 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.lwjgl.opengl.GL11;
 
-import java.util.ConcurrentModificationException;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Static class the handles all the Pathfinding.
+ * <p>
+ * Jobs are scheduled by {@link PathPriority}, every owner (navigator) has at most one job at a time, a new request
+ * supersedes the older one, and every colony has a bounded amount of waiting jobs.
  */
 public final class Pathfinding
 {
-    private static final BlockingQueue<Runnable> jobQueue = new LinkedBlockingDeque<>();
+    /**
+     * Amount of latency samples kept for the percentiles.
+     */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    /**
+     * Colony id of jobs which don't belong to a colony, those are not bounded.
+     */
+    public static final int NO_COLONY = -1;
+
+    private static final BlockingQueue<Runnable> jobQueue = new PriorityBlockingQueue<>();
     private static final ResourceLocation        TEXTURE  = new ResourceLocation("textures/gui/widgets.png");
     private static final ThreadPoolExecutor executor;
     static
     {
-        executor = new ThreadPoolExecutor(1, Configurations.pathfindingMaxThreadCount, 10, TimeUnit.SECONDS, jobQueue);
+        executor = new ThreadPoolExecutor(Configurations.pathfindingMaxThreadCount, Configurations.pathfindingMaxThreadCount, 10, TimeUnit.SECONDS, jobQueue);
+        executor.allowCoreThreadTimeOut(true);
     }
+
+    /**
+     * Guards the bookkeeping maps below.
+     */
+    private static final Object                                lock            = new Object();
+    private static final Map<Object, ScheduledPathJob>         jobsByOwner     = new HashMap<>();
+    private static final Map<Integer, Set<ScheduledPathJob>>   waitingByColony = new HashMap<>();
+    private static final AtomicLong                            sequence        = new AtomicLong();
+
+    /**
+     * Ring buffer of the latest job latencies, from enqueue to completion, in nanoseconds.
+     */
+    private static final long[] latencies     = new long[LATENCY_SAMPLES];
+    private static       int    latencyCount  = 0;
+    private static       int    latencyCursor = 0;
+
     private Pathfinding()
     {
         //Hides default constructor.
@@ -45,7 +76,202 @@ public final class Pathfinding
      */
     public static Future<Path> enqueue(@NotNull final AbstractPathJob job)
     {
-        return executor.submit(job);
+        return enqueue(job, PathPriority.WORK, null, NO_COLONY);
+    }
+
+    /**
+     * Add a job to the queue for processing.
+     *
+     * @param job      PathJob
+     * @param priority the priority class of the job.
+     * @param owner    the requester, a previous job of the same owner gets cancelled. May be null.
+     * @param colonyId the colony of the requester or {@link #NO_COLONY}.
+     * @return a Future containing the Path, already cancelled if the colony has too many jobs of higher priority waiting.
+     */
+    public static Future<Path> enqueue(@NotNull final AbstractPathJob job, @NotNull final PathPriority priority, @Nullable final Object owner, final int colonyId)
+    {
+        final ScheduledPathJob task = new ScheduledPathJob(job, priority, owner, colonyId);
+        @Nullable ScheduledPathJob superseded = null;
+        @Nullable ScheduledPathJob dropped = null;
+
+        synchronized (lock)
+        {
+            if (owner != null)
+            {
+                superseded = jobsByOwner.put(owner, task);
+            }
+
+            if (colonyId != NO_COLONY)
+            {
+                final Set<ScheduledPathJob> waiting = waitingByColony.computeIfAbsent(colonyId, id -> new HashSet<>());
+                if (waiting.size() >= Configurations.pathfindingMaxQueuedPerColony)
+                {
+                    dropped = Collections.max(waiting);
+                    if (dropped.compareTo(task) < 0)
+                    {
+                        //  Everything waiting is more important, drop the new job instead
+                        dropped = task;
+                    }
+                }
+
+                if (dropped != task)
+                {
+                    waiting.add(task);
+                }
+            }
+        }
+
+        if (superseded != null)
+        {
+            superseded.cancel(true);
+        }
+
+        if (dropped != null)
+        {
+            dropped.cancel(false);
+        }
+
+        if (!task.isCancelled())
+        {
+            executor.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     * Amount of jobs waiting for a thread.
+     *
+     * @return the queue depth.
+     */
+    public static int getQueueDepth()
+    {
+        return jobQueue.size();
+    }
+
+    /**
+     * Get a percentile of the latency of the latest jobs, from enqueue to completion.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the latency in milliseconds, 0 if no job ran yet.
+     */
+    public static double getLatencyPercentile(final double percentile)
+    {
+        final long[] samples;
+        synchronized (latencies)
+        {
+            samples = Arrays.copyOf(latencies, latencyCount);
+        }
+
+        if (samples.length == 0)
+        {
+            return 0;
+        }
+
+        Arrays.sort(samples);
+        final int index = (int) Math.min(samples.length - 1, Math.max(0, Math.ceil(percentile / 100D * samples.length) - 1));
+        return samples[index] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static void recordLatency(final long nanos)
+    {
+        synchronized (latencies)
+        {
+            latencies[latencyCursor] = nanos;
+            latencyCursor = (latencyCursor + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+    }
+
+    /**
+     * Path job wrapped for the executor, ordered by priority and then by age.
+     */
+    private static final class ScheduledPathJob extends FutureTask<Path> implements Comparable<ScheduledPathJob>
+    {
+        private final PathPriority priority;
+        private final long         order;
+        @Nullable
+        private final Object       owner;
+        private final int          colonyId;
+        private final long         enqueuedAt;
+
+        private ScheduledPathJob(@NotNull final AbstractPathJob job, @NotNull final PathPriority priority, @Nullable final Object owner, final int colonyId)
+        {
+            super(job);
+            this.priority = priority;
+            this.order = sequence.incrementAndGet();
+            this.owner = owner;
+            this.colonyId = colonyId;
+            this.enqueuedAt = System.nanoTime();
+        }
+
+        @Override
+        public void run()
+        {
+            removeFromColony();
+            super.run();
+        }
+
+        @Override
+        protected void done()
+        {
+            removeFromColony();
+            synchronized (lock)
+            {
+                if (owner != null && jobsByOwner.get(owner) == this)
+                {
+                    jobsByOwner.remove(owner);
+                }
+            }
+
+            if (isCancelled())
+            {
+                //  Don't let cancelled jobs wait in the queue until a thread picks them up
+                executor.remove(this);
+            }
+            else
+            {
+                recordLatency(System.nanoTime() - enqueuedAt);
+            }
+        }
+
+        private void removeFromColony()
+        {
+            if (colonyId == NO_COLONY)
+            {
+                return;
+            }
+
+            synchronized (lock)
+            {
+                final Set<ScheduledPathJob> waiting = waitingByColony.get(colonyId);
+                if (waiting != null && waiting.remove(this) && waiting.isEmpty())
+                {
+                    waitingByColony.remove(colonyId);
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(@NotNull final ScheduledPathJob other)
+        {
+            if (priority != other.priority)
+            {
+                return priority.compareTo(other.priority);
+            }
+            return Long.compare(order, other.order);
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Long.hashCode(order);
+        }
     }
 
     /**
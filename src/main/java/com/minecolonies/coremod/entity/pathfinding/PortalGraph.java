@@ -0,0 +1,631 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coarse walking graph of a world, used to plan long trips before searching block by block.
+ * <p>
+ * The world is split into 16x16x16 sections. Every section knows its exits: one pair of standing positions
+ * (inside, outside) for every connected stretch of its border an entity can walk across. From any standing
+ * position the walking distances to the exits of its section are found with a small flood fill, so a route is
+ * planned by an A* over exits only, which is a few hundred nodes for trips a block-level search can't handle.
+ * <p>
+ * Sections are built lazily by the pathfinding threads and rebuilt once the modification stamp of their chunk or
+ * of one of the neighbouring chunks changed, see {@link PassabilityCache}.
+ */
+public final class PortalGraph
+{
+    /**
+     * Graphs of all loaded worlds, by dimension.
+     */
+    private static final Map<Integer, PortalGraph> GRAPHS = new ConcurrentHashMap<>();
+
+    private static final int SECTION_SHIFT = 4;
+    private static final int SECTION_SIZE  = 16;
+    private static final int SECTION_MASK  = 15;
+    private static final int SECTION_CELLS = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+    private static final int MAX_SECTION_Y = 15;
+
+    /**
+     * Horizontal walking directions, x and z offsets.
+     */
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * Maximum exits a single route search expands, keeps unreachable targets cheap.
+     */
+    private static final int MAX_EXPANDED = 4096;
+
+    /**
+     * Cached exit distances per section, dropped completely once exceeded.
+     */
+    private static final int MAX_CACHED_DISTANCES = 64;
+
+    private static final int  COORD_BITS = 26;
+    private static final int  Y_BITS     = 12;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+    private static final long Y_MASK     = (1L << Y_BITS) - 1;
+
+    /**
+     * Built sections, by section key.
+     */
+    private final Map<Long, Section> sections = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty graph, worlds get theirs through {@link #getGraph(World)}.
+     */
+    PortalGraph()
+    {
+        //Package private for tests.
+    }
+
+    /**
+     * Get the graph of a world, creating it if needed.
+     *
+     * @param world the world.
+     * @return its portal graph.
+     */
+    @NotNull
+    public static PortalGraph getGraph(@NotNull final World world)
+    {
+        return GRAPHS.computeIfAbsent(world.provider.getDimension(), dimension -> new PortalGraph());
+    }
+
+    /**
+     * Called when a chunk gets unloaded, drops its sections.
+     *
+     * @param world  the world of the chunk.
+     * @param chunkX the chunk x coordinate.
+     * @param chunkZ the chunk z coordinate.
+     */
+    public static void onChunkUnload(@NotNull final World world, final int chunkX, final int chunkZ)
+    {
+        final PortalGraph graph = GRAPHS.get(world.provider.getDimension());
+        if (graph != null)
+        {
+            for (int sectionY = 0; sectionY <= MAX_SECTION_Y; sectionY++)
+            {
+                graph.sections.remove(getSectionKey(chunkX, sectionY, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * Called when a world gets unloaded, drops its graph.
+     *
+     * @param world the world.
+     */
+    public static void onWorldUnload(@NotNull final World world)
+    {
+        GRAPHS.remove(world.provider.getDimension());
+    }
+
+    /**
+     * Plan a route between two standing positions.
+     *
+     * @param start   the start.
+     * @param goal    the goal.
+     * @param terrain access to the blocks.
+     * @return the positions to pass, from the start (excluded) to the goal (included), or null if there is no route.
+     */
+    @Nullable
+    public List<BlockPos> findRoute(@NotNull final BlockPos start, @NotNull final BlockPos goal, @NotNull final Terrain terrain)
+    {
+        final long startCell = getCellKey(start.getX(), start.getY(), start.getZ());
+        final long goalCell = getCellKey(goal.getX(), goal.getY(), goal.getZ());
+        final Section goalSection = getSection(goal.getX() >> SECTION_SHIFT, goal.getY() >> SECTION_SHIFT, goal.getZ() >> SECTION_SHIFT, terrain);
+        if (goalSection == null)
+        {
+            return null;
+        }
+
+        final int[] goalField = goalSection.flood(goalCell);
+        final Map<Long, RouteNode> nodes = new HashMap<>();
+        final Queue<RouteNode> open = new PriorityQueue<>();
+
+        final RouteNode first = new RouteNode(startCell, null, 0, heuristic(startCell, goalCell));
+        nodes.put(startCell, first);
+        open.add(first);
+
+        int expanded = 0;
+        while (!open.isEmpty() && expanded < MAX_EXPANDED)
+        {
+            final RouteNode current = open.poll();
+            if (current.closed)
+            {
+                continue;
+            }
+            current.closed = true;
+            expanded++;
+
+            if (current.cell == goalCell)
+            {
+                return collectRoute(current);
+            }
+
+            final Section section = getSection(getX(current.cell) >> SECTION_SHIFT, getY(current.cell) >> SECTION_SHIFT, getZ(current.cell) >> SECTION_SHIFT, terrain);
+            if (section == null)
+            {
+                continue;
+            }
+
+            if (section == goalSection)
+            {
+                final int distance = goalField[section.getIndex(current.cell)];
+                if (distance >= 0)
+                {
+                    offer(nodes, open, current, goalCell, distance, goalCell);
+                }
+            }
+
+            final int[] distances = section.getExitDistances(current.cell);
+            for (int i = 0; i < distances.length; i++)
+            {
+                if (distances[i] >= 0)
+                {
+                    //  Crossing the border is one more step
+                    offer(nodes, open, current, section.outside[i], distances[i] + 1, goalCell);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void offer(
+                               @NotNull final Map<Long, RouteNode> nodes,
+                               @NotNull final Queue<RouteNode> open,
+                               @NotNull final RouteNode parent,
+                               final long cell,
+                               final int distance,
+                               final long goalCell)
+    {
+        final double cost = parent.cost + distance;
+        final RouteNode known = nodes.get(cell);
+        if (known != null && (known.closed || known.cost <= cost))
+        {
+            return;
+        }
+
+        if (known != null)
+        {
+            //  Lazy removal, the old entry gets skipped once it is polled
+            known.closed = true;
+        }
+
+        final RouteNode node = new RouteNode(cell, parent, cost, cost + heuristic(cell, goalCell));
+        nodes.put(cell, node);
+        open.add(node);
+    }
+
+    @NotNull
+    private static List<BlockPos> collectRoute(@NotNull final RouteNode last)
+    {
+        final List<BlockPos> route = new ArrayList<>();
+        for (RouteNode node = last; node.parent != null; node = node.parent)
+        {
+            route.add(new BlockPos(getX(node.cell), getY(node.cell), getZ(node.cell)));
+        }
+        Collections.reverse(route);
+        return route;
+    }
+
+    private static double heuristic(final long cell, final long goalCell)
+    {
+        return Math.abs(getX(cell) - getX(goalCell)) + Math.abs(getY(cell) - getY(goalCell)) + Math.abs(getZ(cell) - getZ(goalCell));
+    }
+
+    /**
+     * Get a valid section, building it if needed.
+     *
+     * @return the section or null if it lies outside of the blocks the terrain may read.
+     */
+    @Nullable
+    private Section getSection(final int sectionX, final int sectionY, final int sectionZ, @NotNull final Terrain terrain)
+    {
+        if (sectionY < 0 || sectionY > MAX_SECTION_Y)
+        {
+            return null;
+        }
+
+        //  The exits look one block into the neighbouring chunks
+        for (int dx = -1; dx <= 1; dx++)
+        {
+            for (int dz = -1; dz <= 1; dz++)
+            {
+                if (!terrain.isReadable(sectionX + dx, sectionZ + dz))
+                {
+                    return null;
+                }
+            }
+        }
+
+        final int[] stamps = getStamps(sectionX, sectionZ, terrain);
+        final long key = getSectionKey(sectionX, sectionY, sectionZ);
+        final Section known = sections.get(key);
+        if (known != null && Arrays.equals(known.stamps, stamps))
+        {
+            return known;
+        }
+
+        //  Concurrent builds of the same section are harmless, the last one stays
+        final Section section = new Section(sectionX, sectionY, sectionZ, stamps, terrain);
+        sections.put(key, section);
+        return section;
+    }
+
+    @NotNull
+    private static int[] getStamps(final int sectionX, final int sectionZ, @NotNull final Terrain terrain)
+    {
+        final int[] stamps = new int[DIRECTIONS.length + 1];
+        stamps[0] = terrain.getStamp(sectionX, sectionZ);
+        for (int i = 0; i < DIRECTIONS.length; i++)
+        {
+            stamps[i + 1] = terrain.getStamp(sectionX + DIRECTIONS[i][0], sectionZ + DIRECTIONS[i][1]);
+        }
+        return stamps;
+    }
+
+    private static long getSectionKey(final int sectionX, final int sectionY, final int sectionZ)
+    {
+        return getCellKey(sectionX, sectionY, sectionZ);
+    }
+
+    /**
+     * Pack a block position into a long, same layout as {@link BlockPos#toLong()}.
+     */
+    private static long getCellKey(final int x, final int y, final int z)
+    {
+        return ((x & COORD_MASK) << (Y_BITS + COORD_BITS)) | ((y & Y_MASK) << COORD_BITS) | (z & COORD_MASK);
+    }
+
+    private static int getX(final long cell)
+    {
+        return (int) (cell << (64 - COORD_BITS - Y_BITS - COORD_BITS) >> (64 - COORD_BITS));
+    }
+
+    private static int getY(final long cell)
+    {
+        return (int) (cell << (64 - COORD_BITS - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    private static int getZ(final long cell)
+    {
+        return (int) (cell << (64 - COORD_BITS) >> (64 - COORD_BITS));
+    }
+
+    /**
+     * Block access of the job planning a route.
+     */
+    public interface Terrain
+    {
+        /**
+         * Check if an entity can stand at a position.
+         *
+         * @param x the x coordinate.
+         * @param y the y coordinate.
+         * @param z the z coordinate.
+         * @return true if so.
+         */
+        boolean isStandable(int x, int y, int z);
+
+        /**
+         * Check if the blocks of a chunk can be read, sections are only built from readable chunks.
+         *
+         * @param chunkX the chunk x coordinate.
+         * @param chunkZ the chunk z coordinate.
+         * @return true if so.
+         */
+        boolean isReadable(int chunkX, int chunkZ);
+
+        /**
+         * Get the modification stamp of a chunk, see {@link PassabilityCache#getChunkStamp(int, int)}.
+         *
+         * @param chunkX the chunk x coordinate.
+         * @param chunkZ the chunk z coordinate.
+         * @return the stamp.
+         */
+        int getStamp(int chunkX, int chunkZ);
+    }
+
+    /**
+     * Node of the route search.
+     */
+    private static final class RouteNode implements Comparable<RouteNode>
+    {
+        private final long      cell;
+        @Nullable
+        private final RouteNode parent;
+        private final double    cost;
+        private final double    score;
+        private       boolean   closed;
+
+        private RouteNode(final long cell, @Nullable final RouteNode parent, final double cost, final double score)
+        {
+            this.cell = cell;
+            this.parent = parent;
+            this.cost = cost;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(@NotNull final RouteNode other)
+        {
+            return Double.compare(score, other.score);
+        }
+    }
+
+    /**
+     * Standing positions and exits of a single 16x16x16 section.
+     */
+    private static final class Section
+    {
+        private final int    originX;
+        private final int    originY;
+        private final int    originZ;
+        private final int[]  stamps;
+        private final BitSet standable = new BitSet(SECTION_CELLS);
+
+        /**
+         * Exits, as standing positions inside the section and the position across the border they lead to.
+         */
+        private final int[]  inside;
+        private final long[] outside;
+
+        /**
+         * Distances to the exits, by start cell.
+         */
+        private final Map<Long, int[]> distances = new ConcurrentHashMap<>();
+
+        private Section(final int sectionX, final int sectionY, final int sectionZ, @NotNull final int[] stamps, @NotNull final Terrain terrain)
+        {
+            this.originX = sectionX << SECTION_SHIFT;
+            this.originY = sectionY << SECTION_SHIFT;
+            this.originZ = sectionZ << SECTION_SHIFT;
+            this.stamps = stamps;
+
+            for (int index = 0; index < SECTION_CELLS; index++)
+            {
+                if (terrain.isStandable(originX + getLocalX(index), originY + getLocalY(index), originZ + getLocalZ(index)))
+                {
+                    standable.set(index);
+                }
+            }
+
+            final List<long[]> exits = findExits(terrain);
+            this.inside = new int[exits.size()];
+            this.outside = new long[exits.size()];
+            for (int i = 0; i < exits.size(); i++)
+            {
+                inside[i] = (int) exits.get(i)[0];
+                outside[i] = exits.get(i)[1];
+            }
+        }
+
+        /**
+         * Find one exit for every connected stretch of border cells leading the same way.
+         *
+         * @param terrain the terrain to check the neighbouring sections in.
+         * @return pairs of inside index and outside cell key.
+         */
+        @NotNull
+        private List<long[]> findExits(@NotNull final Terrain terrain)
+        {
+            //  Crossings by direction and height change: inside index -> outside cell
+            final List<Map<Integer, Long>> crossings = new ArrayList<>();
+            for (int i = 0; i < DIRECTIONS.length * 3 + 2; i++)
+            {
+                crossings.add(new HashMap<>());
+            }
+
+            for (int index = standable.nextSetBit(0); index >= 0; index = standable.nextSetBit(index + 1))
+            {
+                final int x = getLocalX(index);
+                final int y = getLocalY(index);
+                final int z = getLocalZ(index);
+
+                for (int dir = 0; dir < DIRECTIONS.length; dir++)
+                {
+                    for (int dy = -1; dy <= 1; dy++)
+                    {
+                        final int nx = x + DIRECTIONS[dir][0];
+                        final int ny = y + dy;
+                        final int nz = z + DIRECTIONS[dir][1];
+                        if (isLocal(nx, ny, nz))
+                        {
+                            continue;
+                        }
+
+                        if (terrain.isStandable(originX + nx, originY + ny, originZ + nz))
+                        {
+                            crossings.get(dir * 3 + dy + 1).put(index, getCellKey(originX + nx, originY + ny, originZ + nz));
+                        }
+                    }
+                }
+
+                //  Climbing straight up or down out of the section
+                if (y == MAX_SECTION_Y && terrain.isStandable(originX + x, originY + SECTION_SIZE, originZ + z))
+                {
+                    crossings.get(DIRECTIONS.length * 3).put(index, getCellKey(originX + x, originY + SECTION_SIZE, originZ + z));
+                }
+                else if (y == 0 && terrain.isStandable(originX + x, originY - 1, originZ + z))
+                {
+                    crossings.get(DIRECTIONS.length * 3 + 1).put(index, getCellKey(originX + x, originY - 1, originZ + z));
+                }
+            }
+
+            final List<long[]> exits = new ArrayList<>();
+            for (final Map<Integer, Long> group : crossings)
+            {
+                collectExits(group, exits);
+            }
+            return exits;
+        }
+
+        /**
+         * Split crossings into stretches of neighbouring cells, and take the middle one of each as exit.
+         */
+        private static void collectExits(@NotNull final Map<Integer, Long> crossings, @NotNull final List<long[]> exits)
+        {
+            final Set<Integer> remaining = new HashSet<>(crossings.keySet());
+            final Deque<Integer> queue = new ArrayDeque<>();
+            final List<Integer> stretch = new ArrayList<>();
+            while (!remaining.isEmpty())
+            {
+                final Integer first = remaining.iterator().next();
+                remaining.remove(first);
+                queue.add(first);
+                stretch.clear();
+
+                while (!queue.isEmpty())
+                {
+                    final int index = queue.poll();
+                    stretch.add(index);
+                    final int x = getLocalX(index);
+                    final int y = getLocalY(index);
+                    final int z = getLocalZ(index);
+                    for (int dx = -1; dx <= 1; dx++)
+                    {
+                        for (int dy = -1; dy <= 1; dy++)
+                        {
+                            for (int dz = -1; dz <= 1; dz++)
+                            {
+                                if (isLocal(x + dx, y + dy, z + dz) && remaining.remove(getIndex(x + dx, y + dy, z + dz)))
+                                {
+                                    queue.add(getIndex(x + dx, y + dy, z + dz));
+                                }
+                            }
+                        }
+                    }
+                }
+
+                //  Flood order is by distance from the first cell, so the middle is somewhere inside the stretch
+                stretch.sort(null);
+                final int exit = stretch.get(stretch.size() / 2);
+                exits.add(new long[] {exit, crossings.get(exit)});
+            }
+        }
+
+        /**
+         * Get the walking distances from a cell of this section to all its exits.
+         *
+         * @param cell the start cell.
+         * @return the distances, -1 for unreachable exits.
+         */
+        @NotNull
+        private int[] getExitDistances(final long cell)
+        {
+            final int[] known = distances.get(cell);
+            if (known != null)
+            {
+                return known;
+            }
+
+            final int[] field = flood(cell);
+            final int[] result = new int[inside.length];
+            for (int i = 0; i < inside.length; i++)
+            {
+                result[i] = field[inside[i]];
+            }
+
+            if (distances.size() >= MAX_CACHED_DISTANCES)
+            {
+                distances.clear();
+            }
+            distances.put(cell, result);
+            return result;
+        }
+
+        /**
+         * Breadth first flood fill from a cell over the standing positions of this section.
+         *
+         * @param cell the start cell, has to be inside the section.
+         * @return walking distance to every cell of the section, -1 if unreachable.
+         */
+        @NotNull
+        private int[] flood(final long cell)
+        {
+            final int[] field = new int[SECTION_CELLS];
+            Arrays.fill(field, -1);
+
+            final int start = getIndex(cell);
+            final int[] queue = new int[SECTION_CELLS];
+            int head = 0;
+            int tail = 0;
+            field[start] = 0;
+            queue[tail++] = start;
+
+            while (head < tail)
+            {
+                final int index = queue[head++];
+                final int x = getLocalX(index);
+                final int y = getLocalY(index);
+                final int z = getLocalZ(index);
+
+                for (final int[] dir : DIRECTIONS)
+                {
+                    for (int dy = -1; dy <= 1; dy++)
+                    {
+                        tail = visit(field, queue, tail, field[index], x + dir[0], y + dy, z + dir[1]);
+                    }
+                }
+                tail = visit(field, queue, tail, field[index], x, y + 1, z);
+                tail = visit(field, queue, tail, field[index], x, y - 1, z);
+            }
+            return field;
+        }
+
+        private int visit(@NotNull final int[] field, @NotNull final int[] queue, final int tail, final int distance, final int x, final int y, final int z)
+        {
+            if (!isLocal(x, y, z))
+            {
+                return tail;
+            }
+
+            final int index = getIndex(x, y, z);
+            if (field[index] >= 0 || !standable.get(index))
+            {
+                return tail;
+            }
+
+            field[index] = distance + 1;
+            queue[tail] = index;
+            return tail + 1;
+        }
+
+        private int getIndex(final long cell)
+        {
+            return getIndex(getX(cell) - originX, getY(cell) - originY, getZ(cell) - originZ);
+        }
+
+        private static int getIndex(final int x, final int y, final int z)
+        {
+            return (y << (2 * SECTION_SHIFT)) | (z << SECTION_SHIFT) | x;
+        }
+
+        private static boolean isLocal(final int x, final int y, final int z)
+        {
+            return x >= 0 && x < SECTION_SIZE && y >= 0 && y < SECTION_SIZE && z >= 0 && z < SECTION_SIZE;
+        }
+
+        private static int getLocalX(final int index)
+        {
+            return index & SECTION_MASK;
+        }
+
+        private static int getLocalY(final int index)
+        {
+            return index >> (2 * SECTION_SHIFT);
+        }
+
+        private static int getLocalZ(final int index)
+        {
+            return (index >> SECTION_SHIFT) & SECTION_MASK;
+        }
+    }
+}
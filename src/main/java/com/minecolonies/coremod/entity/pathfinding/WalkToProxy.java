@@ -137,7 +137,7 @@ public class WalkToProxy
 
         if (currentProxy == null)
         {
-            currentProxy = fillProxyList(target, distanceToPath);
+            currentProxy = fillProxyList(target);
         }
 
         final double distanceToProxy = BlockPosUtil.getDistanceSquared2D(worker.getPosition(), currentProxy);
@@ -174,23 +174,22 @@ public class WalkToProxy
     /**
      * Calculates a list of proxies to a certain target for a worker.
      *
-     * @param target         the target.
-     * @param distanceToPath the complete distance.
+     * @param target the target.
      * @return the first position to path to.
      */
     @NotNull
-    private BlockPos fillProxyList(@NotNull BlockPos target, double distanceToPath)
+    private BlockPos fillProxyList(@NotNull BlockPos target)
     {
         BlockPos proxyPoint;
 
         final AbstractBuildingWorker building = worker.getWorkBuilding();
         if (worker.getColonyJob() != null && worker.getColonyJob() instanceof JobMiner && building instanceof BuildingMiner)
         {
-            proxyPoint = getMinerProxy(target, distanceToPath, (BuildingMiner) building);
+            proxyPoint = getMinerProxy(target, (BuildingMiner) building);
         }
         else
         {
-            proxyPoint = getProxy(target, worker.getPosition(), distanceToPath);
+            proxyPoint = getProxy(target, worker.getPosition());
         }
 
         if (!proxyList.isEmpty())
@@ -213,12 +212,12 @@ public class WalkToProxy
     /**
      * Returns a proxy point to the goal for the miner especially.
      *
-     * @param target         the target.
-     * @param distanceToPath the total distance.
+     * @param target   the target.
+     * @param building the mine.
      * @return a proxy or, if not applicable null.
      */
     @NotNull
-    private BlockPos getMinerProxy(final BlockPos target, final double distanceToPath, @NotNull final BuildingMiner building)
+    private BlockPos getMinerProxy(final BlockPos target, @NotNull final BuildingMiner building)
     {
         final Level level = building.getCurrentLevel();
         final BlockPos ladderPos = building.getLadderLocation();
@@ -248,7 +247,7 @@ public class WalkToProxy
                                 ladderPos.getX() + building.getVectorX() * OTHER_SIDE_OF_SHAFT,
                                 level.getDepth(),
                                 ladderPos.getZ() + building.getVectorZ() * OTHER_SIDE_OF_SHAFT));
-                return getProxy(target, worker.getPosition(), distanceToPath);
+                return getProxy(target, worker.getPosition());
 
                 //If he already is at ladder location, the closest node automatically will be his hut block.
             }
@@ -259,7 +258,7 @@ public class WalkToProxy
                 BlockPos newProxy;
 
                 //First calculate way to miner building.
-                newProxy = getProxy(buildingPos, worker.getPosition(), BlockPosUtil.getDistanceSquared(worker.getPosition(), buildingPos));
+                newProxy = getProxy(buildingPos, worker.getPosition());
 
 
                 //Then add the ladder position as the latest node.
@@ -336,57 +335,37 @@ public class WalkToProxy
             }
         }
 
-        return getProxy(target, worker.getPosition(), distanceToPath);
+        return getProxy(target, worker.getPosition());
     }
 
     /**
-     * Returns a proxy point to the goal.
+     * Returns a proxy point to the goal, following the road graph of the colony.
      *
-     * @param target         the target.
-     * @param distanceToPath the total distance.
-     * @return a proxy or, if not applicable null.
+     * @param target   the target.
+     * @param position the position to start from.
+     * @return the first proxy or the target if walking directly is as good.
      */
     @NotNull
-    private BlockPos getProxy(@NotNull BlockPos target, @NotNull BlockPos position, double distanceToPath)
+    private BlockPos getProxy(@NotNull BlockPos target, @NotNull BlockPos position)
     {
         if (worker.getColony() == null)
         {
             return target;
         }
 
-        double weight = Double.MAX_VALUE;
-        BlockPos proxyPoint = null;
-
-        for (BlockPos wayPoint : worker.getColony().getWayPoints(position, target))
+        for (final BlockPos wayPoint : worker.getColony().getWayPointRoute(position, target))
         {
-            final double simpleDistance = BlockPosUtil.getDistanceSquared(position, wayPoint);
-            final double currentWeight = simpleDistance * simpleDistance + BlockPosUtil.getDistanceSquared(wayPoint, target);
-            if (currentWeight < weight
-                  && BlockPosUtil.getDistanceSquared2D(wayPoint, target) < distanceToPath
-                  && simpleDistance > MIN_DISTANCE
-                  && simpleDistance < distanceToPath
-                  && !proxyList.contains(proxyPoint))
+            if ((!proxyList.isEmpty() || BlockPosUtil.getDistanceSquared(position, wayPoint) > MIN_DISTANCE) && !proxyList.contains(wayPoint))
             {
-                proxyPoint = wayPoint;
-                weight = currentWeight;
+                proxyList.add(wayPoint);
             }
         }
 
-        if (proxyList.contains(proxyPoint))
-        {
-            proxyPoint = null;
-        }
-
-        if (proxyPoint != null)
+        if (proxyList.isEmpty())
         {
-            proxyList.add(proxyPoint);
-
-            getProxy(target, proxyPoint, distanceToPath);
-
-            return proxyList.get(0);
+            //No proxy point exists.
+            return target;
         }
-
-        //No proxy point exists.
-        return target;
+        return proxyList.get(0);
     }
 }
@@ -0,0 +1,102 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.block.BlockDoor;
+import net.minecraft.block.BlockFenceGate;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Short walk probe between two nearby way points.
+ * <p>
+ * Follows the straight line between the points block by block at walking height, allowing one block up or two
+ * blocks down per step, through doors and fence gates but not through liquids. It doesn't search around obstacles,
+ * so a probe which succeeds means the line can be walked, while a blocked line may still be walkable along a detour,
+ * which the road graph then covers with other way points. Lines running into unloaded chunks can't be told yet.
+ */
+public final class WayPointProbe
+{
+    private static final int MAX_STEP_UP   = 1;
+    private static final int MAX_STEP_DOWN = 2;
+
+    /**
+     * Outcome of a probe.
+     */
+    public enum Result
+    {
+        WALKABLE,
+        BLOCKED,
+        UNKNOWN
+    }
+
+    private WayPointProbe()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Probe the line between two way points.
+     *
+     * @param world the world.
+     * @param from  the first way point.
+     * @param to    the second way point.
+     * @return if the line can be walked, or unknown if it reaches into an unloaded chunk.
+     */
+    @NotNull
+    public static Result probe(@NotNull final World world, @NotNull final BlockPos from, @NotNull final BlockPos to)
+    {
+        final int xDiff = to.getX() - from.getX();
+        final int zDiff = to.getZ() - from.getZ();
+        final int steps = Math.max(Math.abs(xDiff), Math.abs(zDiff));
+
+        int y = from.getY();
+        for (int step = 1; step <= steps; step++)
+        {
+            final int x = from.getX() + Math.round((float) xDiff * step / steps);
+            final int z = from.getZ() + Math.round((float) zDiff * step / steps);
+            if (!world.isBlockLoaded(new BlockPos(x, y, z)))
+            {
+                return Result.UNKNOWN;
+            }
+
+            y = findStandingY(world, x, y, z);
+            if (y < 0)
+            {
+                return Result.BLOCKED;
+            }
+        }
+        return Math.abs(y - to.getY()) <= MAX_STEP_DOWN ? Result.WALKABLE : Result.BLOCKED;
+    }
+
+    /**
+     * Find the height an entity would stand at after stepping onto a column.
+     *
+     * @return the y to stand at or -1 if the step isn't possible.
+     */
+    private static int findStandingY(@NotNull final World world, final int x, final int lastY, final int z)
+    {
+        for (int y = lastY + MAX_STEP_UP; y >= lastY - MAX_STEP_DOWN; y--)
+        {
+            final BlockPos feet = new BlockPos(x, y, z);
+            final IBlockState ground = world.getBlockState(feet.down());
+            if (ground.getMaterial().isSolid() && !ground.getMaterial().isLiquid()
+                  && isPassable(world.getBlockState(feet)) && isPassable(world.getBlockState(feet.up())))
+            {
+                return y;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isPassable(@NotNull final IBlockState state)
+    {
+        final Material material = state.getMaterial();
+        if (material.isLiquid())
+        {
+            return false;
+        }
+        return !material.blocksMovement() || state.getBlock() instanceof BlockDoor || state.getBlock() instanceof BlockFenceGate;
+    }
+}
@@ -6,6 +6,9 @@ import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.IColony;
 import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
 import com.minecolonies.coremod.colony.permissions.Permissions;
+import com.minecolonies.coremod.entity.pathfinding.PassabilityCache;
+import com.minecolonies.coremod.entity.pathfinding.PathCache;
+import com.minecolonies.coremod.entity.pathfinding.PortalGraph;
 import com.minecolonies.coremod.util.LanguageHandler;
 import com.minecolonies.coremod.util.Log;
 import com.minecolonies.coremod.util.MathUtils;
@@ -23,6 +26,7 @@ import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -373,6 +377,28 @@ public class EventHandler
     public void onWorldUnload(@NotNull final WorldEvent.Unload event)
     {
         ColonyManager.onWorldUnload(event.getWorld());
+        if (!event.getWorld().isRemote)
+        {
+            PassabilityCache.onWorldUnload(event.getWorld());
+            PortalGraph.onWorldUnload(event.getWorld());
+            PathCache.clear();
+        }
+    }
+
+    /**
+     * Gets called when a chunk unloads.
+     * Drops the pathfinding snapshot of the chunk.
+     *
+     * @param event {@link net.minecraftforge.event.world.ChunkEvent.Unload}
+     */
+    @SubscribeEvent
+    public void onChunkUnload(@NotNull final ChunkEvent.Unload event)
+    {
+        if (!event.getWorld().isRemote)
+        {
+            PassabilityCache.onChunkUnload(event.getWorld(), event.getChunk().xPosition, event.getChunk().zPosition);
+            PortalGraph.onChunkUnload(event.getWorld(), event.getChunk().xPosition, event.getChunk().zPosition);
+        }
     }
 
     /**
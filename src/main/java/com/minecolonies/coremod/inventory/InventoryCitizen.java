@@ -2,11 +2,15 @@ package com.minecolonies.coremod.inventory;
 
 import com.minecolonies.coremod.colony.permissions.Permissions;
 import com.minecolonies.coremod.entity.EntityCitizen;
+import com.minecolonies.coremod.util.InventoryQuery;
+import com.minecolonies.coremod.util.InventoryUtils;
+import com.minecolonies.coremod.util.Utils;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
+import net.minecraft.item.ItemHoe;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -18,8 +22,16 @@ import net.minecraftforge.common.util.Constants;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
 /**
  * Basic inventory for the citizens.
+ * <p>
+ * Every write to a slot goes through {@link #setStack(int, ItemStack)}, which keeps bitmasks of the occupied slots,
+ * of the slots holding each item and of the slots holding each tool type. Stack sizes are changed in place by
+ * callers, so the masks track which slots hold what and the amounts are read from the stacks themselves.
  */
 public class InventoryCitizen implements IInventory
 {
@@ -55,12 +67,40 @@ public class InventoryCitizen implements IInventory
      * Size of the hotbar.
      */
     private static final int    HOTBAR_SIZE     = 0;
+    /**
+     * Mask with a bit for every slot.
+     */
+    private static final int    ALL_SLOTS       = (1 << INVENTORY_SIZE) - 1;
+
+    /**
+     * The tool types indexed by slot.
+     */
+    private static final String[] TOOL_TYPES = {Utils.PICKAXE, Utils.SHOVEL, Utils.AXE, Utils.HOE, Utils.WEAPON};
 
     /**
      * The inventory content.
      */
     @NotNull
     private ItemStack[] stacks = new ItemStack[INVENTORY_SIZE];
+    /**
+     * The item each slot has been indexed with.
+     */
+    @NotNull
+    private final Item[] slotItems = new Item[INVENTORY_SIZE];
+    /**
+     * Mask of the slots holding a stack.
+     */
+    private int occupiedSlots;
+    /**
+     * Mask of the slots holding each item.
+     */
+    @NotNull
+    private final Map<Item, Integer> itemSlots = new HashMap<>();
+    /**
+     * Mask of the slots holding items of each tool type.
+     */
+    @NotNull
+    private final Map<String, Integer> toolSlots = new HashMap<>();
     /**
      * The inventories custom name. In our case the citizens name.
      */
@@ -182,7 +222,7 @@ public class InventoryCitizen implements IInventory
             --this.stacks[i].stackSize;
             if (this.stacks[i].stackSize <= 0)
             {
-                this.stacks[i] = null;
+                this.setStack(i, null);
             }
 
             return true;
@@ -191,15 +231,7 @@ public class InventoryCitizen implements IInventory
 
     private int getInventorySlotContainItem(final Item itemIn)
     {
-        for (int i = 0; i < this.stacks.length; ++i)
-        {
-            if (this.stacks[i] != null && this.stacks[i].getItem() == itemIn)
-            {
-                return i;
-            }
-        }
-
-        return NO_SLOT;
+        return firstSlot(getItemSlots(itemIn));
     }
 
     /**
@@ -222,7 +254,7 @@ public class InventoryCitizen implements IInventory
                     {
                         return false;
                     }
-                    this.stacks[j] = ItemStack.copyItemStack(itemStackIn);
+                    this.setStack(j, ItemStack.copyItemStack(itemStackIn));
                     itemStackIn.stackSize = 0;
                     return true;
                 }
@@ -274,15 +306,7 @@ public class InventoryCitizen implements IInventory
      */
     public int getFirstEmptySlot()
     {
-        for (int i = 0; i < this.stacks.length; ++i)
-        {
-            if (this.stacks[i] == null)
-            {
-                return i;
-            }
-        }
-
-        return NO_SLOT;
+        return firstSlot(~occupiedSlots & ALL_SLOTS);
     }
 
     /**
@@ -308,8 +332,9 @@ public class InventoryCitizen implements IInventory
             if (this.stacks[j] == null)
             {
                 // Forge: Replace Item clone above to preserve item capabilities when picking the item up.
-                this.stacks[j] = itemStackIn.copy();
-                this.stacks[j].stackSize = 0;
+                final ItemStack copy = itemStackIn.copy();
+                copy.stackSize = 0;
+                this.setStack(j, copy);
             }
 
             int k = i;
@@ -342,9 +367,12 @@ public class InventoryCitizen implements IInventory
      */
     private int storeItemStack(@NotNull final ItemStack itemStackIn)
     {
-        for (int i = 0; i < this.stacks.length; ++i)
+        int slots = getItemSlots(itemStackIn.getItem());
+        while (slots != 0)
         {
-            if (this.stacks[i] != null && this.stacks[i].getItem() == itemStackIn.getItem() && this.stacks[i].isStackable()
+            final int i = firstSlot(slots);
+            slots &= slots - 1;
+            if (this.stacks[i].isStackable()
                   && this.stacks[i].stackSize < this.stacks[i].getMaxStackSize() && this.stacks[i].stackSize < this.getInventoryStackLimit()
                   && (!this.stacks[i].getHasSubtypes() || this.stacks[i].getMetadata() == itemStackIn.getMetadata())
                   && ItemStack.areItemStackTagsEqual(this.stacks[i], itemStackIn))
@@ -364,7 +392,194 @@ public class InventoryCitizen implements IInventory
      */
     public boolean hasItem(final Item itemIn)
     {
-        return getInventorySlotContainItem(itemIn) != NO_SLOT;
+        return itemSlots.containsKey(itemIn);
+    }
+
+    /**
+     * Returns the first slot with a non empty stack of an item.
+     *
+     * @param item   the item.
+     * @param damage the damage value, or {@link InventoryQuery#ANY_DAMAGE}.
+     * @return the slot or -1.
+     */
+    public int findFirstSlotWith(@Nullable final Item item, final int damage)
+    {
+        final InventoryQuery.ItemMatcher matcher = InventoryQuery.matching(item, damage);
+        int slots = getItemSlots(item);
+        while (slots != 0)
+        {
+            final int slot = firstSlot(slots);
+            slots &= slots - 1;
+            if (matcher.test(stacks[slot]))
+            {
+                return slot;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     * Returns the amount of an item in the inventory.
+     *
+     * @param item   the item.
+     * @param damage the damage value, or {@link InventoryQuery#ANY_DAMAGE}.
+     * @return the sum of the stack sizes.
+     */
+    public int getItemCount(@Nullable final Item item, final int damage)
+    {
+        final InventoryQuery.ItemMatcher matcher = InventoryQuery.matching(item, damage);
+        int count = 0;
+        int slots = getItemSlots(item);
+        while (slots != 0)
+        {
+            final int slot = firstSlot(slots);
+            slots &= slots - 1;
+            if (matcher.test(stacks[slot]))
+            {
+                count += stacks[slot].stackSize;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first slot with a non empty stack of a tool type which matches a predicate.
+     * Only the slots holding that tool type are tested.
+     *
+     * @param toolType  the tool type, one of the tool constants in {@link Utils}.
+     * @param predicate the predicate to test the tools with, for example their level.
+     * @return the slot or -1.
+     */
+    public int findToolSlot(@NotNull final String toolType, @NotNull final Predicate<ItemStack> predicate)
+    {
+        int slots = toolSlots.getOrDefault(toolType, 0);
+        while (slots != 0)
+        {
+            final int slot = firstSlot(slots);
+            slots &= slots - 1;
+            if (!InventoryUtils.isItemStackEmpty(stacks[slot]) && predicate.test(stacks[slot]))
+            {
+                return slot;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     * Checks if the inventory holds a tool of a type which matches a predicate.
+     *
+     * @param toolType  the tool type, one of the tool constants in {@link Utils}.
+     * @param predicate the predicate to test the tools with, for example their level.
+     * @return true if so.
+     */
+    public boolean hasTool(@NotNull final String toolType, @NotNull final Predicate<ItemStack> predicate)
+    {
+        return findToolSlot(toolType, predicate) != NO_SLOT;
+    }
+
+    /**
+     * Returns the next slot holding a stack, to walk over the stacks without testing empty slots.
+     *
+     * @param fromIndex the first slot to check.
+     * @return the slot or -1 if there is none.
+     */
+    public int getNextOccupiedSlot(final int fromIndex)
+    {
+        if (fromIndex >= INVENTORY_SIZE)
+        {
+            return NO_SLOT;
+        }
+        return firstSlot(occupiedSlots & (ALL_SLOTS << Math.max(0, fromIndex)));
+    }
+
+    /**
+     * Get the mask of the slots holding an item.
+     */
+    private int getItemSlots(@Nullable final Item item)
+    {
+        final Integer slots = itemSlots.get(item);
+        return slots == null ? 0 : slots;
+    }
+
+    /**
+     * Get the lowest slot of a mask.
+     */
+    private static int firstSlot(final int slots)
+    {
+        return slots == 0 ? NO_SLOT : Integer.numberOfTrailingZeros(slots);
+    }
+
+    /**
+     * Put a stack into a slot and update the slot masks.
+     *
+     * @param index the slot.
+     * @param stack the stack, or null to empty the slot.
+     */
+    private void setStack(final int index, @Nullable final ItemStack stack)
+    {
+        final int bit = 1 << index;
+        if (stacks[index] != null)
+        {
+            occupiedSlots &= ~bit;
+            updateMask(itemSlots, slotItems[index], bit, false);
+            for (final String toolType : TOOL_TYPES)
+            {
+                updateMask(toolSlots, toolType, bit, false);
+            }
+            slotItems[index] = null;
+        }
+
+        stacks[index] = stack;
+
+        if (stack != null)
+        {
+            final Item item = stack.getItem();
+            occupiedSlots |= bit;
+            slotItems[index] = item;
+            updateMask(itemSlots, item, bit, true);
+            if (item != null)
+            {
+                for (final String toolType : TOOL_TYPES)
+                {
+                    if (isOfToolType(stack, toolType))
+                    {
+                        updateMask(toolSlots, toolType, bit, true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a stack is of a tool type, without checking whether it is broken.
+     * Those checks may change while the stack stays in its slot, so lookups still test the stack.
+     */
+    private static boolean isOfToolType(@NotNull final ItemStack stack, @NotNull final String toolType)
+    {
+        if (Utils.WEAPON.equals(toolType))
+        {
+            return Utils.doesItemServeAsWeapon(stack);
+        }
+        return stack.getItem().getToolClasses(stack).contains(toolType)
+                 || (Utils.HOE.equals(toolType) && stack.getItem() instanceof ItemHoe)
+                 || Utils.isTool(stack, toolType);
+    }
+
+    /**
+     * Set or clear a slot bit in the mask of a key, dropping the key once its mask is empty.
+     */
+    private static <K> void updateMask(@NotNull final Map<K, Integer> masks, @Nullable final K key, final int bit, final boolean set)
+    {
+        final Integer previous = masks.get(key);
+        final int mask = set ? ((previous == null ? 0 : previous) | bit) : ((previous == null ? 0 : previous) & ~bit);
+        if (mask == 0)
+        {
+            masks.remove(key);
+        }
+        else
+        {
+            masks.put(key, mask);
+        }
     }
 
     /**
@@ -409,7 +624,7 @@ public class InventoryCitizen implements IInventory
     public void readFromNBT(@NotNull final NBTTagCompound compound)
     {
         final NBTTagList nbttaglist = compound.getTagList(TAG_ITEMS, Constants.NBT.TAG_COMPOUND);
-        this.stacks = new ItemStack[this.getSizeInventory()];
+        this.clear();
 
         for (int i = 0; i < nbttaglist.tagCount(); ++i)
         {
@@ -418,7 +633,7 @@ public class InventoryCitizen implements IInventory
 
             if (j != NO_SLOT && j < this.stacks.length)
             {
-                this.stacks[j] = ItemStack.loadItemStackFromNBT(nbttagcompound);
+                this.setStack(j, ItemStack.loadItemStackFromNBT(nbttagcompound));
             }
         }
 
@@ -467,7 +682,7 @@ public class InventoryCitizen implements IInventory
             if (this.stacks[index].stackSize <= count)
             {
                 final ItemStack itemstack1 = this.stacks[index];
-                this.stacks[index] = null;
+                this.setStack(index, null);
                 this.markDirty();
                 if (index == heldItem)
                 {
@@ -485,7 +700,7 @@ public class InventoryCitizen implements IInventory
 
                 if (this.stacks[index].stackSize == 0)
                 {
-                    this.stacks[index] = null;
+                    this.setStack(index, null);
                 }
 
                 this.markDirty();
@@ -514,7 +729,7 @@ public class InventoryCitizen implements IInventory
         }
 
         final ItemStack itemstack = this.stacks[index];
-        this.stacks[index] = null;
+        this.setStack(index, null);
         return itemstack;
     }
 
@@ -536,7 +751,7 @@ public class InventoryCitizen implements IInventory
             heldItem = 0;
         }
 
-        this.stacks[index] = stack;
+        this.setStack(index, stack);
 
         if (stack != null && stack.stackSize > this.getInventoryStackLimit())
         {
@@ -688,7 +903,7 @@ public class InventoryCitizen implements IInventory
     {
         for (int i = 0; i < this.stacks.length; ++i)
         {
-            this.stacks[i] = null;
+            this.setStack(i, null);
         }
     }
 
@@ -0,0 +1,63 @@
+package com.minecolonies.coremod.network.messages;
+
+import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.ColonyManager;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Asks the server for the full view of a citizen, sent when the client got a partial update for a citizen it doesn't
+ * know.
+ */
+public class CitizenViewResyncMessage extends AbstractMessage<CitizenViewResyncMessage, IMessage>
+{
+    private int colonyId;
+    private int citizenId;
+
+    /**
+     * Empty constructor used when registering the message.
+     */
+    public CitizenViewResyncMessage()
+    {
+        super();
+    }
+
+    /**
+     * Creates a request for the full view of a citizen.
+     *
+     * @param colonyId  id of the colony.
+     * @param citizenId id of the citizen.
+     */
+    public CitizenViewResyncMessage(final int colonyId, final int citizenId)
+    {
+        super();
+        this.colonyId = colonyId;
+        this.citizenId = citizenId;
+    }
+
+    @Override
+    public void fromBytes(@NotNull final ByteBuf buf)
+    {
+        colonyId = buf.readInt();
+        citizenId = buf.readInt();
+    }
+
+    @Override
+    public void toBytes(@NotNull final ByteBuf buf)
+    {
+        buf.writeInt(colonyId);
+        buf.writeInt(citizenId);
+    }
+
+    @Override
+    public void messageOnServerThread(final CitizenViewResyncMessage message, final EntityPlayerMP player)
+    {
+        final Colony colony = ColonyManager.getColony(message.colonyId);
+        if (colony != null)
+        {
+            colony.resendCitizenView(message.citizenId, player);
+        }
+    }
+}
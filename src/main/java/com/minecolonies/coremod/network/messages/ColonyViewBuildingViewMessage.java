@@ -42,6 +42,20 @@ public class ColonyViewBuildingViewMessage implements IMessage, IMessageHandler<
         building.serializeToView(this.buildingData);
     }
 
+    /**
+     * Creates a message with view data which was already serialized.
+     * The data is only read, so it can be shared by the messages to all recipients.
+     *
+     * @param building     AbstractBuilding to add or update a view.
+     * @param buildingData the data written by {@link AbstractBuilding#serializeToView(ByteBuf)}.
+     */
+    public ColonyViewBuildingViewMessage(@NotNull final AbstractBuilding building, @NotNull final ByteBuf buildingData)
+    {
+        this.colonyId = building.getColony().getID();
+        this.buildingId = building.getID();
+        this.buildingData = buildingData;
+    }
+
     @Override
     public void fromBytes(@NotNull final ByteBuf buf)
     {
@@ -56,7 +70,7 @@ public class ColonyViewBuildingViewMessage implements IMessage, IMessageHandler<
     {
         buf.writeInt(colonyId);
         BlockPosUtil.writeToByteBuf(buf, buildingId);
-        buf.writeBytes(buildingData);
+        buf.writeBytes(buildingData, buildingData.readerIndex(), buildingData.readableBytes());
     }
 
     @Nullable
@@ -18,6 +18,7 @@ public class ColonyViewCitizenViewMessage implements IMessage, IMessageHandler<C
 {
     private int     colonyId;
     private int     citizenId;
+    private int     attributes;
     private ByteBuf citizenBuffer;
 
     /**
@@ -38,15 +39,34 @@ public class ColonyViewCitizenViewMessage implements IMessage, IMessageHandler<C
     {
         this.colonyId = colony.getID();
         this.citizenId = citizen.getId();
+        this.attributes = CitizenData.VIEW_ALL;
         this.citizenBuffer = Unpooled.buffer();
         citizen.serializeViewNetworkData(citizenBuffer);
     }
 
+    /**
+     * Updates some attribute groups of a {@link com.minecolonies.coremod.colony.CitizenDataView}.
+     * The data is only read, so it can be shared by the messages to all recipients.
+     *
+     * @param colony     Colony of the citizen
+     * @param citizenId  id of the citizen
+     * @param attributes bit mask of the groups in the data, see {@link CitizenData#VIEW_ALL}
+     * @param data       the serialized groups
+     */
+    public ColonyViewCitizenViewMessage(@NotNull final Colony colony, final int citizenId, final int attributes, @NotNull final ByteBuf data)
+    {
+        this.colonyId = colony.getID();
+        this.citizenId = citizenId;
+        this.attributes = attributes;
+        this.citizenBuffer = data;
+    }
+
     @Override
     public void fromBytes(@NotNull final ByteBuf buf)
     {
         colonyId = buf.readInt();
         citizenId = buf.readInt();
+        attributes = buf.readUnsignedByte();
         this.citizenBuffer = Unpooled.buffer();
         buf.readBytes(citizenBuffer, buf.readableBytes());
     }
@@ -56,13 +76,14 @@ public class ColonyViewCitizenViewMessage implements IMessage, IMessageHandler<C
     {
         buf.writeInt(colonyId);
         buf.writeInt(citizenId);
-        buf.writeBytes(citizenBuffer);
+        buf.writeByte(attributes);
+        buf.writeBytes(citizenBuffer, citizenBuffer.readerIndex(), citizenBuffer.readableBytes());
     }
 
     @Nullable
     @Override
     public IMessage onMessage(@NotNull final ColonyViewCitizenViewMessage message, final MessageContext ctx)
     {
-        return ColonyManager.handleColonyViewCitizensMessage(message.colonyId, message.citizenId, message.citizenBuffer);
+        return ColonyManager.handleColonyViewCitizensMessage(message.colonyId, message.citizenId, message.attributes, message.citizenBuffer);
     }
 }
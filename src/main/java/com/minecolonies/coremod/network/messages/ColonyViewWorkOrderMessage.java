@@ -42,6 +42,21 @@ public class ColonyViewWorkOrderMessage implements IMessage, IMessageHandler<Col
         workOrder.serializeViewNetworkData(workOrderBuffer);
     }
 
+    /**
+     * Updates a {@link com.minecolonies.coremod.colony.WorkOrderView} with data serialized once for all recipients.
+     * The data is only read, it has to stay valid until the message is sent.
+     *
+     * @param colony      colony of the workOrder.
+     * @param workOrderId id of the workOrder.
+     * @param data        the data written by {@link AbstractWorkOrder#serializeViewNetworkData(ByteBuf)}.
+     */
+    public ColonyViewWorkOrderMessage(@NotNull final Colony colony, final int workOrderId, @NotNull final ByteBuf data)
+    {
+        this.colonyId = colony.getID();
+        this.workOrderId = workOrderId;
+        this.workOrderBuffer = data;
+    }
+
     @Override
     public void fromBytes(@NotNull final ByteBuf buf)
     {
@@ -55,7 +70,7 @@ public class ColonyViewWorkOrderMessage implements IMessage, IMessageHandler<Col
     {
         buf.writeInt(colonyId);
         buf.writeInt(workOrderId);
-        buf.writeBytes(workOrderBuffer);
+        buf.writeBytes(workOrderBuffer, workOrderBuffer.readerIndex(), workOrderBuffer.readableBytes());
     }
 
     @Nullable
@@ -11,8 +11,6 @@ import com.minecolonies.coremod.util.EntityUtils;
 import com.minecolonies.coremod.util.LanguageHandler;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockContainer;
-import net.minecraft.block.state.IBlockState;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.monster.EntityMob;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemPotion;
@@ -28,10 +26,6 @@ import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-
 /**
  * This class handles all permission checks on events and cancels them if needed.
  */
@@ -58,7 +52,7 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final BlockEvent.PlaceEvent event)
     {
-        if (Configurations.enableColonyProtection && checkBlockEventDenied(event.getWorld(), event.getPos(), event.getPlayer(), event.getPlacedBlock(),
+        if (Configurations.enableColonyProtection && checkBlockEventDenied(event.getWorld(), event.getPos(), event.getPlayer(),
                 event.getPlacedBlock().getBlock() instanceof AbstractBlockHut ? Permissions.Action.PLACE_HUTS : Permissions.Action.PLACE_BLOCKS))
         {
             cancelEvent(event, event.getPlayer());
@@ -71,33 +65,16 @@ public class ColonyPermissionEventHandler
      * @param worldIn    the world to check in
      * @param posIn      the block to check
      * @param playerIn   the player who tries
-     * @param blockState the state that block is in
+     * @param action     the action the player tries
      * @return true if canceled
      */
-    private boolean checkBlockEventDenied(final World worldIn, final BlockPos posIn, final EntityPlayer playerIn, final IBlockState blockState,
-            final Permissions.Action action)
+    private boolean checkBlockEventDenied(final World worldIn, final BlockPos posIn, final EntityPlayer playerIn, final Permissions.Action action)
     {
-        @NotNull final EntityPlayer player = EntityUtils.getPlayerOfFakePlayer(playerIn, worldIn);
-
         if (colony.isCoordInColony(worldIn, posIn))
         {
-            if (!colony.getPermissions().isColonyMember(player))
-            {
-                return true;
-            }
-
-            if (blockState.getBlock() instanceof AbstractBlockHut
-                    && colony.getPermissions().hasPermission(player, action))
-            {
-                return false;
-            }
-
-            if (colony.getPermissions().hasPermission(player, action))
-            {
-                return false;
-            }
-
-            return true;
+            @NotNull final EntityPlayer player = EntityUtils.getPlayerOfFakePlayer(playerIn, worldIn);
+            return !colony.getPermissions().isColonyMember(player)
+                     || !Permissions.isAllowed(colony.getPermissions().getActionFlags(player), action);
         }
 
         /*
@@ -131,8 +108,7 @@ public class ColonyPermissionEventHandler
     public void on(final BlockEvent.BreakEvent event)
     {
         if (Configurations.enableColonyProtection && checkBlockEventDenied(event.getWorld(), event.getPos(), event.getPlayer(),
-                event.getWorld().getBlockState(event.getPos()),
-                event.getWorld().getBlockState(event.getPos()).getBlock() instanceof AbstractBlockHut ? Permissions.Action.BREAK_HUTS : Permissions.Action.BREAK_BLOCKS))
+                event.getState().getBlock() instanceof AbstractBlockHut ? Permissions.Action.BREAK_HUTS : Permissions.Action.BREAK_BLOCKS))
         {
             cancelEvent(event, event.getPlayer());
         }
@@ -152,19 +128,16 @@ public class ColonyPermissionEventHandler
         }
 
         final World eventWorld = event.getWorld();
-        final Predicate<BlockPos> getBlocksInColony = pos -> colony.isCoordInColony(eventWorld, pos);
-        final Predicate<Entity> getEntitiesInColony = entity -> colony.isCoordInColony(entity.getEntityWorld(), entity.getPosition());
-        // if block is in colony -> remove from list
-        final List<BlockPos> blocksToRemove = event.getAffectedBlocks().stream()
-                                                .filter(getBlocksInColony)
-                                                .collect(Collectors.toList());
+        if (!eventWorld.equals(colony.getWorld()))
+        {
+            return;
+        }
+
+        // if block is in colony -> remove from list, decided chunk by chunk
+        ExplosionFilter.removeInColony(event.getAffectedBlocks(), colony.getCenter(), Configurations.workingRangeTownHall);
 
         // if entity is in colony -> remove from list
-        final List<Entity> entitiesToRemove = event.getAffectedEntities().stream()
-                                                .filter(getEntitiesInColony)
-                                                .collect(Collectors.toList());
-        event.getAffectedBlocks().removeAll(blocksToRemove);
-        event.getAffectedEntities().removeAll(entitiesToRemove);
+        event.getAffectedEntities().removeIf(entity -> colony.isCoordInColony(entity.getEntityWorld(), entity.getPosition()));
     }
 
     /**
@@ -201,47 +174,47 @@ public class ColonyPermissionEventHandler
                 && !(event instanceof PlayerInteractEvent.EntityInteract || event instanceof PlayerInteractEvent.EntityInteractSpecific))
         {
             final Block block = event.getWorld().getBlockState(event.getPos()).getBlock();
+            //  One lookup for all the checks below
+            final int actions = colony.getPermissions().getActionFlags(event.getEntityPlayer());
+
             // Huts
             if (block instanceof AbstractBlockHut
-                    && !colony.getPermissions().hasPermission(event.getEntityPlayer(), Permissions.Action.ACCESS_HUTS))
+                    && !Permissions.isAllowed(actions, Permissions.Action.ACCESS_HUTS))
             {
                 cancelEvent(event, event.getEntityPlayer());
             }
 
-            final Permissions perms = colony.getPermissions();
-
-            if(isFreeToInteractWith(event.getWorld().getBlockState(event.getPos()).getBlock(), event.getPos())
-                    && perms.hasPermission(event.getEntityPlayer(), Permissions.Action.ACCESS_FREE_BLOCKS))
+            if(isFreeToInteractWith(block, event.getPos())
+                    && Permissions.isAllowed(actions, Permissions.Action.ACCESS_FREE_BLOCKS))
             {
                 return;
             }
 
             if(Configurations.enableColonyProtection)
             {
-                if(!perms.hasPermission(event.getEntityPlayer(), Permissions.Action.RIGHTCLICK_BLOCK) && event.getWorld().getBlockState(event.getPos()).getBlock() != null)
+                if(!Permissions.isAllowed(actions, Permissions.Action.RIGHTCLICK_BLOCK) && block != null)
                 {
                     cancelEvent(event, event.getEntityPlayer());
                 }
 
-                if(event.getWorld().getBlockState(event.getPos()).getBlock() instanceof BlockContainer && !perms.hasPermission(event.getEntityPlayer(),
-                        Permissions.Action.OPEN_CONTAINER))
+                if(block instanceof BlockContainer && !Permissions.isAllowed(actions, Permissions.Action.OPEN_CONTAINER))
                 {
                     cancelEvent(event, event.getEntityPlayer());
                 }
 
-                if(event.getWorld().getTileEntity(event.getPos()) != null && !perms.hasPermission(event.getEntityPlayer(), Permissions.Action.RIGHTCLICK_ENTITY))
+                if(event.getWorld().getTileEntity(event.getPos()) != null && !Permissions.isAllowed(actions, Permissions.Action.RIGHTCLICK_ENTITY))
                 {
                     cancelEvent(event, event.getEntityPlayer());
                 }
 
-                if(event.getItemStack() != null && event.getItemStack().getItem() instanceof ItemPotion && !perms.hasPermission(event.getEntityPlayer(),
-                        Permissions.Action.THROW_POTION))
+                if(event.getItemStack() != null && event.getItemStack().getItem() instanceof ItemPotion
+                        && !Permissions.isAllowed(actions, Permissions.Action.THROW_POTION))
                 {
                     cancelEvent(event, event.getEntityPlayer());
                 }
 
                 if(event.getItemStack() != null && event.getItemStack().getItem() instanceof ItemScanTool
-                        && !perms.hasPermission(event.getEntityPlayer(), Permissions.Action.USE_SCAN_TOOL))
+                        && !Permissions.isAllowed(actions, Permissions.Action.USE_SCAN_TOOL))
                 {
                     cancelEvent(event, event.getEntityPlayer());
                 }
@@ -408,16 +381,16 @@ public class ColonyPermissionEventHandler
         if (Configurations.enableColonyProtection
                 && colony.isCoordInColony(player.getEntityWorld(), player.getPosition()))
         {
-            final Permissions perms = colony.getPermissions();
+            final int actions = colony.getPermissions().getActionFlags(event.getEntityPlayer());
             if (event.getTarget() instanceof EntityCitizen)
             {
                 final EntityCitizen citizen = (EntityCitizen) event.getTarget();
-                if (citizen.getColonyJob() instanceof JobGuard && perms.hasPermission(event.getEntityPlayer(), Permissions.Action.GUARDS_ATTACK))
+                if (citizen.getColonyJob() instanceof JobGuard && Permissions.isAllowed(actions, Permissions.Action.GUARDS_ATTACK))
                 {
                     return;
                 }
 
-                if(perms.hasPermission(event.getEntityPlayer(), Permissions.Action.ATTACK_CITIZEN))
+                if(Permissions.isAllowed(actions, Permissions.Action.ATTACK_CITIZEN))
                 {
                     return;
                 }
@@ -426,7 +399,7 @@ public class ColonyPermissionEventHandler
                 return;
             }
 
-            if(!perms.hasPermission(event.getEntityPlayer(), Permissions.Action.ATTACK_ENTITY))
+            if(!Permissions.isAllowed(actions, Permissions.Action.ATTACK_ENTITY))
             {
                 cancelEvent(event, player);
             }
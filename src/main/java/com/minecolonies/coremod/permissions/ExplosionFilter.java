@@ -0,0 +1,110 @@
+package com.minecolonies.coremod.permissions;
+
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Removes the blocks of an explosion which lie inside a colony.
+ * <p>
+ * Whole chunks are checked against the colony circle first: blocks in chunks completely outside or inside need no
+ * distance check of their own. Explosions list their blocks ray by ray, so consecutive blocks mostly share a chunk.
+ */
+public final class ExplosionFilter
+{
+    private static final int CHUNK_SHIFT = 4;
+    private static final int CHUNK_SIZE  = 16;
+
+    private static final int OUTSIDE = 0;
+    private static final int INSIDE  = 1;
+    private static final int PARTIAL = 2;
+
+    private ExplosionFilter()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Remove all positions within a colony, which covers a circle in (x, z) direction.
+     *
+     * @param blocks the affected blocks of the explosion, modified in place.
+     * @param center the colony center.
+     * @param radius the colony radius.
+     */
+    public static void removeInColony(@NotNull final List<BlockPos> blocks, @NotNull final BlockPos center, final int radius)
+    {
+        blocks.removeIf(new ChunkPredicate(center.getX(), center.getZ(), radius));
+    }
+
+    /**
+     * Tests positions against the colony circle, remembering the state of the last chunk.
+     */
+    private static final class ChunkPredicate implements Predicate<BlockPos>
+    {
+        private final int  centerX;
+        private final int  centerZ;
+        private final long radiusSq;
+
+        private boolean hasChunk = false;
+        private int     chunkX;
+        private int     chunkZ;
+        private int     chunkState;
+
+        private ChunkPredicate(final int centerX, final int centerZ, final int radius)
+        {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radiusSq = (long) radius * radius;
+        }
+
+        @Override
+        public boolean test(@NotNull final BlockPos pos)
+        {
+            final int x = pos.getX();
+            final int z = pos.getZ();
+            if (!hasChunk || x >> CHUNK_SHIFT != chunkX || z >> CHUNK_SHIFT != chunkZ)
+            {
+                hasChunk = true;
+                chunkX = x >> CHUNK_SHIFT;
+                chunkZ = z >> CHUNK_SHIFT;
+                chunkState = getChunkState(chunkX << CHUNK_SHIFT, chunkZ << CHUNK_SHIFT);
+            }
+
+            if (chunkState == PARTIAL)
+            {
+                return distanceSq(x, z) <= radiusSq;
+            }
+            return chunkState == INSIDE;
+        }
+
+        private int getChunkState(final int minX, final int minZ)
+        {
+            final int maxX = minX + CHUNK_SIZE - 1;
+            final int maxZ = minZ + CHUNK_SIZE - 1;
+
+            final int nearestX = Math.max(minX, Math.min(centerX, maxX));
+            final int nearestZ = Math.max(minZ, Math.min(centerZ, maxZ));
+            if (distanceSq(nearestX, nearestZ) > radiusSq)
+            {
+                return OUTSIDE;
+            }
+
+            final int farthestX = Math.abs(centerX - minX) > Math.abs(centerX - maxX) ? minX : maxX;
+            final int farthestZ = Math.abs(centerZ - minZ) > Math.abs(centerZ - maxZ) ? minZ : maxZ;
+            if (distanceSq(farthestX, farthestZ) <= radiusSq)
+            {
+                return INSIDE;
+            }
+            return PARTIAL;
+        }
+
+        private long distanceSq(final int x, final int z)
+        {
+            final long xDiff = (long) x - centerX;
+            final long zDiff = (long) z - centerZ;
+            return xDiff * xDiff + zDiff * zDiff;
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.minecolonies.coremod.tileentities;
 
 import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.DeliveryRequestQueue;
 import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
 import com.minecolonies.coremod.colony.buildings.AbstractBuildingWorker;
 import com.minecolonies.coremod.colony.buildings.BuildingDeliveryman;
 import com.minecolonies.coremod.colony.buildings.BuildingWareHouse;
+import com.minecolonies.coremod.entity.ai.citizen.deliveryman.DeliveryPlanner;
 import com.minecolonies.coremod.inventory.InventoryCitizen;
 import com.minecolonies.coremod.util.InventoryFunctions;
 import com.minecolonies.coremod.util.InventoryUtils;
 import com.minecolonies.coremod.util.LanguageHandler;
 import com.minecolonies.coremod.util.Utils;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
@@ -20,8 +23,7 @@ import net.minecraftforge.items.wrapper.InvWrapper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.*;
 
 /**
  * Class which handles the tileEntity of our colonyBuildings.
@@ -29,14 +31,31 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class TileEntityWareHouse extends TileEntityColonyBuilding
 {
     /**
-     * List which contains the currentTasks to be executed by the deliveryman.
+     * Buildings checked against the warehouse stock per tick at most.
      */
-    private final CopyOnWriteArrayList<AbstractBuilding> list = new CopyOnWriteArrayList<>();
+    private static final int MAX_CHECKS_PER_TICK = 1;
 
     /**
-     * Index of last controlled building.
+     * Ticks until a request which can't be served from the warehouse is checked again.
      */
-    private int index = 1;
+    private static final int RETRY_DELAY = 100;
+
+    /**
+     * Set which contains the currentTasks to be executed by the deliveryman, in order.
+     */
+    private final Set<AbstractBuilding> list = new LinkedHashSet<>();
+
+    /**
+     * Index of the items in the warehouse block and its additional chests.
+     */
+    private final WareHouseStockIndex stockIndex = new WareHouseStockIndex();
+
+    /**
+     * If the index was built, the next additional chest to refresh, and if the warehouse block changed since.
+     */
+    private boolean stockIndexed = false;
+    private int     stockCursor  = 0;
+    private boolean hutChanged   = false;
 
     /**
      * Empty standard constructor.
@@ -58,48 +77,64 @@ public class TileEntityWareHouse extends TileEntityColonyBuilding
     {
         super.update();
 
+        if(!worldObj.isRemote)
+        {
+            refreshNextChest();
+        }
+
         final AbstractBuilding wareHouseBuilding = getBuilding();
         if(getColony() != null
                 && wareHouseBuilding instanceof BuildingWareHouse
                 && !((BuildingWareHouse) wareHouseBuilding).getRegisteredDeliverymen().isEmpty())
         {
-            final Map<BlockPos, AbstractBuilding> buildingMap = getColony().getBuildings();
+            final Colony colony = getColony();
+            final DeliveryRequestQueue requests = colony.getDeliveryRequests();
+            final long tick = worldObj.getTotalWorldTime();
 
-            if (buildingMap.size() < this.index)
+            int checks = 0;
+            while (checks < MAX_CHECKS_PER_TICK)
             {
-                this.index = 1;
-            }
+                final BlockPos pos = requests.poll(tick);
+                if (pos == null)
+                {
+                    break;
+                }
 
-            int i = 1;
-            for (@NotNull final Map.Entry<BlockPos, AbstractBuilding> buildingEntry : buildingMap.entrySet())
-            {
-                if (i == index)
+                final AbstractBuilding building = colony.getBuilding(pos);
+                if (building instanceof AbstractBuildingWorker && !list.contains(building) && building.needsAnything())
                 {
-                    if(buildingEntry.getValue() instanceof AbstractBuildingWorker
-                            && !list.contains(buildingEntry.getValue())
-                            && ((AbstractBuildingWorker) buildingEntry.getValue()).needsAnything())
+                    checks++;
+                    if (!checkInWareHouse(building, true))
                     {
-                        checkInWareHouse((AbstractBuildingWorker) buildingEntry.getValue(), true);
+                        requests.offer(pos, building.getDeliveryPriority(), tick + RETRY_DELAY);
                     }
-                    this.index++;
                 }
-                i++;
             }
         }
     }
 
     /**
-     * Get the first task in the list.
-     * @return the building which needs a delivery.
+     * Plan the next delivery tour and take its buildings off the task list.
+     * @param start the position the tour starts from.
+     * @param capacity the number of stacks the deliveryman can carry.
+     * @return the buildings to deliver to in order, empty if there is nothing to deliver.
      */
-    @Nullable
-    public AbstractBuilding getTask()
+    @NotNull
+    public List<AbstractBuilding> getTour(@NotNull final BlockPos start, final int capacity)
     {
-        if(list.isEmpty())
-        {
-            return null;
-        }
-        return list.remove(0);
+        final List<AbstractBuilding> tour = DeliveryPlanner.planTour(start, list, AbstractBuilding::getLocation, TileEntityWareHouse::getStacksToDeliver, capacity);
+        list.removeAll(tour);
+        return tour;
+    }
+
+    /**
+     * Get the number of stacks a building waits for.
+     * @param building the building.
+     * @return the count, a tool counts as one.
+     */
+    private static int getStacksToDeliver(@NotNull final AbstractBuilding building)
+    {
+        return building.getNeededItems().size() + (building.getRequiredTool().isEmpty() ? 0 : 1);
     }
 
     /**
@@ -173,10 +208,9 @@ public class TileEntityWareHouse extends TileEntityColonyBuilding
                 if(colony != null)
                 {
                     final AbstractBuilding building = colony.getBuilding(new BlockPos(pos));
-                    if(building instanceof BuildingDeliveryman)
+                    if(building instanceof BuildingDeliveryman && ((BuildingDeliveryman) building).hasStop(buildingEntry))
                     {
-                        return ((BuildingDeliveryman) building).getBuildingToDeliver() != null
-                                && ((BuildingDeliveryman) building).getBuildingToDeliver().getLocation() == buildingEntry.getLocation();
+                        return true;
                     }
                 }
             }
@@ -191,25 +225,7 @@ public class TileEntityWareHouse extends TileEntityColonyBuilding
      */
     public boolean isInHut(@Nullable final ItemStack is)
     {
-        @Nullable final AbstractBuilding building = getBuilding();
-        if(building != null)
-        {
-            if(isInTileEntity(building.getTileEntity(), is))
-            {
-                return true;
-            }
-
-            for(final BlockPos pos : building.getAdditionalCountainers())
-            {
-                @Nullable final TileEntity entity = worldObj.getTileEntity(pos);
-                if(entity instanceof TileEntityChest && isInTileEntity((TileEntityChest) entity, is))
-                {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return is != null && is.getItem() != null && findChestWith(is.getItem(), is.getItemDamage(), true, false) != null;
     }
 
     /**
@@ -220,25 +236,13 @@ public class TileEntityWareHouse extends TileEntityColonyBuilding
     @Nullable
     public BlockPos getPositionOfChestWithItemStack(ItemStack stack)
     {
-        @Nullable final AbstractBuilding building = getBuilding();
-
-        if(building != null)
+        if(stack == null || stack.getItem() == null)
         {
-            if(isInTileEntity(building.getTileEntity(), stack))
-            {
-                return building.getLocation();
-            }
-
-            for(final BlockPos pos : building.getAdditionalCountainers())
-            {
-                final TileEntity entity = worldObj.getTileEntity(pos);
-                if(entity instanceof TileEntityChest && isInTileEntity((TileEntityChest) entity, stack))
-                {
-                    return pos;
-                }
-            }
+            return null;
         }
-        return null;
+
+        @Nullable final TileEntityChest chest = findChestWith(stack.getItem(), stack.getItemDamage(), true, false);
+        return chest == null ? null : chest.getPos();
     }
 
     /**
@@ -386,6 +390,7 @@ public class TileEntityWareHouse extends TileEntityColonyBuilding
             }
             InventoryUtils.addItemStackToProvider(chest, stack);
             new InvWrapper(inventoryCitizen).extractItem(i, Integer.MAX_VALUE, false);
+            refreshChest(chest.getPos());
         }
 
     }
@@ -398,24 +403,14 @@ public class TileEntityWareHouse extends TileEntityColonyBuilding
     @Nullable
     private TileEntityChest searchRightChestForStack(@NotNull final ItemStack stack)
     {
-        if(InventoryUtils.findFirstSlotInProviderWith(this, stack.getItem(), stack.getItemDamage()) != -1 && InventoryUtils.getFirstOpenSlotFromProvider(this) != -1)
+        @Nullable final TileEntityChest chest = findChestWith(stack.getItem(), stack.getItemDamage(), true, true);
+        if(chest != null)
         {
-            return this;
+            return chest;
         }
 
-        for(@NotNull final BlockPos pos : getBuilding().getAdditionalCountainers())
-        {
-            final TileEntity entity = worldObj.getTileEntity(pos);
-            if(entity instanceof TileEntityChest
-                    && InventoryUtils.findFirstSlotInProviderWith(entity, stack.getItem(), stack.getItemDamage()) != -1
-                    && InventoryUtils.getFirstOpenSlotFromProvider(entity) != -1)
-            {
-                return (TileEntityChest) entity;
-            }
-        }
-
-        @Nullable final TileEntityChest chest = searchChestWithSimilarItem(stack);
-        return chest == null ? searchMostEmptySlot() : chest;
+        @Nullable final TileEntityChest similarChest = searchChestWithSimilarItem(stack);
+        return similarChest == null ? searchMostEmptySlot() : similarChest;
     }
 
     /**
@@ -426,47 +421,157 @@ public class TileEntityWareHouse extends TileEntityColonyBuilding
     @Nullable
     private TileEntityChest searchChestWithSimilarItem(final ItemStack stack)
     {
-        for(@NotNull final BlockPos pos : getBuilding().getAdditionalCountainers())
+        return findChestWith(stack.getItem(), WareHouseStockIndex.ANY_DAMAGE, false, true);
+    }
+
+    /**
+     * Search for the chest with the least items in it.
+     * @return the tileEntity of this chest.
+     */
+    @Nullable
+    private TileEntityChest searchMostEmptySlot()
+    {
+        final WareHouseStockIndex index = getStockIndex();
+        BlockPos pos = index.getEmptiestChest();
+        while(pos != null)
         {
-            final TileEntity entity = worldObj.getTileEntity(pos);
-            if(entity instanceof TileEntityChest
-                    && InventoryUtils.findFirstSlotInProviderWith(entity, stack.getItem(), -1) != -1
-                    && InventoryUtils.getFirstOpenSlotFromProvider(entity) != -1)
+            //  Refreshing moves the chest down if it filled up in the meantime
+            @Nullable final TileEntityChest chest = refreshChest(pos);
+            if(chest != null && pos.equals(index.getEmptiestChest()))
             {
-                return (TileEntityChest) entity;
+                return chest;
             }
+            pos = index.getEmptiestChest();
         }
         return null;
     }
 
     /**
-     * Search for the chest with the least items in it.
-     * @return the tileEntity of this chest.
+     * Find a chest holding an item through the stock index.
+     * The candidate is refreshed before it is returned, so changes the index missed can't lead to a wrong chest.
+     * @param item the item.
+     * @param damage its damage or {@link WareHouseStockIndex#ANY_DAMAGE}.
+     * @param includeHut if the warehouse block itself may be returned.
+     * @param needsFreeSlot if the chest needs a free slot.
+     * @return the chest or null.
      */
     @Nullable
-    private TileEntityChest searchMostEmptySlot()
+    private TileEntityChest findChestWith(@NotNull final Item item, final int damage, final boolean includeHut, final boolean needsFreeSlot)
     {
-        int freeSlots = 0;
-        TileEntityChest emptiestChest = null;
-        for(@NotNull final BlockPos pos : getBuilding().getAdditionalCountainers())
+        final WareHouseStockIndex index = getStockIndex();
+        if(includeHut && index.hasItem(getPos(), item, damage))
+        {
+            refreshChest(getPos());
+            if(index.hasItem(getPos(), item, damage) && (!needsFreeSlot || index.hasFreeSlot(getPos())))
+            {
+                return this;
+            }
+        }
+
+        for(@NotNull final BlockPos pos : new ArrayList<>(index.getChestsWith(item, damage)))
         {
-            final TileEntity entity = worldObj.getTileEntity(pos);
-            if(entity == null)
+            if(pos.equals(getPos()) || (needsFreeSlot && !index.hasFreeSlot(pos)))
             {
-                getBuilding().removeContainerPosition(pos);
                 continue;
             }
-            if(entity instanceof TileEntityChest && InventoryUtils.getFirstOpenSlotFromProvider(entity) != -1)
+
+            @Nullable final TileEntityChest chest = refreshChest(pos);
+            if(chest != null && index.hasItem(pos, item, damage) && (!needsFreeSlot || index.hasFreeSlot(pos)))
+            {
+                return chest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the stock index, building it on first use.
+     * @return the index of all chests of the warehouse.
+     */
+    @NotNull
+    private WareHouseStockIndex getStockIndex()
+    {
+        if(!stockIndexed)
+        {
+            stockIndexed = true;
+            refreshChest(getPos());
+            final AbstractBuilding building = getBuilding();
+            if(building != null)
             {
-                final int tempFreeSlots = ((TileEntityChest) entity).getSizeInventory() - InventoryUtils.getAmountOfStacksInProvider(entity);
-                if(freeSlots < tempFreeSlots)
+                for(@NotNull final BlockPos pos : new ArrayList<>(building.getAdditionalCountainers()))
                 {
-                    freeSlots = tempFreeSlots;
-                    emptiestChest = (TileEntityChest) entity;
+                    refreshChest(pos);
                 }
             }
         }
+        else if(hutChanged)
+        {
+            refreshChest(getPos());
+        }
+        return stockIndex;
+    }
+
+    /**
+     * Update the stock index for one chest, the next one each tick.
+     * Catches what players and hoppers moved, the warehouse updates the chests it changes itself.
+     */
+    private void refreshNextChest()
+    {
+        final AbstractBuilding building = getBuilding();
+        if(!stockIndexed || building == null)
+        {
+            return;
+        }
+
+        final List<BlockPos> containers = building.getAdditionalCountainers();
+        if(stockCursor >= containers.size())
+        {
+            stockCursor = 0;
+            final Set<BlockPos> positions = new HashSet<>(containers);
+            positions.add(getPos());
+            stockIndex.retain(positions);
+            refreshChest(getPos());
+            return;
+        }
+        refreshChest(containers.get(stockCursor++));
+    }
 
-        return emptiestChest;
+    /**
+     * Update the stock index for a chest.
+     * Forgets chests which are gone.
+     * @param pos the position of the chest.
+     * @return the chest or null if there is none.
+     */
+    @Nullable
+    private TileEntityChest refreshChest(@NotNull final BlockPos pos)
+    {
+        final boolean isHut = pos.equals(getPos());
+        if(isHut)
+        {
+            hutChanged = false;
+            stockIndex.update(pos, this, true);
+            return this;
+        }
+
+        final TileEntity entity = worldObj.getTileEntity(pos);
+        if(entity instanceof TileEntityChest)
+        {
+            stockIndex.update(pos, (TileEntityChest) entity, false);
+            return (TileEntityChest) entity;
+        }
+
+        stockIndex.remove(pos);
+        if(entity == null && getBuilding() != null)
+        {
+            getBuilding().removeContainerPosition(pos);
+        }
+        return null;
+    }
+
+    @Override
+    public void markDirty()
+    {
+        super.markDirty();
+        hutChanged = true;
     }
 }
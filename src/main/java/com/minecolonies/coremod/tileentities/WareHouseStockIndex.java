@@ -0,0 +1,243 @@
+package com.minecolonies.coremod.tileentities;
+
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Index of the items in the chests of a warehouse.
+ * <p>
+ * Every chest keeps a copy of the item and damage in each of its slots. Refreshing a chest compares the slots with
+ * that copy and only touches the index for slots which changed. The index maps each item, with and without damage,
+ * to the chests holding it with their slot count, and keeps the additional chests with free slots ordered emptiest
+ * first. Lookups therefore never scan every chest.
+ */
+final class WareHouseStockIndex
+{
+    /**
+     * Damage to look up an item regardless of its damage.
+     */
+    static final int ANY_DAMAGE = -1;
+
+    private static final Comparator<ChestStock> EMPTIEST_FIRST = Comparator.<ChestStock>comparingInt(chest -> -chest.freeSlots)
+                                                                   .thenComparingLong(chest -> chest.id);
+
+    private final Map<BlockPos, ChestStock>         chests          = new HashMap<>();
+    private final Map<Long, Map<BlockPos, Integer>> byItemAndDamage = new HashMap<>();
+    private final Map<Item, Map<BlockPos, Integer>> byItem          = new HashMap<>();
+    private final TreeSet<ChestStock>               withFreeSlots   = new TreeSet<>(EMPTIEST_FIRST);
+    private       long                              nextId;
+
+    /**
+     * Compare a chest with its indexed content and update the index where it changed.
+     *
+     * @param pos       the position of the chest.
+     * @param inventory the chest.
+     * @param isHut     true for the warehouse block itself, which never counts as the emptiest chest.
+     */
+    void update(@NotNull final BlockPos pos, @NotNull final IInventory inventory, final boolean isHut)
+    {
+        ChestStock chest = chests.get(pos);
+        if (chest == null || chest.items.length != inventory.getSizeInventory())
+        {
+            remove(pos);
+            chest = new ChestStock(nextId++, pos, inventory.getSizeInventory(), isHut);
+            chests.put(pos, chest);
+        }
+
+        withFreeSlots.remove(chest);
+        for (int slot = 0; slot < chest.items.length; slot++)
+        {
+            final ItemStack stack = inventory.getStackInSlot(slot);
+            final Item item = stack == null || stack.stackSize <= 0 ? null : stack.getItem();
+            final int damage = item == null ? 0 : stack.getItemDamage();
+            if (item == chest.items[slot] && damage == chest.damages[slot])
+            {
+                continue;
+            }
+
+            if (chest.items[slot] == null)
+            {
+                chest.freeSlots--;
+            }
+            else
+            {
+                count(chest.items[slot], chest.damages[slot], pos, -1);
+            }
+
+            chest.items[slot] = item;
+            chest.damages[slot] = damage;
+
+            if (item == null)
+            {
+                chest.freeSlots++;
+            }
+            else
+            {
+                count(item, damage, pos, 1);
+            }
+        }
+
+        if (!chest.isHut && chest.freeSlots > 0)
+        {
+            withFreeSlots.add(chest);
+        }
+    }
+
+    private void count(@NotNull final Item item, final int damage, @NotNull final BlockPos pos, final int difference)
+    {
+        count(byItemAndDamage, key(item, damage), pos, difference);
+        count(byItem, item, pos, difference);
+    }
+
+    private static <K> void count(@NotNull final Map<K, Map<BlockPos, Integer>> index, @NotNull final K key, @NotNull final BlockPos pos, final int difference)
+    {
+        final Map<BlockPos, Integer> slots = index.computeIfAbsent(key, k -> new HashMap<>());
+        final int count = slots.getOrDefault(pos, 0) + difference;
+        if (count > 0)
+        {
+            slots.put(pos, count);
+        }
+        else
+        {
+            slots.remove(pos);
+            if (slots.isEmpty())
+            {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Drop a chest from the index.
+     *
+     * @param pos the position of the chest.
+     */
+    void remove(@NotNull final BlockPos pos)
+    {
+        final ChestStock chest = chests.remove(pos);
+        if (chest == null)
+        {
+            return;
+        }
+
+        withFreeSlots.remove(chest);
+        for (int slot = 0; slot < chest.items.length; slot++)
+        {
+            if (chest.items[slot] != null)
+            {
+                count(chest.items[slot], chest.damages[slot], pos, -1);
+            }
+        }
+    }
+
+    /**
+     * Drop all chests which are not in the given collection.
+     *
+     * @param positions the positions of the chests to keep.
+     */
+    void retain(@NotNull final Collection<BlockPos> positions)
+    {
+        for (final BlockPos pos : new ArrayList<>(chests.keySet()))
+        {
+            if (!positions.contains(pos))
+            {
+                remove(pos);
+            }
+        }
+    }
+
+    /**
+     * Get the chests holding an item.
+     *
+     * @param item   the item.
+     * @param damage its damage, or {@link #ANY_DAMAGE}.
+     * @return the positions of the chests, possibly empty.
+     */
+    @NotNull
+    Set<BlockPos> getChestsWith(@NotNull final Item item, final int damage)
+    {
+        final Map<BlockPos, Integer> slots = damage == ANY_DAMAGE ? byItem.get(item) : byItemAndDamage.get(key(item, damage));
+        return slots == null ? Collections.emptySet() : slots.keySet();
+    }
+
+    /**
+     * Check if a chest holds an item.
+     *
+     * @param pos    the position of the chest.
+     * @param item   the item.
+     * @param damage its damage, or {@link #ANY_DAMAGE}.
+     * @return true if so.
+     */
+    boolean hasItem(@NotNull final BlockPos pos, @NotNull final Item item, final int damage)
+    {
+        return getChestsWith(item, damage).contains(pos);
+    }
+
+    /**
+     * Check if a chest has a free slot.
+     *
+     * @param pos the position of the chest.
+     * @return true if so.
+     */
+    boolean hasFreeSlot(@NotNull final BlockPos pos)
+    {
+        final ChestStock chest = chests.get(pos);
+        return chest != null && chest.freeSlots > 0;
+    }
+
+    /**
+     * Get the chest with the most free slots, leaving out the warehouse block itself.
+     *
+     * @return its position, or null if all chests are full.
+     */
+    @Nullable
+    BlockPos getEmptiestChest()
+    {
+        return withFreeSlots.isEmpty() ? null : withFreeSlots.first().pos;
+    }
+
+    /**
+     * Check if a chest is indexed.
+     *
+     * @param pos the position of the chest.
+     * @return true if so.
+     */
+    boolean contains(@NotNull final BlockPos pos)
+    {
+        return chests.containsKey(pos);
+    }
+
+    private static long key(@NotNull final Item item, final int damage)
+    {
+        return ((long) Item.getIdFromItem(item) << Integer.SIZE) | (damage & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The indexed content of one chest.
+     */
+    private static final class ChestStock
+    {
+        private final long     id;
+        private final BlockPos pos;
+        private final boolean  isHut;
+        private final Item[]   items;
+        private final int[]    damages;
+        private       int      freeSlots;
+
+        private ChestStock(final long id, final BlockPos pos, final int size, final boolean isHut)
+        {
+            this.id = id;
+            this.pos = pos;
+            this.isHut = isHut;
+            this.items = new Item[size];
+            this.damages = new int[size];
+            this.freeSlots = size;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.minecolonies.coremod.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.items.IItemHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Queries over item handlers without copying their content.
+ * <p>
+ * Every query walks the slots once, skips empty stacks before testing them and stops as soon as the answer is known.
+ * Items with a damage value are matched by an {@link ItemMatcher} instead of a capturing lambda, which also lets
+ * {@link #countAll(List, List)} count many items in a single pass by looking the matchers up by item.
+ */
+public final class InventoryQuery
+{
+    /**
+     * Damage value matching any damage.
+     */
+    public static final int ANY_DAMAGE = -1;
+
+    /**
+     * Private constructor to hide the implicit one.
+     */
+    private InventoryQuery()
+    {
+        /*
+         * Intentionally left empty.
+         */
+    }
+
+    /**
+     * Get a matcher for an item.
+     *
+     * @param item   the item.
+     * @param damage the damage value, or {@link #ANY_DAMAGE}.
+     * @return the matcher.
+     */
+    @NotNull
+    public static ItemMatcher matching(@Nullable final Item item, final int damage)
+    {
+        return new ItemMatcher(item, damage);
+    }
+
+    /**
+     * Count the items matching a predicate.
+     *
+     * @param itemHandler the handler to scan.
+     * @param predicate   the predicate to test non empty stacks with.
+     * @return the sum of the stack sizes.
+     */
+    public static int count(@NotNull final IItemHandler itemHandler, @NotNull final Predicate<ItemStack> predicate)
+    {
+        int count = 0;
+        final int size = itemHandler.getSlots();
+        for (int slot = 0; slot < size; slot++)
+        {
+            final ItemStack stack = itemHandler.getStackInSlot(slot);
+            if (!InventoryUtils.isItemStackEmpty(stack) && predicate.test(stack))
+            {
+                count += stack.stackSize;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check if any stack matches a predicate, stopping at the first one.
+     *
+     * @param itemHandler the handler to scan.
+     * @param predicate   the predicate to test non empty stacks with.
+     * @return true if one matches.
+     */
+    public static boolean contains(@NotNull final IItemHandler itemHandler, @NotNull final Predicate<ItemStack> predicate)
+    {
+        return findFirstSlot(itemHandler, predicate) != -1;
+    }
+
+    /**
+     * Find the first non empty stack matching a predicate.
+     *
+     * @param itemHandler the handler to scan.
+     * @param predicate   the predicate to test non empty stacks with.
+     * @return the slot or -1.
+     */
+    public static int findFirstSlot(@NotNull final IItemHandler itemHandler, @NotNull final Predicate<ItemStack> predicate)
+    {
+        final int size = itemHandler.getSlots();
+        for (int slot = 0; slot < size; slot++)
+        {
+            final ItemStack stack = itemHandler.getStackInSlot(slot);
+            if (!InventoryUtils.isItemStackEmpty(stack) && predicate.test(stack))
+            {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Count the non empty stacks.
+     *
+     * @param itemHandler the handler to scan.
+     * @return the number of stacks.
+     */
+    public static int countStacks(@NotNull final IItemHandler itemHandler)
+    {
+        int count = 0;
+        final int size = itemHandler.getSlots();
+        for (int slot = 0; slot < size; slot++)
+        {
+            if (!InventoryUtils.isItemStackEmpty(itemHandler.getStackInSlot(slot)))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the items matching a predicate in all handlers of a provider.
+     *
+     * @param provider  the provider to scan.
+     * @param predicate the predicate to test non empty stacks with.
+     * @return the sum of the stack sizes.
+     */
+    public static int count(@NotNull final ICapabilityProvider provider, @NotNull final Predicate<ItemStack> predicate)
+    {
+        int count = 0;
+        for (final IItemHandler handler : InventoryUtils.getItemHandlersFromProvider(provider))
+        {
+            count += count(handler, predicate);
+        }
+        return count;
+    }
+
+    /**
+     * Check if any stack in the handlers of a provider matches a predicate, stopping at the first one.
+     *
+     * @param provider  the provider to scan.
+     * @param predicate the predicate to test non empty stacks with.
+     * @return true if one matches.
+     */
+    public static boolean contains(@NotNull final ICapabilityProvider provider, @NotNull final Predicate<ItemStack> predicate)
+    {
+        for (final IItemHandler handler : InventoryUtils.getItemHandlersFromProvider(provider))
+        {
+            if (contains(handler, predicate))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the non empty stacks in all handlers of a provider.
+     *
+     * @param provider the provider to scan.
+     * @return the number of stacks.
+     */
+    public static int countStacks(@NotNull final ICapabilityProvider provider)
+    {
+        int count = 0;
+        for (final IItemHandler handler : InventoryUtils.getItemHandlersFromProvider(provider))
+        {
+            count += countStacks(handler);
+        }
+        return count;
+    }
+
+    /**
+     * Run an action on the first stack matching a predicate in a list of providers, like the chests of a hut.
+     *
+     * @param providers the providers in the order to search them.
+     * @param predicate the predicate to test non empty stacks with.
+     * @param action    the action to run with the provider and slot of the match.
+     * @return true if a stack matched.
+     */
+    public static boolean matchFirst(
+                                      @NotNull final List<? extends ICapabilityProvider> providers,
+                                      @NotNull final Predicate<ItemStack> predicate,
+                                      @NotNull final InventoryFunctions.IMatchActionResult action)
+    {
+        for (final ICapabilityProvider provider : providers)
+        {
+            for (final IItemHandler handler : InventoryUtils.getItemHandlersFromProvider(provider))
+            {
+                final int slot = findFirstSlot(handler, predicate);
+                if (slot != -1)
+                {
+                    action.accept(provider, slot);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count several items across several handlers in one pass.
+     *
+     * @param itemHandlers the handlers to scan.
+     * @param matchers     the items to count.
+     * @return the counts, at the index of their matcher.
+     */
+    @NotNull
+    public static int[] countAll(@NotNull final List<? extends IItemHandler> itemHandlers, @NotNull final List<ItemMatcher> matchers)
+    {
+        final int[] counts = new int[matchers.size()];
+        final Map<Item, int[]> matchersByItem = new HashMap<>();
+        for (int i = 0; i < matchers.size(); i++)
+        {
+            final int[] previous = matchersByItem.get(matchers.get(i).item);
+            final int[] indices = previous == null ? new int[1] : Arrays.copyOf(previous, previous.length + 1);
+            indices[indices.length - 1] = i;
+            matchersByItem.put(matchers.get(i).item, indices);
+        }
+
+        for (final IItemHandler handler : itemHandlers)
+        {
+            final int size = handler.getSlots();
+            for (int slot = 0; slot < size; slot++)
+            {
+                final ItemStack stack = handler.getStackInSlot(slot);
+                if (InventoryUtils.isItemStackEmpty(stack))
+                {
+                    continue;
+                }
+
+                final int[] indices = matchersByItem.get(stack.getItem());
+                if (indices == null)
+                {
+                    continue;
+                }
+
+                for (final int index : indices)
+                {
+                    if (matchers.get(index).matchesDamage(stack))
+                    {
+                        counts[index] += stack.stackSize;
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Matches stacks of one item, with a certain or any damage value.
+     */
+    public static final class ItemMatcher implements Predicate<ItemStack>
+    {
+        @Nullable
+        private final Item item;
+        private final int  damage;
+
+        private ItemMatcher(@Nullable final Item item, final int damage)
+        {
+            this.item = item;
+            this.damage = damage;
+        }
+
+        @Override
+        public boolean test(@Nullable final ItemStack stack)
+        {
+            return !InventoryUtils.isItemStackEmpty(stack) && stack.getItem() == item && matchesDamage(stack);
+        }
+
+        private boolean matchesDamage(@NotNull final ItemStack stack)
+        {
+            return damage == ANY_DAMAGE || stack.getItemDamage() == damage;
+        }
+    }
+}
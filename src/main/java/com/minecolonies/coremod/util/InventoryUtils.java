@@ -18,7 +18,6 @@ import org.jetbrains.annotations.Nullable;
 import javax.annotation.Nonnull;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static net.minecraftforge.items.CapabilityItemHandler.ITEM_HANDLER_CAPABILITY;
@@ -68,7 +67,7 @@ public class InventoryUtils
     }
 
     /**
-     * Filters a list of items, matches the stack using {@link #compareItems(ItemStack, Item, int)}, in an {@link IItemHandler}.
+     * Filters a list of items, matches the stack using {@link InventoryQuery#matching(Item, int)}, in an {@link IItemHandler}.
      * Uses the MetaData and {@link #getItemFromBlock(Block)} as parameters for the Predicate.
      *
      * @param itemHandler Inventory to filter in
@@ -79,11 +78,11 @@ public class InventoryUtils
     @NotNull
     public static List<ItemStack> filterItemHandler(@NotNull final IItemHandler itemHandler, @Nonnull final Block block, int metaData)
     {
-        return filterItemHandler(itemHandler, (ItemStack stack) -> compareItems(stack, getItemFromBlock(block), metaData));
+        return filterItemHandler(itemHandler, InventoryQuery.matching(getItemFromBlock(block), metaData));
     }
 
     /**
-     * Filters a list of items, matches the stack using {@link #compareItems(ItemStack, Item, int)}, with targetItem and itemDamage as parameters, in an {@link IItemHandler}.
+     * Filters a list of items, matches the stack using {@link InventoryQuery#matching(Item, int)}, with targetItem and itemDamage as parameters, in an {@link IItemHandler}.
      *
      * @param itemHandler Inventory to get items from
      * @param targetItem  Item to look for
@@ -93,7 +92,7 @@ public class InventoryUtils
     @NotNull
     public static List<ItemStack> filterItemHandler(@NotNull final IItemHandler itemHandler, @Nonnull final Item targetItem, int itemDamage)
     {
-        return filterItemHandler(itemHandler, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return filterItemHandler(itemHandler, InventoryQuery.matching(targetItem, itemDamage));
     }
     
     /**
@@ -142,7 +141,7 @@ public class InventoryUtils
      */
     public static int findFirstSlotInItemHandlerWith(@NotNull final IItemHandler itemHandler, @NotNull final Item targetItem, int itemDamage)
     {
-        return findFirstSlotInItemHandlerWith(itemHandler, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return findFirstSlotInItemHandlerWith(itemHandler, InventoryQuery.matching(targetItem, itemDamage));
     }
 
     /**
@@ -190,7 +189,7 @@ public class InventoryUtils
      */
     public static int getItemCountInItemHandler(@NotNull final IItemHandler itemHandler, @NotNull final Item targetItem, int itemDamage)
     {
-        return getItemCountInItemHandler(itemHandler, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return getItemCountInItemHandler(itemHandler, InventoryQuery.matching(targetItem, itemDamage));
     }
 
 
@@ -203,7 +202,7 @@ public class InventoryUtils
      */
     public static int getItemCountInItemHandler(@NotNull final IItemHandler itemHandler, @NotNull final Predicate<ItemStack> itemStackSelectionPredicate)
     {
-        return filterItemHandler(itemHandler, itemStackSelectionPredicate).stream().mapToInt(InventoryUtils::getItemStackSize).sum();
+        return InventoryQuery.count(itemHandler, itemStackSelectionPredicate);
     }
 
 
@@ -232,7 +231,7 @@ public class InventoryUtils
      */
     public static boolean hasItemInItemHandler(@NotNull final IItemHandler itemHandler, @NotNull final Item item, int itemDamage)
     {
-        return hasItemInItemHandler(itemHandler, (ItemStack stack) -> compareItems(stack, item, itemDamage));
+        return hasItemInItemHandler(itemHandler, InventoryQuery.matching(item, itemDamage));
     }
 
     /**
@@ -245,7 +244,7 @@ public class InventoryUtils
      */
     public static boolean hasItemInItemHandler(@NotNull final IItemHandler itemHandler, @NotNull final Predicate<ItemStack> itemStackSelectionPredicate)
     {
-        return getItemCountInItemHandler(itemHandler, itemStackSelectionPredicate) > 0;
+        return InventoryQuery.contains(itemHandler, itemStackSelectionPredicate);
     }
 
     /**
@@ -509,7 +508,7 @@ public class InventoryUtils
      */
     public static int getAmountOfStacksInItemHandler(@NotNull final IItemHandler itemHandler)
     {
-        return getItemHandlerAsList(itemHandler).size();
+        return InventoryQuery.countStacks(itemHandler);
     }
 
     /*
@@ -537,7 +536,7 @@ public class InventoryUtils
     }
     
     /**
-     * Filters a list of items, matches the stack using {@link #compareItems(ItemStack, Item, int)}, in an {@link ICapabilityProvider}.
+     * Filters a list of items, matches the stack using {@link InventoryQuery#matching(Item, int)}, in an {@link ICapabilityProvider}.
      * Uses the MetaData and {@link #getItemFromBlock(Block)} as parameters for the Predicate.
      *
      * @param provider Provider to filter in
@@ -548,11 +547,11 @@ public class InventoryUtils
     @NotNull
     public static List<ItemStack> filterProvider(@NotNull final ICapabilityProvider provider, final Block block, int metaData)
     {
-        return filterProvider(provider, (ItemStack stack) -> compareItems(stack, getItemFromBlock(block), metaData));
+        return filterProvider(provider, InventoryQuery.matching(getItemFromBlock(block), metaData));
     }
 
     /**
-     * Filters a list of items, matches the stack using {@link #compareItems(ItemStack, Item, int)}, with targetItem and itemDamage as parameters, in an {@link
+     * Filters a list of items, matches the stack using {@link InventoryQuery#matching(Item, int)}, with targetItem and itemDamage as parameters, in an {@link
      * ICapabilityProvider}.
      *
      * @param provider   Provider to get items from
@@ -563,7 +562,7 @@ public class InventoryUtils
     @NotNull
     public static List<ItemStack> filterProvider(@NotNull final ICapabilityProvider provider, @Nullable final Item targetItem, int itemDamage)
     {
-        return filterProvider(provider, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return filterProvider(provider, InventoryQuery.matching(targetItem, itemDamage));
     }
 
     
@@ -603,7 +602,7 @@ public class InventoryUtils
      */
     public static int findFirstSlotInProviderWith(@NotNull final ICapabilityProvider provider, final Item targetItem, int itemDamage)
     {
-        return findFirstSlotInProviderWith(provider, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return findFirstSlotInProviderWith(provider, InventoryQuery.matching(targetItem, itemDamage));
     }
 
 
@@ -654,7 +653,7 @@ public class InventoryUtils
      */
     public static int getItemCountInProvider(@NotNull final ICapabilityProvider provider, @NotNull final Item targetItem, int itemDamage)
     {
-        return getItemCountInProvider(provider, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return getItemCountInProvider(provider, InventoryQuery.matching(targetItem, itemDamage));
     }
 
 
@@ -667,9 +666,7 @@ public class InventoryUtils
      */
     public static int getItemCountInProvider(@NotNull final ICapabilityProvider provider, @NotNull final Predicate<ItemStack> itemStackSelectionPredicate)
     {
-        return getItemHandlersFromProvider(provider).stream()
-                .mapToInt(handler -> filterItemHandler(handler, itemStackSelectionPredicate).stream().mapToInt(InventoryUtils::getItemStackSize).sum())
-                    .sum();
+        return InventoryQuery.count(provider, itemStackSelectionPredicate);
     }
 
 
@@ -698,7 +695,7 @@ public class InventoryUtils
      */
     public static boolean hasItemInProvider(@NotNull final ICapabilityProvider Provider, @NotNull final Item item, int itemDamage)
     {
-        return hasItemInProvider(Provider, (ItemStack stack) -> compareItems(stack, item, itemDamage));
+        return hasItemInProvider(Provider, InventoryQuery.matching(item, itemDamage));
     }
 
     /**
@@ -711,7 +708,7 @@ public class InventoryUtils
      */
     public static boolean hasItemInProvider(@NotNull final ICapabilityProvider Provider, @NotNull final Predicate<ItemStack> itemStackSelectionPredicate)
     {
-        return getItemCountInProvider(Provider, itemStackSelectionPredicate) > 0;
+        return InventoryQuery.contains(Provider, itemStackSelectionPredicate);
     }
 
     /**
@@ -899,7 +896,7 @@ public class InventoryUtils
      */
     public static int getAmountOfStacksInProvider(@NotNull final ICapabilityProvider provider)
     {
-        return getProviderAsList(provider).size();
+        return InventoryQuery.countStacks(provider);
     }
 
 
@@ -938,11 +935,18 @@ public class InventoryUtils
     @NotNull
     public static List<IItemHandler> getItemHandlersFromProvider(@NotNull ICapabilityProvider provider)
     {
-        final ArrayList<IItemHandler> handlerList = Arrays.stream(EnumFacing.VALUES)
-                                                      .filter(facing -> provider.hasCapability(ITEM_HANDLER_CAPABILITY, facing))
-                                                      .map(facing -> provider.getCapability(ITEM_HANDLER_CAPABILITY, facing))
-                                                      .distinct()
-                                                      .collect(Collectors.toCollection(ArrayList::new));
+        final ArrayList<IItemHandler> handlerList = new ArrayList<>(1);
+        for (final EnumFacing facing : EnumFacing.VALUES)
+        {
+            if (provider.hasCapability(ITEM_HANDLER_CAPABILITY, facing))
+            {
+                final IItemHandler handler = provider.getCapability(ITEM_HANDLER_CAPABILITY, facing);
+                if (!handlerList.contains(handler))
+                {
+                    handlerList.add(handler);
+                }
+            }
+        }
 
         if (provider.hasCapability(ITEM_HANDLER_CAPABILITY, null))
         {
@@ -1007,7 +1011,7 @@ public class InventoryUtils
     }
 
     /**
-     * Filters a list of items, matches the stack using {@link #compareItems(ItemStack, Item, int)}, in an {@link IItemHandler}.
+     * Filters a list of items, matches the stack using {@link InventoryQuery#matching(Item, int)}, in an {@link IItemHandler}.
      * Uses the MetaData and {@link #getItemFromBlock(Block)} as parameters for the Predicate.
      *
      * @param provider The {@link ICapabilityProvider} that holds the {@link IItemHandler} for the given {@link EnumFacing}
@@ -1019,11 +1023,11 @@ public class InventoryUtils
     @NotNull
     public static List<ItemStack> filterItemHandlerFromProviderForSide(@NotNull final ICapabilityProvider provider, @Nullable EnumFacing facing, @NotNull final Block block, int metaData)
     {
-        return filterItemHandler(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), (ItemStack stack) -> compareItems(stack, getItemFromBlock(block), metaData));
+        return filterItemHandler(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), InventoryQuery.matching(getItemFromBlock(block), metaData));
     }
 
     /**
-     * Filters a list of items, matches the stack using {@link #compareItems(ItemStack, Item, int)}, with targetItem and itemDamage as parameters, in an {@link IItemHandler}.
+     * Filters a list of items, matches the stack using {@link InventoryQuery#matching(Item, int)}, with targetItem and itemDamage as parameters, in an {@link IItemHandler}.
      *
      * @param provider   The {@link ICapabilityProvider} that holds the {@link IItemHandler} for the given {@link EnumFacing}
      * @param facing     The facing to get the {@link IItemHandler} from. Can be null for the internal one {@link ICapabilityProvider#hasCapability(Capability, EnumFacing)}
@@ -1038,7 +1042,7 @@ public class InventoryUtils
                                                                         @NotNull final Item targetItem,
                                                                         int itemDamage)
     {
-        return filterItemHandler(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return filterItemHandler(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), InventoryQuery.matching(targetItem, itemDamage));
     }
 
     /**
@@ -1091,7 +1095,7 @@ public class InventoryUtils
      */
     public static int findFirstSlotInProviderForSideWith(@NotNull final ICapabilityProvider provider, @Nullable EnumFacing facing, @NotNull final Item targetItem, int itemDamage)
     {
-        return findFirstSlotInProviderForSideWith(provider, facing, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return findFirstSlotInProviderForSideWith(provider, facing, InventoryQuery.matching(targetItem, itemDamage));
     }
 
     /**
@@ -1139,7 +1143,7 @@ public class InventoryUtils
      */
     public static int getItemCountInProviderForSide(@NotNull final ICapabilityProvider provider, @Nullable EnumFacing facing, @NotNull final Item targetItem, int itemDamage)
     {
-        return getItemCountInProviderForSide(provider, facing, (ItemStack stack) -> compareItems(stack, targetItem, itemDamage));
+        return getItemCountInProviderForSide(provider, facing, InventoryQuery.matching(targetItem, itemDamage));
     }
 
 
@@ -1157,7 +1161,7 @@ public class InventoryUtils
             return 0;
         }
 
-        return filterItemHandler(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), itemStackSelectionPredicate).stream().mapToInt(InventoryUtils::getItemStackSize).sum();
+        return InventoryQuery.count(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), itemStackSelectionPredicate);
     }
 
     /**
@@ -1187,7 +1191,7 @@ public class InventoryUtils
      */
     public static boolean hasItemInProviderForSide(@NotNull final ICapabilityProvider provider, @Nullable EnumFacing facing, @NotNull final Item item, int itemDamage)
     {
-        return hasItemInProviderForSide(provider, facing, (ItemStack stack) -> compareItems(stack, item, itemDamage));
+        return hasItemInProviderForSide(provider, facing, InventoryQuery.matching(item, itemDamage));
     }
 
     /**
@@ -1205,7 +1209,7 @@ public class InventoryUtils
             return false;
         }
             
-        return getItemCountInItemHandler(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), itemStackSelectionPredicate) > 0;
+        return InventoryQuery.contains(provider.getCapability(ITEM_HANDLER_CAPABILITY, facing), itemStackSelectionPredicate);
     }
 
     /**
@@ -1318,19 +1322,6 @@ public class InventoryUtils
     ############################################################END: ICapabilityProvider (Sided) Interaction###########################################################
      */
 
-    /**
-     * Compares whether or not the item in an itemstack is equal to a given item.
-     *
-     * @param itemStack  ItemStack to check.
-     * @param targetItem Item to check.
-     * @param itemDamage the item damage value.
-     * @return True when item in item stack is equal to target item.
-     */
-    private static boolean compareItems(@Nullable final ItemStack itemStack, final Item targetItem, int itemDamage)
-    {
-        return !isItemStackEmpty(itemStack) && itemStack.getItem() == targetItem && (itemStack.getItemDamage() == itemDamage || itemDamage == -1);
-    }
-
     /**
      * Converts a Block to its Item so it can be compared.
      *
@@ -283,7 +283,7 @@ public final class StructureWrapper
      */
     public boolean doesStructureBlockEqualWorldBlock()
     {
-        final IBlockState structureBlockState = structure.getBlockState(this.getLocalPosition());
+        final IBlockState structureBlockState = structure.getBlockState(this.progressPos);
         final Block structureBlock = structureBlockState.getBlock();
 
         //All worldBlocks are equal the substitution block
@@ -307,7 +307,7 @@ public final class StructureWrapper
             return true;
         }
 
-        final Template.EntityInfo entityInfo = structure.getEntityinfo(this.getLocalPosition());
+        final Template.EntityInfo entityInfo = structure.getEntityinfo(this.progressPos);
         if(entityInfo != null)
         {
             return false;
@@ -0,0 +1,198 @@
+package com.minecolonies.structures.helpers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable box of values stored as a palette of the distinct values plus one packed palette index per position.
+ * <p>
+ * A structure uses a few dozen distinct block states for thousands of positions, so instead of one reference per
+ * position it stores each state once and packs the indices into longs with as few bits as the palette needs. Positions
+ * are ordered x first, then z, then y, the order the builder walks them in. Null is a valid value and always has
+ * index 0.
+ *
+ * @param <T> the type of the values.
+ */
+public final class PalettedVolume<T>
+{
+    private static final int BITS_PER_LONG = Long.SIZE;
+
+    private final int     width;
+    private final int     height;
+    private final int     length;
+    private final List<T> palette;
+    private final int     bitsPerEntry;
+    private final int     entriesPerLong;
+    private final long    mask;
+    private final long[]  data;
+
+    /**
+     * Pack the values of a box.
+     *
+     * @param width  the size along x.
+     * @param height the size along y.
+     * @param length the size along z.
+     * @param values the values in the order of {@link #index(int, int, int)}.
+     */
+    public PalettedVolume(final int width, final int height, final int length, @NotNull final T[] values)
+    {
+        if (values.length != width * height * length)
+        {
+            throw new IllegalArgumentException(String.format("%d values for a box of %d %d %d", values.length, width, height, length));
+        }
+
+        this.width = width;
+        this.height = height;
+        this.length = length;
+
+        final Map<T, Integer> indices = new HashMap<>();
+        final List<T> distinct = new ArrayList<>();
+        distinct.add(null);
+        final int[] unpacked = new int[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            if (values[i] != null)
+            {
+                Integer index = indices.get(values[i]);
+                if (index == null)
+                {
+                    index = distinct.size();
+                    indices.put(values[i], index);
+                    distinct.add(values[i]);
+                }
+                unpacked[i] = index;
+            }
+        }
+        this.palette = distinct;
+
+        this.bitsPerEntry = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(distinct.size() - 1));
+        this.entriesPerLong = BITS_PER_LONG / bitsPerEntry;
+        this.mask = (1L << bitsPerEntry) - 1;
+        this.data = new long[(values.length + entriesPerLong - 1) / entriesPerLong];
+        for (int i = 0; i < unpacked.length; i++)
+        {
+            data[i / entriesPerLong] |= (long) unpacked[i] << ((i % entriesPerLong) * bitsPerEntry);
+        }
+    }
+
+    /**
+     * Get the index of a position in the value order.
+     *
+     * @param x the x.
+     * @param y the y.
+     * @param z the z.
+     * @return the index.
+     * @throws IndexOutOfBoundsException if the position lies outside of the box.
+     */
+    public int index(final int x, final int y, final int z)
+    {
+        if (x < 0 || x >= width || y < 0 || y >= height || z < 0 || z >= length)
+        {
+            throw new IndexOutOfBoundsException(String.format("%d %d %d outside of %d %d %d", x, y, z, width, height, length));
+        }
+        return (y * length + z) * width + x;
+    }
+
+    /**
+     * Get the value at a position.
+     *
+     * @param x the x.
+     * @param y the y.
+     * @param z the z.
+     * @return the value.
+     * @throws IndexOutOfBoundsException if the position lies outside of the box.
+     */
+    @Nullable
+    public T get(final int x, final int y, final int z)
+    {
+        return palette.get(getPaletteIndex(index(x, y, z)));
+    }
+
+    /**
+     * Get the palette index stored for a position.
+     *
+     * @param index the index of the position.
+     * @return the palette index, 0 for null.
+     */
+    public int getPaletteIndex(final int index)
+    {
+        return (int) ((data[index / entriesPerLong] >>> ((index % entriesPerLong) * bitsPerEntry)) & mask);
+    }
+
+    /**
+     * Get a value of the palette.
+     *
+     * @param paletteIndex the palette index.
+     * @return the value.
+     */
+    @Nullable
+    public T getPaletteEntry(final int paletteIndex)
+    {
+        return palette.get(paletteIndex);
+    }
+
+    /**
+     * Get the number of distinct values, null included.
+     *
+     * @return the size of the palette.
+     */
+    public int getPaletteSize()
+    {
+        return palette.size();
+    }
+
+    /**
+     * Get the bits each position takes.
+     *
+     * @return the bits.
+     */
+    public int getBitsPerEntry()
+    {
+        return bitsPerEntry;
+    }
+
+    /**
+     * Get the size of the packed indices.
+     *
+     * @return the size in bytes.
+     */
+    public long getDataBytes()
+    {
+        return (long) data.length * Long.BYTES;
+    }
+
+    /**
+     * Getter of the width.
+     *
+     * @return the width.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Getter of the height.
+     *
+     * @return the height.
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Getter of the length.
+     *
+     * @return the length.
+     */
+    public int getLength()
+    {
+        return length;
+    }
+}
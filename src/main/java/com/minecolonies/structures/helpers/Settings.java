@@ -2,6 +2,7 @@ package com.minecolonies.structures.helpers;
 
 import com.minecolonies.coremod.blocks.AbstractBlockHut;
 import net.minecraft.util.Mirror;
+import net.minecraft.util.Rotation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.gen.structure.template.PlacementSettings;
 import net.minecraft.world.gen.structure.template.Template;
@@ -31,6 +32,14 @@ public final class Settings
     private             String                   style          = "";
     private             int                      level          = 0;
     private             boolean                  isPendingReset = false;
+    @Nullable
+    private             Structure                offsetStructure;
+    @Nullable
+    private             Rotation                 offsetRotation;
+    @Nullable
+    private             Mirror                   offsetMirror;
+    @Nullable
+    private             BlockPos                 hutOffset;
 
     private Settings()
     {
@@ -77,6 +86,10 @@ public final class Settings
         }
         else
         {
+            if (this.structure != null && this.structure != structure)
+            {
+                this.structure.releasePreview();
+            }
             this.structure = structure;
         }
     }
@@ -86,6 +99,10 @@ public final class Settings
      */
     public void reset()
     {
+        if (structure != null)
+        {
+            structure.releasePreview();
+        }
         structure = null;
         isPendingReset = false;
         offset.setPos(0, 0, 0);
@@ -192,18 +209,34 @@ public final class Settings
     @NotNull
     public BlockPos getOffset(final PlacementSettings settings)
     {
-        if (structure != null)
+        if (structure == null)
+        {
+            return new BlockPos(0, 0, 0);
+        }
+
+        //Asked for every frame, so only look for the hut when the structure or its placement changed.
+        if (structure != offsetStructure || settings.getRotation() != offsetRotation || settings.getMirror() != offsetMirror)
         {
+            offsetStructure = structure;
+            offsetRotation = settings.getRotation();
+            offsetMirror = settings.getMirror();
+            hutOffset = null;
             for (final Template.BlockInfo info : structure.getBlockInfoWithSettings(settings))
             {
                 if (info.blockState.getBlock() instanceof AbstractBlockHut)
                 {
-                    offset.setPos(info.pos);
-                    return info.pos;
+                    hutOffset = info.pos;
+                    break;
                 }
             }
         }
-        return new BlockPos(0, 0, 0);
+
+        if (hutOffset == null)
+        {
+            return new BlockPos(0, 0, 0);
+        }
+        offset.setPos(hutOffset);
+        return hutOffset;
     }
 
     /**
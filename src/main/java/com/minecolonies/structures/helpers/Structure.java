@@ -1,46 +1,28 @@
 package com.minecolonies.structures.helpers;
 
-import com.minecolonies.coremod.blocks.ModBlocks;
 import com.minecolonies.coremod.lib.Constants;
-import com.minecolonies.coremod.util.BlockUtils;
 import com.minecolonies.coremod.util.Log;
-import com.minecolonies.structures.fake.FakeEntity;
-import com.minecolonies.structures.fake.FakeWorld;
-import com.minecolonies.structures.lib.ModelHolder;
-import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.client.renderer.RenderHelper;
-import net.minecraft.client.renderer.Tessellator;
-import net.minecraft.client.renderer.VertexBuffer;
-import net.minecraft.client.renderer.block.model.BakedQuad;
-import net.minecraft.client.renderer.block.model.IBakedModel;
-import net.minecraft.client.renderer.texture.TextureMap;
-import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityList;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.*;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraft.world.gen.structure.template.PlacementSettings;
 import net.minecraft.world.gen.structure.template.Template;
-import net.minecraftforge.client.ForgeHooksClient;
-import net.minecraftforge.client.MinecraftForgeClient;
-import net.minecraftforge.client.model.pipeline.LightUtil;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
-import org.lwjgl.opengl.GL11;
 
 import javax.annotation.Nullable;
 import java.io.*;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -64,16 +46,16 @@ public class Structure
     private static final double ONE_HUNDED_EIGHTY_DEGREES = 270D;
 
     /**
-     * Used for scale.
+     * Template of the structure, shared through the {@link StructureCache}.
      */
-    private static final double SCALE                    = 1.001;
+    private Template          template;
+    private PlacementSettings settings;
 
     /**
-     * Template of the structure.
+     * The compiled ghost preview, client only.
      */
-    private Template          template;
-    private Minecraft         mc;
-    private PlacementSettings settings;
+    @Nullable
+    private StructurePreview preview;
 
     /**
      * Constuctor of Structure, tries to create a new structure.
@@ -84,14 +66,25 @@ public class Structure
      */
     public Structure(@Nullable final World world, final String structureName, final PlacementSettings settings)
     {
-        InputStream inputstream = MinecraftServer.class.getResourceAsStream("/assets/" + Constants.MOD_ID + "/schematics/" + structureName + ".nbt");
-
         if (world == null || world.isRemote)
         {
             this.settings = settings;
-            this.mc = Minecraft.getMinecraft();
         }
 
+        this.template = StructureCache.getTemplate(structureName);
+    }
+
+    /**
+     * Loads the template of a structure from the mod assets or the minecolonies folder.
+     *
+     * @param structureName name of the structure (at stored location).
+     * @return the template or null if it couldn't be loaded.
+     */
+    @Nullable
+    static Template loadTemplate(final String structureName)
+    {
+        InputStream inputstream = MinecraftServer.class.getResourceAsStream("/assets/" + Constants.MOD_ID + "/schematics/" + structureName + ".nbt");
+
         //Might be at a different location!
         if (inputstream == null)
         {
@@ -124,16 +117,17 @@ public class Structure
 
         if (inputstream == null)
         {
-            return;
+            return null;
         }
 
         try
         {
-            this.template = readTemplateFromStream(inputstream);
+            return readTemplateFromStream(inputstream);
         }
         catch (final IOException e)
         {
             Log.getLogger().warn(String.format("Failed to load template %s", structureName), e);
+            return null;
         }
         finally
         {
@@ -219,45 +213,23 @@ public class Structure
      */
     public void renderStructure(@NotNull final BlockPos startingPos, @NotNull final World clientWorld, @NotNull final EntityPlayer player, final float partialTicks)
     {
-        final Template.BlockInfo[] blockList = this.getBlockInfoWithSettings(this.settings);
-        final Entity[] entityList = this.getEntityInfoWithSettings(clientWorld, startingPos, this.settings);
-
-        for (final Template.BlockInfo aBlockList : blockList)
+        if (preview == null || !preview.matches(clientWorld, startingPos, this.settings))
         {
-            Block block = aBlockList.blockState.getBlock();
-            IBlockState iblockstate = aBlockList.blockState;
-
-            if(block == ModBlocks.blockSubstitution)
-            {
-                continue;
-            }
-
-            if(block == ModBlocks.blockSolidSubstitution)
-            {
-                iblockstate = BlockUtils.getSubstitutionBlockAtWorld(clientWorld, startingPos);
-                block = iblockstate.getBlock();
-            }
-
-            final BlockPos blockpos = aBlockList.pos.add(startingPos);
-            final IBlockState iBlockExtendedState = block.getExtendedState(iblockstate, clientWorld, blockpos);
-            final IBakedModel ibakedmodel = Minecraft.getMinecraft().getBlockRendererDispatcher().getModelForState(iblockstate);
-            TileEntity tileentity = null;
-            if (block.hasTileEntity(iblockstate) && aBlockList.tileentityData != null)
-            {
-                tileentity = block.createTileEntity(clientWorld, iblockstate);
-                tileentity.readFromNBT(aBlockList.tileentityData);
-            }
-            final ModelHolder models = new ModelHolder(blockpos, iblockstate, iBlockExtendedState, tileentity, ibakedmodel);
-            getQuads(models, models.quads);
-            this.renderGhost(clientWorld, models, player, partialTicks);
+            releasePreview();
+            preview = new StructurePreview(this, startingPos, this.settings, clientWorld);
         }
+        preview.render(player, partialTicks);
+    }
 
-        for (final Entity anEntityList : entityList)
+    /**
+     * Free the compiled preview, it is compiled again on the next render.
+     */
+    public void releasePreview()
+    {
+        if (preview != null)
         {
-            if(anEntityList != null)
-            {
-                Minecraft.getMinecraft().getRenderManager().renderEntityStatic(anEntityList, 0.0F, true);
-            }
+            preview.release();
+            preview = null;
         }
     }
 
@@ -370,84 +342,6 @@ public class Structure
         return entityList;
     }
 
-    private static void getQuads(final ModelHolder holder, final List<BakedQuad> quads)
-    {
-        if (holder.actualState.getRenderType() == EnumBlockRenderType.MODEL)
-        {
-            final BlockRenderLayer originalLayer = MinecraftForgeClient.getRenderLayer();
-
-            for (final BlockRenderLayer layer : BlockRenderLayer.values())
-            {
-                if (holder.actualState.getBlock().canRenderInLayer(holder.actualState, layer))
-                {
-                    ForgeHooksClient.setRenderLayer(layer);
-
-                    for (final EnumFacing facing : EnumFacing.values())
-                    {
-                        quads.addAll(holder.model.getQuads(holder.extendedState, facing, 0));
-                    }
-
-                    quads.addAll(holder.model.getQuads(holder.extendedState, null, 0));
-                }
-            }
-
-            ForgeHooksClient.setRenderLayer(originalLayer);
-        }
-    }
-
-    private void renderGhost(final World world, final ModelHolder holder, final EntityPlayer player, final float partialTicks)
-    {
-        final boolean existingModel = !this.mc.theWorld.isAirBlock(holder.pos);
-
-        final IBlockState actualState = holder.actualState;
-        final Block block = actualState.getBlock();
-
-        if (actualState.getRenderType() == EnumBlockRenderType.MODEL)
-        {
-            final BlockRenderLayer originalLayer = MinecraftForgeClient.getRenderLayer();
-
-            for (final BlockRenderLayer layer : BlockRenderLayer.values())
-            {
-                if (block.canRenderInLayer(actualState, layer))
-                {
-                    this.mc.getTextureManager().bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
-                    ForgeHooksClient.setRenderLayer(layer);
-                    this.renderGhostBlock(world, holder, player, layer, existingModel, partialTicks);
-                    holder.setRendered(true);
-                }
-            }
-
-            ForgeHooksClient.setRenderLayer(originalLayer);
-        }
-
-        if (holder.te != null && !holder.isRendered())
-        {
-            final TileEntity te = holder.te;
-            te.setPos(holder.pos);
-            final FakeWorld fakeWorld = new FakeWorld(holder.actualState, world.getSaveHandler(), world.getWorldInfo(), world.provider, world.theProfiler, true);
-            te.setWorldObj(fakeWorld);
-            final int pass = 0;
-
-            if (te.shouldRenderInPass(pass))
-            {
-                final TileEntityRendererDispatcher terd = TileEntityRendererDispatcher.instance;
-                terd.func_190056_a(fakeWorld,
-                        Minecraft.getMinecraft().renderEngine,
-                        Minecraft.getMinecraft().fontRendererObj,
-                        new FakeEntity(fakeWorld),
-                        null,
-                        0.0F);
-                GL11.glPushMatrix();
-                terd.renderEngine = Minecraft.getMinecraft().renderEngine;
-                terd.preDrawBatch();
-                GL11.glColor4f(1F, 1F, 1F, 1F);
-                terd.renderTileEntity(te, partialTicks, -1);
-                terd.drawBatch(pass);
-                GL11.glPopMatrix();
-            }
-        }
-    }
-
     /**
      * Transform a Vec3d with placement settings.
      *
@@ -489,91 +383,6 @@ public class Structure
         }
     }
 
-    private void renderGhostBlock(
-            final World world,
-            final ModelHolder holder,
-            final EntityPlayer player,
-            final BlockRenderLayer layer,
-            final boolean existingModel,
-            final float partialTicks)
-    {
-        final double dx = player.lastTickPosX + (player.posX - player.lastTickPosX) * partialTicks;
-        final double dy = player.lastTickPosY + (player.posY - player.lastTickPosY) * partialTicks;
-        final double dz = player.lastTickPosZ + (player.posZ - player.lastTickPosZ) * partialTicks;
-        final BlockPos pos = holder.pos;
-
-        GlStateManager.pushMatrix();
-        GlStateManager.translate(pos.getX() - dx, pos.getY() - dy, pos.getZ() - dz);
-
-        if (existingModel)
-        {
-            GlStateManager.scale(SCALE, SCALE, SCALE);
-        }
-
-        RenderHelper.disableStandardItemLighting();
-
-        if (layer == BlockRenderLayer.CUTOUT)
-        {
-            this.mc.getTextureManager().getTexture(TextureMap.LOCATION_BLOCKS_TEXTURE).setBlurMipmap(false, false);
-        }
-
-        GlStateManager.color(1F, 1F, 1F, 1F);
-
-        final int alpha = ((int) (1.0D * 0xFF)) << 24;
-
-        GlStateManager.enableBlend();
-        GlStateManager.enableTexture2D();
-
-        GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-        GlStateManager.colorMask(false, false, false, false);
-        this.renderModel(world, holder, pos, alpha);
-
-        GlStateManager.colorMask(true, true, true, true);
-        GlStateManager.depthFunc(GL11.GL_LEQUAL);
-        this.renderModel(world, holder, pos, alpha);
-
-        GlStateManager.disableBlend();
-
-        if (layer == BlockRenderLayer.CUTOUT)
-        {
-            this.mc.getTextureManager().getTexture(TextureMap.LOCATION_BLOCKS_TEXTURE).restoreLastBlurMipmap();
-        }
-
-        GlStateManager.popMatrix();
-    }
-
-    private void renderModel(final World world, final ModelHolder holder, final BlockPos pos, final int alpha)
-    {
-        for (final EnumFacing facing : EnumFacing.values())
-        {
-            this.renderQuads(world, holder.actualState, pos, holder.model.getQuads(holder.extendedState, facing, 0), alpha);
-        }
-
-        this.renderQuads(world, holder.actualState, pos, holder.model.getQuads(holder.extendedState, null, 0), alpha);
-    }
-
-    private void renderQuads(final World world, final IBlockState actualState, final BlockPos pos, final List<BakedQuad> quads, final int alpha)
-    {
-        final Tessellator tessellator = Tessellator.getInstance();
-        final VertexBuffer buffer = tessellator.getBuffer();
-
-        for (final BakedQuad quad : quads)
-        {
-            buffer.begin(GL11.GL_QUADS, quad.getFormat());
-
-            final int color = quad.hasTintIndex() ? this.getTint(world, actualState, pos, alpha, quad.getTintIndex()) : (alpha | 0xffffff);
-
-            LightUtil.renderQuadColor(buffer, quad, color);
-
-            tessellator.draw();
-        }
-    }
-
-    private int getTint(final World world, final IBlockState actualState, final BlockPos pos, final int alpha, final int tintIndex)
-    {
-        return alpha | this.mc.getBlockColors().colorMultiplier(actualState, world, pos, tintIndex);
-    }
-
     /**
      * Get all additional entities.
      *
@@ -581,7 +390,7 @@ public class Structure
      */
     public List<Template.EntityInfo> getTileEntities()
     {
-        return template.entities;
+        return Collections.unmodifiableList(template.entities);
     }
 
     /**
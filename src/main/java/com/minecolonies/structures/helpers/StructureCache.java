@@ -0,0 +1,341 @@
+package com.minecolonies.structures.helpers;
+
+import com.minecolonies.coremod.blocks.AbstractBlockHut;
+import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.util.Log;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.Mirror;
+import net.minecraft.util.Rotation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.gen.structure.template.PlacementSettings;
+import net.minecraft.world.gen.structure.template.Template;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide cache of the loaded structure templates and their rotated block arrays.
+ * <p>
+ * Reading a schematic means gunzipping and parsing its nbt, and rotating it means transforming every block, which
+ * every builder, miner and the build tool did again for each structure they opened. The cache keeps the last used
+ * templates by name and their rotated blocks by name, rotation and mirror, up to {@link
+ * Configurations#structureCacheSize} entries each. Both are shared between all users and the client and server thread
+ * and must not be changed. Missing templates are not cached so they are found once they are added.
+ */
+public final class StructureCache
+{
+    private static final Map<String, Template>      TEMPLATES = new LruMap<>();
+    private static final Map<String, RotatedBlocks> ROTATED   = new LruMap<>();
+
+    private static long hits;
+    private static long misses;
+
+    private StructureCache()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Get the template of a structure, loading it on the first request.
+     *
+     * @param structureName name of the structure.
+     * @return the shared template or null if none could be loaded.
+     */
+    @Nullable
+    public static synchronized Template getTemplate(@NotNull final String structureName)
+    {
+        final Template cached = TEMPLATES.get(structureName);
+        if (cached != null)
+        {
+            hits++;
+            return cached;
+        }
+
+        misses++;
+        Log.getLogger().debug(String.format("Loading structure %s, cache hits %d, misses %d", structureName, hits, misses));
+        final Template template = Structure.loadTemplate(structureName);
+        if (template != null)
+        {
+            TEMPLATES.put(structureName, template);
+        }
+        return template;
+    }
+
+    /**
+     * Get the blocks of a structure rotated and mirrored, transforming them on the first request.
+     *
+     * @param structureName name of the structure.
+     * @param structure     the structure to transform.
+     * @param times         times rotated clockwise.
+     * @param mirror        the mirror.
+     * @return the shared blocks.
+     */
+    @NotNull
+    public static synchronized RotatedBlocks getRotatedBlocks(@NotNull final String structureName, @NotNull final Structure structure, final int times, @NotNull final Mirror mirror)
+    {
+        final String key = structureName + ':' + times + ':' + mirror.name();
+        final RotatedBlocks cached = ROTATED.get(key);
+        if (cached != null)
+        {
+            hits++;
+            return cached;
+        }
+
+        misses++;
+        final RotatedBlocks rotated = new RotatedBlocks(structure, times, mirror);
+        ROTATED.put(key, rotated);
+        return rotated;
+    }
+
+    /**
+     * Get the number of requests answered from the cache.
+     *
+     * @return the hits.
+     */
+    public static synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Get the number of requests which had to load or transform a structure.
+     *
+     * @return the misses.
+     */
+    public static synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Get the number of cached templates and rotated variants.
+     *
+     * @return the size.
+     */
+    public static synchronized int size()
+    {
+        return TEMPLATES.size() + ROTATED.size();
+    }
+
+    /**
+     * Convert rotation times to a rotation.
+     *
+     * @param times times rotated clockwise.
+     * @return the rotation.
+     */
+    @NotNull
+    static Rotation getRotation(final int times)
+    {
+        switch (times)
+        {
+            case 1:
+                return Rotation.CLOCKWISE_90;
+            case 2:
+                return Rotation.CLOCKWISE_180;
+            case 3:
+                return Rotation.COUNTERCLOCKWISE_90;
+            default:
+                return Rotation.NONE;
+        }
+    }
+
+    /**
+     * Map dropping the least recently used entry above the configured size.
+     */
+    private static final class LruMap<V> extends LinkedHashMap<String, V>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private LruMap()
+        {
+            super(16, 0.75F, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, V> eldest)
+        {
+            return size() > Math.max(1, Configurations.structureCacheSize);
+        }
+    }
+
+    /**
+     * The blocks of a structure in one rotation and mirror, moved to non negative positions.
+     * <p>
+     * The states are kept in a {@link PalettedVolume} and the few tile entities by position index on the side.
+     */
+    public static final class RotatedBlocks
+    {
+        private final int                          width;
+        private final int                          height;
+        private final int                          length;
+        private final PalettedVolume<IBlockState>  states;
+        private final Map<Integer, NBTTagCompound> tileEntities = new HashMap<>();
+        private final BlockPos                     min;
+        private final BlockPos                     offset;
+        @Nullable
+        private final BlockPos                     hutOffset;
+
+        private RotatedBlocks(@NotNull final Structure structure, final int times, @NotNull final Mirror mirror)
+        {
+            final Rotation rotation = getRotation(times);
+            final BlockPos size = structure.getSize(rotation);
+            width = size.getX();
+            height = size.getY();
+            length = size.getZ();
+            final IBlockState[] unpacked = new IBlockState[width * height * length];
+
+            final Template.BlockInfo[] transformed = structure.getBlockInfoWithSettings(new PlacementSettings().setRotation(rotation).setMirror(mirror));
+            int minX = 0;
+            int minY = 0;
+            int minZ = 0;
+            for (final Template.BlockInfo info : transformed)
+            {
+                minX = Math.min(minX, info.pos.getX());
+                minY = Math.min(minY, info.pos.getY());
+                minZ = Math.min(minZ, info.pos.getZ());
+            }
+            min = new BlockPos(-minX, -minY, -minZ);
+
+            BlockPos foundHut = null;
+            for (final Template.BlockInfo info : transformed)
+            {
+                final BlockPos pos = info.pos.add(min);
+                final int index = (pos.getY() * length + pos.getZ()) * width + pos.getX();
+                unpacked[index] = info.blockState;
+                if (info.tileentityData != null)
+                {
+                    tileEntities.put(index, info.tileentityData);
+                }
+                if (info.blockState.getBlock() instanceof AbstractBlockHut)
+                {
+                    foundHut = pos;
+                }
+            }
+            states = new PalettedVolume<>(width, height, length, unpacked);
+            hutOffset = foundHut;
+            offset = foundHut == null ? getDecorationOffset(size, times).add(min) : foundHut;
+        }
+
+        /**
+         * The offset of a decoration is its center.
+         */
+        @NotNull
+        private static BlockPos getDecorationOffset(@NotNull final BlockPos size, final int times)
+        {
+            int x = size.getX();
+            int z = size.getZ();
+            if (times == 1 || times == 2)
+            {
+                x = -x;
+            }
+            if (times == 2 || times == 3)
+            {
+                z = -z;
+            }
+            return new BlockPos(x / 2, 0, z / 2);
+        }
+
+        /**
+         * Get the block state at a position.
+         *
+         * @param x the x.
+         * @param y the y.
+         * @param z the z.
+         * @return the state or null if the structure has none there.
+         * @throws IndexOutOfBoundsException if the position lies outside of the structure.
+         */
+        @Nullable
+        public IBlockState getState(final int x, final int y, final int z)
+        {
+            return states.get(x, y, z);
+        }
+
+        /**
+         * Get the block at a position.
+         *
+         * @param x the x.
+         * @param y the y.
+         * @param z the z.
+         * @return a new block info or null if the structure has none there.
+         * @throws IndexOutOfBoundsException if the position lies outside of the structure.
+         */
+        @Nullable
+        public Template.BlockInfo get(final int x, final int y, final int z)
+        {
+            final int index = states.index(x, y, z);
+            final IBlockState state = states.getPaletteEntry(states.getPaletteIndex(index));
+            if (state == null)
+            {
+                return null;
+            }
+            return new Template.BlockInfo(new BlockPos(x, y, z), state, tileEntities.get(index));
+        }
+
+        /**
+         * Getter of the width.
+         *
+         * @return the width.
+         */
+        public int getWidth()
+        {
+            return width;
+        }
+
+        /**
+         * Getter of the height.
+         *
+         * @return the height.
+         */
+        public int getHeight()
+        {
+            return height;
+        }
+
+        /**
+         * Getter of the length.
+         *
+         * @return the length.
+         */
+        public int getLength()
+        {
+            return length;
+        }
+
+        /**
+         * Get how far the transformed blocks were moved to become non negative.
+         *
+         * @return the shift.
+         */
+        @NotNull
+        public BlockPos getMin()
+        {
+            return min;
+        }
+
+        /**
+         * Get the offset, the hut block or the center of a decoration.
+         *
+         * @return the offset.
+         */
+        @NotNull
+        public BlockPos getOffset()
+        {
+            return offset;
+        }
+
+        /**
+         * Get the position of the hut block.
+         *
+         * @return the position or null for a decoration.
+         */
+        @Nullable
+        public BlockPos getHutOffset()
+        {
+            return hutOffset;
+        }
+    }
+}
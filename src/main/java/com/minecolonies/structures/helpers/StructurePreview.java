@@ -0,0 +1,358 @@
+package com.minecolonies.structures.helpers;
+
+import com.minecolonies.coremod.blocks.ModBlocks;
+import com.minecolonies.coremod.util.BlockUtils;
+import com.minecolonies.structures.fake.FakeEntity;
+import com.minecolonies.structures.fake.FakeWorld;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.RenderHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.VertexBuffer;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.IBakedModel;
+import net.minecraft.client.renderer.texture.TextureMap;
+import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BlockRenderLayer;
+import net.minecraft.util.EnumBlockRenderType;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.Mirror;
+import net.minecraft.util.Rotation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.gen.structure.template.PlacementSettings;
+import net.minecraft.world.gen.structure.template.Template;
+import net.minecraftforge.client.ForgeHooksClient;
+import net.minecraftforge.client.MinecraftForgeClient;
+import net.minecraftforge.client.model.pipeline.LightUtil;
+import org.jetbrains.annotations.NotNull;
+import org.lwjgl.opengl.GL11;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ghost preview of a structure at one position, rotation and mirror.
+ * <p>
+ * The block models are resolved, tinted and written into one display list per render layer when the preview is
+ * created, so a frame only sets up the blend state and calls the lists. Blocks which are rendered by a tile entity
+ * renderer only, and the entities of the structure, are created once as well but still rendered each frame. Whether a
+ * ghost block is drawn slightly larger to show over an existing block is decided when compiling.
+ */
+final class StructurePreview
+{
+    private static final BlockRenderLayer[] LAYERS = BlockRenderLayer.values();
+
+    /**
+     * Used for scale.
+     */
+    private static final double SCALE = 1.001;
+
+    /**
+     * Full alpha for the vertex colors.
+     */
+    private static final int ALPHA = 0xFF << 24;
+
+    private final World                 startingWorld;
+    private final BlockPos              startingPos;
+    private final Rotation              rotation;
+    private final Mirror                mirror;
+    private final int                   displayLists;
+    private final boolean[]             usedLayers   = new boolean[LAYERS.length];
+    private final List<TileEntityGhost> tileEntities = new ArrayList<>();
+    private final Entity[]              entities;
+    private       boolean               released;
+
+    /**
+     * Compile the preview of a structure.
+     *
+     * @param structure   the structure.
+     * @param startingPos the position of the structure.
+     * @param settings    the rotation and mirror.
+     * @param clientWorld the world of the client.
+     */
+    StructurePreview(@NotNull final Structure structure, @NotNull final BlockPos startingPos, @NotNull final PlacementSettings settings, @NotNull final World clientWorld)
+    {
+        this.startingWorld = clientWorld;
+        this.startingPos = startingPos;
+        this.rotation = settings.getRotation();
+        this.mirror = settings.getMirror();
+        this.entities = structure.getEntityInfoWithSettings(clientWorld, startingPos, settings);
+
+        final List<BlockGhost> blocks = new ArrayList<>();
+        for (final Template.BlockInfo info : structure.getBlockInfoWithSettings(settings))
+        {
+            Block block = info.blockState.getBlock();
+            IBlockState state = info.blockState;
+
+            if (block == ModBlocks.blockSubstitution)
+            {
+                continue;
+            }
+
+            if (block == ModBlocks.blockSolidSubstitution)
+            {
+                state = BlockUtils.getSubstitutionBlockAtWorld(clientWorld, startingPos);
+                block = state.getBlock();
+            }
+
+            final BlockPos pos = info.pos.add(startingPos);
+            if (state.getRenderType() == EnumBlockRenderType.MODEL)
+            {
+                blocks.add(new BlockGhost(info.pos, pos, state, block.getExtendedState(state, clientWorld, pos),
+                                           Minecraft.getMinecraft().getBlockRendererDispatcher().getModelForState(state), !clientWorld.isAirBlock(pos)));
+            }
+            else if (block.hasTileEntity(state) && info.tileentityData != null)
+            {
+                final TileEntity tileEntity = block.createTileEntity(clientWorld, state);
+                tileEntity.readFromNBT(info.tileentityData);
+                tileEntity.setPos(pos);
+                final FakeWorld fakeWorld = new FakeWorld(state, clientWorld.getSaveHandler(), clientWorld.getWorldInfo(), clientWorld.provider, clientWorld.theProfiler, true);
+                tileEntity.setWorldObj(fakeWorld);
+                tileEntities.add(new TileEntityGhost(tileEntity, fakeWorld));
+            }
+        }
+
+        displayLists = GLAllocation.generateDisplayLists(LAYERS.length);
+        final BlockRenderLayer originalLayer = MinecraftForgeClient.getRenderLayer();
+        for (final BlockRenderLayer layer : LAYERS)
+        {
+            ForgeHooksClient.setRenderLayer(layer);
+            GL11.glNewList(displayLists + layer.ordinal(), GL11.GL_COMPILE);
+            for (final BlockGhost ghost : blocks)
+            {
+                if (ghost.state.getBlock().canRenderInLayer(ghost.state, layer))
+                {
+                    usedLayers[layer.ordinal()] = true;
+                    compileBlock(clientWorld, ghost);
+                }
+            }
+            GL11.glEndList();
+        }
+        ForgeHooksClient.setRenderLayer(originalLayer);
+    }
+
+    /**
+     * Write the quads of one block, relative to the structure position.
+     */
+    private static void compileBlock(@NotNull final World world, @NotNull final BlockGhost ghost)
+    {
+        GlStateManager.pushMatrix();
+        GlStateManager.translate(ghost.localPos.getX(), ghost.localPos.getY(), ghost.localPos.getZ());
+        if (ghost.existing)
+        {
+            GlStateManager.scale(SCALE, SCALE, SCALE);
+        }
+
+        final Tessellator tessellator = Tessellator.getInstance();
+        final VertexBuffer buffer = tessellator.getBuffer();
+        VertexFormat format = null;
+        for (final EnumFacing facing : EnumFacing.values())
+        {
+            format = compileQuads(world, ghost, ghost.model.getQuads(ghost.extendedState, facing, 0), tessellator, buffer, format);
+        }
+        format = compileQuads(world, ghost, ghost.model.getQuads(ghost.extendedState, null, 0), tessellator, buffer, format);
+        if (format != null)
+        {
+            tessellator.draw();
+        }
+
+        GlStateManager.popMatrix();
+    }
+
+    /**
+     * Add quads to the buffer, starting a new batch whenever the vertex format changes.
+     *
+     * @return the format of the open batch or null if none is open.
+     */
+    private static VertexFormat compileQuads(
+            @NotNull final World world,
+            @NotNull final BlockGhost ghost,
+            @NotNull final List<BakedQuad> quads,
+            @NotNull final Tessellator tessellator,
+            @NotNull final VertexBuffer buffer,
+            final VertexFormat openFormat)
+    {
+        VertexFormat format = openFormat;
+        for (final BakedQuad quad : quads)
+        {
+            if (format != quad.getFormat())
+            {
+                if (format != null)
+                {
+                    tessellator.draw();
+                }
+                format = quad.getFormat();
+                buffer.begin(GL11.GL_QUADS, format);
+            }
+
+            final int color = quad.hasTintIndex()
+                                ? ALPHA | Minecraft.getMinecraft().getBlockColors().colorMultiplier(ghost.state, world, ghost.pos, quad.getTintIndex())
+                                : (ALPHA | 0xffffff);
+            LightUtil.renderQuadColor(buffer, quad, color);
+        }
+        return format;
+    }
+
+    /**
+     * Check if the preview shows a structure at a position with some settings.
+     *
+     * @param world    the world of the client.
+     * @param pos      the position.
+     * @param settings the settings.
+     * @return true if it can be drawn as it is.
+     */
+    boolean matches(@NotNull final World world, @NotNull final BlockPos pos, @NotNull final PlacementSettings settings)
+    {
+        return !released && world == startingWorld && pos.equals(startingPos) && settings.getRotation() == rotation && settings.getMirror() == mirror;
+    }
+
+    /**
+     * Draw the preview.
+     *
+     * @param player       the player object.
+     * @param partialTicks the partial ticks.
+     */
+    void render(@NotNull final EntityPlayer player, final float partialTicks)
+    {
+        final Minecraft mc = Minecraft.getMinecraft();
+        final double dx = player.lastTickPosX + (player.posX - player.lastTickPosX) * partialTicks;
+        final double dy = player.lastTickPosY + (player.posY - player.lastTickPosY) * partialTicks;
+        final double dz = player.lastTickPosZ + (player.posZ - player.lastTickPosZ) * partialTicks;
+
+        mc.getTextureManager().bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
+        RenderHelper.disableStandardItemLighting();
+        GlStateManager.color(1F, 1F, 1F, 1F);
+        GlStateManager.enableBlend();
+        GlStateManager.enableTexture2D();
+        GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+
+        GlStateManager.pushMatrix();
+        GlStateManager.translate(startingPos.getX() - dx, startingPos.getY() - dy, startingPos.getZ() - dz);
+        for (final BlockRenderLayer layer : LAYERS)
+        {
+            if (!usedLayers[layer.ordinal()])
+            {
+                continue;
+            }
+
+            if (layer == BlockRenderLayer.CUTOUT)
+            {
+                mc.getTextureManager().getTexture(TextureMap.LOCATION_BLOCKS_TEXTURE).setBlurMipmap(false, false);
+            }
+
+            GlStateManager.colorMask(false, false, false, false);
+            GlStateManager.callList(displayLists + layer.ordinal());
+            GlStateManager.colorMask(true, true, true, true);
+            GlStateManager.depthFunc(GL11.GL_LEQUAL);
+            GlStateManager.callList(displayLists + layer.ordinal());
+
+            if (layer == BlockRenderLayer.CUTOUT)
+            {
+                mc.getTextureManager().getTexture(TextureMap.LOCATION_BLOCKS_TEXTURE).restoreLastBlurMipmap();
+            }
+        }
+        GlStateManager.popMatrix();
+        GlStateManager.disableBlend();
+
+        for (final TileEntityGhost ghost : tileEntities)
+        {
+            ghost.render(partialTicks);
+        }
+
+        for (final Entity entity : entities)
+        {
+            if (entity != null)
+            {
+                mc.getRenderManager().renderEntityStatic(entity, 0.0F, true);
+            }
+        }
+    }
+
+    /**
+     * Free the display lists.
+     */
+    void release()
+    {
+        if (!released)
+        {
+            released = true;
+            GLAllocation.deleteDisplayLists(displayLists, LAYERS.length);
+        }
+    }
+
+    /**
+     * A block which is drawn from its model.
+     */
+    private static final class BlockGhost
+    {
+        private final BlockPos    localPos;
+        private final BlockPos    pos;
+        private final IBlockState state;
+        private final IBlockState extendedState;
+        private final IBakedModel model;
+        private final boolean     existing;
+
+        private BlockGhost(
+                final BlockPos localPos,
+                final BlockPos pos,
+                final IBlockState state,
+                final IBlockState extendedState,
+                final IBakedModel model,
+                final boolean existing)
+        {
+            this.localPos = localPos;
+            this.pos = pos;
+            this.state = state;
+            this.extendedState = extendedState;
+            this.model = model;
+            this.existing = existing;
+        }
+    }
+
+    /**
+     * A block which is drawn by its tile entity renderer.
+     */
+    private static final class TileEntityGhost
+    {
+        private final TileEntity tileEntity;
+        private final FakeWorld  fakeWorld;
+
+        private TileEntityGhost(final TileEntity tileEntity, final FakeWorld fakeWorld)
+        {
+            this.tileEntity = tileEntity;
+            this.fakeWorld = fakeWorld;
+        }
+
+        private void render(final float partialTicks)
+        {
+            final int pass = 0;
+            if (!tileEntity.shouldRenderInPass(pass))
+            {
+                return;
+            }
+
+            final TileEntityRendererDispatcher terd = TileEntityRendererDispatcher.instance;
+            terd.func_190056_a(fakeWorld,
+                    Minecraft.getMinecraft().renderEngine,
+                    Minecraft.getMinecraft().fontRendererObj,
+                    new FakeEntity(fakeWorld),
+                    null,
+                    0.0F);
+            GL11.glPushMatrix();
+            terd.renderEngine = Minecraft.getMinecraft().renderEngine;
+            terd.preDrawBatch();
+            GL11.glColor4f(1F, 1F, 1F, 1F);
+            terd.renderTileEntity(tileEntity, partialTicks, -1);
+            terd.drawBatch(pass);
+            GL11.glPopMatrix();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.minecolonies.structures.helpers;
 
-import com.minecolonies.coremod.blocks.AbstractBlockHut;
 import com.minecolonies.coremod.util.BlockPosUtil;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.Mirror;
@@ -12,20 +11,23 @@ import net.minecraft.world.gen.structure.template.Template;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Proxy class translating the structures method to something we can use.
  */
 public class StructureProxy
 {
-    private final Structure structure;
-    private Template.EntityInfo[][][] entities;
-    private Template.BlockInfo[][][] blocks;
-    private int                      width;
-    private int                      height;
-    private int                      length;
-    private BlockPos                 offset;
+    private final Structure                          structure;
+    private final String                             name;
+    private final Map<BlockPos, Template.EntityInfo> entities = new HashMap<>();
+    private       StructureCache.RotatedBlocks       blocks;
+    private       int                                width;
+    private       int                                height;
+    private       int                                length;
+    private       BlockPos                           offset;
 
     /**
      * @param worldObj the world.
@@ -34,36 +36,22 @@ public class StructureProxy
     public StructureProxy(final World worldObj, final String name)
     {
         this.structure = new Structure(worldObj, name, new PlacementSettings());
+        this.name = name;
 
         if(structure.isTemplateMissing())
         {
             return;
         }
-        final BlockPos size = structure.getSize(Rotation.NONE);
 
-        this.width = size.getX();
-        this.height = size.getY();
-        this.length = size.getZ();
-
-        this.blocks = new Template.BlockInfo[width][height][length];
-        this.entities = new Template.EntityInfo[width][height][length];
-
-        for (final Template.BlockInfo info : structure.getBlockInfo())
-        {
-            final BlockPos tempPos = info.pos;
-            blocks[tempPos.getX()][tempPos.getY()][tempPos.getZ()] = info;
-            entities[tempPos.getX()][tempPos.getY()][tempPos.getZ()] = null;
-
-            if (info.blockState.getBlock() instanceof AbstractBlockHut)
-            {
-                offset = info.pos;
-            }
-        }
+        this.blocks = StructureCache.getRotatedBlocks(name, structure, 0, Mirror.NONE);
+        this.width = blocks.getWidth();
+        this.height = blocks.getHeight();
+        this.length = blocks.getLength();
+        this.offset = blocks.getHutOffset();
 
         for(final Template.EntityInfo info: structure.getTileEntities())
         {
-            final BlockPos tempPos = info.blockPos;
-            entities[tempPos.getX()][tempPos.getY()][tempPos.getZ()] = info;
+            entities.put(info.blockPos, info);
         }
     }
 
@@ -128,7 +116,7 @@ public class StructureProxy
      */
     public IBlockState getBlockState(@NotNull final BlockPos pos)
     {
-        return blocks[pos.getX()][pos.getY()][pos.getZ()].blockState;
+        return blocks.getState(pos.getX(), pos.getY(), pos.getZ());
     }
 
     /**
@@ -139,7 +127,7 @@ public class StructureProxy
      */
     public Template.BlockInfo getBlockInfo(@NotNull final BlockPos pos)
     {
-        return blocks[pos.getX()][pos.getY()][pos.getZ()];
+        return blocks.get(pos.getX(), pos.getY(), pos.getZ());
     }
 
     /**
@@ -161,11 +149,7 @@ public class StructureProxy
     @Nullable
     public Template.EntityInfo getEntityinfo(@NotNull final BlockPos pos)
     {
-        if(entities[pos.getX()][pos.getY()].length == 0)
-        {
-            return null;
-        }
-        return entities[pos.getX()][pos.getY()][pos.getZ()];
+        return entities.isEmpty() ? null : entities.get(pos);
     }
 
     /**
@@ -208,119 +192,22 @@ public class StructureProxy
      */
     public void rotateWithMirror(final int times, World world, BlockPos rotatePos, Mirror mirror)
     {
-        final Rotation rotation;
-        switch (times)
-        {
-            case 1:
-                rotation = Rotation.CLOCKWISE_90;
-                break;
-            case 2:
-                rotation = Rotation.CLOCKWISE_180;
-                break;
-            case 3:
-                rotation = Rotation.COUNTERCLOCKWISE_90;
-                break;
-            default:
-                rotation = Rotation.NONE;
-        }
-        structure.setPlacementSettings(new PlacementSettings().setRotation(rotation).setMirror(mirror));
-
-        final BlockPos size = structure.getSize(rotation);
-
-        this.width = size.getX();
-        this.height = size.getY();
-        this.length = size.getZ();
-
-        this.blocks = new Template.BlockInfo[width][height][length];
-        this.entities = new Template.EntityInfo[width][height][length];
-
-        int minX = 0;
-        int minY = 0;
-        int minZ = 0;
-
-        for (final Template.BlockInfo info : structure.getBlockInfoWithSettings(new PlacementSettings().setRotation(rotation).setMirror(mirror)))
-        {
-            final BlockPos tempPos = info.pos;
-            final int x = tempPos.getX();
-            final int y = tempPos.getY();
-            final int z = tempPos.getZ();
-            if (x < minX)
-            {
-                minX = x;
-            }
-
-            if (y < minY)
-            {
-                minY = y;
-            }
-
-            if (z < minZ)
-            {
-                minZ = z;
-            }
-        }
-
-        minX = Math.abs(minX);
-        minY = Math.abs(minY);
-        minZ = Math.abs(minZ);
-        boolean foundHut = false;
+        final Rotation rotation = StructureCache.getRotation(times);
         final PlacementSettings settings = new PlacementSettings().setRotation(rotation).setMirror(mirror);
+        structure.setPlacementSettings(settings);
 
-        for (final Template.BlockInfo info : structure.getBlockInfoWithSettings(settings))
-        {
-            final BlockPos tempPos = info.pos;
-            final int x = tempPos.getX() + minX;
-            final int y = tempPos.getY() + minY;
-            final int z = tempPos.getZ() + minZ;
-
-            this.blocks[x][y][z] = info;
-            this.entities[x][y][z] = null;
-
-            if (info.blockState.getBlock() instanceof AbstractBlockHut)
-            {
-                foundHut = true;
-                offset = info.pos.add(minX, minY, minZ);
-            }
-        }
-
-        updateOffSetIfDecoration(foundHut, size, times, minX, minY, minZ);
+        this.blocks = StructureCache.getRotatedBlocks(name, structure, times, mirror);
+        this.width = blocks.getWidth();
+        this.height = blocks.getHeight();
+        this.length = blocks.getLength();
+        this.offset = blocks.getOffset();
 
+        final BlockPos min = blocks.getMin();
+        entities.clear();
         for(final Template.EntityInfo info: structure.getTileEntities())
         {
-            final Template.EntityInfo newInfo = structure.transformEntityInfoWithSettings(info, world, rotatePos.subtract(offset).add(new BlockPos(minX, minY, minZ)), settings);
-            //289 74 157 - 289.9 76.5, 157.5
-            final BlockPos tempPos = Template.transformedBlockPos(settings, info.blockPos);
-            final int x = tempPos.getX() + minX;
-            final int y = tempPos.getY() + minY;
-            final int z = tempPos.getZ() + minZ;
-            this.entities[x][y][z] = newInfo;
-        }
-    }
-
-    /**
-     * Updates the offset if the structure is a decoration.
-     *
-     * @param foundHut if false update.
-     */
-    private void updateOffSetIfDecoration(final boolean foundHut, final BlockPos size, int rotation, int minX, int minY, int minZ)
-    {
-        if (!foundHut)
-        {
-            BlockPos tempSize = size;
-            if (rotation == 1)
-            {
-                tempSize = new BlockPos(-size.getX(), size.getY(), size.getZ());
-            }
-            if (rotation == 2)
-            {
-                tempSize = new BlockPos(-size.getX(), size.getY(), -size.getZ());
-            }
-            if (rotation == 3)
-            {
-                tempSize = new BlockPos(size.getX(), size.getY(), -size.getZ());
-            }
-
-            offset = new BlockPos(tempSize.getX() / 2, 0, tempSize.getZ() / 2).add(minX, minY, minZ);
+            final Template.EntityInfo newInfo = structure.transformEntityInfoWithSettings(info, world, rotatePos.subtract(offset).add(min), settings);
+            entities.put(Template.transformedBlockPos(settings, info.blockPos).add(min), newInfo);
         }
     }
 }
@@ -0,0 +1,110 @@
+package com.minecolonies.coremod.colony;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link CitizenAIScheduler}.
+ */
+public class CitizenAISchedulerTest
+{
+    private static final long   BUDGET  = 1000;
+    private static final String BUILDER = "Builder";
+    private static final String MINER   = "Miner";
+
+    private CitizenAIScheduler scheduler;
+
+    @Before
+    public void setup()
+    {
+        scheduler = new CitizenAIScheduler(() -> BUDGET);
+    }
+
+    @Test
+    public void testEveryoneRunsWithinBudget()
+    {
+        for (int citizen = 0; citizen < 10; citizen++)
+        {
+            assertTrue(scheduler.shouldRun(citizen, 1));
+            scheduler.record(BUILDER, BUDGET / 20);
+        }
+        assertEquals(1, scheduler.getSlots());
+        assertEquals(0, scheduler.getSkipped());
+    }
+
+    @Test
+    public void testSkippedOnceBudgetIsUsed()
+    {
+        assertTrue(scheduler.shouldRun(1, 1));
+        scheduler.record(BUILDER, BUDGET);
+        assertFalse(scheduler.shouldRun(2, 1));
+        assertEquals(1, scheduler.getSkipped());
+
+        //Next tick starts with a fresh budget, but spread over two slots
+        assertTrue(scheduler.shouldRun(1, 1 + 1) != scheduler.shouldRun(2, 1 + 1));
+    }
+
+    @Test
+    public void testSlotsGrowUnderLoadAndShrinkAfterwards()
+    {
+        long tick = 0;
+        while (scheduler.getSlots() < CitizenAIScheduler.MAX_SLOTS)
+        {
+            tick++;
+            for (int citizen = 0; citizen < 4; citizen++)
+            {
+                if (scheduler.shouldRun(citizen, tick))
+                {
+                    scheduler.record(BUILDER, BUDGET * 2);
+                }
+            }
+        }
+        assertEquals(CitizenAIScheduler.MAX_SLOTS, scheduler.getSlots());
+
+        //Each citizen runs exactly once over all slots
+        int runs = 0;
+        for (int slot = 0; slot < CitizenAIScheduler.MAX_SLOTS; slot++)
+        {
+            tick++;
+            if (scheduler.shouldRun(0, tick))
+            {
+                runs++;
+            }
+        }
+        assertEquals(1, runs);
+
+        for (int i = 0; i < CitizenAIScheduler.MAX_SLOTS * 2; i++)
+        {
+            tick++;
+            scheduler.shouldRun(0, tick);
+        }
+        assertEquals(1, scheduler.getSlots());
+    }
+
+    @Test
+    public void testNoLimit()
+    {
+        scheduler = new CitizenAIScheduler(() -> 0);
+        for (int tick = 1; tick < 5; tick++)
+        {
+            assertTrue(scheduler.shouldRun(tick, tick));
+            scheduler.record(BUILDER, Long.MAX_VALUE / 10);
+        }
+        assertEquals(1, scheduler.getSlots());
+    }
+
+    @Test
+    public void testTimesPerJob()
+    {
+        scheduler.record(BUILDER, 10);
+        scheduler.record(BUILDER, 30);
+        scheduler.record(MINER, 5);
+
+        assertEquals(40, scheduler.getJobTimes().get(BUILDER).getNanos());
+        assertEquals(2, scheduler.getJobTimes().get(BUILDER).getRuns());
+        assertEquals(20, scheduler.getJobTimes().get(BUILDER).getAverageNanos());
+        assertEquals(1, scheduler.getJobTimes().get(MINER).getRuns());
+    }
+}
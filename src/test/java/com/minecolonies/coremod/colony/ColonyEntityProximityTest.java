@@ -0,0 +1,77 @@
+package com.minecolonies.coremod.colony;
+
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.util.math.AxisAlignedBB;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around the cell lookup of {@link ColonyEntityProximity}.
+ */
+public class ColonyEntityProximityTest
+{
+    private final Map<Long, List<EntityItem>> cells = new HashMap<>();
+
+    private EntityItem inside;
+    private EntityItem nextCell;
+    private EntityItem negativeCell;
+    private EntityItem farAway;
+
+    @Before
+    public void setup()
+    {
+        inside = item(5, 64, 5);
+        nextCell = item(20, 64, 5);
+        negativeCell = item(-3, 64, -3);
+        farAway = item(100, 64, 100);
+    }
+
+    private EntityItem item(final double x, final double y, final double z)
+    {
+        final EntityItem item = new EntityItem(null, x, y, z);
+        ColonyEntityProximity.add(cells, item);
+        return item;
+    }
+
+    @Test
+    public void testFindsIntersectingEntities()
+    {
+        assertEquals(Arrays.asList(inside), ColonyEntityProximity.collect(cells, new AxisAlignedBB(0, 60, 0, 8, 70, 8), 0));
+
+        final List<EntityItem> found = ColonyEntityProximity.collect(cells, new AxisAlignedBB(-4, 60, -4, 21, 70, 6), 0);
+        assertEquals(new HashSet<>(Arrays.asList(inside, nextCell, negativeCell)), new HashSet<>(found));
+        assertEquals(3, found.size());
+    }
+
+    @Test
+    public void testSkipsDeadAndMissedEntities()
+    {
+        //  Right cell, but above the box
+        assertTrue(ColonyEntityProximity.collect(cells, new AxisAlignedBB(0, 0, 0, 8, 10, 8), 0).isEmpty());
+
+        inside.isDead = true;
+        assertTrue(ColonyEntityProximity.collect(cells, new AxisAlignedBB(0, 60, 0, 8, 70, 8), 0).isEmpty());
+        assertFalse(ColonyEntityProximity.collect(cells, new AxisAlignedBB(90, 60, 90, 110, 70, 110), 0).isEmpty());
+    }
+
+    @Test
+    public void testMarginFindsMovedEntities()
+    {
+        //  Indexed in the cell at x 0 to 15, then moved over into the next one
+        final EntityItem moved = item(14, 64, 5);
+        moved.setPosition(17, 64, 5);
+
+        final AxisAlignedBB box = new AxisAlignedBB(16.5, 60, 0, 18, 70, 8);
+        assertFalse(ColonyEntityProximity.collect(cells, box, 0).contains(moved));
+        assertTrue(ColonyEntityProximity.collect(cells, box, 2).contains(moved));
+        assertFalse(ColonyEntityProximity.collect(cells, box, 2).contains(farAway));
+    }
+}
@@ -0,0 +1,156 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.util.BlockPosUtil;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.util.Constants.NBT;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around the save journal entries of {@link ColonyJournal}.
+ */
+public class ColonyJournalTest
+{
+    private static final String TAG_NAME      = "name";
+    private static final String TAG_CITIZENS  = "citizens";
+    private static final String TAG_BUILDINGS = "buildings";
+    private static final String TAG_SEQUENCE  = "saveSequence";
+    private static final String TAG_SNAPSHOT  = "snapshotSequence";
+    private static final String TAG_LEVEL     = "level";
+
+    private static final BlockPos HUT       = new BlockPos(10, 64, 10);
+    private static final BlockPos HOUSE     = new BlockPos(20, 64, 10);
+    private static final BlockPos WAREHOUSE = new BlockPos(30, 64, 10);
+
+    private final ColonyJournal                 journal   = new ColonyJournal(() -> { });
+    private final Map<Integer, NBTTagCompound>  citizens  = new HashMap<>();
+    private final Map<BlockPos, NBTTagCompound> buildings = new HashMap<>();
+    private       String                        name      = "Old name";
+
+    private static NBTTagCompound colony(final int sequence, final String name)
+    {
+        final NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger(TAG_SEQUENCE, sequence);
+        compound.setInteger(TAG_SNAPSHOT, 0);
+        compound.setString(TAG_NAME, name);
+        compound.setTag(TAG_CITIZENS, new NBTTagList());
+        compound.setTag(TAG_BUILDINGS, new NBTTagList());
+        return compound;
+    }
+
+    private static NBTTagCompound citizen(final int id, final int level)
+    {
+        final NBTTagCompound citizen = new NBTTagCompound();
+        citizen.setInteger("id", id);
+        citizen.setInteger(TAG_LEVEL, level);
+        return citizen;
+    }
+
+    private static NBTTagCompound building(final BlockPos pos, final int level)
+    {
+        final NBTTagCompound building = new NBTTagCompound();
+        BlockPosUtil.writeToNBT(building, "location", pos);
+        building.setInteger(TAG_LEVEL, level);
+        return building;
+    }
+
+    private void addCitizen(final NBTTagCompound colony, final int id, final int level)
+    {
+        citizens.put(id, citizen(id, level));
+        colony.getTagList(TAG_CITIZENS, NBT.TAG_COMPOUND).appendTag(citizen(id, level));
+    }
+
+    private void addBuilding(final NBTTagCompound colony, final BlockPos pos, final int level)
+    {
+        buildings.put(pos, building(pos, level));
+        colony.getTagList(TAG_BUILDINGS, NBT.TAG_COMPOUND).appendTag(building(pos, level));
+    }
+
+    private NBTTagCompound writeEntry(final int sequence)
+    {
+        final NBTTagCompound entry = new NBTTagCompound();
+        journal.writeEntry(entry, sequence,
+          (section, core) -> core.setString(TAG_NAME, name),
+          citizens::get,
+          buildings::get);
+        return entry;
+    }
+
+    @Test
+    public void testReplayRebuildsLatestSave()
+    {
+        final NBTTagCompound snapshot = colony(0, name);
+        addCitizen(snapshot, 1, 0);
+        addCitizen(snapshot, 2, 0);
+        addBuilding(snapshot, HUT, 1);
+        addBuilding(snapshot, HOUSE, 1);
+
+        //  Renamed, one citizen levelled up, one joined, one building replaced by another
+        name = "New name";
+        journal.markSection(ColonyJournal.Section.BASIC);
+        citizens.put(1, citizen(1, 1));
+        journal.markCitizen(1);
+        citizens.put(3, citizen(3, 0));
+        journal.markCitizen(3);
+        buildings.remove(HOUSE);
+        journal.removeBuilding(HOUSE);
+        buildings.put(WAREHOUSE, building(WAREHOUSE, 1));
+        journal.markBuilding(WAREHOUSE);
+
+        final NBTTagCompound firstEntry = writeEntry(1);
+        assertTrue(journal.isEmpty());
+        assertEquals(2, firstEntry.getTagList(TAG_CITIZENS, NBT.TAG_COMPOUND).tagCount());
+        assertEquals(1, firstEntry.getTagList(TAG_BUILDINGS, NBT.TAG_COMPOUND).tagCount());
+
+        //  One citizen left, a building got upgraded
+        citizens.remove(2);
+        journal.removeCitizen(2);
+        buildings.put(HUT, building(HUT, 2));
+        journal.markBuilding(HUT);
+
+        final NBTTagCompound secondEntry = writeEntry(2);
+        assertArrayEquals(new int[] {2}, secondEntry.getIntArray("removedCitizens"));
+        assertFalse(secondEntry.getCompoundTag("core").hasKey(TAG_NAME));
+
+        final NBTTagCompound expected = colony(2, "New name");
+        expected.getTagList(TAG_CITIZENS, NBT.TAG_COMPOUND).appendTag(citizen(1, 1));
+        expected.getTagList(TAG_CITIZENS, NBT.TAG_COMPOUND).appendTag(citizen(3, 0));
+        expected.getTagList(TAG_BUILDINGS, NBT.TAG_COMPOUND).appendTag(building(HUT, 2));
+        expected.getTagList(TAG_BUILDINGS, NBT.TAG_COMPOUND).appendTag(building(WAREHOUSE, 1));
+
+        final NBTTagCompound replayed = snapshot.copy();
+        ColonyJournal.apply(replayed, firstEntry);
+        ColonyJournal.apply(replayed, secondEntry);
+        ColonyJournal.apply(replayed, firstEntry);
+        assertEquals(expected, replayed);
+    }
+
+    @Test
+    public void testOnlyRecordedChangesAreWritten()
+    {
+        assertTrue(journal.isEmpty());
+
+        final NBTTagCompound saved = colony(4, name);
+        addCitizen(saved, 1, 3);
+        addCitizen(saved, 2, 3);
+        addBuilding(saved, HUT, 2);
+
+        //  A citizen which changed and then left is only written as removed
+        journal.markCitizen(2);
+        citizens.remove(2);
+        journal.removeCitizen(2);
+        assertFalse(journal.isEmpty());
+
+        final NBTTagCompound entry = writeEntry(5);
+        assertEquals(0, entry.getTagList(TAG_CITIZENS, NBT.TAG_COMPOUND).tagCount());
+        assertEquals(0, entry.getTagList(TAG_BUILDINGS, NBT.TAG_COMPOUND).tagCount());
+        assertArrayEquals(new int[] {2}, entry.getIntArray("removedCitizens"));
+        assertTrue(entry.getCompoundTag("core").hasNoTags());
+    }
+}
@@ -0,0 +1,120 @@
+package com.minecolonies.coremod.colony;
+
+import net.minecraft.nbt.NBTTagCompound;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around the save journal of {@link ColonyPersistence}.
+ */
+public class ColonyPersistenceTest
+{
+    private static final int    COLONY_ID = 3;
+    private static final String TAG_VALUE = "value";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static NBTTagCompound entry(final int value)
+    {
+        final NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger(TAG_VALUE, value);
+        return compound;
+    }
+
+    @Test
+    public void testJournalKeepsOrder()
+    {
+        final File directory = folder.getRoot();
+        ColonyPersistence.append(directory, COLONY_ID, entry(1));
+        ColonyPersistence.append(directory, COLONY_ID, entry(2));
+        ColonyPersistence.flush();
+        ColonyPersistence.append(directory, COLONY_ID, entry(3));
+        ColonyPersistence.flush();
+
+        final List<NBTTagCompound> entries = ColonyPersistence.readJournal(ColonyPersistence.getJournalFile(directory, COLONY_ID));
+        assertEquals(3, entries.size());
+        for (int i = 0; i < entries.size(); i++)
+        {
+            assertEquals(i + 1, entries.get(i).getInteger(TAG_VALUE));
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws IOException
+    {
+        final File directory = folder.getRoot();
+        ColonyPersistence.append(directory, COLONY_ID, entry(1));
+        ColonyPersistence.flush();
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(ColonyPersistence.getJournalFile(directory, COLONY_ID), true)))
+        {
+            out.writeInt(1000);
+            out.write(new byte[] {1, 2, 3});
+        }
+
+        final List<NBTTagCompound> entries = ColonyPersistence.readJournal(ColonyPersistence.getJournalFile(directory, COLONY_ID));
+        assertEquals(1, entries.size());
+        assertEquals(1, entries.get(0).getInteger(TAG_VALUE));
+    }
+
+    @Test
+    public void testSnapshotReplacesJournal()
+    {
+        final File directory = folder.getRoot();
+        ColonyPersistence.append(directory, COLONY_ID, entry(1));
+        ColonyPersistence.flush();
+        ColonyPersistence.save(directory, COLONY_ID, entry(2));
+        ColonyPersistence.flush();
+
+        assertTrue(ColonyPersistence.getColonyFile(directory, COLONY_ID).exists());
+        assertFalse(ColonyPersistence.getJournalFile(directory, COLONY_ID).exists());
+    }
+
+    @Test
+    public void testSnapshotIsCompressedAndLoadsWithJournal() throws IOException
+    {
+        final File directory = folder.getRoot();
+        ColonyPersistence.save(directory, COLONY_ID, entry(1));
+        ColonyPersistence.append(directory, COLONY_ID, entry(2));
+        ColonyPersistence.flush();
+
+        final byte[] bytes = Files.readAllBytes(ColonyPersistence.getColonyFile(directory, COLONY_ID).toPath());
+        assertEquals((byte) GZIPInputStream.GZIP_MAGIC, bytes[0]);
+        assertEquals((byte) (GZIPInputStream.GZIP_MAGIC >> 8), bytes[1]);
+
+        //  Only the colony file and its journal, no temporary file left
+        assertEquals(2, directory.listFiles().length);
+
+        final List<NBTTagCompound> colonies = ColonyPersistence.load(directory, (colony, entry) -> colony.merge(entry));
+        assertEquals(1, colonies.size());
+        assertEquals(2, colonies.get(0).getInteger(TAG_VALUE));
+    }
+
+    @Test
+    public void testDeleteRemovesBothFiles()
+    {
+        final File directory = folder.getRoot();
+        ColonyPersistence.save(directory, COLONY_ID, entry(1));
+        ColonyPersistence.append(directory, COLONY_ID, entry(2));
+        ColonyPersistence.flush();
+        assertTrue(ColonyPersistence.getJournalFile(directory, COLONY_ID).exists());
+
+        ColonyPersistence.delete(directory, COLONY_ID);
+        ColonyPersistence.flush();
+
+        assertFalse(ColonyPersistence.getColonyFile(directory, COLONY_ID).exists());
+        assertFalse(ColonyPersistence.getJournalFile(directory, COLONY_ID).exists());
+    }
+}
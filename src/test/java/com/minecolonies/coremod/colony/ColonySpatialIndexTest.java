@@ -0,0 +1,95 @@
+package com.minecolonies.coremod.colony;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link ColonySpatialIndex}.
+ */
+public class ColonySpatialIndexTest
+{
+    private static final int RADIUS = 200;
+
+    private ColonySpatialIndex<String> index;
+
+    @Before
+    public void setup()
+    {
+        index = new ColonySpatialIndex<>();
+    }
+
+    @Test
+    public void testCandidatesCoverArea()
+    {
+        index.add("a", 0, 0, RADIUS);
+        index.add("b", 1000, -1000, RADIUS);
+
+        assertTrue(index.getCandidates(RADIUS, -RADIUS).contains("a"));
+        assertTrue(index.getCandidates(1000 - RADIUS, -1000).contains("b"));
+        assertFalse(index.getCandidates(1000 - RADIUS, -1000).contains("a"));
+        assertTrue(index.getCandidates(500, 500).isEmpty());
+    }
+
+    @Test
+    public void testRemovedColonyIsGone()
+    {
+        index.add("a", 0, 0, RADIUS);
+        index.addBuilding(new BlockPos(5, 64, 5), "a");
+        index.remove("a");
+
+        assertTrue(index.getCandidates(0, 0).isEmpty());
+        assertNull(index.getClosest(0, 0));
+        assertNull(index.getBuildingOwner(new BlockPos(5, 64, 5)));
+    }
+
+    @Test
+    public void testBuildingOwnerOutsideArea()
+    {
+        index.add("a", 0, 0, RADIUS);
+        index.addBuilding(new BlockPos(5000, 64, 5000), "a");
+
+        assertEquals("a", index.getBuildingOwner(new BlockPos(5000, 64, 5000)));
+
+        index.removeBuilding(new BlockPos(5000, 64, 5000), "b");
+        assertEquals("a", index.getBuildingOwner(new BlockPos(5000, 64, 5000)));
+
+        index.removeBuilding(new BlockPos(5000, 64, 5000), "a");
+        assertNull(index.getBuildingOwner(new BlockPos(5000, 64, 5000)));
+    }
+
+    @Test
+    public void testClosestMatchesLinearScan()
+    {
+        final Random random = new Random(42);
+        final int[][] centers = new int[50][];
+        for (int i = 0; i < centers.length; i++)
+        {
+            centers[i] = new int[] {random.nextInt(20000) - 10000, random.nextInt(20000) - 10000};
+            index.add(Integer.toString(i), centers[i][0], centers[i][1], RADIUS);
+        }
+
+        for (int query = 0; query < 500; query++)
+        {
+            final int x = random.nextInt(30000) - 15000;
+            final int z = random.nextInt(30000) - 15000;
+
+            long best = Long.MAX_VALUE;
+            for (final int[] center : centers)
+            {
+                final long xDiff = (long) center[0] - x;
+                final long zDiff = (long) center[1] - z;
+                best = Math.min(best, xDiff * xDiff + zDiff * zDiff);
+            }
+
+            final int[] found = centers[Integer.parseInt(index.getClosest(x, z))];
+            final long xDiff = (long) found[0] - x;
+            final long zDiff = (long) found[1] - z;
+            assertEquals(best, xDiff * xDiff + zDiff * zDiff);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.minecolonies.coremod.colony;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link DeliveryRequestQueue}.
+ */
+public class DeliveryRequestQueueTest
+{
+    private static final BlockPos FIRST  = new BlockPos(1, 64, 1);
+    private static final BlockPos SECOND = new BlockPos(2, 64, 2);
+    private static final BlockPos THIRD  = new BlockPos(3, 64, 3);
+
+    private DeliveryRequestQueue queue;
+
+    @Before
+    public void setup()
+    {
+        queue = new DeliveryRequestQueue();
+    }
+
+    @Test
+    public void testBuildingQueuedOnce()
+    {
+        assertTrue(queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_ITEM));
+        assertFalse(queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_TOOL));
+        assertEquals(1, queue.size());
+
+        assertEquals(FIRST, queue.poll(0));
+        assertNull(queue.poll(0));
+        assertTrue(queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_ITEM));
+    }
+
+    @Test
+    public void testToolsBeforeItemsInOrder()
+    {
+        queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_ITEM);
+        queue.offer(SECOND, DeliveryRequestQueue.PRIORITY_TOOL);
+        queue.offer(THIRD, DeliveryRequestQueue.PRIORITY_ITEM);
+
+        assertEquals(SECOND, queue.poll(0));
+        assertEquals(FIRST, queue.poll(0));
+        assertEquals(THIRD, queue.poll(0));
+    }
+
+    @Test
+    public void testDelayedRequestWaits()
+    {
+        queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_TOOL, 100);
+        queue.offer(SECOND, DeliveryRequestQueue.PRIORITY_ITEM);
+
+        assertEquals(SECOND, queue.poll(50));
+        assertNull(queue.poll(50));
+        assertTrue(queue.contains(FIRST));
+        assertEquals(FIRST, queue.poll(100));
+    }
+
+    @Test
+    public void testRemovedRequestIsSkipped()
+    {
+        queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_ITEM);
+        queue.offer(SECOND, DeliveryRequestQueue.PRIORITY_ITEM);
+        queue.remove(FIRST);
+
+        assertEquals(SECOND, queue.poll(0));
+        assertNull(queue.poll(0));
+    }
+
+    @Test
+    public void testRequeuedAfterRemovalKeepsNewRequest()
+    {
+        queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_ITEM);
+        queue.remove(FIRST);
+        queue.offer(FIRST, DeliveryRequestQueue.PRIORITY_ITEM, 10);
+
+        assertNull(queue.poll(0));
+        assertEquals(FIRST, queue.poll(10));
+    }
+}
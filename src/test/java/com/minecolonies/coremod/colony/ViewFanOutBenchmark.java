@@ -0,0 +1,98 @@
+package com.minecolonies.coremod.colony;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a view packet payload per subscriber (a fresh buffer and a full serialization each time) with
+ * serializing it once into a pooled buffer which every subscriber's message copies while being encoded.
+ * The payload is shaped like the view data of a building with a handful of assigned citizens.
+ * Divide the score by the subscriber count for the cost per subscriber.
+ * Run with: gradlew jmh -Pjmh.include=ViewFanOutBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ViewFanOutBenchmark
+{
+    private static final int    CITIZENS = 8;
+    private static final byte[] NAME     = "com.minecolonies.coremod.colony.buildings.BuildingDeliveryman".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STYLE    = "wooden".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Number of players subscribed to the colony.
+     */
+    @Param({"1", "8", "32"})
+    public int subscribers;
+
+    /**
+     * Stands in for the packet buffer the network encoder writes every message into.
+     */
+    private ByteBuf encoded;
+
+    @Setup
+    public void setup()
+    {
+        encoded = Unpooled.buffer();
+    }
+
+    private static void serialize(final ByteBuf buf)
+    {
+        buf.writeInt(NAME.length);
+        buf.writeBytes(NAME);
+        buf.writeInt(2);
+        buf.writeInt(3);
+        buf.writeInt(STYLE.length);
+        buf.writeBytes(STYLE);
+        buf.writeInt(CITIZENS);
+        for (int i = 0; i < CITIZENS; i++)
+        {
+            buf.writeInt(i);
+            buf.writeLong(i * 31L);
+            buf.writeDouble(i * 0.5D);
+        }
+    }
+
+    @Benchmark
+    public void serializePerSubscriber(final Blackhole blackhole)
+    {
+        for (int i = 0; i < subscribers; i++)
+        {
+            final ByteBuf payload = Unpooled.buffer();
+            serialize(payload);
+
+            encoded.clear();
+            encoded.writeBytes(payload);
+            blackhole.consume(encoded);
+        }
+    }
+
+    @Benchmark
+    public void serializeOnceFanOut(final Blackhole blackhole)
+    {
+        final ByteBuf payload = PooledByteBufAllocator.DEFAULT.buffer();
+        try
+        {
+            serialize(payload);
+            for (int i = 0; i < subscribers; i++)
+            {
+                encoded.clear();
+                encoded.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+                blackhole.consume(encoded);
+            }
+        }
+        finally
+        {
+            payload.release();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.minecolonies.coremod.colony;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link ViewSyncTracker}.
+ */
+public class ViewSyncTrackerTest
+{
+    private static final String FIRST  = "first";
+    private static final String SECOND = "second";
+
+    private final int[]                   values = {1, 2, 3};
+    private       ViewSyncTracker<String> tracker;
+
+    @Before
+    public void setup()
+    {
+        tracker = new ViewSyncTracker<>(values.length);
+        refresh();
+    }
+
+    private boolean refresh()
+    {
+        return tracker.refresh((attribute, buf) -> buf.writeInt(values[attribute]));
+    }
+
+    @Test
+    public void testNewSubscriberGetsEverything()
+    {
+        assertEquals(0b111, tracker.getPendingAttributes(FIRST));
+
+        final ByteBuf buf = Unpooled.buffer();
+        tracker.writeAttributes(0b111, buf);
+        assertEquals(1, buf.readInt());
+        assertEquals(2, buf.readInt());
+        assertEquals(3, buf.readInt());
+    }
+
+    @Test
+    public void testOnlyChangedAttributesArePending()
+    {
+        tracker.acknowledge(FIRST);
+        assertEquals(0, tracker.getPendingAttributes(FIRST));
+
+        values[1] = 5;
+        refresh();
+        assertEquals(0b010, tracker.getPendingAttributes(FIRST));
+
+        final ByteBuf buf = Unpooled.buffer();
+        tracker.writeAttributes(0b010, buf);
+        assertEquals(5, buf.readInt());
+        assertEquals(0, buf.readableBytes());
+    }
+
+    @Test
+    public void testUnchangedRefreshSendsNothing()
+    {
+        tracker.acknowledge(FIRST);
+        assertFalse(refresh());
+        assertEquals(0, tracker.getPendingAttributes(FIRST));
+    }
+
+    @Test
+    public void testSubscribersTrackedSeparately()
+    {
+        tracker.acknowledge(FIRST);
+        values[0] = 7;
+        refresh();
+        tracker.acknowledge(SECOND);
+        values[2] = 9;
+        refresh();
+
+        assertEquals(0b101, tracker.getPendingAttributes(FIRST));
+        assertEquals(0b100, tracker.getPendingAttributes(SECOND));
+    }
+
+    @Test
+    public void testForgottenSubscriberGetsEverythingAgain()
+    {
+        tracker.acknowledge(FIRST);
+        tracker.acknowledge(SECOND);
+        tracker.retainSubscribers(Collections.singleton(SECOND));
+
+        assertEquals(0b111, tracker.getPendingAttributes(FIRST));
+        assertEquals(0, tracker.getPendingAttributes(SECOND));
+    }
+
+    @Test
+    public void testForgottenSubscriberGetsEverything()
+    {
+        tracker.acknowledge(FIRST);
+        tracker.acknowledge(SECOND);
+        tracker.forget(FIRST);
+
+        assertEquals(0b111, tracker.getPendingAttributes(FIRST));
+        assertEquals(0, tracker.getPendingAttributes(SECOND));
+    }
+}
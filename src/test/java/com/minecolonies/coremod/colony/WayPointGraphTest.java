@@ -0,0 +1,217 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.entity.pathfinding.WayPointProbe;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link WayPointGraph}.
+ */
+public class WayPointGraphTest
+{
+    private static final BiFunction<BlockPos, BlockPos, WayPointProbe.Result> ALWAYS = (a, b) -> WayPointProbe.Result.WALKABLE;
+
+    private WayPointGraph graph;
+
+    @Before
+    public void setup()
+    {
+        graph = new WayPointGraph();
+    }
+
+    private void connect(final BiFunction<BlockPos, BlockPos, WayPointProbe.Result> probe)
+    {
+        graph.connectPending(probe, Integer.MAX_VALUE);
+    }
+
+    private static BiFunction<BlockPos, BlockPos, WayPointProbe.Result> recording(final List<BlockPos> probed, final WayPointProbe.Result result)
+    {
+        return (from, to) ->
+        {
+            probed.add(from);
+            probed.add(to);
+            return result;
+        };
+    }
+
+    @Test
+    public void testRouteFollowsRoad()
+    {
+        final BlockPos a = new BlockPos(0, 64, 0);
+        final BlockPos b = new BlockPos(20, 64, 0);
+        final BlockPos c = new BlockPos(40, 64, 0);
+        final BlockPos d = new BlockPos(60, 64, 0);
+        graph.add(a);
+        graph.add(b);
+        graph.add(c);
+        graph.add(d);
+        assertTrue(graph.route(new BlockPos(-5, 64, 0), new BlockPos(65, 64, 0)).isEmpty());
+
+        connect(ALWAYS);
+        assertEquals(Arrays.asList(a, b, c, d), graph.route(new BlockPos(-5, 64, 0), new BlockPos(65, 64, 0)));
+        assertEquals(Arrays.asList(d, c, b, a), graph.route(new BlockPos(65, 64, 0), new BlockPos(-5, 64, 0)));
+    }
+
+    @Test
+    public void testFailedProbesAreNoEdges()
+    {
+        final BlockPos a = new BlockPos(0, 64, 0);
+        final BlockPos wall = new BlockPos(20, 64, 0);
+        final BlockPos b = new BlockPos(20, 64, 20);
+        final BlockPos c = new BlockPos(40, 64, 0);
+        graph.add(a);
+        graph.add(wall);
+        graph.add(b);
+        graph.add(c);
+
+        connect((from, to) -> from.equals(wall) || to.equals(wall) ? WayPointProbe.Result.BLOCKED : WayPointProbe.Result.WALKABLE);
+        assertEquals(Arrays.asList(a, b, c), graph.route(new BlockPos(0, 64, 0), new BlockPos(40, 64, 0)));
+        assertTrue(graph.getNeighbours(wall).isEmpty());
+    }
+
+    @Test
+    public void testIsolatedPointsAreSkipped()
+    {
+        final BlockPos a = new BlockPos(0, 64, 0);
+        final BlockPos b = new BlockPos(20, 64, 0);
+        final BlockPos c = new BlockPos(40, 64, 0);
+        final BlockPos hut = new BlockPos(22, 64, 3);
+        graph.add(a);
+        graph.add(b);
+        graph.add(c);
+        graph.add(hut);
+
+        //  The walls of the hut block every probe
+        connect((from, to) -> from.equals(hut) || to.equals(hut) ? WayPointProbe.Result.BLOCKED : WayPointProbe.Result.WALKABLE);
+        assertEquals(Arrays.asList(b, c), graph.route(hut, c));
+        assertEquals(Arrays.asList(a, b), graph.route(a, hut));
+    }
+
+    @Test
+    public void testNoRouteWithoutConnection()
+    {
+        graph.add(new BlockPos(0, 64, 0));
+        graph.add(new BlockPos(100, 64, 0));
+        connect(ALWAYS);
+
+        assertTrue(graph.route(new BlockPos(0, 64, 0), new BlockPos(100, 64, 0)).isEmpty());
+        assertTrue(graph.route(new BlockPos(0, 64, 0), new BlockPos(1000, 64, 0)).isEmpty());
+    }
+
+    @Test
+    public void testRemoveUpdatesRoutes()
+    {
+        final BlockPos a = new BlockPos(0, 64, 0);
+        final BlockPos b = new BlockPos(20, 64, 0);
+        final BlockPos c = new BlockPos(40, 64, 0);
+        graph.add(a);
+        graph.add(b);
+        graph.add(c);
+        connect(ALWAYS);
+        assertEquals(3, graph.route(a, c).size());
+
+        graph.remove(b);
+        assertFalse(graph.contains(b));
+        assertTrue(graph.route(a, c).isEmpty());
+
+        //  The pairs of b are gone from the change lookup as well
+        graph.onBlockChanged(new BlockPos(10, 64, 0));
+
+        graph.add(b);
+        connect(ALWAYS);
+        assertEquals(Arrays.asList(a, b, c), graph.route(a, c));
+    }
+
+    @Test
+    public void testUnknownPairsStayPending()
+    {
+        final BlockPos a = new BlockPos(0, 64, 0);
+        final BlockPos b = new BlockPos(20, 64, 0);
+        final BlockPos c = new BlockPos(40, 64, 0);
+        graph.add(a);
+        graph.add(b);
+        graph.add(c);
+
+        //  The chunks around c aren't loaded yet
+        connect((from, to) -> from.equals(c) || to.equals(c) ? WayPointProbe.Result.UNKNOWN : WayPointProbe.Result.WALKABLE);
+        assertTrue(graph.getNeighbours(c).isEmpty());
+
+        final List<BlockPos> probed = new ArrayList<>();
+        connect(recording(probed, WayPointProbe.Result.WALKABLE));
+        assertEquals(2, probed.size());
+        assertTrue(probed.contains(b) && probed.contains(c));
+        assertEquals(Arrays.asList(a, b, c), graph.route(a, c));
+    }
+
+    @Test
+    public void testBlockedPairsAreNotProbedAgain()
+    {
+        graph.add(new BlockPos(0, 64, 0));
+        graph.add(new BlockPos(20, 64, 0));
+
+        final List<BlockPos> probed = new ArrayList<>();
+        connect(recording(probed, WayPointProbe.Result.BLOCKED));
+        connect(recording(probed, WayPointProbe.Result.BLOCKED));
+        assertEquals(2, probed.size());
+    }
+
+    @Test
+    public void testProbesAreSpreadOverCalls()
+    {
+        graph.add(new BlockPos(0, 64, 0));
+        graph.add(new BlockPos(20, 64, 0));
+        graph.add(new BlockPos(40, 64, 0));
+        graph.add(new BlockPos(60, 64, 0));
+
+        //  Three pairs, a and c are too far apart
+        final List<BlockPos> probed = new ArrayList<>();
+        graph.connectPending(recording(probed, WayPointProbe.Result.WALKABLE), 2);
+        assertEquals(4, probed.size());
+        graph.connectPending(recording(probed, WayPointProbe.Result.WALKABLE), 2);
+        assertEquals(6, probed.size());
+        graph.connectPending(recording(probed, WayPointProbe.Result.WALKABLE), 2);
+        assertEquals(6, probed.size());
+    }
+
+    @Test
+    public void testBlockChangesReprobeNearbyPairs()
+    {
+        final BlockPos a = new BlockPos(0, 64, 0);
+        final BlockPos b = new BlockPos(20, 64, 0);
+        final BlockPos c = new BlockPos(40, 64, 0);
+        graph.add(a);
+        graph.add(b);
+        graph.add(c);
+        connect(ALWAYS);
+        assertEquals(Arrays.asList(a, b, c), graph.route(a, c));
+
+        //  Far off the road, nothing gets probed
+        graph.onBlockChanged(new BlockPos(30, 64, 10));
+        graph.onBlockChanged(new BlockPos(30, 10, 0));
+        graph.onBlockChanged(new BlockPos(500, 64, 0));
+        final List<BlockPos> probed = new ArrayList<>();
+        connect(recording(probed, WayPointProbe.Result.BLOCKED));
+        assertTrue(probed.isEmpty());
+
+        //  A wall between b and c only gets that pair probed again
+        graph.onBlockChanged(new BlockPos(30, 65, 1));
+        connect(recording(probed, WayPointProbe.Result.BLOCKED));
+        assertEquals(2, probed.size());
+        assertTrue(probed.contains(b) && probed.contains(c));
+        assertEquals(Arrays.asList(a), new ArrayList<>(graph.getNeighbours(b)));
+        assertEquals(Arrays.asList(a, b), graph.route(a, c));
+
+        //  Taking the wall down again reconnects them
+        graph.onBlockChanged(new BlockPos(30, 65, 1));
+        connect(ALWAYS);
+        assertEquals(Arrays.asList(a, b, c), graph.route(a, c));
+    }
+}
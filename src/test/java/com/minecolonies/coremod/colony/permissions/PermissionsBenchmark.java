@@ -0,0 +1,83 @@
+package com.minecolonies.coremod.colony.permissions;
+
+import com.minecolonies.coremod.colony.Colony;
+import com.mojang.authlib.GameProfile;
+import net.minecraft.entity.player.EntityPlayer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares checking the actions of a player interacting with a block the former way (rank lookup and permission
+ * map per action) with a single lookup of the cached action flags.
+ * Run with: gradlew jmh -Pjmh.include=PermissionsBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PermissionsBenchmark
+{
+    /**
+     * The actions a block interaction checks.
+     */
+    private static final Permissions.Action[] INTERACT_ACTIONS = {
+      Permissions.Action.ACCESS_HUTS,
+      Permissions.Action.ACCESS_FREE_BLOCKS,
+      Permissions.Action.RIGHTCLICK_BLOCK,
+      Permissions.Action.OPEN_CONTAINER,
+      Permissions.Action.RIGHTCLICK_ENTITY,
+      Permissions.Action.THROW_POTION};
+
+    private Permissions  permissions;
+    private EntityPlayer owner;
+    private EntityPlayer visitor;
+
+    @Setup
+    public void setup()
+    {
+        permissions = new Permissions(mock(Colony.class));
+        owner = mockPlayer("owner");
+        visitor = mockPlayer("visitor");
+        permissions.setOwner(owner);
+    }
+
+    private static EntityPlayer mockPlayer(final String name)
+    {
+        final UUID id = UUID.nameUUIDFromBytes(name.getBytes());
+        final EntityPlayer player = mock(EntityPlayer.class);
+        when(player.getName()).thenReturn(name);
+        when(player.getUniqueID()).thenReturn(id);
+        when(player.getGameProfile()).thenReturn(new GameProfile(id, name));
+        return player;
+    }
+
+    @Benchmark
+    public void rankLookupPerAction(final Blackhole blackhole)
+    {
+        for (final Permissions.Action action : INTERACT_ACTIONS)
+        {
+            blackhole.consume(permissions.hasPermission(permissions.getRank(owner), action));
+            blackhole.consume(permissions.hasPermission(permissions.getRank(visitor), action));
+        }
+    }
+
+    @Benchmark
+    public void cachedActionFlags(final Blackhole blackhole)
+    {
+        final int ownerActions = permissions.getActionFlags(owner);
+        final int visitorActions = permissions.getActionFlags(visitor);
+        for (final Permissions.Action action : INTERACT_ACTIONS)
+        {
+            blackhole.consume(Permissions.isAllowed(ownerActions, action));
+            blackhole.consume(Permissions.isAllowed(visitorActions, action));
+        }
+    }
+}
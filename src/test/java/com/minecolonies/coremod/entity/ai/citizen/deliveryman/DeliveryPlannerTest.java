@@ -0,0 +1,77 @@
+package com.minecolonies.coremod.entity.ai.citizen.deliveryman;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link DeliveryPlanner}.
+ */
+public class DeliveryPlannerTest
+{
+    private static final BlockPos WAREHOUSE = new BlockPos(0, 64, 0);
+
+    private final Map<String, BlockPos> locations = new LinkedHashMap<>();
+    private final Map<String, Integer>  stacks    = new HashMap<>();
+
+    private void request(final String name, final int x, final int z, final int stackCount)
+    {
+        locations.put(name, new BlockPos(x, 64, z));
+        stacks.put(name, stackCount);
+    }
+
+    private List<String> plan(final int capacity)
+    {
+        return DeliveryPlanner.planTour(WAREHOUSE, locations.keySet(), locations::get, stacks::get, capacity);
+    }
+
+    @Test
+    public void testNoRequestsNoTour()
+    {
+        assertTrue(plan(4).isEmpty());
+    }
+
+    @Test
+    public void testOldestRequestAlwaysServed()
+    {
+        request("old", 100, 100, 8);
+        request("near", 1, 1, 1);
+
+        assertEquals(Collections.singletonList("old"), plan(2));
+    }
+
+    @Test
+    public void testCapacityRespected()
+    {
+        request("a", 10, 0, 2);
+        request("b", 20, 0, 2);
+        request("c", 30, 0, 2);
+
+        assertEquals(Arrays.asList("a", "b"), plan(4));
+    }
+
+    @Test
+    public void testStopsOrderedAlongTheWay()
+    {
+        request("far", 30, 0, 1);
+        request("near", 10, 0, 1);
+        request("middle", 20, 0, 1);
+
+        final List<String> tour = plan(Integer.MAX_VALUE);
+        assertEquals(3, tour.size());
+        assertTrue(tour.equals(Arrays.asList("near", "middle", "far")) || tour.equals(Arrays.asList("far", "middle", "near")));
+    }
+
+    @Test
+    public void testNearbyRequestsGrouped()
+    {
+        request("east", 50, 0, 1);
+        request("west", -50, 0, 1);
+        request("eastNeighbour", 52, 2, 1);
+
+        assertEquals(new HashSet<>(Arrays.asList("east", "eastNeighbour")), new HashSet<>(plan(2)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.minecolonies.coremod.entity.ai.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link AITargetTable}.
+ */
+public class AITargetTableTest
+{
+    private AITargetTable  table;
+    private List<AITarget> checked;
+
+    @Before
+    public void setup()
+    {
+        table = new AITargetTable();
+        checked = new ArrayList<>();
+    }
+
+    private boolean check(final AITarget target)
+    {
+        checked.add(target);
+        return false;
+    }
+
+    @Test
+    public void testOnlyMatchingTargetsInRegistrationOrder()
+    {
+        final AITarget global = new AITarget(() -> null);
+        final AITarget idle = new AITarget(AIState.IDLE, () -> null);
+        final AITarget init = new AITarget(AIState.INIT, () -> null);
+        final AITarget lastGlobal = new AITarget(() -> null);
+        table.add(global);
+        table.add(idle);
+        table.add(init);
+        table.add(lastGlobal);
+
+        assertFalse(table.dispatch(AIState.IDLE, this::check));
+        assertEquals(3, checked.size());
+        assertSame(global, checked.get(0));
+        assertSame(idle, checked.get(1));
+        assertSame(lastGlobal, checked.get(2));
+
+        checked.clear();
+        table.dispatch(AIState.INIT, this::check);
+        assertEquals(3, checked.size());
+        assertSame(init, checked.get(1));
+    }
+
+    @Test
+    public void testStopsAtFirstMatch()
+    {
+        final AITarget first = new AITarget(AIState.IDLE, () -> null);
+        table.add(first);
+        table.add(new AITarget(AIState.IDLE, () -> null));
+
+        assertTrue(table.dispatch(AIState.IDLE, target -> target == first));
+    }
+
+    @Test
+    public void testTargetsAddedLaterAreDispatched()
+    {
+        table.add(new AITarget(() -> null));
+        table.dispatch(AIState.IDLE, this::check);
+        table.add(new AITarget(AIState.IDLE, () -> null));
+
+        checked.clear();
+        table.dispatch(AIState.IDLE, this::check);
+        assertEquals(2, checked.size());
+    }
+
+    @Test
+    public void testProfiling()
+    {
+        table.add(new AITarget(() -> null));
+        table.add(new AITarget(AIState.INIT, () -> null));
+        table.dispatch(AIState.IDLE, this::check);
+        assertEquals(0, table.getInvocations(0));
+
+        table.setProfiling(true);
+        table.dispatch(AIState.IDLE, this::check);
+        table.dispatch(AIState.IDLE, this::check);
+        assertEquals(2, table.getInvocations(0));
+        assertEquals(0, table.getInvocations(1));
+    }
+}
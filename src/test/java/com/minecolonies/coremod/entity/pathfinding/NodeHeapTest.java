@@ -0,0 +1,82 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link NodeHeap}.
+ */
+public class NodeHeapTest
+{
+    private static final int MANY_NODES = 1000;
+
+    private NodeHeap heap;
+    private NodePool pool;
+
+    @Before
+    public void setup()
+    {
+        heap = new NodeHeap();
+        pool = new NodePool();
+    }
+
+    private Node node(final double score)
+    {
+        return pool.obtain(null, BlockPos.ORIGIN, 0, 0, score);
+    }
+
+    @Test
+    public void testPollsInScoreOrder()
+    {
+        final Random random = new Random(1);
+        for (int i = 0; i < MANY_NODES; i++)
+        {
+            heap.offer(node(random.nextDouble()));
+        }
+
+        double last = -1;
+        while (!heap.isEmpty())
+        {
+            final Node next = heap.poll();
+            assertTrue(next.getScore() >= last);
+            assertFalse(heap.contains(next));
+            last = next.getScore();
+        }
+    }
+
+    @Test
+    public void testDecreaseKey()
+    {
+        final Node a = node(1);
+        final Node b = node(2);
+        final Node c = node(3);
+        heap.offer(a);
+        heap.offer(b);
+        heap.offer(c);
+
+        c.setScore(0.5);
+        heap.offer(c);
+
+        assertEquals(3, heap.size());
+        assertSame(c, heap.poll());
+        assertSame(a, heap.poll());
+        assertSame(b, heap.poll());
+        assertNull(heap.poll());
+    }
+
+    @Test
+    public void testClear()
+    {
+        final Node a = node(1);
+        heap.offer(a);
+        heap.clear();
+
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(a));
+    }
+}
@@ -0,0 +1,91 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link NodeMap} and {@link NodePool}.
+ */
+public class NodeMapTest
+{
+    private static final int MANY_NODES = 20_000;
+
+    private NodeMap  map;
+    private NodePool pool;
+
+    @Before
+    public void setup()
+    {
+        map = new NodeMap();
+        pool = new NodePool();
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        final Node node = pool.obtain(null, new BlockPos(1, 2, 3), 0, 1, 1);
+        map.put(42, node);
+
+        assertSame(node, map.get(42));
+        assertNull(map.get(43));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testReplace()
+    {
+        final Node first = pool.obtain(null, BlockPos.ORIGIN, 0, 1, 1);
+        final Node second = pool.obtain(null, BlockPos.ORIGIN, 0, 1, 1);
+        map.put(0, first);
+        map.put(0, second);
+
+        assertSame(second, map.get(0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testGrowKeepsAllNodes()
+    {
+        for (int i = 0; i < MANY_NODES; i++)
+        {
+            map.put(i * 31, pool.obtain(null, new BlockPos(i, 0, 0), 0, 0, 0));
+        }
+
+        assertEquals(MANY_NODES, map.size());
+        for (int i = 0; i < MANY_NODES; i++)
+        {
+            final Node node = map.get(i * 31);
+            assertNotNull(node);
+            assertEquals(i, node.pos.getX());
+        }
+    }
+
+    @Test
+    public void testClear()
+    {
+        map.put(7, pool.obtain(null, BlockPos.ORIGIN, 0, 0, 0));
+        map.clear();
+
+        assertNull(map.get(7));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testPoolReusesNodes()
+    {
+        final Node node = pool.obtain(null, new BlockPos(5, 6, 7), 3, 4, 7);
+        node.setClosed();
+        node.setLadder();
+        pool.release();
+
+        final Node reused = pool.obtain(null, new BlockPos(8, 9, 10), 0, 1, 1);
+        assertSame(node, reused);
+        assertFalse(reused.isClosed());
+        assertFalse(reused.isLadder());
+        assertEquals(new BlockPos(8, 9, 10), reused.pos);
+        assertEquals(1, pool.getUsed());
+    }
+}
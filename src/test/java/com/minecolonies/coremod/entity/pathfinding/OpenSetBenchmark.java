@@ -0,0 +1,228 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the PriorityQueue open set (remove and re-insert on improvement) with the indexed {@link NodeHeap}
+ * (decrease-key in place), running A* corner to corner over synthetic 100x100x40 terrains.
+ * Run with: gradlew jmh -Pjmh.include=OpenSetBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OpenSetBenchmark
+{
+    private static final int SIZE_X = 100;
+    private static final int SIZE_Z = 100;
+    private static final int SIZE_Y = 40;
+
+    private static final double ROAD_COST  = 0.75D;
+    private static final double ROUGH_COST = 1.1D;
+
+    /**
+     * Under-estimating heuristic weight, so the search explores a large part of the terrain like the find jobs do.
+     */
+    private static final double HEURISTIC_WEIGHT = 0.501D;
+
+    private static final int[][] DIRECTIONS = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+    /**
+     * Fraction of blocked cells of the terrain.
+     */
+    @Param({"0.1", "0.3"})
+    public double obstacleDensity;
+
+    private boolean[] blocked;
+    private double[]  stepCost;
+
+    private final NodeMap  visited = new NodeMap();
+    private final NodePool pool    = new NodePool();
+    private final NodeHeap heap    = new NodeHeap();
+
+    private final BlockPos.MutableBlockPos target = new BlockPos.MutableBlockPos();
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(SIZE_X * SIZE_Z * SIZE_Y);
+        blocked = new boolean[SIZE_X * SIZE_Z * SIZE_Y];
+        stepCost = new double[blocked.length];
+        for (int i = 0; i < blocked.length; i++)
+        {
+            blocked[i] = random.nextDouble() < obstacleDensity;
+            final int kind = random.nextInt(3);
+            stepCost[i] = kind == 0 ? ROAD_COST : (kind == 1 ? 1D : ROUGH_COST);
+        }
+        blocked[0] = false;
+        blocked[blocked.length - 1] = false;
+    }
+
+    @Benchmark
+    public void priorityQueue(final Blackhole blackhole)
+    {
+        final Queue<Node> open = new PriorityQueue<>(500);
+        blackhole.consume(search(new OpenSet()
+        {
+            @Override
+            public void offer(final Node node)
+            {
+                open.offer(node);
+            }
+
+            @Override
+            public Node poll()
+            {
+                return open.poll();
+            }
+
+            @Override
+            public boolean prepareUpdate(final Node node)
+            {
+                return open.remove(node);
+            }
+        }));
+    }
+
+    @Benchmark
+    public void indexedHeap(final Blackhole blackhole)
+    {
+        heap.clear();
+        blackhole.consume(search(new OpenSet()
+        {
+            @Override
+            public void offer(final Node node)
+            {
+                heap.offer(node);
+            }
+
+            @Override
+            public Node poll()
+            {
+                return heap.poll();
+            }
+
+            @Override
+            public boolean prepareUpdate(final Node node)
+            {
+                return heap.contains(node);
+            }
+        }));
+    }
+
+    private static int index(final int x, final int y, final int z)
+    {
+        return x + SIZE_X * (z + SIZE_Z * y);
+    }
+
+    private static double heuristic(final int x, final int y, final int z)
+    {
+        return (Math.abs(SIZE_X - 1 - x) + Math.abs(SIZE_Y - 1 - y) + Math.abs(SIZE_Z - 1 - z)) * HEURISTIC_WEIGHT;
+    }
+
+    /**
+     * Plain A* over the grid, mirroring the update rules of {@link AbstractPathJob}.
+     *
+     * @param open the open set to use.
+     * @return amount of visited nodes.
+     */
+    private int search(final OpenSet open)
+    {
+        visited.clear();
+        pool.release();
+
+        final Node start = pool.obtain(null, BlockPos.ORIGIN, 0, heuristic(0, 0, 0), heuristic(0, 0, 0));
+        visited.put(0, start);
+        open.offer(start);
+
+        int counter = 0;
+        int visitedCount = 0;
+        Node current;
+        while ((current = open.poll()) != null)
+        {
+            current.setClosed();
+            visitedCount++;
+            final int cx = current.pos.getX();
+            final int cy = current.pos.getY();
+            final int cz = current.pos.getZ();
+            if (index(cx, cy, cz) == blocked.length - 1)
+            {
+                break;
+            }
+
+            for (final int[] dir : DIRECTIONS)
+            {
+                final int x = cx + dir[0];
+                final int y = cy + dir[1];
+                final int z = cz + dir[2];
+                if (x < 0 || y < 0 || z < 0 || x >= SIZE_X || y >= SIZE_Y || z >= SIZE_Z)
+                {
+                    continue;
+                }
+
+                final int key = index(x, y, z);
+                if (blocked[key])
+                {
+                    continue;
+                }
+
+                Node node = visited.get(key);
+                if (node != null && node.isClosed())
+                {
+                    continue;
+                }
+
+                final double heuristic = heuristic(x, y, z);
+                final double cost = current.getCost() + stepCost[key];
+                final double score = cost + heuristic;
+
+                if (node == null)
+                {
+                    node = pool.obtain(current, target.setPos(x, y, z), cost, heuristic, score);
+                    node.setCounterAdded(++counter);
+                    visited.put(key, node);
+                }
+                else if (score >= node.getScore() || !open.prepareUpdate(node))
+                {
+                    continue;
+                }
+                else
+                {
+                    node.parent = current;
+                    node.setCost(cost);
+                    node.setScore(score);
+                }
+
+                open.offer(node);
+            }
+        }
+        return visitedCount;
+    }
+
+    /**
+     * Minimal open set abstraction to run the same search on both implementations.
+     */
+    private interface OpenSet
+    {
+        void offer(Node node);
+
+        Node poll();
+
+        /**
+         * Prepare a queued node for a score update.
+         *
+         * @param node the node.
+         * @return false if the node is not queued anymore.
+         */
+        boolean prepareUpdate(Node node);
+    }
+}
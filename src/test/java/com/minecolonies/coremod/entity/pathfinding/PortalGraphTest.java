@@ -0,0 +1,89 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link PortalGraph}.
+ */
+public class PortalGraphTest
+{
+    private static final int FLOOR = 64;
+    private static final int SIZE  = 80;
+    private static final int WALL  = 48;
+    private static final int GAP   = 70;
+
+    private PortalGraph graph;
+    private boolean     wallClosed;
+    private int         stamp;
+
+    @Before
+    public void setup()
+    {
+        graph = new PortalGraph();
+        wallClosed = false;
+        stamp = 0;
+    }
+
+    /**
+     * Flat floor with a wall along the section border at x = 48 which only has a gap at z = 70, unless closed.
+     */
+    private final PortalGraph.Terrain terrain = new PortalGraph.Terrain()
+    {
+        @Override
+        public boolean isStandable(final int x, final int y, final int z)
+        {
+            if (y != FLOOR || x < 0 || z < 0 || x >= SIZE || z >= SIZE)
+            {
+                return false;
+            }
+            return x != WALL || (z == GAP && !wallClosed);
+        }
+
+        @Override
+        public boolean isReadable(final int chunkX, final int chunkZ)
+        {
+            return chunkX >= -1 && chunkZ >= -1 && chunkX <= SIZE / 16 && chunkZ <= SIZE / 16;
+        }
+
+        @Override
+        public int getStamp(final int chunkX, final int chunkZ)
+        {
+            return stamp;
+        }
+    };
+
+    @Test
+    public void testRouteGoesThroughGap()
+    {
+        final List<BlockPos> route = graph.findRoute(new BlockPos(5, FLOOR, 5), new BlockPos(75, FLOOR, 5), terrain);
+
+        assertNotNull(route);
+        assertEquals(new BlockPos(75, FLOOR, 5), route.get(route.size() - 1));
+        assertTrue(route.contains(new BlockPos(WALL, FLOOR, GAP)));
+    }
+
+    @Test
+    public void testNoRouteThroughClosedWall()
+    {
+        wallClosed = true;
+        assertNull(graph.findRoute(new BlockPos(5, FLOOR, 5), new BlockPos(75, FLOOR, 5), terrain));
+    }
+
+    @Test
+    public void testSectionsRebuiltOnStampChange()
+    {
+        assertNotNull(graph.findRoute(new BlockPos(5, FLOOR, 5), new BlockPos(75, FLOOR, 5), terrain));
+
+        wallClosed = true;
+        assertNotNull("unchanged stamps keep the cached sections", graph.findRoute(new BlockPos(5, FLOOR, 5), new BlockPos(75, FLOOR, 5), terrain));
+
+        stamp++;
+        assertNull(graph.findRoute(new BlockPos(5, FLOOR, 5), new BlockPos(75, FLOOR, 5), terrain));
+    }
+}
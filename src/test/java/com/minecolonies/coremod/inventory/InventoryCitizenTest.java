@@ -0,0 +1,138 @@
+package com.minecolonies.coremod.inventory;
+
+import com.minecolonies.coremod.util.InventoryQuery;
+import com.minecolonies.coremod.util.Utils;
+import net.minecraft.item.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the slot index of {@link InventoryCitizen} against plain scans of its slots.
+ */
+public class InventoryCitizenTest
+{
+    private static final int STEPS      = 2000;
+    private static final int MAX_DAMAGE = 3;
+    private static final int MAX_STACK  = 80;
+    private static final int NO_SLOT    = -1;
+
+    private static final String[] TOOL_TYPES = {Utils.PICKAXE, Utils.SHOVEL, Utils.AXE, Utils.HOE, Utils.WEAPON};
+
+    private static final List<Predicate<ItemStack>> TOOL_PREDICATES = Arrays.asList(stack -> true, stack -> stack.getItemDamage() == 0);
+
+    private final Item[] items = {
+      new Item(),
+      new Item(),
+      new ItemSword(Item.ToolMaterial.IRON),
+      new ItemSpade(Item.ToolMaterial.STONE),
+      new ItemHoe(Item.ToolMaterial.WOOD)};
+
+    @Test
+    public void testIndexMatchesScan()
+    {
+        for (long seed = 0; seed < 5; seed++)
+        {
+            final Random random = new Random(seed);
+            final InventoryCitizen inventory = new InventoryCitizen("citizen", false);
+            for (int step = 0; step < STEPS; step++)
+            {
+                final int slot = random.nextInt(inventory.getSizeInventory());
+                switch (random.nextInt(4))
+                {
+                    case 0:
+                        inventory.setInventorySlotContents(slot, null);
+                        break;
+                    case 1:
+                        inventory.decrStackSize(slot, 1 + random.nextInt(MAX_STACK));
+                        break;
+                    default:
+                        final Item item = items[random.nextInt(items.length)];
+                        inventory.setInventorySlotContents(slot, new ItemStack(item, 1 + random.nextInt(MAX_STACK), random.nextInt(MAX_DAMAGE)));
+                        break;
+                }
+                assertMatchesScan(inventory, "seed " + seed + " step " + step);
+            }
+        }
+    }
+
+    private void assertMatchesScan(final InventoryCitizen inventory, final String message)
+    {
+        for (final Item item : items)
+        {
+            for (int damage = InventoryQuery.ANY_DAMAGE; damage < MAX_DAMAGE; damage++)
+            {
+                final Predicate<ItemStack> matcher = InventoryQuery.matching(item, damage);
+                assertEquals(message, scanFirst(inventory, matcher), inventory.findFirstSlotWith(item, damage));
+                assertEquals(message, scanCount(inventory, matcher), inventory.getItemCount(item, damage));
+            }
+        }
+
+        for (final String toolType : TOOL_TYPES)
+        {
+            for (final Predicate<ItemStack> predicate : TOOL_PREDICATES)
+            {
+                final int expected = scanFirst(inventory, stack -> isOfToolType(stack, toolType) && predicate.test(stack));
+                assertEquals(message, expected, inventory.findToolSlot(toolType, predicate));
+                assertEquals(message, expected != NO_SLOT, inventory.hasTool(toolType, predicate));
+            }
+        }
+
+        for (int from = 0; from <= inventory.getSizeInventory(); from++)
+        {
+            int expected = NO_SLOT;
+            for (int slot = from; slot < inventory.getSizeInventory(); slot++)
+            {
+                if (inventory.getStackInSlot(slot) != null)
+                {
+                    expected = slot;
+                    break;
+                }
+            }
+            assertEquals(message, expected, inventory.getNextOccupiedSlot(from));
+        }
+    }
+
+    private static int scanFirst(final InventoryCitizen inventory, final Predicate<ItemStack> predicate)
+    {
+        for (int slot = 0; slot < inventory.getSizeInventory(); slot++)
+        {
+            final ItemStack stack = inventory.getStackInSlot(slot);
+            if (stack != null && stack.stackSize > 0 && predicate.test(stack))
+            {
+                return slot;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    private static int scanCount(final InventoryCitizen inventory, final Predicate<ItemStack> predicate)
+    {
+        int count = 0;
+        for (int slot = 0; slot < inventory.getSizeInventory(); slot++)
+        {
+            final ItemStack stack = inventory.getStackInSlot(slot);
+            if (stack != null && stack.stackSize > 0 && predicate.test(stack))
+            {
+                count += stack.stackSize;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isOfToolType(final ItemStack stack, final String toolType)
+    {
+        if (Utils.WEAPON.equals(toolType))
+        {
+            return Utils.doesItemServeAsWeapon(stack);
+        }
+        return stack.getItem().getToolClasses(stack).contains(toolType)
+                 || (Utils.HOE.equals(toolType) && stack.getItem() instanceof ItemHoe)
+                 || Utils.isTool(stack, toolType);
+    }
+}
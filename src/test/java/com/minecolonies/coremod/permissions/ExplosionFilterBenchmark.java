@@ -0,0 +1,88 @@
+package com.minecolonies.coremod.permissions;
+
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the former explosion filtering (per-block distance check, then removeAll with the matches) with the
+ * chunk-batched {@link ExplosionFilter}, for a TNT-sized explosion at the edge of a colony and one far away.
+ * Run with: gradlew jmh -Pjmh.include=ExplosionFilterBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExplosionFilterBenchmark
+{
+    private static final int      RADIUS = 200;
+    private static final BlockPos CENTER = new BlockPos(0, 64, 0);
+
+    /**
+     * Distance of the explosion to the colony center.
+     */
+    @Param({"200", "1000"})
+    public int distance;
+
+    /**
+     * Number of affected blocks.
+     */
+    @Param({"300", "2000"})
+    public int size;
+
+    private List<BlockPos> explosion;
+    private List<BlockPos> blocks;
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(size);
+        final int spread = (int) Math.cbrt(size) + 1;
+
+        //  Explosions list their blocks ray by ray, outwards from the center
+        explosion = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            final double yaw = random.nextDouble() * Math.PI * 2;
+            final double reach = random.nextDouble() * spread;
+            explosion.add(new BlockPos(distance + (int) (Math.cos(yaw) * reach), 64, (int) (Math.sin(yaw) * reach)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void copy()
+    {
+        blocks = new ArrayList<>(explosion);
+    }
+
+    @Benchmark
+    public List<BlockPos> perBlockRemoveAll()
+    {
+        final List<BlockPos> toRemove = blocks.stream()
+                                          .filter(ExplosionFilterBenchmark::isInColony)
+                                          .collect(Collectors.toList());
+        blocks.removeAll(toRemove);
+        return blocks;
+    }
+
+    @Benchmark
+    public List<BlockPos> chunkBatched()
+    {
+        ExplosionFilter.removeInColony(blocks, CENTER, RADIUS);
+        return blocks;
+    }
+
+    private static boolean isInColony(final BlockPos pos)
+    {
+        final long xDiff = (long) pos.getX() - CENTER.getX();
+        final long zDiff = (long) pos.getZ() - CENTER.getZ();
+        return xDiff * xDiff + zDiff * zDiff <= (long) RADIUS * RADIUS;
+    }
+}
@@ -0,0 +1,50 @@
+package com.minecolonies.coremod.permissions;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests around {@link ExplosionFilter}.
+ */
+public class ExplosionFilterTest
+{
+    private static final int RADIUS = 40;
+
+    private static boolean isInColony(final BlockPos center, final BlockPos pos)
+    {
+        final long xDiff = (long) pos.getX() - center.getX();
+        final long zDiff = (long) pos.getZ() - center.getZ();
+        return xDiff * xDiff + zDiff * zDiff <= (long) RADIUS * RADIUS;
+    }
+
+    @Test
+    public void testSameResultAsPerBlockCheck()
+    {
+        final Random random = new Random(7);
+        final BlockPos center = new BlockPos(-13, 70, 29);
+
+        for (int explosion = 0; explosion < 200; explosion++)
+        {
+            final int x = center.getX() + random.nextInt(4 * RADIUS) - 2 * RADIUS;
+            final int z = center.getZ() + random.nextInt(4 * RADIUS) - 2 * RADIUS;
+
+            final List<BlockPos> blocks = new ArrayList<>();
+            for (int i = 0; i < 300; i++)
+            {
+                blocks.add(new BlockPos(x + random.nextInt(17) - 8, 64, z + random.nextInt(17) - 8));
+            }
+
+            final List<BlockPos> expected = new ArrayList<>(blocks);
+            expected.removeIf(pos -> isInColony(center, pos));
+
+            ExplosionFilter.removeInColony(blocks, center, RADIUS);
+            assertEquals(expected, blocks);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.minecolonies.coremod.tileentities;
+
+import net.minecraft.inventory.InventoryBasic;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link WareHouseStockIndex}.
+ */
+public class WareHouseStockIndexTest
+{
+    private static final int OAK   = 0;
+    private static final int BIRCH = 2;
+
+    private static final BlockPos HUT    = new BlockPos(0, 64, 0);
+    private static final BlockPos FIRST  = new BlockPos(1, 64, 0);
+    private static final BlockPos SECOND = new BlockPos(2, 64, 0);
+
+    private final Item log = new Item();
+
+    private WareHouseStockIndex index;
+    private InventoryBasic      hut;
+    private InventoryBasic      first;
+    private InventoryBasic      second;
+
+    @Before
+    public void setup()
+    {
+        index = new WareHouseStockIndex();
+        hut = new InventoryBasic("hut", false, 8);
+        first = new InventoryBasic("first", false, 4);
+        second = new InventoryBasic("second", false, 4);
+    }
+
+    private void refresh()
+    {
+        index.update(HUT, hut, true);
+        index.update(FIRST, first, false);
+        index.update(SECOND, second, false);
+    }
+
+    @Test
+    public void testSlotUpdate()
+    {
+        first.setInventorySlotContents(0, new ItemStack(log, 16, OAK));
+        refresh();
+        assertTrue(index.hasItem(FIRST, log, OAK));
+        assertFalse(index.hasItem(FIRST, log, BIRCH));
+
+        first.setInventorySlotContents(0, new ItemStack(log, 16, BIRCH));
+        refresh();
+        assertFalse(index.hasItem(FIRST, log, OAK));
+        assertTrue(index.hasItem(FIRST, log, BIRCH));
+        assertTrue(index.hasItem(FIRST, log, WareHouseStockIndex.ANY_DAMAGE));
+    }
+
+    @Test
+    public void testItemRemoval()
+    {
+        first.setInventorySlotContents(0, new ItemStack(log, 16, OAK));
+        first.setInventorySlotContents(3, new ItemStack(log, 8, OAK));
+        refresh();
+
+        first.setInventorySlotContents(0, null);
+        refresh();
+        assertTrue(index.hasItem(FIRST, log, OAK));
+
+        first.getStackInSlot(3).stackSize = 0;
+        refresh();
+        assertFalse(index.hasItem(FIRST, log, OAK));
+        assertTrue(index.getChestsWith(log, WareHouseStockIndex.ANY_DAMAGE).isEmpty());
+
+        second.setInventorySlotContents(1, new ItemStack(log, 1, BIRCH));
+        refresh();
+        index.remove(SECOND);
+        assertFalse(index.contains(SECOND));
+        assertTrue(index.getChestsWith(log, BIRCH).isEmpty());
+    }
+
+    @Test
+    public void testDamageSpecificLookup()
+    {
+        hut.setInventorySlotContents(5, new ItemStack(log, 4, OAK));
+        first.setInventorySlotContents(2, new ItemStack(log, 64, OAK));
+        second.setInventorySlotContents(0, new ItemStack(log, 64, BIRCH));
+        refresh();
+
+        assertEquals(new HashSet<>(Arrays.asList(HUT, FIRST)), index.getChestsWith(log, OAK));
+        assertEquals(new HashSet<>(Arrays.asList(SECOND)), index.getChestsWith(log, BIRCH));
+        assertEquals(new HashSet<>(Arrays.asList(HUT, FIRST, SECOND)), index.getChestsWith(log, WareHouseStockIndex.ANY_DAMAGE));
+        assertTrue(index.getChestsWith(log, 1).isEmpty());
+    }
+
+    @Test
+    public void testEmptiestChestOrdering()
+    {
+        //  The hut block has the most room but never counts, equally empty chests go by age
+        refresh();
+        assertEquals(FIRST, index.getEmptiestChest());
+
+        first.setInventorySlotContents(0, new ItemStack(log, 1, OAK));
+        refresh();
+        assertEquals(SECOND, index.getEmptiestChest());
+
+        for (int slot = 0; slot < 3; slot++)
+        {
+            second.setInventorySlotContents(slot, new ItemStack(log, 1, BIRCH));
+        }
+        refresh();
+        assertEquals(FIRST, index.getEmptiestChest());
+
+        for (int slot = 1; slot < 4; slot++)
+        {
+            first.setInventorySlotContents(slot, new ItemStack(log, 1, OAK));
+        }
+        second.setInventorySlotContents(3, new ItemStack(log, 1, BIRCH));
+        refresh();
+        assertFalse(index.hasFreeSlot(FIRST));
+        assertNull(index.getEmptiestChest());
+        assertTrue(index.hasFreeSlot(HUT));
+    }
+}
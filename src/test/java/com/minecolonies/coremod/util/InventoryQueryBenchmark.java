@@ -0,0 +1,119 @@
+package com.minecolonies.coremod.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares counting items in hut chests the way InventoryUtils used to (a filtered copy of every handler, summed by
+ * a stream, once per item) with the {@link InventoryQuery} scans, per item and batched into one pass.
+ * Each run counts {@link #ITEMS_COUNTED} items across the given number of double chest sized containers.
+ * Run with: gradlew jmh -Pjmh.include=InventoryQueryBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InventoryQueryBenchmark
+{
+    private static final int ITEM_TYPES    = 40;
+    private static final int ITEMS_COUNTED = 12;
+    private static final int SLOTS         = 54;
+
+    /**
+     * Number of containers of the hut.
+     */
+    @Param({"1", "8", "32"})
+    public int containers;
+
+    private final List<IItemHandler>               handlers = new ArrayList<>();
+    private final List<InventoryQuery.ItemMatcher> matchers = new ArrayList<>();
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(42);
+        final Item[] items = new Item[ITEM_TYPES];
+        for (int i = 0; i < items.length; i++)
+        {
+            items[i] = new Item();
+        }
+
+        handlers.clear();
+        for (int i = 0; i < containers; i++)
+        {
+            final ItemStackHandler handler = new ItemStackHandler(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++)
+            {
+                if (random.nextInt(4) != 0)
+                {
+                    handler.setStackInSlot(slot, new ItemStack(items[random.nextInt(ITEM_TYPES)], 1 + random.nextInt(64), random.nextInt(2)));
+                }
+            }
+            handlers.add(handler);
+        }
+
+        matchers.clear();
+        for (int i = 0; i < ITEMS_COUNTED; i++)
+        {
+            matchers.add(InventoryQuery.matching(items[i * 3], i % 2 == 0 ? InventoryQuery.ANY_DAMAGE : 0));
+        }
+    }
+
+    private static List<ItemStack> copyMatching(final IItemHandler handler, final InventoryQuery.ItemMatcher matcher)
+    {
+        final List<ItemStack> filtered = new ArrayList<>();
+        for (int slot = 0; slot < handler.getSlots(); slot++)
+        {
+            final ItemStack stack = handler.getStackInSlot(slot);
+            if (!InventoryUtils.isItemStackEmpty(stack) && matcher.test(stack))
+            {
+                filtered.add(stack);
+            }
+        }
+        return filtered;
+    }
+
+    @Benchmark
+    public int[] filteredCopyPerItem()
+    {
+        final int[] counts = new int[matchers.size()];
+        for (int i = 0; i < matchers.size(); i++)
+        {
+            for (final IItemHandler handler : handlers)
+            {
+                counts[i] += copyMatching(handler, matchers.get(i)).stream().mapToInt(InventoryUtils::getItemStackSize).sum();
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public int[] queryPerItem()
+    {
+        final int[] counts = new int[matchers.size()];
+        for (int i = 0; i < matchers.size(); i++)
+        {
+            for (final IItemHandler handler : handlers)
+            {
+                counts[i] += InventoryQuery.count(handler, matchers.get(i));
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public int[] queryBatch()
+    {
+        return InventoryQuery.countAll(handlers, matchers);
+    }
+}
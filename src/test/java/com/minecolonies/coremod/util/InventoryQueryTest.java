@@ -0,0 +1,112 @@
+package com.minecolonies.coremod.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests around {@link InventoryQuery}.
+ */
+public class InventoryQueryTest
+{
+    private static final int SLOTS = 9;
+
+    private final Item log  = new Item();
+    private final Item dirt = new Item();
+
+    private ItemStackHandler first;
+    private ItemStackHandler second;
+
+    @Before
+    public void setup()
+    {
+        first = new ItemStackHandler(SLOTS);
+        first.setStackInSlot(1, new ItemStack(dirt, 10, 0));
+        first.setStackInSlot(3, new ItemStack(log, 5, 2));
+        first.setStackInSlot(4, new ItemStack(log, 7, 0));
+        first.setStackInSlot(6, new ItemStack(log, 0, 0));
+
+        second = new ItemStackHandler(SLOTS);
+        second.setStackInSlot(0, new ItemStack(log, 64, 0));
+        second.setStackInSlot(8, new ItemStack(dirt, 1, 1));
+    }
+
+    private static ICapabilityProvider provider(final IItemHandler handler)
+    {
+        final ICapabilityProvider provider = mock(ICapabilityProvider.class);
+        doReturn(true).when(provider).hasCapability(any(), any());
+        doReturn(handler).when(provider).getCapability(any(), any());
+        return provider;
+    }
+
+    @Test
+    public void testCount()
+    {
+        assertEquals(12, InventoryQuery.count(first, InventoryQuery.matching(log, InventoryQuery.ANY_DAMAGE)));
+        assertEquals(7, InventoryQuery.count(first, InventoryQuery.matching(log, 0)));
+        assertEquals(5, InventoryQuery.count(first, InventoryQuery.matching(log, 2)));
+        assertEquals(0, InventoryQuery.count(first, InventoryQuery.matching(log, 1)));
+        assertEquals(0, InventoryQuery.count(new ItemStackHandler(SLOTS), InventoryQuery.matching(log, InventoryQuery.ANY_DAMAGE)));
+    }
+
+    @Test
+    public void testFindFirstSlot()
+    {
+        assertEquals(3, InventoryQuery.findFirstSlot(first, InventoryQuery.matching(log, InventoryQuery.ANY_DAMAGE)));
+        assertEquals(4, InventoryQuery.findFirstSlot(first, InventoryQuery.matching(log, 0)));
+        assertEquals(-1, InventoryQuery.findFirstSlot(first, InventoryQuery.matching(dirt, 1)));
+        assertEquals(8, InventoryQuery.findFirstSlot(second, InventoryQuery.matching(dirt, 1)));
+
+        //  Empty stacks are never tested
+        assertEquals(-1, InventoryQuery.findFirstSlot(first, stack -> stack.stackSize == 0));
+    }
+
+    @Test
+    public void testMatchFirst()
+    {
+        final List<ICapabilityProvider> providers = Arrays.asList(provider(first), provider(second));
+        final List<Integer> found = new ArrayList<>();
+
+        assertTrue(InventoryQuery.matchFirst(providers, InventoryQuery.matching(dirt, 1), (provider, slot) -> found.add(slot)));
+        assertEquals(Arrays.asList(8), found);
+
+        found.clear();
+        assertTrue(InventoryQuery.matchFirst(providers, InventoryQuery.matching(log, InventoryQuery.ANY_DAMAGE), (provider, slot) -> found.add(slot)));
+        assertEquals(Arrays.asList(3), found);
+
+        found.clear();
+        assertFalse(InventoryQuery.matchFirst(providers, InventoryQuery.matching(log, 1), (provider, slot) -> found.add(slot)));
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    public void testCountAll()
+    {
+        final List<InventoryQuery.ItemMatcher> matchers = Arrays.asList(
+          InventoryQuery.matching(log, InventoryQuery.ANY_DAMAGE),
+          InventoryQuery.matching(log, 0),
+          InventoryQuery.matching(log, 2),
+          InventoryQuery.matching(dirt, 1),
+          InventoryQuery.matching(dirt, InventoryQuery.ANY_DAMAGE));
+
+        final int[] counts = InventoryQuery.countAll(Arrays.asList(first, second), matchers);
+        assertArrayEquals(new int[] {76, 71, 5, 1, 11}, counts);
+
+        for (int i = 0; i < matchers.size(); i++)
+        {
+            assertEquals(InventoryQuery.count(first, matchers.get(i)) + InventoryQuery.count(second, matchers.get(i)), counts[i]);
+        }
+    }
+}
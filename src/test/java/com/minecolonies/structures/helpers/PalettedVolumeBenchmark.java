@@ -0,0 +1,95 @@
+package com.minecolonies.structures.helpers;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares walking a structure the way the builder does (x, then z, then y) over the nested arrays StructureProxy
+ * used to hold with walking the same values in a {@link PalettedVolume}. The values stand in for block states, a
+ * town hall sized box with a few dozen distinct states, a quarter of it air. The memory of both is checked in
+ * {@link PalettedVolumeTest#testSmallerThanNestedArrays()}.
+ * Run with: gradlew jmh -Pjmh.include=PalettedVolumeBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PalettedVolumeBenchmark
+{
+    /**
+     * Edge length of the structure.
+     */
+    @Param({"16", "32", "48"})
+    public int size;
+
+    /**
+     * Number of distinct states.
+     */
+    @Param({"40"})
+    public int states;
+
+    private Object[][][]           arrays;
+    private PalettedVolume<Object> volume;
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(42);
+        final Object[] kinds = new Object[states];
+        for (int i = 0; i < kinds.length; i++)
+        {
+            kinds[i] = new Object();
+        }
+
+        arrays = new Object[size][size][size];
+        final Object[] values = new Object[size * size * size];
+        for (int y = 0; y < size; y++)
+        {
+            for (int z = 0; z < size; z++)
+            {
+                for (int x = 0; x < size; x++)
+                {
+                    final Object value = kinds[random.nextInt(4) == 0 ? 0 : random.nextInt(states)];
+                    arrays[x][y][z] = value;
+                    values[(y * size + z) * size + x] = value;
+                }
+            }
+        }
+        volume = new PalettedVolume<>(size, size, size, values);
+    }
+
+    @Benchmark
+    public void nestedArrays(final Blackhole blackhole)
+    {
+        for (int y = 0; y < size; y++)
+        {
+            for (int z = 0; z < size; z++)
+            {
+                for (int x = 0; x < size; x++)
+                {
+                    blackhole.consume(arrays[x][y][z]);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void palettedVolume(final Blackhole blackhole)
+    {
+        for (int y = 0; y < size; y++)
+        {
+            for (int z = 0; z < size; z++)
+            {
+                for (int x = 0; x < size; x++)
+                {
+                    blackhole.consume(volume.get(x, y, z));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.minecolonies.structures.helpers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests around {@link PalettedVolume}.
+ */
+public class PalettedVolumeTest
+{
+    /**
+     * Size of a reference with compressed oops and of an array header, to estimate the memory of nested arrays.
+     */
+    private static final int REFERENCE_BYTES    = 4;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    @Test
+    public void testValuesRoundTrip()
+    {
+        final int width = 7;
+        final int height = 5;
+        final int length = 9;
+        final String[] kinds = new String[37];
+        for (int i = 0; i < kinds.length; i++)
+        {
+            kinds[i] = "block" + i;
+        }
+
+        final Random random = new Random(1);
+        final String[] values = new String[width * height * length];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = random.nextInt(10) == 0 ? null : kinds[random.nextInt(kinds.length)];
+        }
+
+        final PalettedVolume<String> volume = new PalettedVolume<>(width, height, length, values);
+        assertEquals(6, volume.getBitsPerEntry());
+        for (int y = 0; y < height; y++)
+        {
+            for (int z = 0; z < length; z++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    assertSame(values[volume.index(x, y, z)], volume.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSingleValueTakesOneBit()
+    {
+        final String[] values = new String[4 * 4 * 4];
+        Arrays.fill(values, "stone");
+
+        final PalettedVolume<String> volume = new PalettedVolume<>(4, 4, 4, values);
+        assertEquals(2, volume.getPaletteSize());
+        assertEquals(1, volume.getBitsPerEntry());
+        assertEquals(Long.BYTES, volume.getDataBytes());
+        assertEquals("stone", volume.get(3, 3, 3));
+    }
+
+    @Test
+    public void testSmallerThanNestedArrays()
+    {
+        //  A town hall sized box with 40 distinct states, as in the benchmark
+        final int size = 32;
+        final Random random = new Random(42);
+        final Integer[] values = new Integer[size * size * size];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = random.nextInt(40);
+        }
+
+        final PalettedVolume<Integer> volume = new PalettedVolume<>(size, size, size, values);
+        assertEquals(41, volume.getPaletteSize());
+        assertEquals(6, volume.getBitsPerEntry());
+
+        //  Ten 6 bit entries per long
+        assertEquals((values.length + 9) / 10 * Long.BYTES, volume.getDataBytes());
+
+        //  One reference per position plus a header per row for the arrays, against the packed longs plus the palette
+        final long arrayBytes = (long) values.length * REFERENCE_BYTES + ((long) size * size + size + 1) * ARRAY_HEADER_BYTES;
+        final long volumeBytes = volume.getDataBytes() + (long) volume.getPaletteSize() * REFERENCE_BYTES;
+        assertTrue(volumeBytes * 5 < arrayBytes);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutsideOfBox()
+    {
+        new PalettedVolume<>(2, 2, 2, new String[8]).get(2, 0, 0);
+    }
+}